@@ -0,0 +1,135 @@
+package benchmarks;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the operations that search agents spend their time on: copying a game state (with and without
+ * redeterminisation), computing the available actions, applying an action, and a full random playout.
+ * <p>
+ * Each benchmark cycles through a fixed sample of states taken from random games (from the start to the end of the
+ * game), so that the results reflect a whole game rather than just the opening position.
+ * The sample is the same for a given game, number of players and seed.
+ * <p>
+ * Use GameBenchmarkRunner to run these for every game and a range of player counts, with results in JSON.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForwardModelBenchmark {
+
+    // the number of states in the sample, and the maximum number of actions in a random playout
+    static final int SAMPLE_SIZE = 64;
+    static final int MAX_PLAYOUT_ACTIONS = 10000;
+
+    @Param({"TicTacToe"})
+    public String gameType;
+
+    @Param({"2"})
+    public int nPlayers;
+
+    @Param({"42"})
+    public long seed;
+
+    AbstractForwardModel forwardModel;
+    AbstractGameState initialState;
+    AbstractGameState[] states;
+    List<AbstractAction>[] actions;
+    Random rnd;
+    int index;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        Game game = GameType.valueOf(gameType).createGameInstance(nPlayers, seed);
+        forwardModel = game.getForwardModel();
+        initialState = game.getGameState().copy();
+        rnd = new Random(seed);
+
+        // play random games, keeping each non-terminal state with a fixed probability, until we have the sample
+        List<AbstractGameState> sample = new ArrayList<>();
+        List<Integer> gameLengths = new ArrayList<>();
+        while (sample.size() < SAMPLE_SIZE) {
+            AbstractGameState state = initialState.copy();
+            int length = 0;
+            double keepProbability = gameLengths.isEmpty() ? 0.1 :
+                    Math.min(1.0, 4.0 / gameLengths.stream().mapToInt(i -> i).average().orElse(40.0));
+            while (state.isNotTerminal() && length < MAX_PLAYOUT_ACTIONS && sample.size() < SAMPLE_SIZE) {
+                if (rnd.nextDouble() < keepProbability)
+                    sample.add(state.copy());
+                List<AbstractAction> available = forwardModel.computeAvailableActions(state);
+                forwardModel.next(state, available.get(rnd.nextInt(available.size())));
+                length++;
+            }
+            gameLengths.add(length);
+        }
+        states = sample.toArray(new AbstractGameState[0]);
+        actions = new List[states.length];
+        for (int i = 0; i < states.length; i++)
+            actions[i] = forwardModel.computeAvailableActions(states[i]);
+    }
+
+    private int nextIndex() {
+        index = (index + 1) % states.length;
+        return index;
+    }
+
+    @Benchmark
+    public AbstractGameState copy() {
+        return states[nextIndex()].copy();
+    }
+
+    @Benchmark
+    public AbstractGameState copyForPlayer() {
+        AbstractGameState state = states[nextIndex()];
+        return state.copy(state.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public List<AbstractAction> computeAvailableActions() {
+        return forwardModel.computeAvailableActions(states[nextIndex()]);
+    }
+
+    /**
+     * next() changes the state, so this includes a copy() of it first. Subtract the copy benchmark to estimate
+     * the cost of next() on its own.
+     */
+    @Benchmark
+    public AbstractGameState copyAndNext() {
+        int i = nextIndex();
+        AbstractGameState state = states[i].copy();
+        List<AbstractAction> available = actions[i];
+        forwardModel.next(state, available.get(rnd.nextInt(available.size())).copy());
+        return state;
+    }
+
+    /**
+     * A full game from the initial state with uniformly random actions (for all players).
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void randomPlayout(Blackhole blackhole) {
+        AbstractGameState state = initialState.copy();
+        int length = 0;
+        while (state.isNotTerminal() && length < MAX_PLAYOUT_ACTIONS) {
+            List<AbstractAction> available = forwardModel.computeAvailableActions(state);
+            forwardModel.next(state, available.get(rnd.nextInt(available.size())));
+            length++;
+        }
+        blackhole.consume(length);
+        blackhole.consume(state);
+    }
+}
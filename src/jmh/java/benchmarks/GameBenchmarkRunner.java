@@ -0,0 +1,100 @@
+package benchmarks;
+
+import games.GameType;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import utilities.Utils;
+
+import java.util.*;
+
+/**
+ * Runs ForwardModelBenchmark for a set of games and player counts, and writes the JMH results to a JSON file.
+ * Arguments (all optional) are:
+ * <ul>
+ *     <li>games=TicTacToe|Connect4|... - the games to benchmark (default is all of them)</li>
+ *     <li>nPlayers=2|3 - the player counts to use (default is the minimum, 2, 3, 4 and maximum number of players
+ *     supported by each game)</li>
+ *     <li>benchmarks=copy|randomPlayout - a regex for the benchmark methods to run (default is all of them)</li>
+ *     <li>output=file.json - where to write the results (default is benchmarks.json)</li>
+ *     <li>warmup=3, iterations=5, time=1 - the number of warmup and measurement iterations, and the seconds for each</li>
+ *     <li>forks=1, seed=42</li>
+ * </ul>
+ * For example: java -jar Benchmarks-jar-with-dependencies.jar games=Poker|Catan nPlayers=3|4 output=poker.json
+ */
+public class GameBenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String games = Utils.getArg(args, "games", "all");
+        String playerCounts = Utils.getArg(args, "nPlayers", "default");
+        String benchmarks = Utils.getArg(args, "benchmarks", ".*");
+        String output = Utils.getArg(args, "output", "benchmarks.json");
+        int warmup = Utils.getArg(args, "warmup", 3);
+        int iterations = Utils.getArg(args, "iterations", 5);
+        int time = Utils.getArg(args, "time", 1);
+        int forks = Utils.getArg(args, "forks", 1);
+        long seed = Utils.getArg(args, "seed", 42L);
+
+        List<GameType> gameTypes = games.equals("all") ? Arrays.asList(GameType.values()) :
+                Arrays.stream(games.split("\\|")).map(GameType::valueOf).toList();
+
+        // Each game is run separately, as the valid player counts vary by game (and JMH runs every combination of
+        // its parameters). The results from all runs are then written to the one output file.
+        List<RunResult> results = new ArrayList<>();
+        for (GameType gameType : gameTypes) {
+            List<Integer> counts = playerCounts(gameType, playerCounts, seed);
+            if (counts.isEmpty()) {
+                System.out.println("Skipping " + gameType + " as it cannot be created with the player counts requested");
+                continue;
+            }
+            Options options = new OptionsBuilder()
+                    .include(ForwardModelBenchmark.class.getSimpleName() + "\\.(" + benchmarks + ")$")
+                    .warmupIterations(warmup)
+                    .warmupTime(TimeValue.seconds(time))
+                    .measurementIterations(iterations)
+                    .measurementTime(TimeValue.seconds(time))
+                    .forks(forks)
+                    .param("gameType", gameType.name())
+                    .param("nPlayers", counts.stream().map(String::valueOf).toArray(String[]::new))
+                    .param("seed", String.valueOf(seed))
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+        ResultFormatFactory.getInstance(ResultFormatType.JSON, output).writeOut(results);
+        System.out.println("Results written to " + output);
+    }
+
+    /**
+     * @return the player counts to benchmark for a game, excluding any for which the game cannot be created
+     */
+    static List<Integer> playerCounts(GameType gameType, String requested, long seed) {
+        Set<Integer> counts = new TreeSet<>();
+        if (requested.equals("default")) {
+            counts.add(gameType.getMinPlayers());
+            counts.add(gameType.getMaxPlayers());
+            for (int n = 2; n <= 4; n++)
+                if (n >= gameType.getMinPlayers() && n <= gameType.getMaxPlayers())
+                    counts.add(n);
+        } else {
+            for (String n : requested.split("\\|"))
+                counts.add(Integer.parseInt(n));
+        }
+        List<Integer> retValue = new ArrayList<>();
+        for (int n : counts) {
+            if (n < gameType.getMinPlayers() || n > gameType.getMaxPlayers())
+                continue;
+            try {
+                gameType.createGameInstance(n, seed);
+                retValue.add(n);
+            } catch (Exception e) {
+                System.out.printf("Unable to create %s with %d players: %s%n", gameType, n, e);
+            }
+        }
+        return retValue;
+    }
+}
@@ -4,6 +4,7 @@ import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.actions.DoNothing;
 import core.interfaces.IPlayerDecorator;
+import core.interfaces.IUndoableForwardModel;
 import utilities.ActionTreeNode;
 import utilities.ElapsedCpuChessTimer;
 
@@ -140,6 +141,7 @@ public abstract class AbstractForwardModel {
     public final void setup(AbstractGameState gameState) {
         gameState.reset();
         abstractSetup(gameState);
+        gameState.newVersion();
     }
 
     /**
@@ -149,6 +151,14 @@ public abstract class AbstractForwardModel {
      * @param action       - action requested to be played by a player.
      */
     public final void next(AbstractGameState currentState, AbstractAction action) {
+        UndoLog undoLog = currentState.undoLog;
+        if (undoLog != null) {
+            if (action == null)
+                throw new AssertionError("An illegal (null) action cannot be undone");
+            currentState.recordUndo(undoLog);
+            ((IUndoableForwardModel) this)._recordUndo(currentState, action, undoLog);
+            undoLog.moveRecorded();
+        }
         if (action != null) {
             int player = currentState.getCurrentPlayer();
             currentState.recordAction(action, player);
@@ -162,6 +172,49 @@ public abstract class AbstractForwardModel {
         currentState.advanceGameTick();
     }
 
+    /**
+     * @return true if this forward model can undo moves (see IUndoableForwardModel)
+     */
+    public final boolean supportsUndo() {
+        return this instanceof IUndoableForwardModel;
+    }
+
+    /**
+     * Starts recording an undo log on the state, so that each subsequent call of next() on it can be reversed with
+     * undo(). The log is not copied with the state.
+     *
+     * @param gameState - game state to record moves on
+     */
+    public final void startUndoLog(AbstractGameState gameState) {
+        if (!supportsUndo())
+            throw new IllegalArgumentException(getClass().getSimpleName() + " does not support undo");
+        gameState.undoLog = new UndoLog();
+    }
+
+    /**
+     * Stops recording the undo log on the state, discarding any moves not yet undone.
+     *
+     * @param gameState - game state to stop recording on
+     */
+    public final void stopUndoLog(AbstractGameState gameState) {
+        gameState.undoLog = null;
+    }
+
+    /**
+     * Reverses the last call of next() on the state, restoring it exactly to its previous value (other than player
+     * timers). This requires startUndoLog() to have been called on the state before that move was made.
+     *
+     * @param gameState - game state to undo the last move on
+     */
+    public final void undo(AbstractGameState gameState) {
+        UndoLog undoLog = gameState.undoLog;
+        if (undoLog == null || undoLog.depth() == 0)
+            throw new AssertionError("No move to undo");
+        ((IUndoableForwardModel) this)._undo(gameState, undoLog);
+        gameState.undo(undoLog);
+        undoLog.moveUndone();
+    }
+
     /**
      * Computes the available actions and updates the game state accordingly.
      *
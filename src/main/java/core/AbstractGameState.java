@@ -14,8 +14,10 @@ import evaluation.metrics.Event;
 import games.GameType;
 import utilities.ElapsedCpuChessTimer;
 import utilities.Pair;
+import utilities.Zobrist;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -34,14 +36,22 @@ import static core.CoreConstants.GameResult.GAME_ONGOING;
  */
 public abstract class AbstractGameState {
 
+    private static final CoreConstants.GameResult[] GAME_RESULTS = CoreConstants.GameResult.values();
+
     // Parameters, forward model and turn order for the game
-    protected final AbstractParameters gameParameters;
+    // The parameters are shared (not copied) by all copies of the state, and are frozen while the game is played;
+    // copies for a player share the playerView() of the parameters instead, which hides the random seed
+    protected AbstractParameters gameParameters;
     // Game being played
     protected final GameType gameType = _getGameType();
     private Area allComponents;
 
     // Game tick, number of iterations of game loop
     private int tick = 0;
+    // Identifies the contents of this state: a new value is taken whenever the state is set up, copied,
+    // or changed by the forward model, so no two different states share a version (see getVersion())
+    private static final AtomicLong versionFountain = new AtomicLong();
+    private long version = versionFountain.incrementAndGet();
 
     // Migrated from TurnOrder...may move later
     protected int roundCounter, turnCounter, turnOwner, firstPlayer;
@@ -72,6 +82,8 @@ public abstract class AbstractGameState {
     // redeterminisationRnd is used for redeterminisation only - this is to ensure that the main game is not affected
     // this is not initialised from any seed, as redeterminisation is used to hide data from players and cannot affect the game itself
     protected Random redeterminisationRnd = new Random();
+    // Only set while an undo log is being recorded (see IUndoableForwardModel); this is never copied
+    UndoLog undoLog;
 
     /**
      * @param gameParameters - game parameters.
@@ -202,7 +214,26 @@ public abstract class AbstractGameState {
     void setGameID(int id) {
         gameID = id;
     } // package level deliberately
-    void advanceGameTick() {tick++;}
+    void advanceGameTick() {
+        tick++;
+        newVersion();
+    }
+
+    void newVersion() {
+        version = versionFountain.incrementAndGet();
+    }
+
+    /**
+     * The version changes every time the state is set up, copied, or has an action applied (or undone) by the
+     * forward model. Two states with the same version therefore have the same contents, which makes this a cheap
+     * key for caching anything calculated from a state (see CachingStateFeatureVector).
+     * Changes made directly to the state, rather than through the forward model, do not change the version.
+     *
+     * @return the version of this state
+     */
+    public final long getVersion() {
+        return version;
+    }
 
     public void setTurnOwner(int newTurnOwner) {turnOwner = newTurnOwner;}
     public void setFirstPlayer(int newFirstPlayer) {
@@ -220,6 +251,16 @@ public abstract class AbstractGameState {
     public Random getRnd() {
         return rnd;
     }
+
+    /**
+     * Replaces the random number generator of this state (which a copy shares with the state it was copied from).
+     * A search that runs on several threads uses this to give each thread's copies a generator of their own, so that
+     * the results do not depend on the order in which the threads draw from a shared one.
+     */
+    public void setRnd(Random rnd) {
+        this.rnd = rnd;
+    }
+
     public void addListener(IGameListener listener) {
         if (!listeners.contains(listener))
             listeners.add(listener);
@@ -294,10 +335,65 @@ public abstract class AbstractGameState {
      */
     public final AbstractGameState copy(int playerId) {
         AbstractGameState s = _copy(playerId);
-        // Copy super class things
         s.allComponents = allComponents.emptyCopy();
+        copyCoreStateTo(s, playerId);
+        return s;
+    }
+
+    /**
+     * Copies this game state into target, re-using target's components and data structures instead of allocating
+     * new ones, as far as the game supports this (see _copyInto()). This allows a search algorithm to keep a small
+     * pool of states and recycle them, rather than creating a new copy for every iteration or rollout step.
+     * <p>
+     * The target must be a state from the same game (typically an earlier copy of this state, or of one of its
+     * predecessors), as the game parameters are not copied. It must not be in use elsewhere, as its contents are
+     * overwritten. If target cannot be re-used (it is null, this state, or of a different class; or the game does not
+     * support copying in place) then a new copy is returned, exactly as from copy().
+     *
+     * @param target - a state to overwrite with the contents of this one, may be null
+     * @return the target, now equal to copy(); or a new copy if target could not be re-used
+     */
+    public final AbstractGameState copyInto(AbstractGameState target) {
+        return copyInto(target, -1);
+    }
+
+    /**
+     * As copyInto(target), but reduced to what the given player observes (as copy(playerId)).
+     *
+     * @param target   - a state to overwrite with the contents of this one, may be null
+     * @param playerId - player observing the state
+     * @return the target; or a new copy if target could not be re-used
+     */
+    public final AbstractGameState copyInto(AbstractGameState target, int playerId) {
+        if (target == null || target == this || target.getClass() != getClass() || target.nPlayers != nPlayers
+                || !_copyInto(target, playerId))
+            return copy(playerId);
+        if (target.allComponents == null)
+            target.allComponents = allComponents.emptyCopy();
+        target.undoLog = null;
+        copyCoreStateTo(target, playerId);
+        return target;
+    }
+
+    /**
+     * Copies the state held in this class into s, which has just been populated by _copy() or _copyInto().
+     * Data structures already held by s are re-used where possible.
+     */
+    private void copyCoreStateTo(AbstractGameState s, int playerId) {
+        // a full copy has the same contents, but a copy for one player may have had hidden information shuffled
+        if (playerId == -1) {
+            s.version = version;
+            s.gameParameters = gameParameters;
+        } else {
+            s.newVersion();
+            s.gameParameters = gameParameters.playerView();
+        }
         s.gameStatus = gameStatus;
-        s.playerResults = playerResults.clone();
+        s.gameID = gameID;
+        if (s.playerResults != null && s.playerResults.length == playerResults.length)
+            System.arraycopy(playerResults, 0, s.playerResults, 0, playerResults.length);
+        else
+            s.playerResults = playerResults.clone();
         s.gamePhase = gamePhase;
         s.coreGameParameters = coreGameParameters;
         s.tick = tick;
@@ -311,9 +407,11 @@ public abstract class AbstractGameState {
         // the same if we start with the same seed
         s.rnd = playerId == -1 ? rnd : new Random(System.currentTimeMillis());
 
+        s.history.clear();
+        s.historyText.clear();
         if (!coreGameParameters.competitionMode) {
-            s.history = new ArrayList<>(history);
-            s.historyText = new ArrayList<>(historyText);
+            s.history.addAll(history);
+            s.historyText.addAll(historyText);
             // we do not copy individual actions in history, as these are now dead and should not change
             // History is for debugging and spectation of games. There is a risk that History might contain information
             // formally hidden to some participants. For this reason, in COMPETITION_MODE we explicitly do not copy
@@ -322,19 +420,22 @@ public abstract class AbstractGameState {
             // be incorporated in the game-specific data in GameState where the correct hiding protocols can be enforced.
         }
 
-        s.actionsInProgress = new Stack<>();
+        if (s.actionsInProgress == null)
+            s.actionsInProgress = new Stack<>();
+        else
+            s.actionsInProgress.clear();
         actionsInProgress.forEach(
                 a -> s.actionsInProgress.push(a.copy())
         );
 
-        s.playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
+        if (s.playerTimer == null || s.playerTimer.length != getNPlayers())
+            s.playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
         for (int i = 0; i < getNPlayers(); i++) {
-            s.playerTimer[i] = playerTimer[i].copy();
+            s.playerTimer[i] = playerTimer[i].copyInto(s.playerTimer[i]);
         }
 
         // Update the list of components for ID matching in actions.
         s.addAllComponents();
-        return s;
     }
 
     /**
@@ -348,6 +449,59 @@ public abstract class AbstractGameState {
     }
 
 
+    /**
+     * Pushes the core state onto the undo log, before next() changes it.
+     */
+    final void recordUndo(UndoLog log) {
+        log.pushObject(gamePhase);
+        // IExtendedSequences are mutable, so we have to keep copies of them
+        if (actionsInProgress.isEmpty()) {
+            log.pushObject(null);
+        } else {
+            Stack<IExtendedSequence> stackCopy = new Stack<>();
+            actionsInProgress.forEach(a -> stackCopy.push(a.copy()));
+            log.pushObject(stackCopy);
+        }
+        for (CoreConstants.GameResult result : playerResults)
+            log.push(result.ordinal());
+        log.push(gameStatus.ordinal());
+        log.push(history.size());
+        log.push(historyText.size());
+        log.push(tick);
+        log.push(roundCounter);
+        log.push(turnCounter);
+        log.push(turnOwner);
+        log.push(firstPlayer);
+    }
+
+    /**
+     * Restores the core state pushed by recordUndo().
+     */
+    final void undo(UndoLog log) {
+        firstPlayer = log.popInt();
+        turnOwner = log.popInt();
+        turnCounter = log.popInt();
+        roundCounter = log.popInt();
+        tick = log.popInt();
+        historyText.subList(log.popInt(), historyText.size()).clear();
+        history.subList(log.popInt(), history.size()).clear();
+        gameStatus = GAME_RESULTS[log.popInt()];
+        for (int p = playerResults.length - 1; p >= 0; p--)
+            playerResults[p] = GAME_RESULTS[log.popInt()];
+        Stack<IExtendedSequence> stackCopy = log.popObject();
+        actionsInProgress = stackCopy == null ? new Stack<>() : stackCopy;
+        gamePhase = log.popObject();
+        newVersion();
+    }
+
+    /**
+     * @return the number of moves that can currently be undone (zero unless an undo log is being recorded,
+     * see IUndoableForwardModel)
+     */
+    public final int getUndoDepth() {
+        return undoLog == null ? 0 : undoLog.depth();
+    }
+
     // helper function to avoid time-consuming string manipulations if the message is not actually
     // going to be logged anywhere
     public void logEvent(IGameEvent event, Supplier<String> eventText) {
@@ -424,6 +578,8 @@ public abstract class AbstractGameState {
      *
      * This is also responsible for shuffling any hidden information, such as cards in a deck. (aka 'redeterminisation')
      * There are some utilities to assist with this in utilities.DeterminisationUtilities.
+     * The copy should be given gameParameters itself, and not a copy of it, as these do not change during a game
+     * (see AbstractParameters.freeze()).
      * One of the most important things to remember is that the random number generator from getRnd() should not be used in this method.
      * This is to avoid this RNG stream being distorted by the number of player actions taken (where those actions are not themselves inherently random)
      * Instead use redeterminisationRnd, which is provided for this specific purpose.
@@ -432,6 +588,22 @@ public abstract class AbstractGameState {
      */
     protected abstract AbstractGameState _copy(int playerId);
 
+    /**
+     * Optional: the in-place equivalent of _copy(). Overwrites the game-specific state of target (an existing state of
+     * the same class, from the same game) with that of this state, as observed by playerId, re-using target's
+     * components and data structures instead of allocating new ones. The result must be indistinguishable from
+     * _copy(playerId); the same rules about redeterminisation apply.
+     * <p>
+     * The default does nothing and returns false, in which case copyInto() falls back to copy().
+     *
+     * @param target   - the state to overwrite
+     * @param playerId - player observing this game state.
+     * @return true if target now holds a copy of this state; false if this is not supported
+     */
+    protected boolean _copyInto(AbstractGameState target, int playerId) {
+        return false;
+    }
+
     /**
      * Provide a simple numerical assessment of the current game state, the bigger the better.
      * Subjective heuristic function definition.
@@ -647,4 +819,36 @@ public abstract class AbstractGameState {
         result = 31 * result + Arrays.hashCode(playerResults);
         return result;
     }
+
+    /**
+     * An opt-in 64-bit Zobrist hash of the state, intended as an O(1) key for transposition tables and duplicate
+     * detection (see utilities.Zobrist).
+     * This combines the core state held here (status, phase, turn and round, player results) with _getZobristHash().
+     * As with hashCode(), equal states have equal hashes, but the converse need not hold. History, tick and the game
+     * parameters are excluded, so that the same position reached by different routes has the same hash.
+     *
+     * @return the 64-bit hash of the state
+     */
+    public final long getZobristHash() {
+        long result = Zobrist.key(gameStatus.ordinal(), gamePhase == null ? 0 : gamePhase.toString().hashCode(), getCurrentPlayer());
+        // the getters are used, as AbstractGameStateWithTurnOrder delegates these to its TurnOrder
+        result = Zobrist.key(result, getRoundCounter(), getTurnCounter());
+        result = Zobrist.key(result, getFirstPlayer());
+        for (CoreConstants.GameResult playerResult : playerResults)
+            result = Zobrist.key(result, playerResult.ordinal());
+        if (!actionsInProgress.isEmpty())
+            result = Zobrist.key(result, actionsInProgress.hashCode());
+        return result ^ _getZobristHash();
+    }
+
+    /**
+     * Games that support incremental hashing override this to combine the Zobrist hashes of their components
+     * (see IZobristHashable) and any other game-specific state. The default falls back to hashCode(), which is
+     * correct but is recomputed in full on every call.
+     *
+     * @return the 64-bit hash of the game-specific state
+     */
+    protected long _getZobristHash() {
+        return Zobrist.key(hashCode());
+    }
 }
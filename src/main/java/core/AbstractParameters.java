@@ -24,6 +24,10 @@ public abstract class AbstractParameters {
     // Increment in seconds, added after a custom milestone (to be added manually in game implementation). Default 0.
     long incrementMilestoneS = 0;
 
+    // Set while a game is being played with these parameters; see freeze()
+    private boolean frozen;
+    // The copy of these parameters given to players' copies of the game state; see playerView()
+    private AbstractParameters playerView;
 
     public AbstractParameters() {
         this.setRandomSeed(System.currentTimeMillis());
@@ -63,16 +67,72 @@ public abstract class AbstractParameters {
     }
 
     public void setThinkingTimeMins(long thinkingTimeMins) {
+        checkNotFrozen();
         this.thinkingTimeMins = thinkingTimeMins;
     }
 
     public void setMaxRounds(int max) {
+        checkNotFrozen();
         maxRounds = max;
     }
     public void setTimeoutRounds(int max) {
+        checkNotFrozen();
         timeoutRounds = max;
     }
 
+    /**
+     * Game parameters are frozen by Game.reset() once the game has been set up, and stay frozen until the next reset.
+     * While frozen they must not change, as the same object is shared by the game state and all of its copies
+     * (which should pass gameParameters itself to the constructor of the copy in _copy(), and not a copy of it).
+     * The setters here and in TunableParameters then throw an IllegalStateException; game-specific parameters
+     * with public fields should be treated in the same way.
+     * <p>
+     * The random seed is not covered by this (it is not part of equals() or hashCode()), and can always be set.
+     */
+    public final void freeze() {
+        frozen = true;
+        if (playerView != null)
+            playerView.frozen = true;
+    }
+
+    /**
+     * Allows the parameters to be changed again, for example between games. Any copies of a game state made while
+     * they were frozen will see the changes.
+     */
+    public final void unfreeze() {
+        frozen = false;
+        playerView = null;
+    }
+
+    public final boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * To be called by any method that changes the parameters (other than the random seed)
+     */
+    protected final void checkNotFrozen() {
+        if (frozen)
+            throw new IllegalStateException("Game parameters cannot be changed while a game is being played with them");
+        playerView = null;
+    }
+
+    /**
+     * The parameters referenced by a copy of the game state made for one player (see AbstractGameState.copy(int)).
+     * These are identical apart from the random seed, so that the player cannot use the seed to reconstruct the
+     * shuffles of the game. This is created once, and shared by all such copies (and their copies).
+     */
+    final AbstractParameters playerView() {
+        AbstractParameters view = playerView;
+        if (view == null) {
+            view = copy();
+            view.frozen = frozen;
+            view.playerView = view;
+            playerView = view;
+        }
+        return view;
+    }
+
     /**
      * Retrieve total thinking time for the game, in minutes
      *
@@ -139,7 +199,7 @@ public abstract class AbstractParameters {
     }
 
     /**
-     * Copy this game parameter object.
+     * Copy this game parameter object. The copy is not frozen, even if this is.
      *
      * @return - new object with the same parameters, but a new random seed.
      */
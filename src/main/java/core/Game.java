@@ -75,6 +75,9 @@ public class Game {
     private int nDecisions;
     // Number of actions taken in a turn by a player
     private int nActionsPerTurn, nActionsPerTurnSum, nActionsPerTurnCount;
+    // If false, the timers and action space sizes above are not recorded (they are needed by the
+    // ComputationTimes and Decisions metrics)
+    private boolean collectStatistics = true;
     private boolean pause, stop;
     private boolean debug = false;
     // Video recording
@@ -149,6 +152,7 @@ public class Game {
         // Randomize parameters
         if (randomizeParameters) {
             AbstractParameters gameParameters = game.getGameState().getGameParameters();
+            gameParameters.unfreeze();
             gameParameters.randomize();
             System.out.println("Parameters: " + gameParameters);
         }
@@ -346,6 +350,19 @@ public class Game {
         this.turnPause = turnPause;
     }
 
+    /**
+     * Turns the recording of timings, action space sizes and actions per turn on or off (it is on by default).
+     * These are used by the ComputationTimes and Decisions metrics, and can be turned off when these are not needed
+     * to save a few calls to System.nanoTime() and some allocation on every action.
+     */
+    public void setCollectStatistics(boolean collectStatistics) {
+        this.collectStatistics = collectStatistics;
+    }
+
+    public boolean isCollectingStatistics() {
+        return collectStatistics;
+    }
+
     /**
      * Performs GUI update.
      *
@@ -369,6 +386,8 @@ public class Game {
     /**
      * Resets the game. Sets up the game state to the initial state as described by game rules, assigns players
      * and their IDs, and initialises all players.
+     * The game parameters are frozen once the game has been set up (see AbstractParameters.freeze()), so they must
+     * be unfrozen before being changed for a later game.
      *
      * @param players       - new players for the game
      * @param newRandomSeed - random seed is updated in the game parameters object and used throughout the game.
@@ -376,6 +395,7 @@ public class Game {
     public final void reset(List<AbstractPlayer> players, long newRandomSeed) {
         gameState.reset(newRandomSeed);
         forwardModel.abstractSetup(gameState);
+        gameState.gameParameters.freeze();
         if (players.size() == gameState.getNPlayers()) {
             this.players = players;
         } else if (players.isEmpty()) {
@@ -452,8 +472,6 @@ public class Game {
                 int activePlayer = gameState.getCurrentPlayer();
                 if (debug) System.out.printf("Entered synchronized block in Game for player %s%n", activePlayer);
 
-                AbstractPlayer currentPlayer = players.get(activePlayer);
-
                 // we check via a volatile boolean, otherwise GUI button presses do not trigger this
                 // as the JVM hoists pause and isHumanToMove() ouside the while loop on the basis that
                 // they cannot be changed in this thread....
@@ -469,20 +487,8 @@ public class Game {
                  * Players should never have access to the Game, or the main AbstractGameState, or to each other!
                  */
 
-                // Get player to ask for actions next (This horrendous line is for backwards compatibility).
-                boolean reacting = (gameState instanceof AbstractGameStateWithTurnOrder && ((AbstractGameStateWithTurnOrder) gameState).getTurnOrder() instanceof ReactiveTurnOrder
-                        && ((ReactiveTurnOrder) ((AbstractGameStateWithTurnOrder) gameState).getTurnOrder()).getReactivePlayers().size() > 0);
-
-                // Check if this is the same player as last, count number of actions per turn
-                if (!reacting) {
-                    if (currentPlayer != null && activePlayer == lastPlayer) {
-                        nActionsPerTurn++;
-                    } else {
-                        nActionsPerTurnSum += nActionsPerTurn;
-                        nActionsPerTurn = 1;
-                        nActionsPerTurnCount++;
-                    }
-                }
+                if (collectStatistics)
+                    countActionsPerTurn(activePlayer);
 
                 if (gameState.isNotTerminal()) {
 
@@ -510,6 +516,45 @@ public class Game {
         }
     }
 
+    /**
+     * Runs the game without any of the support for a GUI that run() has: there is no synchronisation on the Game,
+     * and the pause and turnPause settings are ignored. This is the version to use when running many games
+     * with AI players only, such as in tournaments or parameter optimisation.
+     * Listeners are still informed of all events; timings and action space sizes are only recorded
+     * if setCollectStatistics(true) has been called (the default).
+     */
+    public final void runHeadless() {
+
+        listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ABOUT_TO_START, gameState)));
+
+        while (gameState.isNotTerminal() && !stop) {
+            if (collectStatistics)
+                countActionsPerTurn(gameState.getCurrentPlayer());
+            takeAction();
+        }
+        if (gameState.coreGameParameters.verbose) {
+            System.out.println("Ended");
+        }
+        terminate();
+    }
+
+    private void countActionsPerTurn(int activePlayer) {
+        // Get player to ask for actions next (This horrendous line is for backwards compatibility).
+        boolean reacting = (gameState instanceof AbstractGameStateWithTurnOrder && ((AbstractGameStateWithTurnOrder) gameState).getTurnOrder() instanceof ReactiveTurnOrder
+                && ((ReactiveTurnOrder) ((AbstractGameStateWithTurnOrder) gameState).getTurnOrder()).getReactivePlayers().size() > 0);
+
+        // Check if this is the same player as last, count number of actions per turn
+        if (!reacting) {
+            if (activePlayer == lastPlayer) {
+                nActionsPerTurn++;
+            } else {
+                nActionsPerTurnSum += nActionsPerTurn;
+                nActionsPerTurn = 1;
+                nActionsPerTurnCount++;
+            }
+        }
+    }
+
     public final boolean isHumanToMove() {
         int activePlayer = gameState.getCurrentPlayer();
         return this.getPlayers().get(activePlayer) instanceof HumanGUIPlayer;
@@ -526,7 +571,10 @@ public class Game {
                     e.printStackTrace();
                 }
             }
+        return takeAction();
+    }
 
+    private AbstractAction takeAction() {
         // This is the next player to be asked for a decision
         int activePlayer = gameState.getCurrentPlayer();
         if (!gameState.isNotTerminalForPlayer(activePlayer))
@@ -535,15 +583,17 @@ public class Game {
         if (debug) System.out.printf("Starting oneAction for player %s%n", activePlayer);
 
         // Get player observation, and time how long it takes
-        double s = System.nanoTime();
-        // copying the gamestate also copies the game parameters and resets the random seed (so agents cannot use this
-        // to reconstruct the starting hands etc.)
+        double s = collectStatistics ? System.nanoTime() : 0;
+        // copying the gamestate for a player gives it a view of the game parameters with a different random seed
+        // (so agents cannot use this to reconstruct the starting hands etc.)
         AbstractGameState observation = gameState.copy(activePlayer);
-        copyTime = (System.nanoTime() - s);
+        if (collectStatistics)
+            copyTime = (System.nanoTime() - s);
         //      System.out.printf("Total copyTime in ms = %.2f at tick %d (Avg %.3f) %n", copyTime / 1e6, tick, copyTime / (tick +1.0) / 1e6);
 
         // Get actions for the player
-        s = System.nanoTime();
+        if (collectStatistics)
+            s = System.nanoTime();
         List<AbstractAction> observedActions = forwardModel.computeAvailableActions(observation, currentPlayer.getParameters().actionSpace);
         if (observedActions.isEmpty()) {
             Stack<IExtendedSequence> actionsInProgress = gameState.getActionsInProgress();
@@ -561,8 +611,10 @@ public class Game {
                     + (topOfStack != null ? ". Top of stack: " + topOfStack.getClass().getSimpleName() + " (" + topOfStack + ")" : ""));
 
         }
-        actionComputeTime = (System.nanoTime() - s);
-        actionSpaceSize.add(new Pair<>(activePlayer, observedActions.size()));
+        if (collectStatistics) {
+            actionComputeTime = (System.nanoTime() - s);
+            actionSpaceSize.add(new Pair<>(activePlayer, observedActions.size()));
+        }
 
         if (gameState.coreGameParameters.verbose) {
             System.out.println("Round: " + gameState.getRoundCounter());
@@ -584,7 +636,8 @@ public class Game {
                 currentPlayer.registerUpdatedObservation(observation);
             } else {
                 // Get action from player, and time it
-                s = System.nanoTime();
+                if (collectStatistics)
+                    s = System.nanoTime();
                 if (debug)
                     System.out.printf("About to get action for player %d%n", gameState.getCurrentPlayer());
                 action = currentPlayer.getAction(observation, observedActions);
@@ -595,7 +648,8 @@ public class Game {
                 if (debug)
                     System.out.printf("Game: %2d Tick: %3d\t%s%n", gameState.getGameID(), getTick(), action.getString(gameState));
 
-                agentTime += (System.nanoTime() - s);
+                if (collectStatistics)
+                    agentTime += (System.nanoTime() - s);
                 nDecisions++;
             }
             if (gameState.coreGameParameters.competitionMode && action != null && !observedActions.contains(action)) {
@@ -625,10 +679,12 @@ public class Game {
             action = forwardModel.disqualifyOrRandomAction(gameState.coreGameParameters.disqualifyPlayerOnTimeout, gameState);
         } else {
             // Resolve action and game rules, time it
-            s = System.nanoTime();
+            if (collectStatistics)
+                s = System.nanoTime();
             // we copy the action before using it..so that the action returned by oneAction() does not have a state link
             forwardModel.next(gameState, action.copy());
-            nextTime = (System.nanoTime() - s);
+            if (collectStatistics)
+                nextTime = (System.nanoTime() - s);
         }
 
         lastPlayer = activePlayer;
@@ -653,6 +709,7 @@ public class Game {
 
         // Perform any end of game computations as required by the game
         forwardModel.endGame(gameState);
+        gameState.newVersion();
         listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, gameState)));
         if (gameState.coreGameParameters.recordEventHistory) {
             gameState.recordHistory(Event.GameEvent.GAME_OVER.name());
@@ -21,6 +21,8 @@ import utilities.ActionTreeNode;
 import games.explodingkittens.*;
 
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -195,6 +197,17 @@ public class PyTAG {
                 .toArray();
     }
 
+    // Writes the action mask into buffer (one byte per action), starting at index, without creating an array
+    void writeActionMask(ByteBuffer buffer, int index) {
+        for (int i = 0; i < leaves.size(); i++)
+            buffer.put(index + i, (byte) leaves.get(i).getValue());
+    }
+
+    // Writes the observation vector into buffer, starting at index
+    void writeObservationVector(DoubleBuffer buffer, int index) throws Exception {
+        buffer.put(index, getObservationVector());
+    }
+
     // gets the whole action tree as an array (tree can be reconstructed using the getTreeShape() function)
     public int[] getActionTree() {
         return root.getActionMask();
@@ -245,6 +258,10 @@ public class PyTAG {
         this.leaves = root.getLeafNodes();
     }
 
+    AbstractGameState getGameState() {
+        return gameState;
+    }
+
     public int getPlayerID(){
         return gameState.getCurrentPlayer();
     }
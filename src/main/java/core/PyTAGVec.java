@@ -0,0 +1,198 @@
+package core;
+
+import games.GameType;
+import utilities.WorkerThreads;
+
+import java.nio.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Future;
+
+/**
+ * Runs several PyTAG environments at once, so that Python can step all of them with a single call.
+ * <p>
+ * The data for all environments is held in direct ByteBuffers (in native byte order), which Python can wrap as numpy
+ * arrays without copying them, and which are updated in place by reset() and step():
+ * - observations: nEnvs x getObservationSpace() doubles
+ * - actionMasks: nEnvs x getActionSpace() bytes, 1 for a valid action
+ * - rewards: nEnvs doubles, the score of the player who acted in the last step
+ * - dones: nEnvs bytes, 1 if the last step ended the episode
+ * - playerIDs: nEnvs ints, the player to act next
+ * - actions: nEnvs ints, the action for each environment, read by step()
+ * <p>
+ * An environment whose episode has finished is reset straight away, so its observation and action mask are for the
+ * start of the next episode; the reward and done flag are for the step that ended the previous one.
+ * Environments are stepped in parallel on nThreads threads.
+ */
+public class PyTAGVec implements AutoCloseable {
+
+    private final PyTAG[] envs;
+    private final int observationSpace, actionSpace;
+    private final ByteBuffer observations, actionMasks, rewards, dones, playerIDs, actions;
+    private final DoubleBuffer observationView, rewardView;
+    private final IntBuffer playerIDView, actionView;
+    private final int nThreads;
+    private final WorkerThreads workerThreads = new WorkerThreads("PyTAGVec-worker");
+
+    /**
+     * @param gameToPlay          - the game
+     * @param parameterConfigFile - game parameters to use, or null for the defaults
+     * @param players             - the players in each game; each environment has its own copies of these
+     * @param seed                - used to generate the seed for each environment
+     * @param nEnvs               - the number of environments
+     * @param nThreads            - the number of threads used to step the environments
+     * @param isNormalized        - as for PyTAG
+     */
+    public PyTAGVec(GameType gameToPlay, String parameterConfigFile, List<AbstractPlayer> players, long seed,
+                    int nEnvs, int nThreads, boolean isNormalized) throws Exception {
+        if (nEnvs < 1 || nThreads < 1)
+            throw new IllegalArgumentException("Need at least one environment and thread: " + nEnvs + ", " + nThreads);
+        this.nThreads = Math.min(nThreads, nEnvs);
+        Random seeds = new Random(seed);
+        envs = new PyTAG[nEnvs];
+        for (int i = 0; i < nEnvs; i++) {
+            List<AbstractPlayer> envPlayers = new ArrayList<>();
+            for (AbstractPlayer player : players)
+                envPlayers.add(player.copy());
+            envs[i] = new PyTAG(gameToPlay, parameterConfigFile, envPlayers, seeds.nextLong(), isNormalized);
+            envs[i].reset();
+        }
+        observationSpace = envs[0].getObservationSpace();
+        actionSpace = envs[0].getActionSpace();
+
+        observations = allocate(nEnvs * observationSpace * Double.BYTES);
+        actionMasks = allocate(nEnvs * actionSpace);
+        rewards = allocate(nEnvs * Double.BYTES);
+        dones = allocate(nEnvs);
+        playerIDs = allocate(nEnvs * Integer.BYTES);
+        actions = allocate(nEnvs * Integer.BYTES);
+        observationView = observations.asDoubleBuffer();
+        rewardView = rewards.asDoubleBuffer();
+        playerIDView = playerIDs.asIntBuffer();
+        actionView = actions.asIntBuffer();
+        for (int i = 0; i < nEnvs; i++)
+            writeState(i);
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Resets all the environments
+     */
+    public void reset() throws Exception {
+        forEachEnv(i -> {
+            envs[i].reset();
+            rewardView.put(i, 0.0);
+            dones.put(i, (byte) 0);
+            writeState(i);
+        });
+    }
+
+    /**
+     * Takes the action for each environment from the actions buffer, and steps all environments.
+     */
+    public void step() throws Exception {
+        forEachEnv(this::stepEnv);
+    }
+
+    /**
+     * Copies the actions into the actions buffer, and steps all environments.
+     */
+    public void step(int[] actionIDs) throws Exception {
+        if (actionIDs.length != envs.length)
+            throw new IllegalArgumentException("Expected " + envs.length + " actions, not " + actionIDs.length);
+        actionView.put(0, actionIDs);
+        step();
+    }
+
+    private void stepEnv(int i) throws Exception {
+        PyTAG env = envs[i];
+        int player = env.getPlayerID();
+        env.step(actionView.get(i));
+        rewardView.put(i, env.getGameState().getGameScore(player));
+        boolean done = env.isDone();
+        dones.put(i, (byte) (done ? 1 : 0));
+        if (done)
+            env.reset();
+        writeState(i);
+    }
+
+    private void writeState(int i) throws Exception {
+        PyTAG env = envs[i];
+        env.writeObservationVector(observationView, i * observationSpace);
+        env.writeActionMask(actionMasks, i * actionSpace);
+        playerIDView.put(i, env.getPlayerID());
+    }
+
+    private interface EnvTask {
+        void run(int env) throws Exception;
+    }
+
+    private void forEachEnv(EnvTask task) throws Exception {
+        if (nThreads == 1) {
+            for (int i = 0; i < envs.length; i++)
+                task.run(i);
+            return;
+        }
+        // each thread takes a contiguous block of environments
+        List<Future<Object>> results = new ArrayList<>(nThreads);
+        for (int t = 0; t < nThreads; t++) {
+            int from = t * envs.length / nThreads;
+            int to = (t + 1) * envs.length / nThreads;
+            results.add(workerThreads.get(nThreads).submit(() -> {
+                for (int i = from; i < to; i++)
+                    task.run(i);
+                return null;
+            }));
+        }
+        workerThreads.getAll(results);
+    }
+
+    @Override
+    public void close() {
+        workerThreads.shutdown();
+    }
+
+    public int getNumEnvs() {
+        return envs.length;
+    }
+
+    public int getObservationSpace() {
+        return observationSpace;
+    }
+
+    public int getActionSpace() {
+        return actionSpace;
+    }
+
+    public PyTAG getEnv(int i) {
+        return envs[i];
+    }
+
+    public ByteBuffer getObservations() {
+        return observations;
+    }
+
+    public ByteBuffer getActionMasks() {
+        return actionMasks;
+    }
+
+    public ByteBuffer getRewards() {
+        return rewards;
+    }
+
+    public ByteBuffer getDones() {
+        return dones;
+    }
+
+    public ByteBuffer getPlayerIDs() {
+        return playerIDs;
+    }
+
+    public ByteBuffer getActions() {
+        return actions;
+    }
+}
@@ -0,0 +1,67 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * A compact log of the changes made to a game state by AbstractForwardModel.next(), so that they can be reversed by
+ * AbstractForwardModel.undo() (see IUndoableForwardModel).
+ * <p>
+ * The log is a pair of stacks, one of ints and one of object references. Each call of next() pushes the core state
+ * from AbstractGameState, and then whatever the game's forward model needs to reverse the action (for example the
+ * previous contents of the board positions that the action changes). undo() pops these in reverse order.
+ * Once the stacks have grown to the size needed, recording and undoing a move allocates nothing.
+ */
+public final class UndoLog {
+
+    private int[] ints = new int[64];
+    private int nInts;
+    private Object[] objects = new Object[16];
+    private int nObjects;
+    private int depth;
+
+    public void push(int value) {
+        if (nInts == ints.length)
+            ints = Arrays.copyOf(ints, nInts * 2);
+        ints[nInts++] = value;
+    }
+
+    public void push(boolean value) {
+        push(value ? 1 : 0);
+    }
+
+    public void pushObject(Object value) {
+        if (nObjects == objects.length)
+            objects = Arrays.copyOf(objects, nObjects * 2);
+        objects[nObjects++] = value;
+    }
+
+    public int popInt() {
+        return ints[--nInts];
+    }
+
+    public boolean popBoolean() {
+        return popInt() != 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T popObject() {
+        T retValue = (T) objects[--nObjects];
+        objects[nObjects] = null;  // so that the log does not keep dead objects alive
+        return retValue;
+    }
+
+    /**
+     * @return the number of moves recorded (and not yet undone)
+     */
+    public int depth() {
+        return depth;
+    }
+
+    void moveRecorded() {
+        depth++;
+    }
+
+    void moveUndone() {
+        depth--;
+    }
+}
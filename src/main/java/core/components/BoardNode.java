@@ -13,6 +13,10 @@ public class BoardNode extends Component {
     protected HashSet<BoardNode> neighbours;  // Neighbours of this board node
     private HashMap<BoardNode, Integer> neighbourSideMapping;  // Neighbours mapping to a side of this board node
     protected int maxNeighbours;  // Maximum number of neighbours for this board node
+    // Set when this node is on a copy of a GraphBoard that shares the topology of the original; the two fields above
+    // are then null until needed, when they are created from the topology (see getNeighbours() and createNeighbours())
+    private GraphBoard board;
+    private int ordinal;
 
     public BoardNode(int maxNeighbours, String name) {
         super(CoreConstants.ComponentType.BOARD_NODE, name);
@@ -32,11 +36,22 @@ public class BoardNode extends Component {
         this.neighbourSideMapping = new HashMap<>();
     }
 
+    /**
+     * A node on a copy of a GraphBoard, which shares the topology of the original (see attach())
+     */
+    BoardNode(int maxNeighbours, int ID, GraphBoard board, int ordinal) {
+        super(CoreConstants.ComponentType.BOARD_NODE, "", ID);
+        this.maxNeighbours = maxNeighbours;
+        this.board = board;
+        this.ordinal = ordinal;
+    }
+
     /**
      * Adds a neighbour for this node.
      * @param neighbour - new neighbour of this node.
      */
     public void addNeighbour(BoardNode neighbour) {
+        detachTopology();
         if (neighbours.size() <= maxNeighbours || maxNeighbours == -1) {
             neighbours.add(neighbour);
         }
@@ -48,6 +63,7 @@ public class BoardNode extends Component {
      * @return - true if removed successfully, false otherwise. may fail if neighbour didn't exist in the first place.
      */
     public boolean removeNeighbour(BoardNode neighbour) {
+        detachTopology();
         if (neighbours.contains(neighbour)) {
             neighbours.remove(neighbour);
             neighbourSideMapping.remove(neighbour);
@@ -63,6 +79,7 @@ public class BoardNode extends Component {
      * @return - true if added successfully, false otherwise. may fail if too many neighbours added already.
      */
     public boolean addNeighbour(BoardNode neighbour, int side) {
+        detachTopology();
         if (neighbours.size() <= maxNeighbours && side <= maxNeighbours || maxNeighbours == -1) {
             if (!(neighbours.contains(neighbour)) && !(neighbourSideMapping.containsKey(neighbour))) {
                 neighbours.add(neighbour);
@@ -87,6 +104,8 @@ public class BoardNode extends Component {
      * @return the neighbours of this node.
      */
     public HashSet<BoardNode> getNeighbours() {
+        if (neighbours == null)
+            createNeighbours();
         return neighbours;
     }
 
@@ -94,9 +113,56 @@ public class BoardNode extends Component {
      * @return the neighbours mapping to sides of this node.
      */
     public HashMap<BoardNode, Integer> getNeighbourSideMapping() {
+        if (neighbours == null)
+            createNeighbours();
         return neighbourSideMapping;
     }
 
+    /**
+     * Records that this node is the one with the given ordinal in board.topology (which was built from the board),
+     * so that the board is told if its connections change
+     */
+    void attach(GraphBoard board, int ordinal) {
+        this.board = board;
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Creates the neighbour set and side mapping of an attached node from the topology of its board
+     */
+    void createNeighbours() {
+        GraphTopology topology = board.topology;
+        int end = topology.end(ordinal);
+        neighbours = new HashSet<>();
+        neighbourSideMapping = new HashMap<>();
+        for (int k = topology.start(ordinal); k < end; k++) {
+            BoardNode neighbour = board.nodes[topology.target(k)];
+            neighbours.add(neighbour);
+            if (topology.side(k) != -1)
+                neighbourSideMapping.put(neighbour, topology.side(k));
+        }
+    }
+
+    /**
+     * The connections of this node are about to change, so it (and every other node on its board) can no longer
+     * use the topology shared with other copies of the board
+     */
+    private void detachTopology() {
+        if (board != null)
+            board.detachTopology();
+    }
+
+    /**
+     * Called by the board when it stops using a shared topology
+     */
+    void detach(GraphBoard from) {
+        if (board != from)
+            return;
+        if (neighbours == null)
+            createNeighbours();
+        board = null;
+    }
+
     /**
      * @return - maximum number of neighbours for this board node.
      */
@@ -6,17 +6,21 @@ import java.util.*;
 
 public class BoardNodeWithEdges extends Component {
 
-    protected final Map<Edge, BoardNodeWithEdges> neighbourEdgeMapping;  // Neighbours mapping to edge object encapsulating edge information, connecting this node to the one in the map key
+    // Neighbours mapping to edge object encapsulating edge information, connecting this node to the one in the map key
+    // This is created when first needed; on a copy of a GraphBoardWithEdges that shares the topology of the original
+    // it is created from the topology (see mapping())
+    protected Map<Edge, BoardNodeWithEdges> neighbourEdgeMapping;
+    // Set when this node is on a GraphBoardWithEdges that has a topology (see GraphBoardWithEdges.shareTopology())
+    private GraphBoardWithEdges board;
+    private int ordinal;
 
     public BoardNodeWithEdges() {
         super(CoreConstants.ComponentType.BOARD_NODE, "");
-        neighbourEdgeMapping = new HashMap<>();
     }
 
     protected BoardNodeWithEdges(int owner, int ID) {
         super(CoreConstants.ComponentType.BOARD_NODE, "", ID);
         setOwnerId(owner);
-        neighbourEdgeMapping = new HashMap<>();
     }
 
     /**
@@ -24,8 +28,10 @@ public class BoardNodeWithEdges extends Component {
      * @param neighbour - new neighbour of this node.
      */
     public void addNeighbour(BoardNodeWithEdges neighbour, Edge edge) {
-        neighbourEdgeMapping.put(edge, neighbour);
-        neighbour.neighbourEdgeMapping.put(edge, this);
+        detachTopology();
+        neighbour.detachTopology();
+        mapping().put(edge, neighbour);
+        neighbour.mapping().put(edge, this);
     }
 
     /**
@@ -34,23 +40,88 @@ public class BoardNodeWithEdges extends Component {
      * @return - true if removed successfully, false otherwise. may fail if neighbour didn't exist in the first place.
      */
     public void removeNeighbour(BoardNodeWithEdges neighbour, Edge edge) {
-        neighbourEdgeMapping.remove(edge);
-        neighbour.neighbourEdgeMapping.remove(edge);
+        detachTopology();
+        neighbour.detachTopology();
+        mapping().remove(edge);
+        neighbour.mapping().remove(edge);
     }
 
     /**
      * @return the neighbours of this node.
      */
     public Set<BoardNodeWithEdges> getNeighbours() {
-        return new HashSet<>(neighbourEdgeMapping.values());
+        if (neighbourEdgeMapping == null && board != null) {
+            GraphTopology topology = board.topology;
+            Set<BoardNodeWithEdges> retValue = new HashSet<>();
+            for (int k = topology.start(ordinal); k < topology.end(ordinal); k++)
+                retValue.add(board.nodes[topology.target(k)]);
+            return retValue;
+        }
+        return new HashSet<>(mapping().values());
     }
 
     public Map<Edge, BoardNodeWithEdges> getNeighbourEdgeMapping() {
-        return neighbourEdgeMapping;
+        return mapping();
     }
 
     public Set<Edge> getEdges() {
-        return new HashSet<>(neighbourEdgeMapping.keySet());
+        if (neighbourEdgeMapping == null && board != null) {
+            GraphTopology topology = board.topology;
+            Set<Edge> retValue = new HashSet<>();
+            for (int k = topology.start(ordinal); k < topology.end(ordinal); k++)
+                retValue.add(board.edges[topology.edge(k)]);
+            return retValue;
+        }
+        return new HashSet<>(mapping().keySet());
+    }
+
+    /**
+     * Records that this node is the one with the given ordinal in board.topology, so that the board is told if its
+     * connections change. A node on a copy of the board has no neighbourEdgeMapping until it is needed.
+     */
+    void attach(GraphBoardWithEdges board, int ordinal) {
+        this.board = board;
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Called by the board when it stops using a shared topology
+     */
+    void detach(GraphBoardWithEdges from) {
+        if (board != from)
+            return;
+        mapping();
+        board = null;
+    }
+
+    private void detachTopology() {
+        if (board != null)
+            board.detachTopology();
+    }
+
+    /**
+     * @return neighbourEdgeMapping, creating it if needed
+     */
+    private Map<Edge, BoardNodeWithEdges> mapping() {
+        if (neighbourEdgeMapping == null)
+            neighbourEdgeMapping = currentMapping();
+        return neighbourEdgeMapping;
+    }
+
+    /**
+     * @return neighbourEdgeMapping; or if it has not been created, a new map built from the topology, which is not
+     * kept (so that reading a node does not change it)
+     */
+    private Map<Edge, BoardNodeWithEdges> currentMapping() {
+        if (neighbourEdgeMapping != null)
+            return neighbourEdgeMapping;
+        Map<Edge, BoardNodeWithEdges> retValue = new HashMap<>();
+        if (board != null) {
+            GraphTopology topology = board.topology;
+            for (int k = topology.start(ordinal); k < topology.end(ordinal); k++)
+                retValue.put(board.edges[topology.edge(k)], board.nodes[topology.target(k)]);
+        }
+        return retValue;
     }
 
     /**
@@ -74,7 +145,11 @@ public class BoardNodeWithEdges extends Component {
         if (!(o instanceof BoardNodeWithEdges)) return false;
         if (!super.equals(o)) return false;
         BoardNodeWithEdges that = (BoardNodeWithEdges) o;
-        return Objects.equals(neighbourEdgeMapping, that.neighbourEdgeMapping);
+        // nodes that take their connections from the same topology are connected alike, so neither mapping is needed
+        if (neighbourEdgeMapping == null && that.neighbourEdgeMapping == null && board != null && that.board != null
+                && board.topology == that.board.topology && ordinal == that.ordinal)
+            return true;
+        return Objects.equals(currentMapping(), that.currentMapping());
     }
 
     @Override
@@ -83,18 +158,39 @@ public class BoardNodeWithEdges extends Component {
     }
 
     public Edge getEdgeByID(int edgeID) {
-        for (Edge e: neighbourEdgeMapping.keySet()) {
+        if (neighbourEdgeMapping == null && board != null) {
+            GraphTopology topology = board.topology;
+            for (int k = topology.start(ordinal); k < topology.end(ordinal); k++)
+                if (topology.edgeID(topology.edge(k)) == edgeID)
+                    return board.edges[topology.edge(k)];
+            return null;
+        }
+        for (Edge e: mapping().keySet()) {
             if (e.componentID == edgeID) return e;
         }
         return null;
     }
 
     public BoardNodeWithEdges getNeighbour(Edge edge) {
-        return neighbourEdgeMapping.get(edge);
+        if (neighbourEdgeMapping == null && board != null) {
+            GraphTopology topology = board.topology;
+            for (int k = topology.start(ordinal); k < topology.end(ordinal); k++)
+                if (board.edges[topology.edge(k)].equals(edge))
+                    return board.nodes[topology.target(k)];
+            return null;
+        }
+        return mapping().get(edge);
     }
 
     public Edge getEdge(BoardNodeWithEdges neighbour) {
-        for (Map.Entry<Edge, BoardNodeWithEdges> e: neighbourEdgeMapping.entrySet()) {
+        if (neighbourEdgeMapping == null && board != null) {
+            GraphTopology topology = board.topology;
+            for (int k = topology.start(ordinal); k < topology.end(ordinal); k++)
+                if (board.nodes[topology.target(k)].equals(neighbour))
+                    return board.edges[topology.edge(k)];
+            return null;
+        }
+        for (Map.Entry<Edge, BoardNodeWithEdges> e: mapping().entrySet()) {
             if (e.getValue().equals(neighbour)) return e.getKey();
         }
         return null;
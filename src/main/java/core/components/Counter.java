@@ -1,10 +1,12 @@
 package core.components;
 
 import core.CoreConstants;
+import core.interfaces.IZobristHashable;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -13,7 +15,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-public class Counter extends Component {
+public class Counter extends Component implements IZobristHashable {
     protected int[] values;
 
     protected int valueIdx;  // Current value of this counter
@@ -231,6 +233,14 @@ public class Counter extends Component {
         return result;
     }
 
+    /**
+     * The whole state of a Counter is its current value, so no incremental maintenance is needed
+     */
+    @Override
+    public long getZobristHash() {
+        return Zobrist.key(componentID, valueIdx);
+    }
+
     @Override
     public String toString() {
         return "" + getValue();
@@ -2,11 +2,13 @@ package core.components;
 
 import core.CoreConstants;
 import core.interfaces.IComponentContainer;
+import core.interfaces.IZobristHashable;
 import org.jetbrains.annotations.NotNull;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -22,11 +24,19 @@ import static core.CoreConstants.VisibilityMode;
  * * components played on the player's area
  * * Discomponent pile
  */
-public class Deck<T extends Component> extends Component implements IComponentContainer<T>, Iterable<T> {
+public class Deck<T extends Component> extends Component implements IComponentContainer<T>, Iterable<T>, IZobristHashable {
 
     protected int capacity;  // Capacity of the deck (maximum number of elements)
     protected List<T> components;  // List of components in this deck
     protected VisibilityMode visibility;
+    // Sum of the keys of the IDs of all components in the deck, so this is a hash of the deck contents
+    // independent of their order (and hence unchanged by a shuffle). Maintained by all the methods that add/remove.
+    protected long zobristHash;
+    // If true, then copies of this deck share the components (and the List that holds them) until either deck is
+    // changed; see setCopyOnWrite()
+    protected boolean copyOnWrite;
+    // true if the components List may currently be shared with another Deck; see ensureWritable()
+    protected boolean shared;
 
     public Deck(String name, VisibilityMode visibility) {
         this(name, -1, visibility);
@@ -142,8 +152,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public T pick(int idx) {
         if (!components.isEmpty() && idx < components.size() && idx >= 0) {
-            T c = components.get(idx);
-            components.remove(idx);
+            ensureWritable();
+            T c = components.remove(idx);
+            zobristHash -= contentKey(c);
             return c;
         }
         return null;
@@ -221,7 +232,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         if (c == null)
             throw new IllegalArgumentException("null cannot be added to a Deck");
         c.setOwnerId(ownerId);
+        ensureWritable();
         components.add(index, c);
+        zobristHash += contentKey(c);
         return capacity == -1 || components.size() <= capacity;
     }
 
@@ -254,9 +267,11 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(Deck<T> d, int index) {
+        ensureWritable();
         components.addAll(index, d.components);
         for (T comp : d.components) {
             comp.setOwnerId(ownerId);
+            zobristHash += contentKey(comp);
         }
         return capacity == -1 || components.size() <= capacity;
     }
@@ -266,9 +281,11 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     public boolean add(Collection<T> d, int index) {
+        ensureWritable();
         components.addAll(index, d);
         for (T comp : d) {
             comp.setOwnerId(ownerId);
+            zobristHash += contentKey(comp);
         }
         return capacity == -1 || components.size() <= capacity;
     }
@@ -296,8 +313,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public boolean remove(int idx) {
         if (idx >= 0 && idx < components.size()) {
-            components.get(idx).setOwnerId(-1);
-            components.remove(idx);
+            ensureWritable();
+            T c = components.remove(idx);
+            c.setOwnerId(-1);
+            zobristHash -= contentKey(c);
             return true;
         }
         return false;
@@ -322,7 +341,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         for (T comp : components) {
             comp.setOwnerId(-1);
         }
+        ensureWritable();
         components.clear();
+        zobristHash = 0L;
     }
 
     // Getters, Setters
@@ -331,6 +352,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * Shuffles the deck with a specific random object.
      */
     public void shuffle(Random rnd) {
+        ensureWritable();
         Collections.shuffle(components, rnd);
     }
 
@@ -342,6 +364,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param rnd       - random number generator used for shuffling
      */
     public void shuffle(int fromIndex, int toIndex, Random rnd) {
+        ensureWritable();
         List<T> subList = components.subList(fromIndex, toIndex);
         Collections.shuffle(subList, rnd);
         int i = 0;
@@ -352,10 +375,16 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     /**
+     * Note that changes made directly to the returned List will not update the Zobrist hash; use the
+     * methods on Deck instead.
+     * As the caller may change the List, a copy-on-write deck will first take its own copy of it. To read the
+     * components without this, use get(), peek(), getSize() or iterate over the deck.
+     *
      * @return all the components in this deck.
      */
     @Override
     public List<T> getComponents() {
+        ensureWritable();
         return components;
     }
 
@@ -366,8 +395,11 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void setComponents(List<T> components) {
         this.components = components;
+        shared = false;
+        zobristHash = 0L;
         for (T comp : components) {
             comp.setOwnerId(ownerId);
+            zobristHash += contentKey(comp);
         }
     }
 
@@ -402,7 +434,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void setComponent(int idx, T component) {
         component.setOwnerId(ownerId);
-        components.set(idx, component);
+        ensureWritable();
+        T old = components.set(idx, component);
+        zobristHash += contentKey(component) - contentKey(old);
     }
 
     /**
@@ -437,12 +471,17 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck) {
-        List<T> newComponents = new LinkedList<>();
-        for (T c : components) {
-            newComponents.add((T) c.copy());
+        if (copyOnWrite) {
+            shareWith(deck);
+        } else {
+            List<T> newComponents = new LinkedList<>();
+            for (T c : components) {
+                newComponents.add((T) c.copy());
+            }
+            deck.components = newComponents;
         }
-        deck.components = newComponents;
         deck.capacity = capacity;
+        deck.zobristHash = zobristHash;
 
         //copy type and component.
         copyComponentTo(deck);
@@ -451,9 +490,16 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck, int playerId) {
+        if (copyOnWrite) {
+            // the components are immutable, so there is no hidden information in them to hide
+            copyTo(deck);
+            return;
+        }
         List<T> newComponents = new LinkedList<>();
         for (T c : components) {
-            newComponents.add((T) c.copy(playerId));
+            T copy = (T) c.copy(playerId);
+            newComponents.add(copy);
+            deck.zobristHash += deck.contentKey(copy);
         }
         deck.components = newComponents;
         deck.capacity = capacity;
@@ -462,6 +508,42 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         copyComponentTo(deck);
     }
 
+    private void shareWith(Deck<T> deck) {
+        deck.components = components;
+        deck.copyOnWrite = true;
+        deck.shared = true;
+        shared = true;
+    }
+
+    /**
+     * Must be called before any change to the components List (or, in subclasses, any other state that is shared
+     * by a copy-on-write copy). If this is currently shared with another Deck then we first take our own copy.
+     */
+    protected void ensureWritable() {
+        if (shared) {
+            components = new LinkedList<>(components);
+            shared = false;
+        }
+    }
+
+    /**
+     * In copy-on-write mode a copy of this deck does not copy the components, but shares them (and the List
+     * that holds them) with the original until one of the two is changed. At that point the deck being changed
+     * takes its own copy of the List (but still not of the components).
+     * <p>
+     * This is only valid if the components in the deck are never modified in place (for example if their
+     * copy() method returns the component itself, as for DominionCard). The setting is inherited by copies.
+     *
+     * @param copyOnWrite - true to enable copy-on-write
+     */
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -492,4 +574,13 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         return Objects.hash(capacity, ownerId, componentID, components);
     }
 
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    private long contentKey(T component) {
+        return Zobrist.key(componentID, component.getComponentID());
+    }
+
 }
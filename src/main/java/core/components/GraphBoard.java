@@ -2,12 +2,14 @@ package core.components;
 
 import core.CoreConstants;
 import core.interfaces.IComponentContainer;
+import core.interfaces.IZobristHashable;
 import core.properties.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import utilities.Hash;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -16,10 +18,19 @@ import java.util.*;
 import static core.CoreConstants.imgHash;
 import static core.CoreConstants.nameHash;
 
-public class GraphBoard extends Component implements IComponentContainer<BoardNode> {
+public class GraphBoard extends Component implements IComponentContainer<BoardNode>, IZobristHashable {
 
     // List of nodes in the board graph, mapping component ID to object reference
     protected Map<Integer, BoardNode> boardNodes;
+    // XOR of the keys of the IDs of all nodes on the board. The connections between nodes, and the properties
+    // of individual nodes, are not included (in most games these are fixed, and the mutable state is held elsewhere)
+    protected long zobristHash;
+    // The connections between the nodes, shared with all copies of this board, and the nodes in the order used by
+    // it; these are null if they have not yet been needed, or the connections have changed (see detachTopology())
+    GraphTopology topology;
+    BoardNode[] nodes;
+    // true if the connections cannot be held in a GraphTopology, in which case copy() copies them node by node
+    private boolean noTopology;
 
     public GraphBoard(String name)
     {
@@ -51,6 +62,69 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      */
     @Override
     public GraphBoard copy()
+    {
+        if (!shareTopology())
+            return copyNodeByNode();
+        // the copy shares our topology, so only the node components (with their properties) are copied
+        GraphTopology sharedTopology = topology;
+        BoardNode[] sourceNodes = nodes;
+        GraphBoard b = new GraphBoard(componentName, componentID);
+        b.topology = sharedTopology;
+        b.nodes = new BoardNode[sourceNodes.length];
+        b.boardNodes = new HashMap<>();
+        for (int i = 0; i < sourceNodes.length; i++) {
+            BoardNode bn = sourceNodes[i];
+            BoardNode bnCopy = new BoardNode(bn.getMaxNeighbours(), bn.getComponentID(), b, i);
+            bn.copyComponentTo(bnCopy);
+            b.nodes[i] = bnCopy;
+            b.boardNodes.put(bnCopy.getComponentID(), bnCopy);
+        }
+        copyComponentTo(b);
+        b.zobristHash = zobristHash;
+        return b;
+    }
+
+    /**
+     * Builds the topology of this board if this has not yet been done (synchronised, as several threads may copy
+     * the same state), and attaches our nodes to it
+     *
+     * @return true if the topology can be shared with a copy
+     */
+    private synchronized boolean shareTopology() {
+        if (topology == null && !noTopology) {
+            GraphTopology newTopology = GraphTopology.of(this);
+            if (newTopology == null) {
+                noTopology = true;
+                return false;
+            }
+            nodes = new BoardNode[newTopology.nNodes()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = boardNodes.get(newTopology.nodeID(i));
+                nodes[i].attach(this, i);
+            }
+            topology = newTopology;
+        }
+        return topology != null;
+    }
+
+    /**
+     * Called when the nodes on this board, or the connections between them, are about to change. Each node is given
+     * its own neighbours (if it does not already have them), and the board no longer shares its topology with its
+     * copies (and the original). A new topology is built when it is next copied.
+     */
+    synchronized void detachTopology() {
+        if (topology == null)
+            return;
+        for (BoardNode bn : nodes)
+            bn.detach(this);
+        topology = null;
+        nodes = null;
+    }
+
+    /**
+     * Copies the board without a shared topology, by creating the neighbours of each node copy
+     */
+    private GraphBoard copyNodeByNode()
     {
         GraphBoard b = new GraphBoard(componentName, componentID);
         HashMap<Integer, BoardNode> nodeCopies = new HashMap<>();
@@ -74,6 +148,8 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
         b.setBoardNodes(new ArrayList<>(nodeCopies.values()));
         // Copy properties
         copyComponentTo(b);
+        b.zobristHash = zobristHash;
+        b.noTopology = noTopology;
         return b;
     }
 
@@ -128,19 +204,49 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      */
     public void setBoardNodes(List<BoardNode> boardNodes) {
         for (BoardNode bn: boardNodes) {
-            this.boardNodes.put(bn.componentID, bn);
+            putNode(bn.componentID, bn);
         }
     }
     public void setBoardNodes(Map<Integer, BoardNode> boardNodes) {
+        nodesChanged();
         this.boardNodes = boardNodes;
+        zobristHash = 0L;
+        for (int id : boardNodes.keySet())
+            zobristHash ^= nodeKey(id);
     }
 
     public void addBoardNode(BoardNode bn) {
-        this.boardNodes.put(bn.getComponentID(), bn);
+        putNode(bn.getComponentID(), bn);
     }
 
     public void removeBoardNode(BoardNode bn) {
-        this.boardNodes.remove(bn.getComponentID());
+        removeNode(bn.getComponentID());
+    }
+
+    private void putNode(int id, BoardNode bn) {
+        nodesChanged();
+        if (boardNodes.put(id, bn) == null)
+            zobristHash ^= nodeKey(id);
+    }
+
+    private void removeNode(int id) {
+        nodesChanged();
+        if (boardNodes.remove(id) != null)
+            zobristHash ^= nodeKey(id);
+    }
+
+    private void nodesChanged() {
+        detachTopology();
+        noTopology = false;
+    }
+
+    private long nodeKey(int nodeID) {
+        return Zobrist.key(componentID, nodeID);
+    }
+
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
     }
 
     public void breakConnection(BoardNode bn1, BoardNode bn2) {
@@ -155,7 +261,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
                 break;
             }
         }
-        if (!inBoard) boardNodes.remove(bn1.componentID);
+        if (!inBoard) removeNode(bn1.componentID);
 
         inBoard = false;
         for (BoardNode n: bn2.getNeighbours()) {
@@ -164,17 +270,17 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
                 break;
             }
         }
-        if (!inBoard) boardNodes.remove(bn2.componentID);
+        if (!inBoard) removeNode(bn2.componentID);
     }
 
     public void addConnection(BoardNode bn1, BoardNode bn2) {
         bn1.addNeighbour(bn2);
         bn2.addNeighbour(bn1);
         if (!boardNodes.containsKey(bn1.componentID)) {
-            boardNodes.put(bn1.componentID, bn1);
+            putNode(bn1.componentID, bn1);
         }
         if (!boardNodes.containsKey(bn2.componentID)) {
-            boardNodes.put(bn1.componentID, bn2);
+            putNode(bn1.componentID, bn2);
         }
     }
 
@@ -182,10 +288,10 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
         bn1.addNeighbour(bn2, edgeValue);
         bn2.addNeighbour(bn1, edgeValue);
         if (!boardNodes.containsKey(bn1.componentID)) {
-            boardNodes.put(bn1.componentID, bn1);
+            putNode(bn1.componentID, bn1);
         }
         if (!boardNodes.containsKey(bn2.componentID)) {
-            boardNodes.put(bn1.componentID, bn2);
+            putNode(bn1.componentID, bn2);
         }
     }
 
@@ -252,7 +358,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
             newBN.loadBoardNode(node);
             newBN.setComponentName(((PropertyString)newBN.getProperty(nameHash)).value);
             newBN.setMaxNeighbours(maxNeighbours);
-            boardNodes.put(newBN.componentID, newBN);
+            putNode(newBN.componentID, newBN);
         }
 
         int _hash_neighbours_ = Hash.GetInstance().hash(neighboursKey);
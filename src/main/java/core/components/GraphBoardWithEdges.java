@@ -8,6 +8,13 @@ public class GraphBoardWithEdges extends Component implements IComponentContaine
 
     // List of nodes in the board graph, mapping component ID to object reference
     protected Map<Integer, BoardNodeWithEdges> boardNodes;
+    // The connections between the nodes, shared with all copies of this board, and the nodes and edges in the order
+    // used by it; these are null if they have not yet been needed, or the connections have changed
+    GraphTopology topology;
+    BoardNodeWithEdges[] nodes;
+    Edge[] edges;
+    // true if the connections cannot be held in a GraphTopology, in which case copy() copies them node by node
+    private boolean noTopology;
 
     public GraphBoardWithEdges(String name)
     {
@@ -39,6 +46,87 @@ public class GraphBoardWithEdges extends Component implements IComponentContaine
      */
     @Override
     public GraphBoardWithEdges copy()
+    {
+        if (!shareTopology())
+            return copyNodeByNode();
+        // the copy shares our topology, so only the node and edge components are copied
+        GraphTopology sharedTopology = topology;
+        BoardNodeWithEdges[] sourceNodes = nodes;
+        Edge[] sourceEdges = edges;
+        GraphBoardWithEdges b = new GraphBoardWithEdges(componentName, componentID);
+        b.topology = sharedTopology;
+        b.nodes = new BoardNodeWithEdges[sourceNodes.length];
+        b.edges = new Edge[sourceEdges.length];
+        b.boardNodes = new HashMap<>();
+        for (int i = 0; i < sourceNodes.length; i++) {
+            BoardNodeWithEdges bn = sourceNodes[i];
+            BoardNodeWithEdges bnCopy = bn.copy();
+            if (bnCopy == null) bnCopy = new BoardNodeWithEdges(bn.ownerId, bn.getComponentID());
+            bn.copyComponentTo(bnCopy);
+            bnCopy.attach(b, i);
+            b.nodes[i] = bnCopy;
+            b.boardNodes.put(bnCopy.getComponentID(), bnCopy);
+        }
+        for (int i = 0; i < sourceEdges.length; i++)
+            b.edges[i] = sourceEdges[i].copy();
+        copyComponentTo(b);
+        return b;
+    }
+
+    /**
+     * @return the connections between the nodes of this board, or null if these cannot be held in a GraphTopology.
+     * This never changes, and is shared with copies of the board; if the connections of the board are changed
+     * afterwards, then the board just stops using it.
+     */
+    public synchronized GraphTopology getTopology() {
+        return shareTopology() ? topology : null;
+    }
+
+    /**
+     * Builds the topology of this board if this has not yet been done (synchronised, as several threads may copy
+     * the same state), and attaches our nodes to it
+     *
+     * @return true if the topology can be shared with a copy
+     */
+    private synchronized boolean shareTopology() {
+        if (topology == null && !noTopology) {
+            GraphTopology newTopology = GraphTopology.of(this);
+            if (newTopology == null) {
+                noTopology = true;
+                return false;
+            }
+            nodes = new BoardNodeWithEdges[newTopology.nNodes()];
+            edges = new Edge[newTopology.nEdges()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = boardNodes.get(newTopology.nodeID(i));
+                for (Edge edge : nodes[i].getNeighbourEdgeMapping().keySet())
+                    edges[newTopology.edgeOrdinal(edge.getComponentID())] = edge;
+                nodes[i].attach(this, i);
+            }
+            topology = newTopology;
+        }
+        return topology != null;
+    }
+
+    /**
+     * Called when the nodes on this board, or the connections between them, are about to change. Each node is given
+     * its own neighbourEdgeMapping (if it does not already have one), and the board no longer shares its topology
+     * with its copies (and the original). A new topology is built when it is next copied.
+     */
+    synchronized void detachTopology() {
+        if (topology == null)
+            return;
+        for (BoardNodeWithEdges bn : nodes)
+            bn.detach(this);
+        topology = null;
+        nodes = null;
+        edges = null;
+    }
+
+    /**
+     * Copies the board without a shared topology, by creating the neighbours of each node copy
+     */
+    private GraphBoardWithEdges copyNodeByNode()
     {
         GraphBoardWithEdges b = new GraphBoardWithEdges(componentName, componentID);
         HashMap<Integer, BoardNodeWithEdges> nodeCopies = new HashMap<>();
@@ -50,14 +138,14 @@ public class GraphBoardWithEdges extends Component implements IComponentContaine
             bn.copyComponentTo(bnCopy);
             nodeCopies.put(bn.getComponentID(), bnCopy);
             // Copy edges
-            for (Edge e: bn.neighbourEdgeMapping.keySet()) {
+            for (Edge e: bn.getNeighbourEdgeMapping().keySet()) {
                 edgeCopies.put(e.componentID, e.copy());
             }
         }
         // Assign neighbours and edges
         for (BoardNodeWithEdges bn: boardNodes.values()) {
             BoardNodeWithEdges bnCopy = nodeCopies.get(bn.getComponentID());
-            for (Map.Entry<Edge, BoardNodeWithEdges> e: bn.neighbourEdgeMapping.entrySet()) {
+            for (Map.Entry<Edge, BoardNodeWithEdges> e: bn.getNeighbourEdgeMapping().entrySet()) {
                 bnCopy.addNeighbour(nodeCopies.get(e.getValue().getComponentID()), edgeCopies.get(e.getKey().componentID));
             }
         }
@@ -67,6 +155,7 @@ public class GraphBoardWithEdges extends Component implements IComponentContaine
 
         // Copy properties
         copyComponentTo(b);
+        b.noTopology = noTopology;
         return b;
     }
 
@@ -91,22 +180,31 @@ public class GraphBoardWithEdges extends Component implements IComponentContaine
      * @param boardNodes - new list of board nodes.
      */
     public void setBoardNodes(List<BoardNodeWithEdges> boardNodes) {
+        nodesChanged();
         for (BoardNodeWithEdges bn: boardNodes) {
             this.boardNodes.put(bn.getComponentID(), bn);
         }
     }
     public void setBoardNodes(Map<Integer, BoardNodeWithEdges> boardNodes) {
+        nodesChanged();
         this.boardNodes = boardNodes;
     }
 
     public void addBoardNode(BoardNodeWithEdges bn) {
+        nodesChanged();
         this.boardNodes.put(bn.getComponentID(), bn);
     }
 
     public void removeBoardNode(BoardNodeWithEdges bn) {
+        nodesChanged();
         this.boardNodes.remove(bn.getComponentID());
     }
 
+    private void nodesChanged() {
+        detachTopology();
+        noTopology = false;
+    }
+
     public void breakConnection(BoardNodeWithEdges bn1, BoardNodeWithEdges bn2, Edge edge) {
         bn1.removeNeighbour(bn2, edge);
         bn2.removeNeighbour(bn1, edge);
@@ -119,7 +217,7 @@ public class GraphBoardWithEdges extends Component implements IComponentContaine
                 break;
             }
         }
-        if (!inBoard) boardNodes.remove(bn1.getComponentID());
+        if (!inBoard) removeBoardNode(bn1);
 
         inBoard = false;
         for (BoardNodeWithEdges n: bn2.getNeighbours()) {
@@ -128,7 +226,7 @@ public class GraphBoardWithEdges extends Component implements IComponentContaine
                 break;
             }
         }
-        if (!inBoard) boardNodes.remove(bn2.getComponentID());
+        if (!inBoard) removeBoardNode(bn2);
     }
 
     public Edge addConnection(BoardNodeWithEdges bn1, BoardNodeWithEdges bn2) {
@@ -0,0 +1,176 @@
+package core.components;
+
+import java.util.*;
+
+/**
+ * The connections between the nodes of a GraphBoard or GraphBoardWithEdges, in compressed sparse row form.
+ * <p>
+ * Nodes (and edges) are identified by their ordinal, which is their position in ascending order of component ID.
+ * The neighbours of node i are the entries from offsets[i] (inclusive) to offsets[i+1] (exclusive) of targets, with
+ * the side of the node each is on (for a GraphBoard; -1 if none) or the edge connecting them (for a
+ * GraphBoardWithEdges) in the same entry of sides or edges.
+ * <p>
+ * This is immutable, and is built once from a board when it is first copied. It is then shared by all copies of the
+ * board, which only need to copy their node (and edge) components. The neighbour sets and maps of those nodes are
+ * created from this only if they are asked for. If the connections of a copy are changed, it stops using this (see
+ * GraphBoard.detachTopology()).
+ */
+public final class GraphTopology {
+
+    private final int[] nodeIDs;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] sides;
+    private final int[] edges;
+    private final int[] edgeIDs;
+
+    private GraphTopology(int[] nodeIDs, int[] offsets, int[] targets, int[] sides, int[] edges, int[] edgeIDs) {
+        this.nodeIDs = nodeIDs;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.sides = sides;
+        this.edges = edges;
+        this.edgeIDs = edgeIDs;
+    }
+
+    /**
+     * @return the topology of the board, or null if this cannot be represented (if any node has a neighbour that is
+     * not on the board)
+     */
+    static GraphTopology of(GraphBoard board) {
+        int[] nodeIDs = sortedIDs(board.getBoardNodeMap().keySet());
+        int[] offsets = new int[nodeIDs.length + 1];
+        for (int i = 0; i < nodeIDs.length; i++)
+            offsets[i + 1] = offsets[i] + board.getNodeByID(nodeIDs[i]).getNeighbours().size();
+        int[] targets = new int[offsets[nodeIDs.length]];
+        int[] sides = new int[targets.length];
+        for (int i = 0; i < nodeIDs.length; i++) {
+            BoardNode node = board.getNodeByID(nodeIDs[i]);
+            Map<BoardNode, Integer> sideMapping = node.getNeighbourSideMapping();
+            int k = offsets[i];
+            for (BoardNode neighbour : node.getNeighbours()) {
+                int ordinal = neighbour == null ? -1 : Arrays.binarySearch(nodeIDs, neighbour.getComponentID());
+                if (ordinal < 0 || board.getNodeByID(nodeIDs[ordinal]) != neighbour)
+                    return null;
+                targets[k] = ordinal;
+                sides[k++] = sideMapping.getOrDefault(neighbour, -1);
+            }
+        }
+        return new GraphTopology(nodeIDs, offsets, targets, sides, null, null);
+    }
+
+    /**
+     * @return the topology of the board, or null if this cannot be represented (if any node has a neighbour that is
+     * not on the board)
+     */
+    static GraphTopology of(GraphBoardWithEdges board) {
+        int[] nodeIDs = sortedIDs(board.getBoardNodeMap().keySet());
+        Set<Integer> allEdgeIDs = new HashSet<>();
+        int[] offsets = new int[nodeIDs.length + 1];
+        for (int i = 0; i < nodeIDs.length; i++) {
+            Map<Edge, BoardNodeWithEdges> mapping = board.getNodeByID(nodeIDs[i]).getNeighbourEdgeMapping();
+            offsets[i + 1] = offsets[i] + mapping.size();
+            for (Edge edge : mapping.keySet())
+                allEdgeIDs.add(edge.getComponentID());
+        }
+        int[] edgeIDs = sortedIDs(allEdgeIDs);
+        Edge[] edgeObjects = new Edge[edgeIDs.length];
+        int[] targets = new int[offsets[nodeIDs.length]];
+        int[] edges = new int[targets.length];
+        for (int i = 0; i < nodeIDs.length; i++) {
+            int k = offsets[i];
+            for (Map.Entry<Edge, BoardNodeWithEdges> e : board.getNodeByID(nodeIDs[i]).getNeighbourEdgeMapping().entrySet()) {
+                int ordinal = Arrays.binarySearch(nodeIDs, e.getValue().getComponentID());
+                int edgeOrdinal = Arrays.binarySearch(edgeIDs, e.getKey().getComponentID());
+                if (ordinal < 0 || board.getNodeByID(nodeIDs[ordinal]) != e.getValue())
+                    return null;
+                // an edge must be the same object wherever it appears, as the copies will be
+                if (edgeObjects[edgeOrdinal] == null)
+                    edgeObjects[edgeOrdinal] = e.getKey();
+                else if (edgeObjects[edgeOrdinal] != e.getKey())
+                    return null;
+                targets[k] = ordinal;
+                edges[k++] = edgeOrdinal;
+            }
+        }
+        return new GraphTopology(nodeIDs, offsets, targets, null, edges, edgeIDs);
+    }
+
+    private static int[] sortedIDs(Collection<Integer> ids) {
+        int[] retValue = new int[ids.size()];
+        int i = 0;
+        for (int id : ids)
+            retValue[i++] = id;
+        Arrays.sort(retValue);
+        return retValue;
+    }
+
+    public int nNodes() {
+        return nodeIDs.length;
+    }
+
+    public int nEdges() {
+        return edgeIDs == null ? 0 : edgeIDs.length;
+    }
+
+    public int nodeID(int ordinal) {
+        return nodeIDs[ordinal];
+    }
+
+    public int edgeID(int edgeOrdinal) {
+        return edgeIDs[edgeOrdinal];
+    }
+
+    /**
+     * @return the ordinal of the node, or a negative number if it is not on the board
+     */
+    public int nodeOrdinal(int nodeID) {
+        return Arrays.binarySearch(nodeIDs, nodeID);
+    }
+
+    /**
+     * @return the ordinal of the edge, or a negative number if it is not on the board
+     */
+    public int edgeOrdinal(int edgeID) {
+        return edgeIDs == null ? -1 : Arrays.binarySearch(edgeIDs, edgeID);
+    }
+
+    /**
+     * @return the first entry for the neighbours of the node
+     */
+    public int start(int ordinal) {
+        return offsets[ordinal];
+    }
+
+    /**
+     * @return one after the last entry for the neighbours of the node
+     */
+    public int end(int ordinal) {
+        return offsets[ordinal + 1];
+    }
+
+    public int degree(int ordinal) {
+        return offsets[ordinal + 1] - offsets[ordinal];
+    }
+
+    /**
+     * @return the ordinal of the neighbour in this entry
+     */
+    public int target(int entry) {
+        return targets[entry];
+    }
+
+    /**
+     * @return the side the neighbour in this entry is on, or -1 if this is not known
+     */
+    public int side(int entry) {
+        return sides[entry];
+    }
+
+    /**
+     * @return the ordinal of the edge connecting to the neighbour in this entry
+     */
+    public int edge(int entry) {
+        return edges[entry];
+    }
+}
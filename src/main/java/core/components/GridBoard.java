@@ -2,6 +2,7 @@ package core.components;
 
 import core.CoreConstants;
 import core.interfaces.IComponentContainer;
+import core.interfaces.IZobristHashable;
 import core.properties.PropertyString;
 import core.properties.PropertyVector2D;
 import org.json.simple.JSONArray;
@@ -10,6 +11,7 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import utilities.Pair;
 import utilities.Vector2D;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -19,12 +21,15 @@ import java.util.stream.Collectors;
 import static core.CoreConstants.imgHash;
 import static utilities.Utils.getNeighbourhood;
 
-public class GridBoard<T extends Component> extends Component implements IComponentContainer<T> {
+public class GridBoard<T extends Component> extends Component implements IComponentContainer<T>, IZobristHashable {
 
     private int width;  // Width of the board
     private int height;  // Height of the board
 
     private Component[][] grid;  // 2D grid representation of this board
+    // XOR of the keys of all (position, element) pairs, maintained by setElement()
+    // This assumes that elements are replaced, and not modified in place, while on the board
+    private long zobristHash;
 
     protected GridBoard() {
         super(CoreConstants.ComponentType.BOARD);
@@ -41,6 +46,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this(width, height);
         for (int y = 0; y < height; y++)
             Arrays.fill(grid[y], defaultValue);
+        zobristHash = computeZobristHash();
     }
 
     public GridBoard(Component[][] grid) {
@@ -48,6 +54,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = grid[0].length;
         this.height = grid.length;
         this.grid = grid;
+        zobristHash = computeZobristHash();
     }
 
     protected GridBoard(Component[][] grid, int ID) {
@@ -55,6 +62,15 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = grid[0].length;
         this.height = grid.length;
         this.grid = grid;
+        zobristHash = computeZobristHash();
+    }
+
+    private GridBoard(Component[][] grid, int ID, long zobristHash) {
+        super(CoreConstants.ComponentType.BOARD, ID);
+        this.width = grid[0].length;
+        this.height = grid.length;
+        this.grid = grid;
+        this.zobristHash = zobristHash;
     }
 
     protected GridBoard(int width, int height, int ID) {
@@ -69,6 +85,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = orig.getWidth();
         this.height = orig.getHeight();
         this.grid = orig.grid.clone();
+        zobristHash = computeZobristHash();
     }
 
     /**
@@ -122,6 +139,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
             if (w >= 0) System.arraycopy(this.grid[i], 0, grid[i + offsetY], offsetX, w);
         }
         this.grid = grid;
+        zobristHash = computeZobristHash();
     }
 
     /**
@@ -134,6 +152,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      */
     public boolean setElement(int x, int y, T value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            zobristHash ^= cellKey(x, y, grid[y][x]) ^ cellKey(x, y, value);
             grid[y][x] = value;
             return true;
         } else
@@ -163,6 +182,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
 
     /**
      * Retrieves the grid.
+     * Note that setting elements in this array directly will not update the Zobrist hash; use setElement() instead.
      *
      * @return - 2D grid.
      */
@@ -235,17 +255,50 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         for (int i = 0; i < height; i++) {
             if (width >= 0) System.arraycopy(grid[i], 0, gridCopy[i], 0, width);
         }
-        GridBoard<T> g = new GridBoard<>(gridCopy, componentID);
+        GridBoard<T> g = new GridBoard<>(gridCopy, componentID, zobristHash);
         copyComponentTo(g);
         return g;
     }
 
+    /**
+     * Copies the contents of this grid into target, an existing grid of the same size, without allocating a new grid.
+     * If the sizes differ (or target is null) this falls back to copy().
+     *
+     * @return the target, or a new copy if it could not be reused
+     */
+    public GridBoard<T> copyInto(GridBoard<T> target) {
+        if (target == null || target.width != width || target.height != height || target.componentID != componentID)
+            return copy();
+        for (int i = 0; i < height; i++)
+            System.arraycopy(grid[i], 0, target.grid[i], 0, width);
+        target.zobristHash = zobristHash;
+        copyComponentTo(target);
+        return target;
+    }
+
     public GridBoard<T> emptyCopy() {
         GridBoard<T> g = new GridBoard<>(getWidth(), getHeight(), componentID);
         copyComponentTo(g);
         return g;
     }
 
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    private long cellKey(int x, int y, Component element) {
+        return element == null ? 0L : Zobrist.key(componentID, ((long) y << 32) | x, element.hashCode());
+    }
+
+    private long computeZobristHash() {
+        long retValue = 0L;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                retValue ^= cellKey(x, y, grid[y][x]);
+        return retValue;
+    }
+
     @Override
     public String toString() {
         String s = "";
@@ -302,6 +355,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         }
 
         this.grid = new Component[height][width];
+        zobristHash = 0L;
 
         JSONArray grids = (JSONArray) board.get("grid");
         int y = 0;
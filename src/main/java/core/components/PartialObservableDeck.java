@@ -21,6 +21,9 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         return elementVisibility.get(elementIdx)[playerID];
     }
 
+    /**
+     * The array returned should not be modified; use setVisibilityOfComponent() instead.
+     */
     public boolean[] getVisibilityOfComponent(int elementIdx) {
         return elementVisibility.get(elementIdx);
     }
@@ -123,6 +126,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         this.elementVisibility = visibility;
     }
     private void applyVisibilityMode() {
+        ensureWritable();
         if (getVisibilityMode() == VisibilityMode.TOP_VISIBLE_TO_ALL)
             for (int j = 0; j < deckVisibility.length; j++)
                 elementVisibility.get(0)[j] = true;
@@ -140,8 +144,10 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setVisibilityOfComponent(int index, int playerID, boolean visibility) {
         if (index >= 0 && index < elementVisibility.size()) {
-            if (playerID >= 0 && playerID < deckVisibility.length)
+            if (playerID >= 0 && playerID < deckVisibility.length) {
+                ensureWritable();
                 this.elementVisibility.get(index)[playerID] = visibility;
+            }
             else
                 throw new IllegalArgumentException("playerID " + playerID + "needs to be in range [0," + (deckVisibility.length - 1) + "]");
         } else {
@@ -157,6 +163,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setVisibilityOfComponent(int index, boolean[] visibility) {
         if (index >= 0 && index < elementVisibility.size() && visibility.length == deckVisibility.length) {
+            ensureWritable();
             this.elementVisibility.set(index, visibility.clone());
         } else {
             throw new IllegalArgumentException("component index " + index + " needs to be in range [0," + components.size() + "]");
@@ -185,6 +192,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(T c, int index, boolean[] visibilityPerPlayer) {
+        ensureWritable();
         this.elementVisibility.add(index, visibilityPerPlayer.clone());
         boolean retValue = super.add(c, index);
         applyVisibilityMode();
@@ -200,6 +208,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public boolean add(Deck<T> d, int index) {
+        ensureWritable();
         if (d instanceof PartialObservableDeck<T> pod) {
             int length = d.components.size();
             for (int i = 0; i < length; i++) {
@@ -225,7 +234,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     @Override
     public void setComponents(List<T> components) {
         super.setComponents(components);
-        elementVisibility.clear();
+        elementVisibility = new ArrayList<>();
         for (int i = 0; i < components.size(); i++) {
             elementVisibility.add(deckVisibility.clone());
         }
@@ -282,6 +291,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public void shuffle(Random rnd) {
+        ensureWritable();
         elementVisibility.replaceAll(ignored -> deckVisibility.clone());
         super.shuffle(rnd);
         applyVisibilityMode();
@@ -296,6 +306,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         Pair<List<T>, List<boolean[]>> shuffled = shuffleLists(components, elementVisibility, rnd);
         components = shuffled.a;
         elementVisibility = shuffled.b;
+        shared = false;
         applyVisibilityMode();
     }
 
@@ -358,6 +369,11 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     @NotNull
     private PartialObservableDeck<T> commonCopy(PartialObservableDeck<T> dp) {
         dp.deckVisibility = deckVisibility.clone();
+        if (copyOnWrite) {
+            // shared along with the components, until one of the decks is changed
+            dp.elementVisibility = elementVisibility;
+            return dp;
+        }
 
         ArrayList<boolean[]> newVisibility = new ArrayList<>();
         for (boolean[] visibility : elementVisibility) {
@@ -368,6 +384,18 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         return dp;
     }
 
+    @Override
+    protected void ensureWritable() {
+        if (shared) {
+            List<boolean[]> newVisibility = new ArrayList<>(elementVisibility.size());
+            for (boolean[] visibility : elementVisibility) {
+                newVisibility.add(visibility.clone());
+            }
+            elementVisibility = newVisibility;
+        }
+        super.ensureWritable();
+    }
+
     public String toString(AbstractGameState gs, int playerID) {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < components.size(); i++) {
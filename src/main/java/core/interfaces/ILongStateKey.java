@@ -0,0 +1,20 @@
+package core.interfaces;
+
+import core.AbstractGameState;
+
+/**
+ * An IStateKey that computes a primitive long key directly. This avoids building (and then hashing) a String
+ * for every state looked up, which otherwise dominates the cost of MCGS.
+ * The String key is only provided for debugging and logging.
+ */
+@FunctionalInterface
+public interface ILongStateKey extends IStateKey {
+
+    @Override
+    long getLongKey(AbstractGameState state);
+
+    @Override
+    default String getKey(AbstractGameState state) {
+        return Long.toString(getLongKey(state));
+    }
+}
@@ -1,8 +1,19 @@
 package core.interfaces;
 
 import core.AbstractGameState;
+import utilities.Zobrist;
 
 public interface IStateKey {
 
     String getKey(AbstractGameState state);
+
+    /**
+     * A 64-bit version of the key, as used by the MCGS transposition table. Two states with the same String key
+     * must have the same long key.
+     * By default this hashes the String from getKey(); implementations that can compute the key without building
+     * a String should override this (see ILongStateKey).
+     */
+    default long getLongKey(AbstractGameState state) {
+        return Zobrist.hash(getKey(state));
+    }
 }
@@ -0,0 +1,44 @@
+package core.interfaces;
+
+import core.AbstractGameState;
+import core.UndoLog;
+import core.actions.AbstractAction;
+
+/**
+ * An optional capability of a Forward Model: the effects of next() can be reversed exactly, without copying the state.
+ * <p>
+ * Once AbstractForwardModel.startUndoLog(state) has been called, each call of next(state, action) records an undo
+ * record for the move in the state's UndoLog, and AbstractForwardModel.undo(state) then reverses the most recent move.
+ * This allows a search algorithm to walk down a tree with a single state (make/unmake) instead of copying the state
+ * at each step.
+ * <p>
+ * The core state held in AbstractGameState (turn, round, current player, game status, player results, phase,
+ * actions in progress and history) is recorded by the framework. The Forward Model only has to record, and then
+ * restore, the game-specific state that the action changes. Player timers are not restored (they are not part
+ * of the equality of game states).
+ * <p>
+ * This is only suitable for games where the effect of an action can be reversed from a small record: it is
+ * implemented by the deterministic, perfect-information games (TicTacToe, Connect4, DotsAndBoxes, ChineseCheckers
+ * and Stratego).
+ */
+public interface IUndoableForwardModel {
+
+    /**
+     * Called by next() just before the action is applied. This should push onto the log everything needed to
+     * reverse the changes the action (and any game rules triggered by it) will make to the game-specific state.
+     *
+     * @param state  - the current game state, before the action is applied
+     * @param action - the action about to be applied
+     * @param log    - the undo log of the state
+     */
+    void _recordUndo(AbstractGameState state, AbstractAction action, UndoLog log);
+
+    /**
+     * Reverses the game-specific changes made by the last move, popping exactly what _recordUndo() pushed for it,
+     * in reverse order. The core state is restored afterwards by the framework.
+     *
+     * @param state - the current game state, after the action was applied
+     * @param log   - the undo log of the state
+     */
+    void _undo(AbstractGameState state, UndoLog log);
+}
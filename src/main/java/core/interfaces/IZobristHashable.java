@@ -0,0 +1,13 @@
+package core.interfaces;
+
+/**
+ * Implemented by components that maintain a 64-bit Zobrist hash of their contents, updated incrementally as
+ * they change (see utilities.Zobrist). Reading the hash is then O(1).
+ * <p>
+ * The hash is only maintained through the component's own methods; modifying the underlying data structures
+ * directly (e.g. the List returned by Deck.getComponents()) will leave it stale.
+ */
+public interface IZobristHashable {
+
+    long getZobristHash();
+}
@@ -23,6 +23,9 @@ public class ForwardModelTester {
      * <p>
      * This is a useful way of checking automatically if some copy() is not doing a full deep copy, as in this case
      * an action may (incorrectly) change the state of the historic game state from which it was copied.
+     * <p>
+     * We also check that the game parameters are frozen, unchanged throughout the game, and shared by each copy
+     * rather than copied (see AbstractParameters.freeze()).
      */
 
     List<Integer> hashCodes = new ArrayList<>();
@@ -61,10 +64,14 @@ public class ForwardModelTester {
             seed = rnd.nextInt();
             System.out.printf("Running Game %d of %s with seed %d at %tc%n", loop, gameToRun, seed, System.currentTimeMillis());
             game.reset(allPlayers, seed);
+            AbstractParameters gameParams = game.getGameState().getGameParameters();
+            int paramsHashCode = gameParams.hashCode();
 
             decision = 0;
             boolean allFine;
             do {
+                // getCurrentPlayer() discards any completed actions in progress, so call it before the state is recorded
+                int player = game.getGameState().getCurrentPlayer();
                 AbstractGameState stateCopy = game.getGameState().copy();
                 stateHistory.add(stateCopy);
                 hashCodes.add(game.getGameState().hashCode());
@@ -76,8 +83,8 @@ public class ForwardModelTester {
                     System.out.printf("\tOrig: %s%n\tCopy: %s%n", game.getGameState().toString(), stateCopy);
                     throw new AssertionError("Copy of game state should have same hashcode as original");
                 }
+                checkParameters(stateCopy, player, gameParams, paramsHashCode);
                 allFine = checkHistory();
-                int player = game.getGameState().getCurrentPlayer();
                 int currentRound = game.getGameState().getRoundCounter();
                 AbstractAction action = game.oneAction();
                 actionHistory.add(action);
@@ -89,6 +96,22 @@ public class ForwardModelTester {
         }
     }
 
+    private void checkParameters(AbstractGameState stateCopy, int player, AbstractParameters gameParams, int paramsHashCode) {
+        if (!gameParams.isFrozen())
+            throw new AssertionError("Game parameters should be frozen while the game is played");
+        if (gameParams.hashCode() != paramsHashCode)
+            throw new AssertionError(String.format("Game parameters changed after decision %d (%s)",
+                    decision, actionHistory.get(decision - 1)));
+        if (stateCopy.getGameParameters() != gameParams)
+            throw new AssertionError("Copy of game state should share the game parameters of the original, not copy them");
+        AbstractGameState playerCopy = stateCopy.copy(player);
+        AbstractParameters playerParams = playerCopy.getGameParameters();
+        if (!playerParams.equals(gameParams) || !playerParams.isFrozen())
+            throw new AssertionError("Copy of game state for a player should have frozen game parameters equal to the original");
+        if (playerCopy.copy().getGameParameters() != playerParams)
+            throw new AssertionError("Copy of a player's game state should share its game parameters, not copy them");
+    }
+
     private boolean checkHistory() {
         // Here we run through the history of game state to make sure that their hashcodes are unchanged
         for (int i = 0; i < stateHistory.size(); i++) {
@@ -22,6 +22,11 @@ public enum RunArg {
             "\t This may be useful if you want to use the same destDir for multiple experiments.",
             false,
             new Usage[]{Usage.RunGames}),
+    asyncListeners("If greater than zero, then each listener processes game events on its own thread, with a queue of\n" +
+            "\t this many events, so that slow listeners do not hold up the games. See listenerBackpressure.\n" +
+            "\t The default of 0 processes events on the game thread.",
+            0,
+            new Usage[]{Usage.RunGames}),
     budget("The budget to be used by all agent (if they support the IAnyTime interface). \n" +
             "\t If non-zero then this will override the value in any JSON definitions.\n",
             0,
@@ -97,6 +102,11 @@ public enum RunArg {
             "\t from the same set of games.",
             "metrics/MetricsGameListener.json",
             new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
+    listenerBackpressure("Block|Drop specifies what happens to a game event when an asyncListeners queue is full.\n" +
+            "\t 'Block' (the default) waits for space in the queue, 'Drop' discards the event (apart from\n" +
+            "\t ABOUT_TO_START and GAME_OVER, which are never dropped).",
+            "Block",
+            new Usage[]{Usage.RunGames}),
     matchups("The total number of matchups to run in a tournament.\n" +
             "\tIf the mode is 'exhaustive', then this will be the maximum number of games run. TAG will divide\n" +
             "\tthis by the total number of permutations, and run an equal number of games for each permutation.\n" +
@@ -121,6 +131,12 @@ public enum RunArg {
     nPlayers("The number of players in each game. Overrides playerRange.",
             -1,
             new Usage[]{Usage.ParameterSearch, Usage.RunGames}),
+    nThreads("The number of threads to use to run games in parallel. Defaults to 1, which runs all games sequentially.\n" +
+            "\t Each thread has its own copy of the game and the agents, and results are combined in a fixed order,\n" +
+            "\t so that results for a given set of seeds do not depend on the number of threads.\n" +
+            "\t In NTBEA (except MultiNTBEA) this many settings are evaluated at once, and then added to the model in order.",
+            1,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch, Usage.SkillLadder}),
     neighbourhood("The size of neighbourhood to look at in NTBEA. Default is min(50, |searchSpace|/100) ",
             50,
             new Usage[]{Usage.ParameterSearch}),
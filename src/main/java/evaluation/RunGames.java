@@ -3,7 +3,9 @@ package evaluation;
 import core.AbstractParameters;
 import core.AbstractPlayer;
 import core.interfaces.IGameRunner;
+import evaluation.listeners.AsyncListener;
 import evaluation.listeners.IGameListener;
+import evaluation.listeners.TournamentMetricsGameListener;
 import evaluation.tournaments.RoundRobinTournament;
 import evaluation.tournaments.SkillGrid;
 import games.GameType;
@@ -126,6 +128,12 @@ public class RunGames implements IGameRunner {
                 //noinspection unchecked
                 for (String listenerClass : ((List<String>) config.get(listener))) {
                     IGameListener gameTracker = IGameListener.createListener(listenerClass);
+                    int queueSize = (int) config.get(asyncListeners);
+                    if (queueSize > 0 && !(gameTracker instanceof TournamentMetricsGameListener)) {
+                        // TournamentMetricsGameListener is told about each matchup directly, so must stay in step with the games
+                        AsyncListener.Backpressure policy = AsyncListener.Backpressure.valueOf((String) config.get(listenerBackpressure));
+                        gameTracker = new AsyncListener(gameTracker, queueSize, policy);
+                    }
                     tournament.addListener(gameTracker);
                     String outputDir = (String) config.get(destDir);
                     List<String> directories = new ArrayList<>(Arrays.asList(outputDir.split(Pattern.quote(File.separator))));
@@ -0,0 +1,87 @@
+package evaluation.features;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import core.interfaces.IActionFeatureVector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The equivalent of CachingStateFeatureVector for an IActionFeatureVector. Feature vectors are cached against the
+ * version of the state, the player and the action (using equals()), and the least recently used is discarded once
+ * there are more than maxSize.
+ * The arrays returned are shared between consumers, and must not be modified.
+ */
+public class CachingActionFeatureVector implements IActionFeatureVector {
+
+    public final IActionFeatureVector wrapped;
+    public final int maxSize;
+    private final ThreadLocal<Cache> cache;
+    private long hits, misses;  // approximate if used by several threads
+
+    record Key(long version, int playerID, AbstractAction action) {
+    }
+
+    static class Cache extends LinkedHashMap<Key, double[]> {
+        final int maxSize;
+
+        Cache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    public CachingActionFeatureVector(IActionFeatureVector wrapped, int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        this.wrapped = wrapped;
+        this.maxSize = maxSize;
+        this.cache = ThreadLocal.withInitial(() -> new Cache(maxSize));
+    }
+
+    public CachingActionFeatureVector(IActionFeatureVector wrapped) {
+        this(wrapped, 1024);
+    }
+
+    @Override
+    public double[] featureVector(AbstractAction action, AbstractGameState state, int playerID) {
+        Cache c = cache.get();
+        Key key = new Key(state.getVersion(), playerID, action);
+        double[] retValue = c.get(key);
+        if (retValue == null) {
+            misses++;
+            retValue = wrapped.featureVector(action, state, playerID);
+            // the action may be changed by the caller later, so we keep our own copy as the key
+            c.put(new Key(key.version(), playerID, action.copy()), retValue);
+        } else {
+            hits++;
+        }
+        return retValue;
+    }
+
+    @Override
+    public String[] names() {
+        return wrapped.names();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Clears the cache for the current thread
+     */
+    public void clear() {
+        cache.get().clear();
+    }
+}
@@ -0,0 +1,91 @@
+package evaluation.features;
+
+import core.AbstractGameState;
+import core.interfaces.IStateFeatureVector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wraps an IStateFeatureVector, and remembers the most recent feature vectors it has calculated, so that if the same
+ * instance is used by several consumers (for example the heuristic of an MCTS agent, and the StateKeyFromFeatureVector
+ * used for MCGS) the features are only calculated once for each state.
+ * <p>
+ * Feature vectors are cached against AbstractGameState.getVersion() and the player, and the least recently used
+ * vector is discarded once there are more than maxSize. This relies on all changes to a state being made through the
+ * forward model; a state changed directly will keep its old version, and we would return out of date features.
+ * The arrays returned are shared between consumers, and must not be modified.
+ * <p>
+ * Each thread has its own cache, so a single instance can be shared between threads.
+ */
+public class CachingStateFeatureVector implements IStateFeatureVector {
+
+    public final IStateFeatureVector wrapped;
+    public final int maxSize;
+    private final ThreadLocal<Cache> cache;
+    private long hits, misses;  // approximate if used by several threads
+
+    record Key(long version, int playerID) {
+    }
+
+    static class Cache extends LinkedHashMap<Key, double[]> {
+        final int maxSize;
+
+        Cache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    public CachingStateFeatureVector(IStateFeatureVector wrapped, int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        this.wrapped = wrapped;
+        this.maxSize = maxSize;
+        this.cache = ThreadLocal.withInitial(() -> new Cache(maxSize));
+    }
+
+    public CachingStateFeatureVector(IStateFeatureVector wrapped) {
+        this(wrapped, 256);
+    }
+
+    @Override
+    public double[] featureVector(AbstractGameState state, int playerID) {
+        Cache c = cache.get();
+        Key key = new Key(state.getVersion(), playerID);
+        double[] retValue = c.get(key);
+        if (retValue == null) {
+            misses++;
+            retValue = wrapped.featureVector(state, playerID);
+            c.put(key, retValue);
+        } else {
+            hits++;
+        }
+        return retValue;
+    }
+
+    @Override
+    public String[] names() {
+        return wrapped.names();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Clears the cache for the current thread
+     */
+    public void clear() {
+        cache.get().clear();
+    }
+}
@@ -0,0 +1,17 @@
+package evaluation.features;
+
+import core.AbstractGameState;
+import core.interfaces.ILongStateKey;
+
+/**
+ * Uses the full incremental Zobrist hash of the state as the key. This is O(1) for games that maintain the
+ * hash (see AbstractGameState.getZobristHash()), and distinguishes all states (up to hash collisions), so
+ * transpositions are only merged if they are exactly the same position.
+ */
+public class StateKeyFromZobristHash implements ILongStateKey {
+
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        return state.getZobristHash();
+    }
+}
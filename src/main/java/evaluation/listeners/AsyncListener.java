@@ -0,0 +1,240 @@
+package evaluation.listeners;
+
+import core.Game;
+import core.interfaces.IGameEvent;
+import evaluation.metrics.Event;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a listener so that it processes events on its own thread, and does not hold up the game.
+ * <p>
+ * Each event is turned into a snapshot (a copy of the state and action) on the game thread, and put on a bounded
+ * queue. A single worker thread takes events from the queue and passes them to the wrapped listener in order, so the
+ * wrapped listener does not need to be thread-safe. init() and reset() are queued in the same way.
+ * If the queue is full then the game thread either waits for space (Backpressure.Block), or the event is
+ * discarded (Backpressure.Drop). Events that only happen once per game (ABOUT_TO_START, GAME_OVER) are never dropped.
+ * <p>
+ * Note that the wrapped listener sees the Game that the event came from via getGame(), but this may have moved on
+ * by the time the event is processed; all information about the game at the time of the event should come from the
+ * event itself.
+ * report() waits for all queued events to be processed before calling report() on the wrapped listener.
+ */
+public class AsyncListener implements IGameListener {
+
+    public enum Backpressure {
+        Block, Drop
+    }
+
+    private final IGameListener wrapped;
+    private final BlockingQueue<Task> queue;
+    private final Backpressure backpressure;
+    private Thread worker;
+    private Game game;
+    private Game wrappedGame;  // only accessed by the worker thread
+    private volatile Throwable failure;
+
+    // counters, all times in nanoseconds
+    private final AtomicLong eventsDropped = new AtomicLong();
+    private volatile long eventsProcessed, totalQueueTime, maxQueueTime, totalProcessingTime, maxProcessingTime;
+    private final AtomicLong tasksQueued = new AtomicLong();
+    private long tasksCompleted;  // guarded by progress
+    private final Object progress = new Object();
+
+    private record Task(Event event, Game game, Runnable action, long queuedAt) {
+    }
+
+    /**
+     * @param wrapped      - the listener to run asynchronously
+     * @param queueSize    - the maximum number of events waiting to be processed
+     * @param backpressure - what to do with a new event when the queue is full
+     */
+    public AsyncListener(IGameListener wrapped, int queueSize, Backpressure backpressure) {
+        if (queueSize < 1)
+            throw new IllegalArgumentException("Queue size must be positive: " + queueSize);
+        this.wrapped = wrapped;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.backpressure = backpressure;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        Event snapshot = Event.createEvent(event.type,
+                event.state == null ? null : event.state.copy(),
+                event.action == null ? null : event.action.copy(),
+                event.playerID);
+        submit(new Task(snapshot, game, null, System.nanoTime()), !isOncePerGame(event.type));
+    }
+
+    private static boolean isOncePerGame(IGameEvent type) {
+        return type instanceof Event.GameEvent gameEvent && gameEvent.isOncePerGame();
+    }
+
+    private void submit(Task task, boolean canDrop) {
+        checkFailure();
+        startWorker();
+        // we count the task before it is queued, so that awaitProcessed() cannot miss it
+        tasksQueued.incrementAndGet();
+        try {
+            if (canDrop && backpressure == Backpressure.Drop) {
+                if (!queue.offer(task)) {
+                    tasksQueued.decrementAndGet();
+                    eventsDropped.incrementAndGet();
+                }
+            } else {
+                queue.put(task);
+            }
+        } catch (InterruptedException e) {
+            tasksQueued.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to queue event for " + wrapped, e);
+        }
+    }
+
+    private synchronized void startWorker() {
+        if (worker == null) {
+            worker = new Thread(this::processEvents, "AsyncListener-" + wrapped.getClass().getSimpleName());
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void processEvents() {
+        while (true) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (task.game() != wrappedGame) {
+                    wrappedGame = task.game();
+                    wrapped.setGame(wrappedGame);
+                }
+                if (task.event() != null) {
+                    long start = System.nanoTime();
+                    wrapped.onEvent(task.event());
+                    long end = System.nanoTime();
+                    recordTimes(start - task.queuedAt(), end - start);
+                } else {
+                    task.action().run();
+                }
+            } catch (Throwable t) {
+                if (failure == null)
+                    failure = t;
+            }
+            synchronized (progress) {
+                tasksCompleted++;
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private void recordTimes(long queueTime, long processingTime) {
+        // only ever updated by the worker thread
+        eventsProcessed++;
+        totalQueueTime += queueTime;
+        maxQueueTime = Math.max(maxQueueTime, queueTime);
+        totalProcessingTime += processingTime;
+        maxProcessingTime = Math.max(maxProcessingTime, processingTime);
+    }
+
+    private void checkFailure() {
+        Throwable t = failure;
+        if (t != null) {
+            failure = null;
+            if (t instanceof Error error)
+                throw error;
+            throw new RuntimeException("Error in listener " + wrapped, t);
+        }
+    }
+
+    /**
+     * Waits until all the events queued so far have been processed.
+     */
+    public void awaitProcessed() {
+        try {
+            synchronized (progress) {
+                while (tasksCompleted < tasksQueued.get())
+                    progress.wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + wrapped + " to process events", e);
+        }
+        checkFailure();
+    }
+
+    @Override
+    public void report() {
+        awaitProcessed();
+        if (eventsProcessed > 0 || eventsDropped.get() > 0)
+            System.out.printf("%s processed %d events (%d dropped): mean latency %.3f ms (max %.3f), mean processing time %.3f ms (max %.3f)%n",
+                    wrapped.getClass().getSimpleName(), eventsProcessed, eventsDropped.get(),
+                    getMeanQueueTime() / 1e6, maxQueueTime / 1e6, getMeanProcessingTime() / 1e6, maxProcessingTime / 1e6);
+        wrapped.report();
+    }
+
+    @Override
+    public boolean setOutputDirectory(String... nestedDirectories) {
+        return wrapped.setOutputDirectory(nestedDirectories);
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+
+    @Override
+    public void reset() {
+        submit(new Task(null, game, wrapped::reset, System.nanoTime()), false);
+    }
+
+    @Override
+    public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        submit(new Task(null, game, () -> wrapped.init(game, nPlayersPerGame, playerNames), System.nanoTime()), false);
+    }
+
+    public IGameListener getWrapped() {
+        return wrapped;
+    }
+
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    public long getEventsDropped() {
+        return eventsDropped.get();
+    }
+
+    /**
+     * @return the mean time in nanoseconds from an event being queued to its processing starting
+     */
+    public double getMeanQueueTime() {
+        return eventsProcessed == 0 ? 0.0 : (double) totalQueueTime / eventsProcessed;
+    }
+
+    public long getMaxQueueTime() {
+        return maxQueueTime;
+    }
+
+    /**
+     * @return the mean time in nanoseconds the wrapped listener takes to process an event
+     */
+    public double getMeanProcessingTime() {
+        return eventsProcessed == 0 ? 0.0 : (double) totalProcessingTime / eventsProcessed;
+    }
+
+    public long getMaxProcessingTime() {
+        return maxProcessingTime;
+    }
+}
@@ -6,6 +6,7 @@ import evaluation.metrics.AbstractMetric;
 import evaluation.metrics.Event;
 import evaluation.metrics.IDataLogger;
 import evaluation.metrics.IMetricsCollection;
+import evaluation.metrics.streaming.StreamingDataLogger;
 import evaluation.metrics.tablessaw.DataTableSaw;
 import utilities.Utils;
 
@@ -15,6 +16,7 @@ import java.util.*;
 import static evaluation.metrics.Event.GameEvent.*;
 import static evaluation.metrics.IDataLogger.ReportDestination.*;
 import static evaluation.metrics.IDataLogger.ReportType.*;
+import static evaluation.metrics.IDataLogger.Storage.*;
 
 /**
  * Main Game Listener class. An instance can be attached to a game, which will then cause registered metrics in this
@@ -45,6 +47,9 @@ public class MetricsGameListener implements IGameListener {
     // Destination directory for the reports
     String destDir = "metrics/out/"; //by default
 
+    // Whether the data is kept in memory or streamed to disk as it is recorded
+    IDataLogger.Storage storage = InMemory;
+
     public MetricsGameListener() {
     }
 
@@ -57,11 +62,23 @@ public class MetricsGameListener implements IGameListener {
     }
 
     public MetricsGameListener(IDataLogger.ReportDestination logTo, IDataLogger.ReportType[] dataTypes, AbstractMetric[] metrics) {
+        this(logTo, dataTypes, metrics, InMemory);
+    }
+
+    /**
+     * @param storage - InMemory keeps all the data in a TableSaw table until report() is called.
+     *                Streaming writes the data to disk as it is recorded, so that memory use does not grow with
+     *                the number of games; this does not support Plot reports, and RawDataPerEvent then
+     *                writes the raw data for each metric separately rather than joining them for each event.
+     */
+    public MetricsGameListener(IDataLogger.ReportDestination logTo, IDataLogger.ReportType[] dataTypes, AbstractMetric[] metrics,
+                               IDataLogger.Storage storage) {
         reportDestinations = Collections.singletonList(logTo);
         this.reportTypes = Arrays.asList(dataTypes);
+        this.storage = storage;
         this.metrics = new LinkedHashMap<>();
         for (AbstractMetric m : metrics) {
-            m.setDataLogger(new DataTableSaw(m)); //todo this logger needs to be read from JSON
+            m.setDataLogger(storage == Streaming ? new StreamingDataLogger(m) : new DataTableSaw(m));
             this.metrics.put(m.getName(), m);
             eventsOfInterest.addAll(m.getEventTypes());
         }
@@ -132,7 +149,12 @@ public class MetricsGameListener implements IGameListener {
                 }
 
             // We also create raw data files for groups of metrics responding to the same event
-            if (reportTypes.contains(RawDataPerEvent)) {
+            if (reportTypes.contains(RawDataPerEvent) && storage == Streaming) {
+                // joining the metrics for each event needs all the data in memory, so we just write each one out
+                for (AbstractMetric metric : metrics.values()) {
+                    metric.getDataLogger().getDefaultProcessor().processRawDataToFile(metric.getDataLogger(), destDir);
+                }
+            } else if (reportTypes.contains(RawDataPerEvent)) {
                 for (IGameEvent event : eventsOfInterest) {
                     List<AbstractMetric> eventMetrics = new ArrayList<>();
                     for (AbstractMetric metric : metrics.values()) {
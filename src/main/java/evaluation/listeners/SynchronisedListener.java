@@ -0,0 +1,52 @@
+package evaluation.listeners;
+
+import core.Game;
+import evaluation.metrics.Event;
+
+/**
+ * Wraps a listener that is shared between several Games running on different threads (for example the worker
+ * Games of a parallel RoundRobinTournament).
+ * <p>
+ * Each worker Game gets its own wrapper, which remembers that Game. Events are then passed on to the shared
+ * listener one at a time, with the Game link of the shared listener pointed at the originating Game for the
+ * duration of the call. This means that metrics that use listener.getGame() continue to see the correct Game.
+ * <p>
+ * report() is deliberately not forwarded; the owner of the shared listener is responsible for that once
+ * all the games are complete.
+ */
+public class SynchronisedListener implements IGameListener {
+
+    private final IGameListener wrapped;
+    private Game game;
+
+    public SynchronisedListener(IGameListener wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        synchronized (wrapped) {
+            wrapped.setGame(game);
+            wrapped.onEvent(event);
+        }
+    }
+
+    @Override
+    public void report() {
+        // the shared listener reports once, and not per worker
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+
+    public IGameListener getWrapped() {
+        return wrapped;
+    }
+}
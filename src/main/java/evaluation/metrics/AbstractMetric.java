@@ -261,6 +261,8 @@ public abstract class AbstractMetric {
 
     public void notifyGameOver() {
         this.gamesCompleted++;
+        if (dataLogger != null)
+            dataLogger.flush();
     }
 
     public int getGamesCompleted() {
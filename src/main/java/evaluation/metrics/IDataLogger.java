@@ -19,6 +19,17 @@ public interface IDataLogger
         ToBoth
     }
 
+    /**
+     * Where the raw data is kept until it is reported.
+     * InMemory uses a TableSaw table (see DataTableSaw), which supports all reports.
+     * Streaming writes each row to disk as it is recorded, and only keeps summary statistics in memory
+     * (see StreamingDataLogger), for long runs with metrics that record data on every action.
+     */
+    enum Storage {
+        InMemory,
+        Streaming
+    }
+
     /**
      * Resets this data logger. This will be called when the number of players for a given game changes, which
      * can potentially change the number of columns in the data logger.
@@ -39,6 +50,11 @@ public interface IDataLogger
      */
     void addData(String columnName, Object data);
 
+    /**
+     * Called at the end of each game. Loggers that write data out as they go can use this to flush any buffered data.
+     */
+    default void flush() {}
+
     /**
      * Returns a data processor by default that is compatible with this data logger
      * @return - A data processor
@@ -0,0 +1,319 @@
+package evaluation.metrics.streaming;
+
+import core.Game;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.IDataLogger;
+import evaluation.metrics.IDataProcessor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * A data logger that does not keep the raw data in memory. Each row is written as CSV to a temporary file as soon
+ * as it is complete (through a buffered writer, which is flushed at the end of each game), and only running summary
+ * statistics are kept for each column. Memory use is therefore independent of the number of games played, which is
+ * not the case for {@link evaluation.metrics.tablessaw.DataTableSaw}.
+ * <p>
+ * The summaries kept are count, sum, mean, standard deviation, min and max for numeric columns, and the count of
+ * each distinct value for String and Boolean columns. The raw data is copied to the report folder by
+ * {@link StreamingDataProcessor}. Plots are not supported, as these need all the data in memory.
+ */
+public class StreamingDataLogger implements IDataLogger {
+
+    final AbstractMetric metric;
+    // columns in the order they were added, with the type of data they hold
+    final LinkedHashMap<String, Class<?>> columns = new LinkedHashMap<>();
+    final Map<String, Integer> columnIndex = new HashMap<>();
+    final Map<String, ColumnSummary> summaries = new LinkedHashMap<>();
+
+    // the row currently being filled in by addData(), and how many of its columns have been set
+    private Object[] currentRow = new Object[0];
+    private boolean[] currentRowSet = new boolean[0];
+    private int currentRowCount;
+
+    private File rawDataFile;
+    private Writer writer;
+    // the number of columns each block of rows in the raw data file has (new columns may be added by later games)
+    private final List<int[]> rowWidths = new ArrayList<>();
+    private int rowCount;
+
+    public StreamingDataLogger(AbstractMetric metric) {
+        this.metric = metric;
+    }
+
+    @Override
+    public void reset() {
+        closeRawData();
+        if (rawDataFile != null && !rawDataFile.delete())
+            rawDataFile.deleteOnExit();
+        rawDataFile = null;
+        rowWidths.clear();
+        rowCount = 0;
+        columns.clear();
+        columnIndex.clear();
+        summaries.clear();
+        currentRow = new Object[0];
+        currentRowSet = new boolean[0];
+        currentRowCount = 0;
+    }
+
+    @Override
+    public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        for (Map.Entry<String, Class<?>> entry : metric.getDefaultColumns().entrySet())
+            addColumn(entry.getKey(), entry.getValue());
+
+        for (Map.Entry<String, Class<?>> entry : metric.getColumns(nPlayersPerGame, playerNames).entrySet())
+            if (addColumn(entry.getKey(), entry.getValue()))
+                metric.addColumnName(entry.getKey());
+    }
+
+    private boolean addColumn(String name, Class<?> type) {
+        if (columns.containsKey(name))
+            return false;
+        if (type != String.class && type != Integer.class && type != Double.class && type != Boolean.class)
+            throw new AssertionError("Unknown column type");
+        columnIndex.put(name, columns.size());
+        columns.put(name, type);
+        summaries.put(name, new ColumnSummary(type));
+        currentRow = Arrays.copyOf(currentRow, columns.size());
+        currentRowSet = Arrays.copyOf(currentRowSet, columns.size());
+        return true;
+    }
+
+    /**
+     * Add a piece of data to a specific column. Once every column has been set, the row is written out.
+     * If a column is set again before that, the incomplete row is written with missing values.
+     *
+     * @param columnName - name of column to add data to
+     * @param data       - data to add
+     */
+    @Override
+    public void addData(String columnName, Object data) {
+        Integer index = columnIndex.get(columnName);
+        if (index == null)
+            throw new IllegalArgumentException("Column " + columnName + " not found in " + metric.getName());
+        if (currentRowSet[index])
+            writeCurrentRow();
+        currentRow[index] = data;
+        currentRowSet[index] = true;
+        currentRowCount++;
+        if (currentRowCount == currentRow.length)
+            writeCurrentRow();
+    }
+
+    private void writeCurrentRow() {
+        try {
+            if (writer == null)
+                openRawData();
+            StringBuilder sb = new StringBuilder();
+            int i = 0;
+            for (Map.Entry<String, Class<?>> column : columns.entrySet()) {
+                Object value = currentRow[i];
+                if (i > 0)
+                    sb.append(',');
+                if (value != null) {
+                    sb.append(escape(value.toString()));
+                    if (metric.getColumnNames().contains(column.getKey()))
+                        summaries.get(column.getKey()).add(value);
+                }
+                currentRow[i] = null;
+                currentRowSet[i] = false;
+                i++;
+            }
+            sb.append('\n');
+            writer.write(sb.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write data for " + metric.getName(), e);
+        }
+        currentRowCount = 0;
+        rowCount++;
+        int[] lastBlock = rowWidths.isEmpty() ? null : rowWidths.get(rowWidths.size() - 1);
+        if (lastBlock != null && lastBlock[0] == columns.size())
+            lastBlock[1]++;
+        else
+            rowWidths.add(new int[]{columns.size(), 1});
+    }
+
+    private void openRawData() throws IOException {
+        if (rawDataFile == null) {
+            rawDataFile = File.createTempFile(metric.getName() + "_", ".csv");
+            rawDataFile.deleteOnExit();
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(rawDataFile, true), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private void closeRawData() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write data for " + metric.getName(), e);
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * Writes any buffered rows to disk. This is called at the end of each game.
+     */
+    @Override
+    public void flush() {
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write data for " + metric.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Writes the raw data recorded so far as CSV, with a header row. Rows recorded before any columns were added
+     * are padded with missing values.
+     */
+    public void writeRawData(Writer out) throws IOException {
+        flush();
+        StringBuilder header = new StringBuilder();
+        for (String name : columns.keySet()) {
+            if (header.length() > 0)
+                header.append(',');
+            header.append(escape(name));
+        }
+        out.write(header.append('\n').toString());
+        if (rawDataFile == null)
+            return;
+        try (Reader in = new BufferedReader(new InputStreamReader(new FileInputStream(rawDataFile), StandardCharsets.UTF_8))) {
+            String padding = "";
+            int block = 0, rowsLeftInBlock = 0;
+            boolean inQuotes = false;
+            int c;
+            while ((c = in.read()) != -1) {
+                if (rowsLeftInBlock == 0) {
+                    padding = ",".repeat(columns.size() - rowWidths.get(block)[0]);
+                    rowsLeftInBlock = rowWidths.get(block)[1];
+                    block++;
+                }
+                if (c == '"')
+                    inQuotes = !inQuotes;
+                else if (c == '\n' && !inQuotes) {
+                    out.write(padding);
+                    rowsLeftInBlock--;
+                }
+                out.write(c);
+            }
+        }
+    }
+
+    /**
+     * @return The number of rows recorded
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return The name of the data, used for the report files
+     */
+    public String getName() {
+        return metric.getName();
+    }
+
+    static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public IDataProcessor getDefaultProcessor() {
+        return new StreamingDataProcessor();
+    }
+
+    @Override
+    public IDataLogger copy() {
+        StreamingDataLogger retValue = emptyCopyInternal();
+        if (rawDataFile != null) {
+            flush();
+            try {
+                retValue.rawDataFile = File.createTempFile(metric.getName() + "_", ".csv");
+                retValue.rawDataFile.deleteOnExit();
+                Files.copy(rawDataFile.toPath(), retValue.rawDataFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to copy data for " + metric.getName(), e);
+            }
+        }
+        for (int[] block : rowWidths)
+            retValue.rowWidths.add(block.clone());
+        retValue.rowCount = rowCount;
+        for (Map.Entry<String, ColumnSummary> entry : summaries.entrySet())
+            retValue.summaries.put(entry.getKey(), entry.getValue().copy());
+        return retValue;
+    }
+
+    @Override
+    public IDataLogger emptyCopy() {
+        return emptyCopyInternal();
+    }
+
+    private StreamingDataLogger emptyCopyInternal() {
+        StreamingDataLogger retValue = new StreamingDataLogger(metric);
+        for (Map.Entry<String, Class<?>> entry : columns.entrySet())
+            retValue.addColumn(entry.getKey(), entry.getValue());
+        return retValue;
+    }
+
+    @Override
+    public IDataLogger create() {
+        return new StreamingDataLogger(metric);
+    }
+
+    /**
+     * Running statistics for one column, updated as each row is written.
+     */
+    static class ColumnSummary {
+        final boolean numeric;
+        int count;
+        double sum, mean, m2;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        final Map<String, Integer> categoryCounts = new TreeMap<>();
+
+        ColumnSummary(Class<?> type) {
+            numeric = type == Integer.class || type == Double.class;
+        }
+
+        void add(Object value) {
+            count++;
+            if (numeric) {
+                // Welford's algorithm for a numerically stable running variance
+                double x = ((Number) value).doubleValue();
+                sum += x;
+                double delta = x - mean;
+                mean += delta / count;
+                m2 += delta * (x - mean);
+                min = Math.min(min, x);
+                max = Math.max(max, x);
+            } else {
+                categoryCounts.merge(value.toString(), 1, Integer::sum);
+            }
+        }
+
+        double sd() {
+            return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0;
+        }
+
+        ColumnSummary copy() {
+            ColumnSummary retValue = new ColumnSummary(numeric ? Double.class : String.class);
+            retValue.count = count;
+            retValue.sum = sum;
+            retValue.mean = mean;
+            retValue.m2 = m2;
+            retValue.min = min;
+            retValue.max = max;
+            retValue.categoryCounts.putAll(categoryCounts);
+            return retValue;
+        }
+    }
+}
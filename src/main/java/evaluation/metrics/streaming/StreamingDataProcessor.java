@@ -0,0 +1,102 @@
+package evaluation.metrics.streaming;
+
+import evaluation.metrics.IDataLogger;
+import evaluation.metrics.IDataProcessor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Reports the data from a {@link StreamingDataLogger}. The raw data is copied from the logger's file, and the
+ * summaries use the statistics the logger keeps as the data is recorded. Summary files have the same layout as
+ * those from {@link evaluation.metrics.tablessaw.TableSawDataProcessor}: one file per column in
+ * summaries/[metric name]/, with 'Measure,Value' rows for numeric columns and 'Category,Count' rows otherwise.
+ */
+public class StreamingDataProcessor implements IDataProcessor {
+
+    @Override
+    public void processRawDataToConsole(IDataLogger logger) {
+        StreamingDataLogger sdl = (StreamingDataLogger) logger;
+        Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        try {
+            System.out.println();
+            sdl.writeRawData(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void processRawDataToFile(IDataLogger logger, String folderName) {
+        StreamingDataLogger sdl = (StreamingDataLogger) logger;
+        File file = new File(folderName, sdl.getName() + ".csv");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            sdl.writeRawData(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write " + file, e);
+        }
+    }
+
+    @Override
+    public void processSummaryToConsole(IDataLogger logger) {
+        StreamingDataLogger sdl = (StreamingDataLogger) logger;
+        for (Map.Entry<String, StreamingDataLogger.ColumnSummary> entry : sdl.summaries.entrySet()) {
+            if (!sdl.metric.getColumnNames().contains(entry.getKey()))
+                continue;
+            System.out.println();
+            System.out.println(sdl.getName() + "_" + entry.getKey());
+            System.out.println(summary(entry.getValue()));
+        }
+    }
+
+    @Override
+    public void processSummaryToFile(IDataLogger logger, String folderName) {
+        StreamingDataLogger sdl = (StreamingDataLogger) logger;
+        File summaryFolderMetric = new File(folderName + "/summaries/" + sdl.getName());
+        if (!summaryFolderMetric.exists() && !summaryFolderMetric.mkdirs())
+            throw new AssertionError("Could not create folder " + summaryFolderMetric);
+        for (Map.Entry<String, StreamingDataLogger.ColumnSummary> entry : sdl.summaries.entrySet()) {
+            if (!sdl.metric.getColumnNames().contains(entry.getKey()))
+                continue;
+            File file = new File(summaryFolderMetric, sdl.getName() + "_" + entry.getKey() + ".csv");
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                out.write(summary(entry.getValue()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write " + file, e);
+            }
+        }
+    }
+
+    /**
+     * @return the summary of a column in CSV format
+     */
+    protected String summary(StreamingDataLogger.ColumnSummary summary) {
+        StringBuilder sb = new StringBuilder();
+        if (summary.numeric) {
+            sb.append("Measure,Value\n");
+            sb.append("Count,").append(summary.count).append('\n');
+            sb.append("Sum,").append(summary.sum).append('\n');
+            sb.append("Mean,").append(summary.count > 0 ? summary.mean : Double.NaN).append('\n');
+            sb.append("Min,").append(summary.count > 0 ? summary.min : Double.NaN).append('\n');
+            sb.append("Max,").append(summary.count > 0 ? summary.max : Double.NaN).append('\n');
+            sb.append("Std. Dev,").append(summary.sd()).append('\n');
+        } else {
+            sb.append("Category,Count\n");
+            for (Map.Entry<String, Integer> category : summary.categoryCounts.entrySet())
+                sb.append(StreamingDataLogger.escape(category.getKey())).append(',').append(category.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void processPlotToConsole(IDataLogger logger) {
+        System.out.println("Plot report not supported for streamed data");
+    }
+
+    @Override
+    public void processPlotToFile(IDataLogger logger, String folderName) {
+        System.out.println("Plot report not supported for streamed data");
+    }
+}
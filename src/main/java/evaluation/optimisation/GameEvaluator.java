@@ -11,8 +11,10 @@ import evodef.SearchSpace;
 import evodef.SolutionEvaluator;
 import games.GameType;
 import players.IAnyTimePlayer;
+import utilities.WorkerThreads;
 
 import java.util.*;
+import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 
 import static evaluation.optimisation.NTBEAParameters.Mode.CoopNTBEA;
@@ -40,6 +42,7 @@ public class GameEvaluator implements SolutionEvaluator {
     IStateHeuristic stateHeuristic;
     IGameHeuristic gameHeuristic;
     List<IGameListener> listeners = new ArrayList<>();
+    private final WorkerThreads workerThreads = new WorkerThreads("NTBEA-evaluation");  // only used if params.nThreads > 1
 
     /**
      * GameEvaluator
@@ -95,6 +98,50 @@ public class GameEvaluator implements SolutionEvaluator {
      */
     @Override
     public double evaluate(int[] settings) {
+        return run(prepare(settings));
+    }
+
+    /**
+     * Evaluates a batch of settings, returning the results in the same order.
+     * If params.nThreads > 1 then the games are run in parallel on a pool of worker threads. Each evaluation is set
+     * up (players created, random seeds drawn) on the calling thread in the order of the batch, so that the results
+     * for a batch are the same as calling evaluate() on each setting in turn (as long as the agents do not share
+     * state between games).
+     *
+     * @param batch The settings to evaluate (these may include repeats of the same settings)
+     * @return The game score for the agent being optimised, for each entry in batch
+     */
+    public double[] evaluate(List<int[]> batch) {
+        double[] retValue = new double[batch.size()];
+        if (params.nThreads <= 1 || batch.size() == 1) {
+            for (int i = 0; i < batch.size(); i++)
+                retValue[i] = evaluate(batch.get(i));
+            return retValue;
+        }
+        List<Future<Double>> results = new ArrayList<>(batch.size());
+        for (int[] settings : batch) {
+            Evaluation evaluation = prepare(settings);
+            results.add(workerThreads.get(params.nThreads).submit(() -> run(evaluation)));
+        }
+        List<Double> values = workerThreads.getAll(results);
+        for (int i = 0; i < retValue.length; i++)
+            retValue[i] = values.get(i);
+        return retValue;
+    }
+
+    /**
+     * The games to be run for one evaluation. In 'Stable' mode there is one game per team, with the tuned agent
+     * in each position (playersPerGame[i] has it on team teamIndices[i]); otherwise there is just one game.
+     */
+    private record Evaluation(Game game, long seed, boolean tuningGame,
+                              List<List<AbstractPlayer>> playersPerGame, int[] teamIndices) {
+    }
+
+    /**
+     * Sets up everything needed for an evaluation, drawing all the random numbers it needs from rnd.
+     * This runs on the calling thread.
+     */
+    private Evaluation prepare(int[] settings) {
         if (debug)
             System.out.printf("Starting evaluation %d of %s at %tT%n", nEvals,
                     Arrays.toString(settings), System.currentTimeMillis());
@@ -102,7 +149,15 @@ public class GameEvaluator implements SolutionEvaluator {
         boolean tuningPlayer = configuredThing instanceof AbstractPlayer;
         boolean tuningGame = configuredThing instanceof Game;
 
-        Game newGame = tuningGame ? (Game) configuredThing : game.createGameInstance(nPlayers, gameParams);
+        // when running in parallel each game has its own copy of the parameters, as the game changes the random seed
+        AbstractParameters parametersForGame = params.nThreads > 1 && gameParams != null ? gameParams.copy() : gameParams;
+        Game newGame = tuningGame ? (Game) configuredThing : game.createGameInstance(nPlayers, parametersForGame);
+        if (tuningGame && params.nThreads > 1) {
+            // the search space re-uses one parameters object for every game it creates, and overwrites it with the
+            // next settings to evaluate, so each game running in parallel needs its own copy
+            newGame = newGame.getGameType().createGameInstance(newGame.getGameState().getNPlayers(),
+                    newGame.getGameState().getGameParameters().copy());
+        }
         // we assign one player to each team (the default for a game is each player being their own team of 1)
         int nTeams = newGame.getGameState().getNTeams();
 
@@ -117,14 +172,30 @@ public class GameEvaluator implements SolutionEvaluator {
             throw new AssertionError("StableNTBEA mode requires tuning of player");
         int gamesToRun = params.mode == StableNTBEA ? nTeams : 1;
         long seed = rnd.nextLong();
-        double retValue = 0.0;
+        List<List<AbstractPlayer>> playersPerGame = new ArrayList<>(gamesToRun);
+        int[] teamIndices = new int[gamesToRun];
         for (int loop = 0; loop < gamesToRun; loop++) {
-            int thisTeamIndex = teamIndex == -99 ? -99 : (teamIndex + loop) % nTeams;
-            List<AbstractPlayer> allPlayers = setupPlayers(thisTeamIndex, nTeams, settings);
+            teamIndices[loop] = teamIndex == -99 ? -99 : (teamIndex + loop) % nTeams;
+            playersPerGame.add(setupPlayers(teamIndices[loop], nTeams, settings));
+        }
+
+        nEvals++;
+        return new Evaluation(newGame, seed, tuningGame, playersPerGame, teamIndices);
+    }
+
+    /**
+     * Runs the games for an evaluation. This may run on a worker thread.
+     */
+    private double run(Evaluation evaluation) {
+        Game newGame = evaluation.game();
+        double retValue = 0.0;
+        for (int loop = 0; loop < evaluation.playersPerGame().size(); loop++) {
+            int thisTeamIndex = evaluation.teamIndices()[loop];
 
             // always reset the random seed for each new game
-            newGame.reset(allPlayers, seed);
-            newGame.run();
+            newGame.reset(evaluation.playersPerGame().get(loop), evaluation.seed());
+            newGame.setCollectStatistics(!newGame.getListeners().isEmpty());
+            newGame.runHeadless();
 
             int playerOnTeam = -1;
             for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
@@ -132,13 +203,11 @@ public class GameEvaluator implements SolutionEvaluator {
                     playerOnTeam = p;
                 }
             }
-            if (tuningPlayer && playerOnTeam == -1)
+            if (thisTeamIndex != -99 && playerOnTeam == -1)
                 throw new AssertionError("No Player found on team " + thisTeamIndex);
-            retValue += tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
+            retValue += evaluation.tuningGame() ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
         }
         //    System.out.println("GameEvaluator: " + retValue);
-
-        nEvals++;
         return retValue;
     }
 
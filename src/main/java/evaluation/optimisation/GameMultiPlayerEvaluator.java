@@ -75,7 +75,8 @@ public class GameMultiPlayerEvaluator implements MultiSolutionEvaluator {
 
         newGame.reset(allPlayers, rnd.nextLong());
 
-        newGame.run();
+        newGame.setCollectStatistics(false);
+        newGame.runHeadless();
         AbstractGameState finalState = newGame.getGameState();
 
         nEvals++;
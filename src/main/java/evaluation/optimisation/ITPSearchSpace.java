@@ -1,5 +1,6 @@
 package evaluation.optimisation;
 
+import core.AbstractParameters;
 import core.interfaces.ITunableParameters;
 import evodef.AgentSearchSpace;
 import org.jetbrains.annotations.NotNull;
@@ -202,6 +203,9 @@ public class ITPSearchSpace extends AgentSearchSpace<Object> {
     }
 
     private void setTo(int[] settings) {
+        // when tuning a game, itp holds the game parameters, which were frozen by the last game played with them
+        if (itp instanceof AbstractParameters params)
+            params.unfreeze();
         for (int i = 0; i < settings.length; i++) {
             String pName = tunedIndexToParameterName.get(i);
             Object value = value(i, settings[i]);
@@ -11,6 +11,10 @@ import evaluation.tournaments.AbstractTournament;
 import evaluation.tournaments.RoundRobinTournament;
 import org.apache.commons.math3.util.CombinatoricsUtils;
 import games.GameType;
+import evodef.DefaultMutator;
+import evodef.SearchSpace;
+import evodef.SearchSpaceUtil;
+import ntbea.EvaluateChoices;
 import ntbea.NTupleBanditEA;
 import ntbea.NTupleSystem;
 import org.json.simple.JSONObject;
@@ -182,6 +186,7 @@ public class NTBEA {
                 config.put(RunArg.budget, params.budget);
                 config.put(RunArg.verbose, false);
                 config.put(RunArg.destDir, params.destDir);
+                config.put(RunArg.nThreads, params.nThreads);
                 RoundRobinTournament tournament = new RoundRobinTournament(players, game, nPlayers, params.gameParams, config);
                 createListeners().forEach(tournament::addListener);
                 tournament.run();
@@ -235,7 +240,48 @@ public class NTBEA {
 
     protected void runTrials() {
         evaluator.reset();
-        searchFramework.runTrial(evaluator, params.iterationsPerRun);
+        if (params.nThreads > 1)
+            runBatchedTrials();
+        else
+            searchFramework.runTrial(evaluator, params.iterationsPerRun);
+    }
+
+    /**
+     * A batched version of NTupleBanditEA.runTrial(), used when we have more than one thread.
+     * In the sequential version each point is evaluated and added to the model, and the next point is then the
+     * neighbour of it with the best (UCB) value under the model. Here we pick a batch of nThreads points in this way
+     * (each the best neighbour of the previous one) before any of them is evaluated, and evaluate the whole batch
+     * in parallel. The results are added to the model in the order the points were picked, so the updates are
+     * deterministic, but are delayed by up to nThreads - 1 points. With one thread this is the same as runTrial().
+     */
+    protected void runBatchedTrials() {
+        SearchSpace searchSpace = evaluator.searchSpace();
+        DefaultMutator mutator = new DefaultMutator(searchSpace);
+        // the same neighbourhood size as used by NTupleBanditEA
+        int nNeighbours = Math.max(5, (int) Math.min(params.neighbourhoodSize, SearchSpaceUtil.size(searchSpace) / 4.0));
+        int[] point = SearchSpaceUtil.randomPoint(searchSpace);
+        int evaluated = 0;
+        while (evaluated < params.iterationsPerRun) {
+            int batchSize = Math.min(params.nThreads, params.iterationsPerRun - evaluated);
+            List<int[]> batch = new ArrayList<>(batchSize);
+            batch.add(point);
+            for (int i = 1; i < batchSize; i++) {
+                point = bestNeighbour(point, mutator, nNeighbours);
+                batch.add(point);
+            }
+            double[] results = evaluator.evaluate(batch);
+            for (int i = 0; i < batchSize; i++)
+                landscapeModel.addPoint(batch.get(i), results[i]);
+            evaluated += batchSize;
+            point = bestNeighbour(point, mutator, nNeighbours);
+        }
+    }
+
+    private int[] bestNeighbour(int[] point, DefaultMutator mutator, int nNeighbours) {
+        EvaluateChoices choices = new EvaluateChoices(landscapeModel, params.kExplore);
+        while (choices.n() < nNeighbours)
+            choices.add(mutator.randMut(point));
+        return choices.picker.getBest();
     }
 
     protected void runIteration() {
@@ -274,8 +320,7 @@ public class NTBEA {
 
     protected Pair<Double, Double> evaluateWinner(int[] winnerSettings) {
 
-        double[] results = IntStream.range(0, params.evalGames)
-                .mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
+        double[] results = evaluator.evaluate(Collections.nCopies(params.evalGames, winnerSettings));
 
         double avg = Arrays.stream(results).average().orElse(0.0);
         double stdErr = Math.sqrt(Arrays.stream(results)
@@ -1,9 +1,12 @@
 package evaluation.tournaments;
 
+import core.AbstractGameState;
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import core.Game;
 import evaluation.RunArg;
 import evaluation.listeners.IGameListener;
+import evaluation.listeners.SynchronisedListener;
 import evaluation.listeners.TournamentMetricsGameListener;
 import games.GameType;
 import org.apache.commons.math3.linear.EigenDecomposition;
@@ -15,6 +18,10 @@ import utilities.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -54,6 +61,9 @@ public class RoundRobinTournament extends AbstractTournament {
     int tournamentSeeds;
     String seedFile;
     Random seedRnd;
+    // if nThreads > 1 then games are run in parallel, each on a worker thread with its own Game
+    protected int nThreads;
+    protected List<ScheduledGame> scheduledGames = new ArrayList<>();
 
     /**
      * Create a round robin tournament, which plays all agents against all others.
@@ -142,6 +152,7 @@ public class RoundRobinTournament extends AbstractTournament {
         this.randomSeed = ((Number) config.getOrDefault(RunArg.seed, System.currentTimeMillis())).longValue();
         this.seedRnd = new Random(randomSeed);
         this.randomGameParams = (boolean) config.getOrDefault(RunArg.randomGameParams, false);
+        this.nThreads = (int) config.getOrDefault(RunArg.nThreads, 1);
 
         this.name = String.format("Game: %s, Players: %d, Mode: %s, TotalGames: %d, GamesPerMatchup: %d",
                 gameToPlay.name(), playersPerGame, tournamentMode, actualGames, gamesPerMatchup);
@@ -156,6 +167,10 @@ public class RoundRobinTournament extends AbstractTournament {
      */
     @Override
     public void run() {
+        if (nThreads > 1 && listeners.stream().anyMatch(l -> l instanceof TournamentMetricsGameListener)) {
+            // TournamentMetricsGameListener records the current matchup, so cannot track games from different matchups at once
+            throw new IllegalArgumentException("TournamentMetricsGameListener does not support parallel games; set nThreads to 1");
+        }
         if (verbose)
             System.out.println("Playing " + game.getGameType().name());
 
@@ -183,6 +198,7 @@ public class RoundRobinTournament extends AbstractTournament {
             }
             createAndRunMatchUp(matchUp);
         }
+        runScheduledGames();
         reportResults();
 
         for (IGameListener listener : listeners)
@@ -292,6 +308,8 @@ public class RoundRobinTournament extends AbstractTournament {
 
     /**
      * Evaluates one combination of players.
+     * If we are running games in parallel, then the games are only scheduled here, and are run (and their
+     * results recorded) when runScheduledGames() is called.
      *
      * @param agentIDsInThisGame - IDs of agents participating in this run.
      */
@@ -300,8 +318,16 @@ public class RoundRobinTournament extends AbstractTournament {
             throw new AssertionError("Not enough seeds for the number of games requested");
         if (debug)
             System.out.printf("Evaluate %s at %tT%n", agentIDsInThisGame.toString(), System.currentTimeMillis());
-        LinkedList<AbstractPlayer> matchUpPlayers = new LinkedList<>();
 
+        if (nThreads > 1) {
+            // we take a copy of the matchUp, as in EXHAUSTIVE mode this is modified as we recurse
+            List<Integer> matchUp = new ArrayList<>(agentIDsInThisGame);
+            for (int i = 0; i < nGames; i++)
+                scheduledGames.add(new ScheduledGame(matchUp, seeds.get(i)));
+            return;
+        }
+
+        List<AbstractPlayer> matchUpPlayers = new ArrayList<>();
         // If we are in self-play mode, we need to create a copy of the player to avoid them sharing the same state
         // If not in self-play mode then this is unnecessary, as the same agent will never be in the same game twice
         for (int agentID : agentIDsInThisGame)
@@ -328,76 +354,177 @@ public class RoundRobinTournament extends AbstractTournament {
         for (int i = 0; i < nGames; i++) {
             // if tournamentSeeds > 0, then we are running this many tournaments, each with a different random seed fixed for the whole tournament
             // so we override the standard random seeds
-            game.reset(matchUpPlayers, seeds.get(i));
+            recordResults(agentIDsInThisGame, runGame(game, matchUpPlayers, seeds.get(i)));
+        }
+    }
 
-            // Randomize parameters
-            if (randomGameParams) {
-                game.getGameState().getGameParameters().randomize();
-                System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+    /**
+     * Creates the players for one game in parallel mode: a copy of each agent, as games running at the same time
+     * cannot share agents. The random number generator of each copy is seeded from that of the agent, so any seed
+     * configured for the agent still applies; and as the copies are made on this thread in the order the games were
+     * scheduled, the results do not depend on the number of threads.
+     */
+    private List<AbstractPlayer> playersForGame(List<Integer> agentIDsInThisGame) {
+        List<AbstractPlayer> retValue = new ArrayList<>(agentIDsInThisGame.size());
+        for (int agentID : agentIDsInThisGame) {
+            AbstractPlayer agent = this.agents.get(agentID);
+            AbstractPlayer player = agent.copy();
+            player.getRnd().setSeed(agent.getRnd().nextLong());
+            retValue.add(player);
+        }
+        return retValue;
+    }
+
+    /**
+     * Runs all the games scheduled by evaluateMatchUp() across nThreads worker threads.
+     * Each worker has its own Game (and hence forward model), and each game uses the copies of the agents made for
+     * it by playersForGame() when it is submitted. Only a few games per thread are submitted ahead of the one whose
+     * results are recorded next, so that the copies of the agents for every game are not all held at once. Results
+     * are recorded in the order in which the games were scheduled, so that for a fixed set of seeds the tournament
+     * results are the same whatever the number of threads (or the order in which the games finish).
+     */
+    protected void runScheduledGames() {
+        if (scheduledGames.isEmpty())
+            return;
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        ThreadLocal<Game> workerGame = ThreadLocal.withInitial(this::createWorkerGame);
+        int maxInFlight = 2 * nThreads;
+        try {
+            Deque<Future<GameOutcome>> outcomes = new ArrayDeque<>(maxInFlight);
+            int submitted = 0;
+            for (int i = 0; i < scheduledGames.size(); i++) {
+                while (submitted < scheduledGames.size() && outcomes.size() < maxInFlight) {
+                    ScheduledGame scheduled = scheduledGames.get(submitted++);
+                    List<AbstractPlayer> players = playersForGame(scheduled.matchUp());
+                    outcomes.addLast(executor.submit(() -> runGame(workerGame.get(), players, scheduled.seed())));
+                }
+                if (verbose)
+                    System.out.println(scheduledGames.get(i).matchUp().stream().map(id -> agents.get(id).toString()).collect(Collectors.joining(",", "[", "]")));
+                recordResults(scheduledGames.get(i).matchUp(), outcomes.removeFirst().get());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running tournament games", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error running tournament game", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            scheduledGames.clear();
+        }
+    }
 
-            game.run();  // Always running tournaments without visuals
-            GameResult[] results = game.getGameState().getPlayerResults();
+    /**
+     * Creates a Game for use by one worker thread in parallel mode. This has its own copy of the game parameters,
+     * and (thread-safe) wrappers around each of the tournament listeners.
+     */
+    private Game createWorkerGame() {
+        Game workerGame = game.getGameType().createGameInstance(nPlayers, game.getGameState().getGameParameters().copy());
+        for (IGameListener listener : listeners)
+            workerGame.addListener(new SynchronisedListener(listener));
+        return workerGame;
+    }
 
-            int numDraws = 0;
-            for (int j = 0; j < matchUpPlayers.size(); j++) {
-                nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
-                for (int k = 0; k < matchUpPlayers.size(); k++) {
-                    if (k != j) {
-                        nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
-                    }
+    /**
+     * Plays one game to completion, and extracts the information we need to update the tournament statistics.
+     */
+    private GameOutcome runGame(Game gameToRun, List<AbstractPlayer> matchUpPlayers, int seed) {
+        // Randomize parameters (before the game is set up, which freezes them)
+        if (randomGameParams) {
+            AbstractParameters gameParams = gameToRun.getGameState().getGameParameters();
+            gameParams.unfreeze();
+            gameParams.setRandomSeed(seed);
+            gameParams.randomize();
+            System.out.println("Game parameters: " + gameParams);
+        }
+        gameToRun.reset(matchUpPlayers, seed);
+
+        // Always running tournaments without visuals; timings etc. are only needed if some listener might use them
+        gameToRun.setCollectStatistics(!gameToRun.getListeners().isEmpty());
+        gameToRun.runHeadless();
+        AbstractGameState finalState = gameToRun.getGameState();
+        int n = finalState.getNPlayers();
+        int[] ordinals = new int[n];
+        int[] teams = new int[n];
+        for (int p = 0; p < n; p++) {
+            ordinals[p] = finalState.getOrdinalPosition(p);
+            teams[p] = finalState.getTeam(p);
+        }
+        return new GameOutcome(finalState.getPlayerResults().clone(), ordinals, teams);
+    }
+
+    /**
+     * A game to be run in parallel mode: the agents in it (by index in agents) and its random seed.
+     */
+    protected record ScheduledGame(List<Integer> matchUp, int seed) {
+    }
+
+    /**
+     * The parts of a final game state that are needed to update the tournament statistics.
+     * This means we do not need to keep the (possibly large) final state of each game in parallel mode.
+     */
+    protected record GameOutcome(GameResult[] results, int[] ordinals, int[] teams) {
+    }
+
+    private void recordResults(List<Integer> agentIDsInThisGame, GameOutcome outcome) {
+        GameResult[] results = outcome.results();
+        int numDraws = 0;
+        for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+            nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
+            for (int k = 0; k < agentIDsInThisGame.size(); k++) {
+                if (k != j) {
+                    nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
                 }
+            }
 
-                // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
-                if (byTeam) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+            // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
+            if (byTeam) {
+                for (int player = 0; player < outcome.teams().length; player++) {
+                    if (outcome.teams()[player] == j) {
+                        numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
+                        break; // we stop after one player on the team to avoid double counting
                     }
-                } else {
-                    numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
                 }
+            } else {
+                numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
             }
+        }
 
-            if (numDraws > 0) {
-                double pointsPerDraw = 1.0 / numDraws;
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
-                    if (results[j] == GameResult.DRAW_GAME)
-                        pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
-                }
+        if (numDraws > 0) {
+            double pointsPerDraw = 1.0 / numDraws;
+            for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+                if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
+                if (results[j] == GameResult.DRAW_GAME)
+                    pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
             }
+        }
 
-            if (verbose) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("[");
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            sb.append(results[player]).append(",");
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+        if (verbose) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("[");
+            for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+                for (int player = 0; player < outcome.teams().length; player++) {
+                    if (outcome.teams()[player] == j) {
+                        sb.append(results[player]).append(",");
+                        break; // we stop after one player on the team to avoid double counting
                     }
                 }
-                sb.setCharAt(sb.length() - 1, ']');
-                System.out.println(sb);
             }
-
+            sb.setCharAt(sb.length() - 1, ']');
+            System.out.println(sb);
         }
-        totalGamesRun += nGames;
+        totalGamesRun++;
     }
 
-    private int updatePoints(GameResult[] results, List<Integer> matchUpPlayers, int j, int player) {
+    private int updatePoints(GameOutcome outcome, List<Integer> matchUpPlayers, int j, int player) {
         // j is the index of the agent in the matchup; player is the corresponding player number in the game
-        int ordinalPos = game.getGameState().getOrdinalPosition(player);
+        GameResult[] results = outcome.results();
+        int ordinalPos = outcome.ordinals()[player];
         rankPerPlayer[j] += ordinalPos;
         rankPerPlayerSquared[j] += ordinalPos * ordinalPos;
 
-        for (int playerPos = 0; playerPos < game.getGameState().getNPlayers(); playerPos++) {
+        for (int playerPos = 0; playerPos < outcome.ordinals().length; playerPos++) {
             if (playerPos != player) {
-                int ordinalOther = game.getGameState().getOrdinalPosition(playerPos);
+                int ordinalOther = outcome.ordinals()[playerPos];
                 ordinalDeltaPerOpponent[j][matchUpPlayers.get(playerPos)] += ordinalOther - ordinalPos;
             }
         }
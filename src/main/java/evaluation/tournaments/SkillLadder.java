@@ -138,6 +138,7 @@ public class SkillLadder {
                 finalConfig.put(RunArg.budget, newBudget);
                 finalConfig.put(RunArg.mode, "onevsall");
                 finalConfig.put(RunArg.verbose, false);
+                finalConfig.put(RunArg.nThreads, config.get(RunArg.nThreads));
                 RoundRobinTournament RRT = new RoundRobinTournament(agents, gameType, nPlayers, params, finalConfig);
                 for (String listenerClass : listenerClasses) {
                     if (listenerClass.isEmpty()) continue;
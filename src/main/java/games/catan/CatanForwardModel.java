@@ -39,6 +39,7 @@ public class CatanForwardModel extends StandardForwardModel {
 
         state.setBoard(generateBoard(params, state.getRnd()));
         state.setGraph(extractGraphFromBoard(state.getBoard(), params, state.getRnd()));
+        state.roadNetwork = new CatanRoadNetwork(state.getGraph());
 
         state.scores = new int[state.getNPlayers()];
         state.victoryPoints = new int[state.getNPlayers()];
@@ -20,6 +20,7 @@ import static games.catan.stats.CatanMetrics.CatanEvent.LargestArmySteal;
 public class CatanGameState extends AbstractGameState {
     protected CatanTile[][] board;
     protected GraphBoardWithEdges catanGraph;
+    protected CatanRoadNetwork roadNetwork; // longest roads, kept up to date with the roads and settlements in catanGraph
     protected int[] scores; // score for each player
     protected int[] victoryPoints; // secret points from victory cards
     protected int[] knights, roadLengths; // knight count and road length for each player
@@ -137,6 +138,10 @@ public class CatanGameState extends AbstractGameState {
         return catanGraph;
     }
 
+    public CatanRoadNetwork getRoadNetwork() {
+        return roadNetwork;
+    }
+
     public void setRollValue(int rollValue) {
         this.rollValue = rollValue;
     }
@@ -236,74 +241,6 @@ public class CatanGameState extends AbstractGameState {
         return exchangeRates.get(playerID);
     }
 
-    public int getRoadDistance(int x, int y, int edgeIdx) {
-        // As the settlements are the nodes, we expand them to find roads
-        // calculates the distance length of the road
-        Set<Edge> roadSet = new LinkedHashSet<>();
-        Set<Edge> roadSet2 = new LinkedHashSet<>();
-
-        ArrayList<Building> dir1 = new ArrayList<>();
-        ArrayList<Building> dir2 = new ArrayList<>();
-        Building settl1 = (Building) catanGraph.getNodeByID(board[x][y].getVerticesBoardNodeIDs()[edgeIdx]);
-        Building settl2 = (Building) catanGraph.getNodeByID(board[x][y].getVerticesBoardNodeIDs()[(edgeIdx + 1) % 6]);
-
-        dir1.add(settl1);
-        dir2.add(settl2);
-
-        // find longest segment, we first follow dir_1 then dir_2
-        roadSet = expandRoad(roadSet, new ArrayList<>(dir1), new ArrayList<>(dir2));
-        roadSet.addAll(expandRoad(roadSet2, new ArrayList<>(dir2), new ArrayList<>(dir1)));
-
-//        System.out.println("Current road length is " + roadSet.size() + " for player " + getCurrentPlayer());
-        return roadSet.size();
-    }
-
-    private Set<Edge> expandRoad(Set<Edge> roadSet, List<Building> unexpanded, List<Building> expanded) {
-        // return length, makes it possible to compare segments
-        // modify original set
-        if (unexpanded.size() == 0) {
-            return roadSet;
-        }
-        if (unexpanded.size() == 2) {
-            // Handle branching
-            int length = 0;
-            Set<Edge> longestSegment = new LinkedHashSet<>(roadSet);
-            for (Building settlement : unexpanded) {
-                ArrayList<Building> toExpand = new ArrayList<>();
-                toExpand.add(settlement);
-                Set<Edge> roadSetCopy = new LinkedHashSet<>(roadSet);
-                roadSetCopy = expandRoad(roadSetCopy, toExpand, expanded);
-                if (roadSetCopy.size() >= length) {
-                    length = roadSetCopy.size();
-                    longestSegment = roadSetCopy;
-                }
-            }
-            roadSet.addAll(longestSegment);
-            return roadSet;
-        } else {
-            // case of expanding a single settlement
-            Building settlement = unexpanded.remove(0);
-            expanded.add(settlement);
-
-            for (Map.Entry<Edge, BoardNodeWithEdges> e : settlement.getNeighbourEdgeMapping().entrySet()) {
-                if (e.getKey().getOwnerId() == getCurrentPlayer()) {
-                    if (expanded.contains((Building)e.getValue())) {
-                        // The road used to get here
-                        roadSet.add(e.getKey());
-                    } else {
-                        // if settlement belongs to somebody else it's a deadend
-                        if (e.getValue().getOwnerId() == -1 || e.getValue().getOwnerId() == getCurrentPlayer()) {
-                            unexpanded.add((Building) e.getValue());
-                        }
-                    }
-                }
-            }
-        }
-
-        // only gets here when explored a single road
-        return expandRoad(roadSet, unexpanded, expanded);
-    }
-
     public int getNResourcesInHand(int player) {
         int deckSize = 0;
         for (Map.Entry<CatanParameters.Resource, Counter> e: playerResources.get(player).entrySet()) {
@@ -395,10 +332,11 @@ public class CatanGameState extends AbstractGameState {
 
     @Override
     protected CatanGameState _copy(int playerId) {
-        CatanGameState copy = new CatanGameState(getGameParameters().copy(), getNPlayers());
+        CatanGameState copy = new CatanGameState(gameParameters, getNPlayers());
         copy.gamePhase = gamePhase;
         copy.board = copyBoard();
         copy.catanGraph = catanGraph.copy();
+        copy.roadNetwork = roadNetwork.copy();
 
         copy.gameStatus = gameStatus;
         copy.playerResults = playerResults.clone();
@@ -0,0 +1,208 @@
+package games.catan;
+
+import core.components.BoardNodeWithEdges;
+import core.components.Edge;
+import core.components.GraphBoardWithEdges;
+import core.components.GraphTopology;
+
+import java.util.*;
+
+/**
+ * Keeps track of the longest road of each player, without searching the whole road network every time a road or
+ * settlement is built.
+ * <p>
+ * Vertices (buildings) and edges (roads) of the Catan graph are identified by their ordinal in the GraphTopology of
+ * the graph. The layout of the graph never changes during a game, so this topology (and the ends of each edge found
+ * from it) is shared by all copies; each copy only has the owner of each road and building, and the length of the
+ * longest road in the part of the network (connected roads of one player, not passing through a settlement of
+ * another) each road is in.
+ * <p>
+ * When a road is built only the part of the network it joins is searched again. When a settlement is built on
+ * the road of another player only the parts either side of it are.
+ */
+public class CatanRoadNetwork {
+
+    private final GraphTopology topology;
+    private final int[] ends;           // the two vertices of edge e are ends[2e] and ends[2e+1]; shared by all copies
+    private final int[] roadOwner;
+    private final int[] buildingOwner;
+    private final int[] partLength;     // for each road, the length of the longest road in its part of the network
+
+    /**
+     * Creates the network from the graph, with the roads and buildings it already has
+     */
+    public CatanRoadNetwork(GraphBoardWithEdges graph) {
+        topology = graph.getTopology();
+        if (topology == null)
+            throw new IllegalArgumentException("Catan graph has connections that are not on the board");
+        ends = new int[2 * topology.nEdges()];
+        Arrays.fill(ends, -1);
+        for (int v = 0; v < topology.nNodes(); v++) {
+            for (int k = topology.start(v); k < topology.end(v); k++) {
+                int e = topology.edge(k);
+                if (ends[2 * e] == -1) {
+                    ends[2 * e] = v;
+                    ends[2 * e + 1] = topology.target(k);
+                }
+            }
+        }
+        roadOwner = new int[topology.nEdges()];
+        buildingOwner = new int[topology.nNodes()];
+        partLength = new int[topology.nEdges()];
+        for (int v = 0; v < buildingOwner.length; v++) {
+            BoardNodeWithEdges node = graph.getNodeByID(topology.nodeID(v));
+            buildingOwner[v] = node.getOwnerId();
+            for (Edge edge : node.getEdges()) {
+                int e = topology.edgeOrdinal(edge.getComponentID());
+                if (e < 0)
+                    throw new IllegalArgumentException("Road not connected to two buildings in Catan graph");
+                roadOwner[e] = edge.getOwnerId();
+            }
+        }
+        for (int e = 0; e < roadOwner.length; e++)
+            if (roadOwner[e] != -1 && partLength[e] == 0)
+                updatePart(e);
+    }
+
+    private CatanRoadNetwork(CatanRoadNetwork other) {
+        topology = other.topology;
+        ends = other.ends;
+        roadOwner = other.roadOwner.clone();
+        buildingOwner = other.buildingOwner.clone();
+        partLength = other.partLength.clone();
+    }
+
+    public CatanRoadNetwork copy() {
+        return new CatanRoadNetwork(this);
+    }
+
+    /**
+     * Records a new road.
+     *
+     * @param edgeID component ID of the edge the road is on
+     * @param player owner of the road
+     * @return the length of the longest road in the part of the network the new road is in. The longest road of the
+     * player is the larger of this and their longest road before.
+     */
+    public int roadBuilt(int edgeID, int player) {
+        int e = topology.edgeOrdinal(edgeID);
+        if (e < 0)
+            throw new IllegalArgumentException("No edge " + edgeID + " in Catan graph");
+        if (roadOwner[e] != -1)
+            throw new AssertionError("Road already owned: " + edgeID);
+        roadOwner[e] = player;
+        return updatePart(e);
+    }
+
+    /**
+     * Records a new settlement, which breaks the roads of any other players that pass through it.
+     *
+     * @param vertexID component ID of the building
+     * @param player   owner of the settlement
+     * @return true if the road of any other player was broken, in which case their longest roads should be found
+     * again with longest()
+     */
+    public boolean settlementBuilt(int vertexID, int player) {
+        int v = topology.nodeOrdinal(vertexID);
+        if (v < 0)
+            throw new IllegalArgumentException("No vertex " + vertexID + " in Catan graph");
+        buildingOwner[v] = player;
+        boolean broken = false;
+        for (int k = topology.start(v); k < topology.end(v); k++) {
+            int owner = roadOwner[topology.edge(k)];
+            if (owner != -1 && owner != player && roadsAt(v, owner) > 1) {
+                broken = true;
+                updatePart(topology.edge(k));
+            }
+        }
+        return broken;
+    }
+
+    /**
+     * @return the length of the longest road of the player
+     */
+    public int longest(int player) {
+        int retValue = 0;
+        for (int e = 0; e < roadOwner.length; e++)
+            if (roadOwner[e] == player)
+                retValue = Math.max(retValue, partLength[e]);
+        return retValue;
+    }
+
+    private int roadsAt(int vertex, int player) {
+        int retValue = 0;
+        for (int k = topology.start(vertex); k < topology.end(vertex); k++)
+            if (roadOwner[topology.edge(k)] == player)
+                retValue++;
+        return retValue;
+    }
+
+    private boolean blocked(int vertex, int player) {
+        return buildingOwner[vertex] != -1 && buildingOwner[vertex] != player;
+    }
+
+    /**
+     * Finds the part of the network the road is in, and the longest road in it
+     *
+     * @return the length of the longest road
+     */
+    private int updatePart(int edge) {
+        int player = roadOwner[edge];
+        int[] part = new int[roadOwner.length];
+        boolean[] inPart = new boolean[roadOwner.length];
+        int size = 0;
+        part[size++] = edge;
+        inPart[edge] = true;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < 2; j++) {
+                int v = ends[2 * part[i] + j];
+                if (blocked(v, player))
+                    continue;
+                for (int k = topology.start(v); k < topology.end(v); k++) {
+                    int e = topology.edge(k);
+                    if (roadOwner[e] == player && !inPart[e]) {
+                        inPart[e] = true;
+                        part[size++] = e;
+                    }
+                }
+            }
+        }
+
+        // The longest road has to start at one of the vertices in this part
+        int length = 0;
+        boolean[] used = new boolean[roadOwner.length];
+        boolean[] started = new boolean[buildingOwner.length];
+        for (int i = 0; i < size && length < size; i++) {
+            for (int j = 0; j < 2; j++) {
+                int v = ends[2 * part[i] + j];
+                if (!started[v]) {
+                    started[v] = true;
+                    length = Math.max(length, longestFrom(v, player, inPart, used));
+                }
+            }
+        }
+        for (int i = 0; i < size; i++)
+            partLength[part[i]] = length;
+        return length;
+    }
+
+    /**
+     * @return the length of the longest road of the player that starts at the vertex and only uses roads in the part
+     * that are not used already, without going through a settlement of another player. (If the vertex has such a
+     * settlement, the roads on the other side of it are in a different part.)
+     */
+    private int longestFrom(int vertex, int player, boolean[] inPart, boolean[] used) {
+        int retValue = 0;
+        for (int k = topology.start(vertex); k < topology.end(vertex); k++) {
+            int e = topology.edge(k);
+            if (inPart[e] && !used[e]) {
+                used[e] = true;
+                int next = topology.target(k);
+                int length = 1 + (blocked(next, player) ? 0 : longestFrom(next, player, inPart, used));
+                used[e] = false;
+                retValue = Math.max(retValue, length);
+            }
+        }
+        return retValue;
+    }
+}
@@ -12,6 +12,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import static games.catan.stats.CatanMetrics.CatanEvent.LongestRoadSteal;
 import static games.catan.stats.CatanMetrics.CatanEvent.PortSettle;
 
 public class BuildSettlement extends AbstractAction {
@@ -61,12 +62,61 @@ public class BuildSettlement extends AbstractAction {
             }
             cgs.addScore(playerID, cp.buildingValue.get(Building.Type.Settlement));
 
+            // Check whether this broke the road of another player
+            if (cgs.getRoadNetwork().settlementBuilt(settlement.getComponentID(), playerID)) {
+                int[] roadLengths = cgs.getRoadLengths();
+                for (int p = 0; p < roadLengths.length; p++) {
+                    if (p != playerID) roadLengths[p] = cgs.getRoadNetwork().longest(p);
+                }
+                checkLongestRoad(cgs, cp);
+            }
+
             return true;
         } else {
             throw new AssertionError("Settlement already owned: " + this);
         }
     }
 
+    /**
+     * After a road is broken, nobody has the longest road if no road is now longer than min_longest_road. Otherwise
+     * it stays with its owner if nobody now has a longer road, or else goes to the player with the longest road if
+     * nobody else has a road as long; if not it goes to nobody, until someone builds a longer road.
+     * <p>
+     * The longest road length is set to the longest road now held even when it goes to nobody, so that BuildRoad
+     * then only gives it to a player whose road is longer than this (as well as longer than min_longest_road). After
+     * a tie, a player has to beat the tied roads rather than just match them.
+     */
+    private void checkLongestRoad(CatanGameState cgs, CatanParameters cp) {
+        int[] roadLengths = cgs.getRoadLengths();
+        int owner = cgs.getLongestRoadOwner();
+        int longest = 0, nLongest = 0, newOwner = -1;
+        for (int p = 0; p < roadLengths.length; p++) {
+            if (roadLengths[p] > longest) {
+                longest = roadLengths[p];
+                nLongest = 1;
+                newOwner = p;
+            } else if (roadLengths[p] == longest) {
+                nLongest++;
+            }
+        }
+        if (longest <= cp.min_longest_road) newOwner = -1;
+        else if (owner >= 0 && roadLengths[owner] == longest) newOwner = owner;
+        else if (nLongest > 1) newOwner = -1;
+
+        cgs.setLongestRoadLength(longest);
+        if (newOwner != owner) {
+            if (owner >= 0) cgs.addScore(owner, -cp.longest_road_value);
+            if (newOwner >= 0) {
+                if (owner >= 0) cgs.logEvent(LongestRoadSteal, String.valueOf(newOwner));
+                cgs.addScore(newOwner, cp.longest_road_value);
+            }
+            cgs.setLongestRoadOwner(newOwner);
+            if (cgs.getCoreGameParameters().verbose) {
+                System.out.println("Player " + newOwner + " has the longest road with length " + longest + " after a road was broken");
+            }
+        }
+    }
+
     @Override
     public BuildSettlement copy() {
         return this;
@@ -71,6 +71,6 @@ public class Building extends BoardNodeWithEdges {
 
     @Override
     public String toString() {
-        return type + (harbour != null? " (H: " + harbour + ")" : "") + " ns:" + neighbourEdgeMapping.size();
+        return type + (harbour != null? " (H: " + harbour + ")" : "") + " ns:" + getNeighbourEdgeMapping().size();
     }
 }
@@ -3,7 +3,9 @@ package games.chinesecheckers;
 import core.AbstractGameState;
 import core.CoreConstants;
 import core.StandardForwardModel;
+import core.UndoLog;
 import core.actions.AbstractAction;
+import core.interfaces.IUndoableForwardModel;
 import games.chinesecheckers.actions.MovePeg;
 import games.chinesecheckers.components.CCNode;
 import games.chinesecheckers.components.Peg;
@@ -13,7 +15,7 @@ import java.util.*;
 
 import static core.CoreConstants.GameResult.*;
 
-public class CCForwardModel extends StandardForwardModel {
+public class CCForwardModel extends StandardForwardModel implements IUndoableForwardModel {
 
     private static boolean isColourInPlay(Peg.Colour col, CCGameState state) {
         if (col == Peg.Colour.neutral) return true;
@@ -181,6 +183,27 @@ public class CCForwardModel extends StandardForwardModel {
             endPlayerTurn(state);
     }
 
+    @Override
+    public void _recordUndo(AbstractGameState currentState, AbstractAction action, UndoLog log) {
+        // A move takes a peg from one node to an empty one, and may mark it as in its destination
+        MovePeg move = (MovePeg) action;
+        Peg peg = ((CCGameState) currentState).starBoard.getBoardNodes().get(move.getFrom()).getOccupiedPeg();
+        log.push(peg.getInDestination());
+        log.push(move.getFrom());
+        log.push(move.getTo());
+    }
+
+    @Override
+    public void _undo(AbstractGameState currentState, UndoLog log) {
+        StarBoard board = ((CCGameState) currentState).starBoard;
+        int to = log.popInt();
+        int from = log.popInt();
+        Peg peg = board.getBoardNodes().get(to).getOccupiedPeg();
+        board.setOccupiedPeg(to, null);
+        board.setOccupiedPeg(from, peg);
+        peg.setInDestination(log.popBoolean());
+    }
+
     private boolean checkWinCondition(CCGameState state, Peg.Colour colour) {
         CCParameters params = (CCParameters) state.getGameParameters();
         int[] colourIndices = params.colourIndices.get(colour);
@@ -202,7 +225,7 @@ public class CCForwardModel extends StandardForwardModel {
         CCParameters params = (CCParameters) state.getGameParameters();
         int[] indices = params.colourIndices.get(params.boardOpposites.get(colour));
         for (int i : indices) {
-            state.starBoard.getBoardNodes().get(i).setOccupiedPeg(new Peg(colour, state.starBoard.getBoardNodes().get(i)));
+            state.starBoard.setOccupiedPeg(i, new Peg(colour, state.starBoard.getBoardNodes().get(i)));
         }
     }
 }
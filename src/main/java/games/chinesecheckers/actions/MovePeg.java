@@ -25,12 +25,11 @@ public class MovePeg extends AbstractAction {
         CCGameState state = (CCGameState) gs;
         CCParameters params = (CCParameters) gs.getGameParameters();
         CCNode nodeStart = state.getStarBoard().getBoardNodes().get(from);
-        CCNode nodeDestination = state.getStarBoard().getBoardNodes().get(to);
 
         Peg peg = nodeStart.getOccupiedPeg();
 
-        nodeStart.setOccupiedPeg(null);
-        nodeDestination.setOccupiedPeg(peg);
+        state.getStarBoard().setOccupiedPeg(from, null);
+        state.getStarBoard().setOccupiedPeg(to, peg);
 
         // Then check to see if this is the destination node for the peg
         Peg.Colour colour = peg.getColour();
@@ -3,13 +3,18 @@ package games.chinesecheckers.components;
 import core.CoreConstants;
 import core.components.Component;
 import core.interfaces.IComponentContainer;
+import core.interfaces.IZobristHashable;
 import games.chinesecheckers.CCParameters;
+import utilities.Zobrist;
+
 import java.util.*;
 
-public class StarBoard extends Component implements IComponentContainer<CCNode> {
+public class StarBoard extends Component implements IComponentContainer<CCNode>, IZobristHashable {
 
     // List of nodes in the board graph
     protected List<CCNode> boardNodes;
+    // XOR of the keys of all (node, peg colour) pairs, maintained by setOccupiedPeg()
+    protected long zobristHash;
     
     public StarBoard() {
         super(CoreConstants.ComponentType.BOARD);
@@ -55,6 +60,7 @@ public class StarBoard extends Component implements IComponentContainer<CCNode>
         b.setBoardNodes(new ArrayList<>(nodeCopies.values()));
         // Copy properties
         copyComponentTo(b);
+        b.zobristHash = zobristHash;
 
         return b;
     }
@@ -67,6 +73,28 @@ public class StarBoard extends Component implements IComponentContainer<CCNode>
     }
 
 
+    /**
+     * Places a peg on (or, if peg is null, removes the peg from) a node of the board. Pegs should be moved with
+     * this method rather than CCNode.setOccupiedPeg() so that the Zobrist hash is kept up to date.
+     *
+     * @param nodeIndex - index of the node in the list of board nodes
+     * @param peg       - the peg to place, or null
+     */
+    public void setOccupiedPeg(int nodeIndex, Peg peg) {
+        CCNode node = boardNodes.get(nodeIndex);
+        zobristHash ^= pegKey(nodeIndex, node.getOccupiedPeg()) ^ pegKey(nodeIndex, peg);
+        node.setOccupiedPeg(peg);
+    }
+
+    private long pegKey(int nodeIndex, Peg peg) {
+        return peg == null ? 0L : Zobrist.key(componentID, nodeIndex, peg.getColour().ordinal());
+    }
+
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
     /**
      * Sets the list of board nodes to the given list.
      * @param boardNodes - new list of board nodes.
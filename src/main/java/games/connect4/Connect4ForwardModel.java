@@ -1,11 +1,13 @@
 package games.connect4;
 import core.AbstractGameState;
 import core.CoreConstants;
+import core.UndoLog;
 import core.actions.AbstractAction;
 import core.actions.SetGridValueAction;
 import core.components.GridBoard;
 import core.components.Token;
 import core.forwardModels.SequentialActionForwardModel;
+import core.interfaces.IUndoableForwardModel;
 import utilities.Pair;
 
 import java.util.ArrayList;
@@ -14,7 +16,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 
-public class Connect4ForwardModel extends SequentialActionForwardModel {
+public class Connect4ForwardModel extends SequentialActionForwardModel implements IUndoableForwardModel {
 
     @Override
     protected void _setup(AbstractGameState firstState) {
@@ -61,6 +63,27 @@ public class Connect4ForwardModel extends SequentialActionForwardModel {
         super._afterAction(currentState, action);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public void _recordUndo(AbstractGameState currentState, AbstractAction action, UndoLog log) {
+        // the action sets one cell, and may end the game (which replaces the list of winning cells)
+        Connect4GameState c4gs = (Connect4GameState) currentState;
+        SetGridValueAction<Token> move = (SetGridValueAction<Token>) action;
+        log.pushObject(c4gs.winnerCells);
+        log.pushObject(c4gs.gridBoard.getElement(move.getX(), move.getY()));
+        log.push(move.getX());
+        log.push(move.getY());
+    }
+
+    @Override
+    public void _undo(AbstractGameState currentState, UndoLog log) {
+        Connect4GameState c4gs = (Connect4GameState) currentState;
+        int y = log.popInt();
+        int x = log.popInt();
+        c4gs.gridBoard.setElement(x, y, log.popObject());
+        c4gs.winnerCells = log.popObject();
+    }
+
     /**
      * Checks if the game ended.
      *
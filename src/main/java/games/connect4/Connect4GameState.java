@@ -43,7 +43,7 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
 
     @Override
     protected AbstractGameState _copy(int playerId) {
-        Connect4GameState s = new Connect4GameState(gameParameters.copy(), getNPlayers());
+        Connect4GameState s = new Connect4GameState(gameParameters, getNPlayers());
         s.gridBoard = gridBoard.copy();
 
         s.winnerCells.clear();
@@ -53,6 +53,18 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
         return s;
     }
 
+    @Override
+    protected boolean _copyInto(AbstractGameState target, int playerId) {
+        Connect4GameState s = (Connect4GameState) target;
+        s.gridBoard = gridBoard.copyInto(s.gridBoard);
+
+        s.winnerCells.clear();
+        for (Pair<Integer, Integer> wC : this.winnerCells)
+            s.winnerCells.add(wC.copy());
+
+        return true;
+    }
+
     @Override
     protected double _getHeuristicScore(int playerId) {
         return new Connect4Heuristic().evaluateState(this, playerId);
@@ -75,7 +87,6 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Connect4GameState)) return false;
-        if (!super.equals(o)) return false;
         Connect4GameState that = (Connect4GameState) o;
         return Objects.equals(gridBoard, that.gridBoard);
     }
@@ -104,6 +115,11 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
         return Objects.hash(super.hashCode(), gridBoard);
     }
 
+    @Override
+    protected long _getZobristHash() {
+        return gridBoard.getZobristHash();
+    }
+
     @Override
     public GridBoard<Token> getGridBoard() {
         return gridBoard;
@@ -385,6 +385,14 @@ public class DominionGameState extends AbstractGameState implements IPrintable {
             playerDiscards[i] = new Deck<>("Discard of Player " + i + 1, i, VISIBLE_TO_ALL);
             playerTableaux[i] = new Deck<>("Tableau of Player " + i + 1, i, VISIBLE_TO_ALL);
         }
+        // DominionCards are immutable, so the decks can share them (and their Lists) between copies of the state
+        trashPile.setCopyOnWrite(true);
+        for (int i = 0; i < nPlayers; i++) {
+            playerHands[i].setCopyOnWrite(true);
+            playerDrawPiles[i].setCopyOnWrite(true);
+            playerDiscards[i].setCopyOnWrite(true);
+            playerTableaux[i].setCopyOnWrite(true);
+        }
         super.reset();
     }
 
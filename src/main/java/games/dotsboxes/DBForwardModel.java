@@ -2,12 +2,14 @@ package games.dotsboxes;
 
 import core.AbstractGameState;
 import core.StandardForwardModel;
+import core.UndoLog;
 import core.actions.AbstractAction;
+import core.interfaces.IUndoableForwardModel;
 import utilities.Vector2D;
 
 import java.util.*;
 
-public class DBForwardModel extends StandardForwardModel {
+public class DBForwardModel extends StandardForwardModel implements IUndoableForwardModel {
 
     @Override
     protected void _setup(AbstractGameState firstState) {
@@ -20,6 +22,7 @@ public class DBForwardModel extends StandardForwardModel {
         dbgs.cellToEdgesMap = new HashMap<>();
         dbgs.cellToOwnerMap = new HashMap<>();
         dbgs.edgeToOwnerMap = new HashMap<>();
+        dbgs.zobristHash = 0L;
         dbgs.edges = new HashSet<>();
         dbgs.cells = new HashSet<>();
         for (int i = 0; i < dbp.gridHeight; i++) {
@@ -62,6 +65,27 @@ public class DBForwardModel extends StandardForwardModel {
         }
     }
 
+    @Override
+    public void _recordUndo(AbstractGameState currentState, AbstractAction action, UndoLog log) {
+        log.push(((DBGameState) currentState).lastActionDidNotScore);
+        log.pushObject(((AddGridCellEdge) action).edge);
+    }
+
+    @Override
+    public void _undo(AbstractGameState currentState, UndoLog log) {
+        DBGameState dbgs = (DBGameState) currentState;
+        DBEdge edge = log.popObject();
+        // The edge was not present before the move, so any neighbouring cell that is now complete
+        // must have been completed by this move
+        for (DBCell c : dbgs.edgeToCellMap.get(edge)) {
+            Integer owner = dbgs.removeCellOwner(c);
+            if (owner != null)
+                dbgs.nCellsPerPlayer[owner]--;
+        }
+        dbgs.removeEdgeOwner(edge);
+        dbgs.lastActionDidNotScore = log.popBoolean();
+    }
+
     @Override
     protected List<AbstractAction> _computeAvailableActions(AbstractGameState gameState) {
 
@@ -5,6 +5,7 @@ import core.AbstractParameters;
 import core.components.Component;
 import core.interfaces.IStateHeuristic;
 import games.GameType;
+import utilities.Zobrist;
 
 import java.util.*;
 
@@ -26,6 +27,8 @@ public class DBGameState extends AbstractGameState {
     HashMap<DBCell, Integer> cellToOwnerMap;  // Mapping from each cell to its owner, if complete
     HashMap<DBEdge, Integer> edgeToOwnerMap;  // Mapping from each edge to its owner, if placed
     boolean lastActionDidNotScore;
+    // XOR of the keys of all (edge, owner) and (cell, owner) pairs, maintained by setEdgeOwner() and setCellOwner()
+    long zobristHash;
 
     /**
      * Constructor. Initialises some generic game state variables.
@@ -55,6 +58,7 @@ public class DBGameState extends AbstractGameState {
         dbgs.edgeToCellMap = edgeToCellMap;
         dbgs.cellToEdgesMap = cellToEdgesMap;
         dbgs.lastActionDidNotScore = lastActionDidNotScore;
+        dbgs.zobristHash = zobristHash;
 
         dbgs.nCellsPerPlayer = nCellsPerPlayer.clone();
         dbgs.cellToOwnerMap = (HashMap<DBCell, Integer>) cellToOwnerMap.clone();
@@ -63,6 +67,30 @@ public class DBGameState extends AbstractGameState {
         return dbgs;
     }
 
+    @Override
+    protected boolean _copyInto(AbstractGameState target, int playerId) {
+        DBGameState dbgs = (DBGameState) target;
+        if (dbgs.cellToOwnerMap == null || dbgs.edgeToOwnerMap == null)
+            return false;  // target has not been set up
+        dbgs.edges = edges;
+        dbgs.cells = cells;
+        dbgs.edgeToCellMap = edgeToCellMap;
+        dbgs.cellToEdgesMap = cellToEdgesMap;
+        dbgs.lastActionDidNotScore = lastActionDidNotScore;
+        dbgs.zobristHash = zobristHash;
+
+        if (dbgs.nCellsPerPlayer != null && dbgs.nCellsPerPlayer.length == nCellsPerPlayer.length)
+            System.arraycopy(nCellsPerPlayer, 0, dbgs.nCellsPerPlayer, 0, nCellsPerPlayer.length);
+        else
+            dbgs.nCellsPerPlayer = nCellsPerPlayer.clone();
+        dbgs.cellToOwnerMap.clear();
+        dbgs.cellToOwnerMap.putAll(cellToOwnerMap);
+        dbgs.edgeToOwnerMap.clear();
+        dbgs.edgeToOwnerMap.putAll(edgeToOwnerMap);
+        dbgs.heuristic = heuristic;
+        return true;
+    }
+
     @Override
     protected double _getHeuristicScore(int playerId) {
         if (heuristic == null) { // lazy initialization
@@ -88,7 +116,6 @@ public class DBGameState extends AbstractGameState {
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof DBGameState)) return false;
-        if (!super.equals(o)) return false;
         DBGameState that = (DBGameState) o;
         return lastActionDidNotScore == that.lastActionDidNotScore && Objects.equals(heuristic, that.heuristic)
                 && Objects.equals(edges, that.edges) && Objects.equals(cells, that.cells) &&
@@ -107,6 +134,12 @@ public class DBGameState extends AbstractGameState {
         return result;
     }
 
+    @Override
+    protected long _getZobristHash() {
+        // nCellsPerPlayer is fully determined by the cell owners
+        return lastActionDidNotScore ? ~zobristHash : zobristHash;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -159,6 +192,44 @@ public class DBGameState extends AbstractGameState {
         }
         return retValue;
     }
+    public void setEdgeOwner(DBEdge edge, int player) {
+        Integer previous = edgeToOwnerMap.put(edge, player);
+        if (previous != null)
+            zobristHash ^= Zobrist.key(0, edge.hashCode(), previous);
+        zobristHash ^= Zobrist.key(0, edge.hashCode(), player);
+    }
+
+    public void setCellOwner(DBCell cell, int player) {
+        Integer previous = cellToOwnerMap.put(cell, player);
+        if (previous != null)
+            zobristHash ^= Zobrist.key(1, cell.hashCode(), previous);
+        zobristHash ^= Zobrist.key(1, cell.hashCode(), player);
+    }
+
+    /**
+     * Removes the owner of the edge (used to undo a move).
+     *
+     * @return the previous owner, or null if the edge had none
+     */
+    public Integer removeEdgeOwner(DBEdge edge) {
+        Integer previous = edgeToOwnerMap.remove(edge);
+        if (previous != null)
+            zobristHash ^= Zobrist.key(0, edge.hashCode(), previous);
+        return previous;
+    }
+
+    /**
+     * Removes the owner of the cell (used to undo a move).
+     *
+     * @return the previous owner, or null if the cell had none
+     */
+    public Integer removeCellOwner(DBCell cell) {
+        Integer previous = cellToOwnerMap.remove(cell);
+        if (previous != null)
+            zobristHash ^= Zobrist.key(1, cell.hashCode(), previous);
+        return previous;
+    }
+
     public boolean getLastActionDidNotScore(){return lastActionDidNotScore;}
     public void setLastActionDidNotScore(boolean value){
         lastActionDidNotScore = value;}
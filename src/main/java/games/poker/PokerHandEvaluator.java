@@ -0,0 +1,206 @@
+package games.poker;
+
+import core.components.FrenchCard;
+
+import java.util.Random;
+
+/**
+ * Evaluates poker hands of any number of cards (such as the 7 cards available to a player at the showdown in Texas
+ * Hold'em) as a single int, the strength of the best 5-card hand that can be made from them. A stronger hand always
+ * has a larger strength, and two hands that split the pot have the same one.
+ * <p>
+ * A set of cards is packed in a long, with one bit for each card: bit (16 * suit + rank), where rank is 0 for a Two up
+ * to 12 for an Ace. This gives a 13-bit mask of the ranks held in each suit, from which pairs, trips and quads are
+ * found with bitwise operations, and straights and the highest ranks with tables indexed by a rank mask. Nothing is
+ * allocated, so this is cheap enough to call in every rollout.
+ * <p>
+ * The strength is the category of the hand (the ordinal of PokerHand counted from HighCard) in bits 20 and up, then the
+ * ranks that decide between two hands of that category, most significant first, in the 4-bit groups below that.
+ */
+public final class PokerHandEvaluator {
+
+    private static final int nRanks = 13;
+    private static final int rankMask = (1 << nRanks) - 1;
+    private static final PokerGameState.PokerHand[] hands = PokerGameState.PokerHand.values();
+
+    // Categories, from weakest to strongest
+    private static final int HIGH_CARD = 0, ONE_PAIR = 1, TWO_PAIR = 2, THREE_OF_A_KIND = 3, STRAIGHT = 4,
+            FLUSH = 5, FULL_HOUSE = 6, FOUR_OF_A_KIND = 7, STRAIGHT_FLUSH = 8, ROYAL_FLUSH = 9;
+
+    // For each rank mask: 1 + the rank of the highest card of the best straight in it (0 if none)
+    private static final byte[] straightTop = new byte[1 << nRanks];
+    // For each rank mask: 1 + each of the 5 highest ranks in it, highest first in the top 4 of 20 bits
+    private static final int[] topRanks = new int[1 << nRanks];
+
+    static {
+        int wheel = 1 << 12 | 0b1111;  // A-2-3-4-5
+        for (int mask = 0; mask <= rankMask; mask++) {
+            for (int top = nRanks - 1; top >= 4; top--) {
+                int straight = 0b11111 << (top - 4);
+                if ((mask & straight) == straight) {
+                    straightTop[mask] = (byte) (top + 1);
+                    break;
+                }
+            }
+            if (straightTop[mask] == 0 && (mask & wheel) == wheel)
+                straightTop[mask] = 4;  // the Five is the highest card
+
+            int packed = 0, n = 0;
+            for (int rank = nRanks - 1; rank >= 0 && n < 5; rank--) {
+                if ((mask & (1 << rank)) != 0) {
+                    packed |= (rank + 1) << (4 * (4 - n));
+                    n++;
+                }
+            }
+            topRanks[mask] = packed;
+        }
+    }
+
+    private PokerHandEvaluator() {
+    }
+
+    /**
+     * @return the bit for the card in a set of cards
+     */
+    public static long card(FrenchCard card) {
+        return 1L << (16 * card.suite.ordinal() + card.number - 2);
+    }
+
+    /**
+     * @return the set of the cards
+     */
+    public static long cards(Iterable<FrenchCard> cards) {
+        long retValue = 0;
+        for (FrenchCard card : cards)
+            retValue |= card(card);
+        return retValue;
+    }
+
+    /**
+     * @param cards set of distinct cards, as from cards()
+     * @return the strength of the best hand that can be made from them
+     */
+    public static int evaluate(long cards) {
+        int s0 = (int) cards & rankMask, s1 = (int) (cards >>> 16) & rankMask,
+                s2 = (int) (cards >>> 32) & rankMask, s3 = (int) (cards >>> 48) & rankMask;
+
+        int flush = 0;
+        if (Integer.bitCount(s0) >= 5) flush = s0;
+        else if (Integer.bitCount(s1) >= 5) flush = s1;
+        else if (Integer.bitCount(s2) >= 5) flush = s2;
+        else if (Integer.bitCount(s3) >= 5) flush = s3;
+        if (flush != 0 && straightTop[flush] != 0) {
+            int top = straightTop[flush];
+            return (top == nRanks ? ROYAL_FLUSH : STRAIGHT_FLUSH) << 20 | top << 16;
+        }
+
+        // ranks held in at least one, two, three and all four suits
+        int any = s0 | s1 | s2 | s3;
+        int quads = s0 & s1 & s2 & s3;
+        int threes = (s0 & s1 & (s2 | s3)) | (s2 & s3 & (s0 | s1));
+        int pairs = (s0 & (s1 | s2 | s3)) | (s1 & (s2 | s3)) | (s2 & s3);
+
+        if (quads != 0) {
+            int quad = highest(quads);
+            return FOUR_OF_A_KIND << 20 | (quad + 1) << 16 | top(any & ~(1 << quad), 1) << 12;
+        }
+        if (threes != 0) {
+            int three = highest(threes);
+            int rest = pairs & ~(1 << three);
+            if (rest != 0)
+                return FULL_HOUSE << 20 | (three + 1) << 16 | (highest(rest) + 1) << 12;
+        }
+        if (flush != 0)
+            return FLUSH << 20 | topRanks[flush];
+        if (straightTop[any] != 0)
+            return STRAIGHT << 20 | straightTop[any] << 16;
+        if (threes != 0) {
+            int three = highest(threes);
+            return THREE_OF_A_KIND << 20 | (three + 1) << 16 | top(any & ~(1 << three), 2) << 8;
+        }
+        if (pairs != 0) {
+            int pair = highest(pairs);
+            int rest = pairs & ~(1 << pair);
+            if (rest != 0) {
+                int second = highest(rest);
+                return TWO_PAIR << 20 | (pair + 1) << 16 | (second + 1) << 12 |
+                        top(any & ~(1 << pair) & ~(1 << second), 1) << 8;
+            }
+            return ONE_PAIR << 20 | (pair + 1) << 16 | top(any & ~(1 << pair), 3) << 4;
+        }
+        return HIGH_CARD << 20 | topRanks[any];
+    }
+
+    private static int highest(int mask) {
+        return 31 - Integer.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * @return the n highest ranks in the mask, packed as in topRanks
+     */
+    private static int top(int mask, int n) {
+        return topRanks[mask] >>> (4 * (5 - n));
+    }
+
+    /**
+     * @return the type of the hand with this strength
+     */
+    public static PokerGameState.PokerHand handType(int strength) {
+        return hands[hands.length - 1 - (strength >>> 20)];
+    }
+
+    /**
+     * Estimates the share of the pot a hand would win at the showdown, by dealing the rest of the community cards and
+     * the hands of the opponents at random from the cards that are left.
+     *
+     * @param hand       the cards of the player
+     * @param community  the community cards so far
+     * @param nCommunity the number of community cards at the showdown
+     * @param nOpponents the number of opponents still in the round; each has as many cards as the player
+     * @param nSamples   the number of deals to try
+     * @return the average share of the pot won, from 0 to 1
+     */
+    public static double equity(long hand, long community, int nCommunity, int nOpponents, int nSamples, Random rnd) {
+        int nHand = Long.bitCount(hand);
+        int toCome = nCommunity - Long.bitCount(community);
+        int toDeal = toCome + nOpponents * nHand;
+        long known = hand | community;
+        int[] deck = new int[52 - Long.bitCount(known)];
+        if (toDeal > deck.length || toCome < 0)
+            throw new IllegalArgumentException("Cannot deal " + toDeal + " cards from " + deck.length);
+        int n = 0;
+        for (int suit = 0; suit < 4; suit++)
+            for (int rank = 0; rank < nRanks; rank++)
+                if ((known & 1L << (16 * suit + rank)) == 0)
+                    deck[n++] = 16 * suit + rank;
+
+        double total = 0;
+        for (int sample = 0; sample < nSamples; sample++) {
+            // the first toDeal cards of the deck are shuffled in turn
+            for (int i = 0; i < toDeal; i++) {
+                int j = i + rnd.nextInt(deck.length - i);
+                int swap = deck[i];
+                deck[i] = deck[j];
+                deck[j] = swap;
+            }
+            int next = 0;
+            long board = community;
+            while (next < toCome)
+                board |= 1L << deck[next++];
+            int strength = evaluate(hand | board);
+            int nTied = 1;
+            boolean beaten = false;
+            for (int o = 0; o < nOpponents && !beaten; o++) {
+                long opponent = board;
+                for (int c = 0; c < nHand; c++)
+                    opponent |= 1L << deck[next++];
+                int other = evaluate(opponent);
+                if (other > strength) beaten = true;
+                else if (other == strength) nTied++;
+            }
+            if (!beaten)
+                total += 1.0 / nTied;
+        }
+        return total / nSamples;
+    }
+}
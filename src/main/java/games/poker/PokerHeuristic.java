@@ -15,11 +15,15 @@ public class PokerHeuristic extends TunableParameters implements IStateHeuristic
     double FACTOR_MONEY = 0.8;
     double FACTOR_HAND = 0.2;
     double FACTOR_HAND_OVER_MONEY = 0.0;
+    double FACTOR_EQUITY = 0.0;
+    int EQUITY_SAMPLES = 100;
 
     public PokerHeuristic() {
         addTunableParameter("FACTOR_MONEY", 0.8);
         addTunableParameter("FACTOR_HAND", 0.2);
         addTunableParameter("FACTOR_HAND_OVER_MONEY", 0.0);
+        addTunableParameter("FACTOR_EQUITY", 0.0);
+        addTunableParameter("EQUITY_SAMPLES", 100);
     }
 
     @Override
@@ -27,6 +31,8 @@ public class PokerHeuristic extends TunableParameters implements IStateHeuristic
         FACTOR_MONEY = (double) getParameterValue("FACTOR_MONEY");
         FACTOR_HAND = (double) getParameterValue("FACTOR_HAND");
         FACTOR_HAND_OVER_MONEY = (double) getParameterValue("FACTOR_HAND_OVER_MONEY");
+        FACTOR_EQUITY = (double) getParameterValue("FACTOR_EQUITY");
+        EQUITY_SAMPLES = (int) getParameterValue("EQUITY_SAMPLES");
     }
 
     /**
@@ -40,6 +46,8 @@ public class PokerHeuristic extends TunableParameters implements IStateHeuristic
         retValue.FACTOR_MONEY = FACTOR_MONEY;
         retValue.FACTOR_HAND = FACTOR_HAND;
         retValue.FACTOR_HAND_OVER_MONEY = FACTOR_HAND_OVER_MONEY;
+        retValue.FACTOR_EQUITY = FACTOR_EQUITY;
+        retValue.EQUITY_SAMPLES = EQUITY_SAMPLES;
         return retValue;
     }
 
@@ -54,7 +62,8 @@ public class PokerHeuristic extends TunableParameters implements IStateHeuristic
         if (o instanceof PokerHeuristic) {
             PokerHeuristic other = (PokerHeuristic) o;
             return other.FACTOR_MONEY == FACTOR_MONEY && other.FACTOR_HAND == FACTOR_HAND &&
-                    other.FACTOR_HAND_OVER_MONEY == FACTOR_HAND_OVER_MONEY;
+                    other.FACTOR_HAND_OVER_MONEY == FACTOR_HAND_OVER_MONEY &&
+                    other.FACTOR_EQUITY == FACTOR_EQUITY && other.EQUITY_SAMPLES == EQUITY_SAMPLES;
         }
         return false;
     }
@@ -157,8 +166,28 @@ public class PokerHeuristic extends TunableParameters implements IStateHeuristic
             }
         }
         return value * FACTOR_HAND / 100.0 + pgs.playerMoney[playerId].getValue() / maxMoney * FACTOR_MONEY +
-                value * 1.0 / (pgs.playerMoney[playerId].getValue() + 1) * FACTOR_HAND_OVER_MONEY;
+                value * 1.0 / (pgs.playerMoney[playerId].getValue() + 1) * FACTOR_HAND_OVER_MONEY +
+                (FACTOR_EQUITY == 0.0 ? 0.0 : equity(pgs, playerId) * FACTOR_EQUITY);
         // FACTOR_HAND_OVER_MONEY is purely for backwards compatibility with the original heuristic
     }
 
+    /**
+     * @return the estimated share of the pot the player would win if the round went to a showdown now, from the
+     * cards they can see (0 if they have folded). The same cards always give the same estimate.
+     */
+    double equity(PokerGameState pgs, int playerId) {
+        if (pgs.playerFold[playerId])
+            return 0.0;
+        PokerGameParameters params = (PokerGameParameters) pgs.getGameParameters();
+        int nOpponents = 0;
+        for (int i = 0; i < pgs.getNPlayers(); i++) {
+            if (i != playerId && !pgs.playerFold[i] && pgs.getPlayerResults()[i] != CoreConstants.GameResult.LOSE_GAME)
+                nOpponents++;
+        }
+        long hand = PokerHandEvaluator.cards(pgs.getPlayerDecks().get(playerId).getComponents());
+        long community = PokerHandEvaluator.cards(pgs.getCommunityCards().getComponents());
+        int nCommunity = params.nFlopCards + params.nTurnCards + params.nRiverCards;
+        return PokerHandEvaluator.equity(hand, community, nCommunity, nOpponents, EQUITY_SAMPLES, new Random(31 * hand + community));
+    }
+
 }
@@ -72,7 +72,8 @@ public class PuertoRicoParameters extends TunableParameters {
 
     @Override
     protected boolean _equals(Object o) {
-        return o == this;
+        // as in _copy(), none of the fields can be changed yet
+        return o instanceof PuertoRicoParameters;
     }
 
     @Override
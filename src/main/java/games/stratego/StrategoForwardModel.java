@@ -3,10 +3,12 @@ package games.stratego;
 import core.AbstractGameState;
 import core.CoreConstants;
 import core.StandardForwardModel;
+import core.UndoLog;
 import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.components.GridBoard;
 import core.interfaces.ITreeActionSpace;
+import core.interfaces.IUndoableForwardModel;
 import games.stratego.actions.AttackMove;
 import games.stratego.actions.Move;
 import games.stratego.actions.NormalMove;
@@ -20,7 +22,7 @@ import utilities.Vector2D;
 import java.util.ArrayList;
 import java.util.List;
 
-public class StrategoForwardModel extends StandardForwardModel implements ITreeActionSpace {
+public class StrategoForwardModel extends StandardForwardModel implements ITreeActionSpace, IUndoableForwardModel {
 
     public enum EndCondition {
         FLAG_CAPTURE,
@@ -122,6 +124,48 @@ public class StrategoForwardModel extends StandardForwardModel implements ITreeA
         }
     }
 
+    @Override
+    public void _recordUndo(AbstractGameState currentState, AbstractAction action, UndoLog log) {
+        // A Move (normal or attack) only changes the pieces in its start and end positions: their position
+        // on the board, and whether they are known. (A DeepMove just selects the piece to move, and changes nothing
+        // outside the core state.)
+        if (action instanceof Move move) {
+            StrategoGameState state = (StrategoGameState) currentState;
+            recordCell(state.gridBoard, move.to(state), log);
+            recordCell(state.gridBoard, move.from(state), log);
+            log.push(2);
+        } else {
+            log.push(0);
+        }
+    }
+
+    private void recordCell(GridBoard<Piece> board, Vector2D position, UndoLog log) {
+        Piece piece = board.getElement(position.getX(), position.getY());
+        if (piece != null) {
+            log.pushObject(piece.getPiecePosition());
+            log.push(piece.isPieceKnown());
+        }
+        log.pushObject(piece);
+        log.push(position.getX());
+        log.push(position.getY());
+    }
+
+    @Override
+    public void _undo(AbstractGameState currentState, UndoLog log) {
+        GridBoard<Piece> board = ((StrategoGameState) currentState).gridBoard;
+        int nCells = log.popInt();
+        for (int i = 0; i < nCells; i++) {
+            int y = log.popInt();
+            int x = log.popInt();
+            Piece piece = log.popObject();
+            if (piece != null) {
+                piece.setPieceKnown(log.popBoolean());
+                piece.setPiecePosition(log.popObject());
+            }
+            board.setElement(x, y, piece);
+        }
+    }
+
     private String getDirection(Vector2D pos1, Vector2D pos2) {
         if (pos1.getX() == pos2.getX()) {
             if (pos1.getY() > pos2.getY()) {
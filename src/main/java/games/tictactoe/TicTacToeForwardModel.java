@@ -3,12 +3,14 @@ package games.tictactoe;
 import core.AbstractGameState;
 import core.CoreConstants;
 import core.StandardForwardModel;
+import core.UndoLog;
 import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.actions.SetGridValueAction;
 import core.components.GridBoard;
 import core.components.Token;
 import core.interfaces.ITreeActionSpace;
+import core.interfaces.IUndoableForwardModel;
 import utilities.ActionTreeNode;
 
 import java.util.ArrayList;
@@ -16,7 +18,7 @@ import java.util.Arrays;
 import java.util.List;
 
 
-public class TicTacToeForwardModel extends StandardForwardModel implements ITreeActionSpace {
+public class TicTacToeForwardModel extends StandardForwardModel implements ITreeActionSpace, IUndoableForwardModel {
 
     @Override
     protected void _setup(AbstractGameState firstState) {
@@ -58,6 +60,23 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
         endPlayerTurn(currentState);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public void _recordUndo(AbstractGameState currentState, AbstractAction action, UndoLog log) {
+        // the only game-specific change is to the cell set by the action
+        SetGridValueAction<Token> move = (SetGridValueAction<Token>) action;
+        log.pushObject(((TicTacToeGameState) currentState).gridBoard.getElement(move.getX(), move.getY()));
+        log.push(move.getX());
+        log.push(move.getY());
+    }
+
+    @Override
+    public void _undo(AbstractGameState currentState, UndoLog log) {
+        int y = log.popInt();
+        int x = log.popInt();
+        ((TicTacToeGameState) currentState).gridBoard.setElement(x, y, log.popObject());
+    }
+
     /**
      * Checks if the game ended.
      *
@@ -38,11 +38,18 @@ public class TicTacToeGameState extends AbstractGameState implements IPrintable,
 
     @Override
     protected TicTacToeGameState _copy(int playerId) {
-        TicTacToeGameState s = new TicTacToeGameState(gameParameters.copy(), getNPlayers());
+        TicTacToeGameState s = new TicTacToeGameState(gameParameters, getNPlayers());
         s.gridBoard = gridBoard.copy();
         return s;
     }
 
+    @Override
+    protected boolean _copyInto(AbstractGameState target, int playerId) {
+        TicTacToeGameState s = (TicTacToeGameState) target;
+        s.gridBoard = gridBoard.copyInto(s.gridBoard);
+        return true;
+    }
+
     @Override
     protected double _getHeuristicScore(int playerId) {
         return new TicTacToeHeuristic().evaluateState(this, playerId);
@@ -73,6 +80,11 @@ public class TicTacToeGameState extends AbstractGameState implements IPrintable,
     public int hashCode() {
         return Objects.hash(super.hashCode(), gridBoard);
     }
+
+    @Override
+    protected long _getZobristHash() {
+        return gridBoard.getZobristHash();
+    }
     @Override
     public String toString() {
         return Objects.hash(gameParameters) + "|" +
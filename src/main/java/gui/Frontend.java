@@ -295,8 +295,10 @@ public class Frontend extends GUI {
                 System.out.println("Playing `" + gameType.name() + "` with players: " + Arrays.toString(playerNames));
 
                 gamePanel.removeAll();
-                TunableParameters params = gameParameters[gameOptions.getSelectedIndex()];
+                // the game is given its own copy of the parameters, as these are frozen while it is played
+                AbstractParameters params = gameParameters[gameOptions.getSelectedIndex()];
                 if (params != null) {
+                    params = params.copy();
                     params.setRandomSeed(seed);
                 }
                 gameRunning = gameType.createGameInstance(players.size(), params);
@@ -22,6 +22,8 @@ public class PlayerParameters extends TunableParameters {
     // otherwise the Random() object will be used from the old game, ensuring that we do not take exactly the same
     // set of actions
     public boolean resetSeedEachGame = false;
+    // profileSearch records the time spent in each phase of the search (see SearchProfile), for agents that support it
+    public boolean profileSearch = false;
 
     // Heuristic
     public IStateHeuristic gameHeuristic;
@@ -39,6 +41,7 @@ public class PlayerParameters extends TunableParameters {
         addTunableParameter("actionSpaceContext", ActionSpace.Context.Default, Arrays.asList(ActionSpace.Context.values()));
         addTunableParameter("randomSeed", (int) System.currentTimeMillis());
         addTunableParameter("resetSeedEachGame", false);
+        addTunableParameter("profileSearch", false);
         addTunableParameter("epsilon", 1e-6);
         addTunableParameter("actionRestriction", IPlayerDecorator.class);
     }
@@ -56,6 +59,7 @@ public class PlayerParameters extends TunableParameters {
         setRandomSeed( (int) getParameterValue("randomSeed"));
         budget = (int) getParameterValue("budget");
         resetSeedEachGame = (boolean) getParameterValue("resetSeedEachGame");
+        profileSearch = (boolean) getParameterValue("profileSearch");
         breakMS = (int) getParameterValue("breakMS");
         noiseEpsilon = (double) getParameterValue("epsilon");
         budgetType = (PlayerConstants) getParameterValue("budgetType");
@@ -0,0 +1,44 @@
+package players;
+
+import jdk.jfr.*;
+
+/**
+ * The JFR event committed by SearchProfile at the end of each search; one for each phase of the search.
+ * Start a recording with this event enabled (it is by default) to see these alongside the JVM's own events, e.g.
+ * -XX:StartFlightRecording:filename=search.jfr
+ */
+@Name("tag.SearchPhase")
+@Label("Search Phase")
+@Category({"TAG", "Search"})
+@Description("Time spent in one phase of an agent's search for a single decision")
+@StackTrace(false)
+public class SearchPhaseEvent extends Event {
+
+    private static final SearchPhaseEvent probe = new SearchPhaseEvent();
+
+    @Label("Player")
+    public String player;
+
+    @Label("Player ID")
+    public int playerID;
+
+    @Label("Iterations")
+    public int iterations;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long time;
+
+    @Label("Calls")
+    public long calls;
+
+    /**
+     * @return true if a recording is running with this event enabled
+     */
+    static boolean isRecording() {
+        return probe.isEnabled();
+    }
+}
@@ -0,0 +1,139 @@
+package players;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Accumulates the time taken (in nanoseconds) and the number of calls for each phase of a search, to show whether
+ * copying, action generation, the forward model or evaluation is the bottleneck in a game.
+ * <p>
+ * This is switched on with the profileSearch player parameter. When it is off the DISABLED instance is used, and
+ * start() and stop() do nothing beyond checking a final field, so the instrumentation can be left in the search code.
+ * <p>
+ * The phases overlap: Selection, Rollout and BackUp (plus Copy) make up one search iteration, and Expansion is part
+ * of Selection; while Actions, ForwardModel and Evaluation are timed wherever they are called, and so are included
+ * in the time of the other phases.
+ * <p>
+ * The results are reported by the SearchProfileStats metrics of each agent, and (if a JFR recording is running)
+ * as one SearchPhaseEvent for each phase at the end of each search.
+ */
+public class SearchProfile {
+
+    public enum Phase {
+        Copy,           // copies of the root state for each iteration
+        Selection,      // the tree policy (or selection and crossover for an evolutionary algorithm)
+        Expansion,      // adding a new node to the tree
+        Rollout,        // rollouts, including the evaluation of the final state
+        BackUp,         // back-propagation, including MAST statistics
+        Actions,        // computeAvailableActions()
+        ForwardModel,   // next()
+        Evaluation      // state and action heuristics
+    }
+
+    private static final Phase[] phases = Phase.values();
+    public static final SearchProfile DISABLED = new SearchProfile(false);
+
+    public final boolean enabled;
+    private final long[] nanos = new long[phases.length];
+    private final long[] calls = new long[phases.length];
+
+    private SearchProfile(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return a new profile if enabled is true, otherwise DISABLED
+     */
+    public static SearchProfile create(boolean enabled) {
+        return enabled ? new SearchProfile(true) : DISABLED;
+    }
+
+    /**
+     * @return the time to pass to stop() at the end of the phase
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void stop(Phase phase, long start) {
+        if (enabled) {
+            nanos[phase.ordinal()] += System.nanoTime() - start;
+            calls[phase.ordinal()]++;
+        }
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public long getCalls(Phase phase) {
+        return calls[phase.ordinal()];
+    }
+
+    public void reset() {
+        Arrays.fill(nanos, 0L);
+        Arrays.fill(calls, 0L);
+    }
+
+    /**
+     * Adds in the results from another profile, for example from another thread in root parallelisation
+     */
+    public void merge(SearchProfile other) {
+        if (enabled) {
+            for (int i = 0; i < phases.length; i++) {
+                nanos[i] += other.nanos[i];
+                calls[i] += other.calls[i];
+            }
+        }
+    }
+
+    /**
+     * Adds a column for the time (in milliseconds) and the number of calls of each phase, for use in getColumns()
+     * of a metric
+     */
+    public static void addColumns(Map<String, Class<?>> columns) {
+        for (Phase phase : phases) {
+            columns.put(phase + "Time", Double.class);
+            columns.put(phase + "Calls", Integer.class);
+        }
+    }
+
+    /**
+     * Adds the values for the columns from addColumns()
+     */
+    public void addRecords(Map<String, Object> records) {
+        for (Phase phase : phases) {
+            records.put(phase + "Time", nanos[phase.ordinal()] / 1e6);
+            records.put(phase + "Calls", (int) calls[phase.ordinal()]);
+        }
+    }
+
+    /**
+     * Commits a SearchPhaseEvent for each phase with at least one call, if the profile is enabled and a JFR
+     * recording has the event switched on
+     */
+    public void commitEvents(String player, int playerID, int iterations) {
+        if (!enabled || !SearchPhaseEvent.isRecording())
+            return;
+        for (Phase phase : phases) {
+            if (calls[phase.ordinal()] == 0)
+                continue;
+            SearchPhaseEvent event = new SearchPhaseEvent();
+            event.player = player;
+            event.playerID = playerID;
+            event.iterations = iterations;
+            event.phase = phase.name();
+            event.time = nanos[phase.ordinal()];
+            event.calls = calls[phase.ordinal()];
+            event.commit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : phases)
+            sb.append(String.format("%-12s %10.2f ms %10d calls%n", phase, nanos[phase.ordinal()] / 1e6, calls[phase.ordinal()]));
+        return sb.toString();
+    }
+}
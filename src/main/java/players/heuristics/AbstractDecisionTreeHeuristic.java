@@ -1,31 +1,33 @@
 package players.heuristics;
 
-import com.globalmentor.apache.hadoop.fs.BareLocalFileSystem;
-import org.apache.hadoop.fs.FileSystem;
 import org.apache.spark.ml.regression.DecisionTreeRegressionModel;
-import org.apache.spark.sql.SparkSession;
 
-public abstract class AbstractDecisionTreeHeuristic {
+import java.io.File;
 
-    static SparkSession spark = SparkSession
-            .builder()
-            .appName("Java Spark SQL basic example")
-            //     .config("spark.driver.memory", "1g")
-            .master("local").getOrCreate();
-    static {
-        // And the hack to get this to work on Windows (without the Winutils.exe and hadoop.dll nightmare)
-        spark.sparkContext().hadoopConfiguration().setClass("fs.file.impl", BareLocalFileSystem.class, FileSystem.class);
-    }
+public abstract class AbstractDecisionTreeHeuristic {
 
-    protected DecisionTreeRegressionModel drModel;
+    protected CompiledDecisionTree tree;
 
+    /**
+     * @param directory - either a directory with a CompiledDecisionTree file in it (as written by DecisionTreeLearner),
+     *                  or a CompiledDecisionTree file itself. If neither, then this is assumed to be a model saved by
+     *                  Spark, which will be loaded and compiled (and needs Spark on the classpath).
+     */
     public AbstractDecisionTreeHeuristic(String directory) {
         // load in the Decision Tree model from the directory
         if (directory == null || directory.isEmpty()) {
             System.out.println("No directory specified for Decision Tree model");
             return;
         }
-        drModel = DecisionTreeRegressionModel.load(directory);
+        File file = new File(directory);
+        if (file.isFile() || new File(file, CompiledDecisionTree.FILE_NAME).isFile())
+            tree = CompiledDecisionTree.loadFromFile(directory);
+        else
+            tree = SparkDecisionTrees.compile(SparkDecisionTrees.load(directory));
+    }
+
+    public CompiledDecisionTree getTree() {
+        return tree;
     }
 
     public static String prettifyDecisionTreeDescription(DecisionTreeRegressionModel model, String[] featureNames) {
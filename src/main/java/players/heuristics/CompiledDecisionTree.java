@@ -0,0 +1,148 @@
+package players.heuristics;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A regression tree held in flat arrays, so that it can be evaluated quickly (and without allocating anything)
+ * inside a search, and without needing Spark.
+ * <p>
+ * Node 0 is the root. For each node we hold the index of the feature it splits on (-1 for a leaf), the threshold
+ * (we go left if the feature value is less than or equal to this), the indices of the two child nodes,
+ * and the prediction at the node. For a split on a categorical feature we instead go left if the feature value is one
+ * of the leftCategories for that node (this is null for continuous splits).
+ * <p>
+ * A tree trained with Spark can be compiled with {@link SparkDecisionTrees#compile}, and is saved as a
+ * tab-separated text file with one row per node, which can be loaded without Spark.
+ */
+public class CompiledDecisionTree {
+
+    public static final String FILE_NAME = "CompiledTree.txt";
+    private static final String HEADER = "Node\tFeature\tThreshold\tLeft\tRight\tValue\tLeftCategories";
+
+    final int[] feature;
+    final double[] threshold;
+    final int[] left, right;
+    final double[] value;
+    final double[][] leftCategories;
+
+    public CompiledDecisionTree(int[] feature, double[] threshold, int[] left, int[] right, double[] value, double[][] leftCategories) {
+        int n = feature.length;
+        if (n == 0 || threshold.length != n || left.length != n || right.length != n || value.length != n || leftCategories.length != n)
+            throw new IllegalArgumentException("All arrays must have the same non-zero length");
+        for (int i = 0; i < n; i++) {
+            if (feature[i] >= 0 && (left[i] <= i || right[i] <= i || left[i] >= n || right[i] >= n))
+                throw new IllegalArgumentException("Invalid children for node " + i + " : " + left[i] + ", " + right[i]);
+        }
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+        this.leftCategories = leftCategories;
+    }
+
+    /**
+     * @param features - the feature vector to evaluate
+     * @return the prediction of the tree for this feature vector
+     */
+    public double evaluate(double[] features) {
+        int node = 0;
+        while (feature[node] >= 0) {
+            double x = features[feature[node]];
+            node = goesLeft(node, x) ? left[node] : right[node];
+        }
+        return value[node];
+    }
+
+    private boolean goesLeft(int node, double x) {
+        double[] categories = leftCategories[node];
+        if (categories == null)
+            return x <= threshold[node];
+        for (double category : categories) {
+            if (category == x)
+                return true;
+        }
+        return false;
+    }
+
+    public int numNodes() {
+        return feature.length;
+    }
+
+    public int depth() {
+        return depth(0);
+    }
+
+    private int depth(int node) {
+        if (feature[node] < 0)
+            return 0;
+        return 1 + Math.max(depth(left[node]), depth(right[node]));
+    }
+
+    public void writeToFile(String file) {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            writer.println(HEADER);
+            for (int i = 0; i < feature.length; i++) {
+                String categories = "";
+                if (leftCategories[i] != null) {
+                    StringBuilder sb = new StringBuilder();
+                    for (double category : leftCategories[i]) {
+                        if (sb.length() > 0) sb.append(';');
+                        sb.append(category);
+                    }
+                    categories = sb.toString();
+                }
+                writer.println(i + "\t" + feature[i] + "\t" + threshold[i] + "\t" + left[i] + "\t" + right[i] + "\t" + value[i] + "\t" + categories);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write decision tree to " + file, e);
+        }
+    }
+
+    /**
+     * @param file - either the file written by writeToFile(), or a directory that contains one called FILE_NAME
+     */
+    public static CompiledDecisionTree loadFromFile(String file) {
+        File f = new File(file);
+        if (f.isDirectory())
+            f = new File(f, FILE_NAME);
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(f))) {
+            String header = reader.readLine();
+            if (!HEADER.equals(header))
+                throw new AssertionError("Unexpected header in decision tree file " + f + " : " + header);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank())
+                    rows.add(line.split("\t", -1));
+            }
+        } catch (FileNotFoundException e) {
+            throw new AssertionError("File not found : " + f);
+        } catch (IOException e) {
+            throw new AssertionError("Error accessing : " + f);
+        }
+        int n = rows.size();
+        int[] feature = new int[n];
+        double[] threshold = new double[n];
+        int[] left = new int[n];
+        int[] right = new int[n];
+        double[] value = new double[n];
+        double[][] leftCategories = new double[n][];
+        for (int i = 0; i < n; i++) {
+            String[] row = rows.get(i);
+            if (row.length != 7 || Integer.parseInt(row[0]) != i)
+                throw new AssertionError("Invalid row " + i + " in decision tree file " + f + " : " + String.join("\t", row));
+            feature[i] = Integer.parseInt(row[1]);
+            threshold[i] = Double.parseDouble(row[2]);
+            left[i] = Integer.parseInt(row[3]);
+            right[i] = Integer.parseInt(row[4]);
+            value[i] = Double.parseDouble(row[5]);
+            if (!row[6].isEmpty())
+                leftCategories[i] = Arrays.stream(row[6].split(";")).mapToDouble(Double::parseDouble).toArray();
+        }
+        return new CompiledDecisionTree(feature, threshold, left, right, value, leftCategories);
+    }
+}
@@ -44,9 +44,15 @@ public abstract class GLMHeuristic implements ICoefficients {
 
     public void loadFromFile(String coefficientsFile) {
         Pair<double[], Map<int[], Double>> x = loadModel(coefficientsFile);
-        this.coefficients = x.a;
+        // an empty file name means no coefficients, in which case the default heuristic is used
+        this.coefficients = x.a.length == 0 ? null : x.a;
         List<int[]> loadedInteractions = x.b.keySet().stream().toList();
-        this.interactions = new int[loadedInteractions.size()][loadedInteractions.get(0).length];
+        if (loadedInteractions.isEmpty()) {
+            this.interactions = null;
+            this.interactionCoefficients = null;
+            return;
+        }
+        this.interactions = new int[loadedInteractions.size()][];
         this.interactionCoefficients = new double[loadedInteractions.size()];
         for (int i = 0; i < interactions.length; i++) {
             interactions[i] = loadedInteractions.get(i);
@@ -54,4 +60,45 @@ public abstract class GLMHeuristic implements ICoefficients {
         }
     }
 
+    /**
+     * As ICoefficients.applyCoefficients(), but uses the fields directly, as this is called for every evaluation.
+     */
+    @Override
+    public double applyCoefficients(double[] phi) {
+        double[] c = coefficients;
+        double retValue = c[0]; // the bias term
+        for (int i = 0; i < phi.length; i++) {
+            retValue += phi[i] * c[i + 1];
+        }
+        if (interactionCoefficients != null)
+            retValue += calculateInteractionEffects(phi);
+        return retValue;
+    }
+
+    /**
+     * Applies the coefficients to the features phi followed by psi (e.g. state and then action features),
+     * without creating the combined feature vector.
+     */
+    public double applyCoefficients(double[] phi, double[] psi) {
+        double[] c = coefficients;
+        double retValue = c[0]; // the bias term
+        for (int i = 0; i < phi.length; i++) {
+            retValue += phi[i] * c[i + 1];
+        }
+        int offset = phi.length + 1;
+        for (int i = 0; i < psi.length; i++) {
+            retValue += psi[i] * c[i + offset];
+        }
+        if (interactionCoefficients != null) {
+            for (int i = 0; i < interactions.length; i++) {
+                double interactionValue = 1;
+                for (int j : interactions[i]) {
+                    interactionValue *= j < phi.length ? phi[j] : psi[j - phi.length];
+                }
+                retValue += interactionValue * interactionCoefficients[i];
+            }
+        }
+        return retValue;
+    }
+
 }
@@ -54,29 +54,23 @@ public class LinearActionHeuristic extends GLMHeuristic implements IActionHeuris
         if (coefficients == null)
             throw new AssertionError("No coefficients found");
         double[] retValue = new double[actions.size()];
-        double[] phi = features.featureVector(state, state.getCurrentPlayer());
-        for (AbstractAction action : actions) {
-            double[] combined = mergePhiAndPsi(state, phi, action);
-            retValue[actions.indexOf(action)] = inverseLinkFunction.applyAsDouble(applyCoefficients(combined));
+        int player = state.getCurrentPlayer();
+        double[] phi = features.featureVector(state, player);
+        for (int i = 0; i < actions.size(); i++) {
+            double[] psi = actionFeatures.featureVector(actions.get(i), state, player);
+            retValue[i] = inverseLinkFunction.applyAsDouble(applyCoefficients(phi, psi));
         }
         return retValue;
     }
 
-    private double[] mergePhiAndPsi(AbstractGameState state, double[] phi, AbstractAction action) {
-        double[] psi = actionFeatures.featureVector(action, state, state.getCurrentPlayer());
-        double[] combined = new double[phi.length + psi.length];
-        System.arraycopy(phi, 0, combined, 0, phi.length);
-        System.arraycopy(psi, 0, combined, phi.length, psi.length);
-        return combined;
-    }
-
     @Override
     public double evaluateAction(AbstractAction action, AbstractGameState state, List<AbstractAction> contextActions) {
         if (coefficients == null)
             throw new AssertionError("No coefficients found");
-        double[] phi = features.featureVector(state, state.getCurrentPlayer());
-        double[] combined = mergePhiAndPsi(state, phi, action);
-        return inverseLinkFunction.applyAsDouble(applyCoefficients(combined));
+        int player = state.getCurrentPlayer();
+        double[] phi = features.featureVector(state, player);
+        double[] psi = actionFeatures.featureVector(action, state, player);
+        return inverseLinkFunction.applyAsDouble(applyCoefficients(phi, psi));
     }
 
 }
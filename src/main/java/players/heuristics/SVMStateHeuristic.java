@@ -13,6 +13,10 @@ public class SVMStateHeuristic implements IStateHeuristic {
 
     IStateFeatureVector features;
     svm_model model;
+    // used instead of libsvm where possible, as this does not allocate anything
+    SVRPredictor predictor;
+    // libsvm needs the data as svm_node objects, which we re-use for each evaluation on the same thread
+    private final ThreadLocal<svm_node[]> buffer = new ThreadLocal<>();
     IStateHeuristic defaultHeuristic;
 
     public SVMStateHeuristic(String featureVectorClassName, String svmModelLocation, String defaultHeuristicClassName) {
@@ -46,14 +50,19 @@ public class SVMStateHeuristic implements IStateHeuristic {
     public SVMStateHeuristic(IStateFeatureVector featureVector, svm_model model, IStateHeuristic defaultHeuristic) {
         this.features = featureVector;
         this.defaultHeuristic = defaultHeuristic;
+        setModel(model);
+    }
+
+    private void setModel(svm_model model) {
         this.model = model;
+        predictor = model != null && SVRPredictor.isSupported(model) ? new SVRPredictor(model) : null;
     }
 
     private void loadModel(String svmModelLocation) {
         if (svmModelLocation.isEmpty())
             return;
         try {
-            model = svm.svm_load_model(svmModelLocation);
+            setModel(svm.svm_load_model(svmModelLocation));
         } catch (IOException e) {
             e.printStackTrace();
             throw new AssertionError("Problem loading SVM model from file : " + svmModelLocation);
@@ -65,16 +74,24 @@ public class SVMStateHeuristic implements IStateHeuristic {
         if (model == null)
             return defaultHeuristic.evaluateState(state, playerId);
         double[] phi = features.featureVector(state, playerId);
-        svm_node[] data = new svm_node[phi.length + 1];
-        data[0] = new svm_node(); // bias
-        data[0].index = 0;
-        data[0].value = 1.0;
-        for (int i = 0; i < phi.length; i++) {
-            data[i + 1] = new svm_node();
-            data[i + 1].index = i + 1;
-            data[i + 1].value = phi[i];
+        if (predictor != null)
+            return predictor.predict(phi);
+        return svm.svm_predict(model, toNodes(phi));
+    }
+
+    private svm_node[] toNodes(double[] phi) {
+        svm_node[] data = buffer.get();
+        if (data == null || data.length != phi.length + 1) {
+            data = new svm_node[phi.length + 1];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = new svm_node();
+                data[i].index = i;
+            }
+            data[0].value = 1.0; // bias
+            buffer.set(data);
         }
-        double result = svm.svm_predict(model, data);
-        return result;
+        for (int i = 0; i < phi.length; i++)
+            data[i + 1].value = phi[i];
+        return data;
     }
 }
@@ -0,0 +1,141 @@
+package players.heuristics;
+
+import libsvm.svm_model;
+import libsvm.svm_node;
+import libsvm.svm_parameter;
+
+/**
+ * Makes the same predictions as svm.svm_predict() for a regression SVM (EPSILON_SVR or NU_SVR), for feature vectors
+ * in the format used by SVMStateHeuristic (index 0 is a bias term of 1.0, and feature i has index i + 1).
+ * <p>
+ * The support vectors are held as dense arrays, so that a prediction needs no svm_node objects. With a linear
+ * kernel they are collapsed into a single weight vector, so a prediction is one dot product.
+ * Use isSupported() to check if a model can be handled; libsvm must be used for classification models,
+ * precomputed kernels, and support vectors with repeated or out-of-order indices.
+ */
+class SVRPredictor {
+
+    final int kernelType;
+    final double gamma, coef0, rho;
+    final int degree;
+    // for a linear kernel, the sum of the support vectors weighted by their coefficients; otherwise null
+    final double[] weights;
+    // for other kernels, the support vectors and their coefficients; otherwise null
+    final double[][] supportVectors;
+    final double[] svCoefficients;
+
+    SVRPredictor(svm_model model) {
+        if (!isSupported(model))
+            throw new IllegalArgumentException("SVM model is not a supported regression model");
+        svm_parameter param = model.param;
+        kernelType = param.kernel_type;
+        gamma = param.gamma;
+        coef0 = param.coef0;
+        degree = param.degree;
+        rho = model.rho[0];
+
+        int dimension = 0;
+        for (svm_node[] sv : model.SV) {
+            if (sv.length > 0)
+                dimension = Math.max(dimension, sv[sv.length - 1].index + 1);
+        }
+        double[][] dense = new double[model.l][dimension];
+        for (int i = 0; i < model.l; i++) {
+            for (svm_node node : model.SV[i])
+                dense[i][node.index] = node.value;
+        }
+        double[] coefficients = model.sv_coef[0].clone();
+        if (kernelType == svm_parameter.LINEAR) {
+            weights = new double[dimension];
+            for (int i = 0; i < model.l; i++) {
+                for (int j = 0; j < dimension; j++)
+                    weights[j] += coefficients[i] * dense[i][j];
+            }
+            supportVectors = null;
+            svCoefficients = null;
+        } else {
+            weights = null;
+            supportVectors = dense;
+            svCoefficients = coefficients;
+        }
+    }
+
+    static boolean isSupported(svm_model model) {
+        int svmType = model.param.svm_type;
+        if (svmType != svm_parameter.EPSILON_SVR && svmType != svm_parameter.NU_SVR)
+            return false;
+        int kernel = model.param.kernel_type;
+        if (kernel != svm_parameter.LINEAR && kernel != svm_parameter.POLY && kernel != svm_parameter.RBF
+                && kernel != svm_parameter.SIGMOID)
+            return false;
+        // libsvm assumes the indices in each vector are increasing; we need them to be non-negative as well
+        for (svm_node[] sv : model.SV) {
+            int last = -1;
+            for (svm_node node : sv) {
+                if (node.index <= last)
+                    return false;
+                last = node.index;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param phi - the features, without the bias term
+     */
+    double predict(double[] phi) {
+        double sum;
+        if (weights != null) {
+            sum = dot(weights, phi);
+        } else {
+            sum = 0.0;
+            for (int i = 0; i < supportVectors.length; i++)
+                sum += svCoefficients[i] * kernel(supportVectors[i], phi);
+        }
+        return sum - rho;
+    }
+
+    private double kernel(double[] sv, double[] phi) {
+        switch (kernelType) {
+            case svm_parameter.POLY:
+                return Math.pow(gamma * dot(sv, phi) + coef0, degree);
+            case svm_parameter.SIGMOID:
+                return Math.tanh(gamma * dot(sv, phi) + coef0);
+            default:
+                return Math.exp(-gamma * squaredDistance(sv, phi));
+        }
+    }
+
+    // the bias term of 1.0 is at index 0 of the vector, so phi[i] is at index i + 1
+    private static double dot(double[] v, double[] phi) {
+        if (v.length == 0)
+            return 0.0;
+        double sum = v[0];
+        int n = Math.min(v.length - 1, phi.length);
+        for (int i = 0; i < n; i++)
+            sum += v[i + 1] * phi[i];
+        return sum;
+    }
+
+    private static double squaredDistance(double[] v, double[] phi) {
+        if (v.length == 0) {
+            double sum = 1.0;
+            for (double x : phi)
+                sum += x * x;
+            return sum;
+        }
+        double d = 1.0 - v[0];
+        double sum = d * d;
+        int n = Math.min(v.length - 1, phi.length);
+        for (int i = 0; i < n; i++) {
+            d = phi[i] - v[i + 1];
+            sum += d * d;
+        }
+        // then whichever of the two vectors is longer
+        for (int i = n; i < phi.length; i++)
+            sum += phi[i] * phi[i];
+        for (int i = n + 1; i < v.length; i++)
+            sum += v[i] * v[i];
+        return sum;
+    }
+}
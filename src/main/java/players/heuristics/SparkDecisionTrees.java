@@ -0,0 +1,85 @@
+package players.heuristics;
+
+import com.globalmentor.apache.hadoop.fs.BareLocalFileSystem;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.spark.ml.regression.DecisionTreeRegressionModel;
+import org.apache.spark.ml.tree.*;
+import org.apache.spark.sql.SparkSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything that needs Spark to use a Decision Tree is kept here, so that the heuristics only need Spark if they
+ * are given a model saved by Spark rather than a {@link CompiledDecisionTree}.
+ */
+public class SparkDecisionTrees {
+
+    private static SparkSession spark;
+
+    private static synchronized void startSpark() {
+        if (spark == null) {
+            spark = SparkSession
+                    .builder()
+                    .appName("Java Spark SQL basic example")
+                    //     .config("spark.driver.memory", "1g")
+                    .master("local").getOrCreate();
+            // And the hack to get this to work on Windows (without the Winutils.exe and hadoop.dll nightmare)
+            spark.sparkContext().hadoopConfiguration().setClass("fs.file.impl", BareLocalFileSystem.class, FileSystem.class);
+        }
+    }
+
+    public static DecisionTreeRegressionModel load(String directory) {
+        startSpark();
+        return DecisionTreeRegressionModel.load(directory);
+    }
+
+    /**
+     * Converts the tree in a Spark model into flat arrays. Nodes are numbered depth-first, with the left child of
+     * each internal node immediately after it.
+     */
+    public static CompiledDecisionTree compile(DecisionTreeRegressionModel model) {
+        List<Node> nodes = new ArrayList<>();
+        List<int[]> children = new ArrayList<>();
+        addNode(model.rootNode(), nodes, children);
+
+        int n = nodes.size();
+        int[] feature = new int[n];
+        double[] threshold = new double[n];
+        int[] left = new int[n];
+        int[] right = new int[n];
+        double[] value = new double[n];
+        double[][] leftCategories = new double[n][];
+        for (int i = 0; i < n; i++) {
+            Node node = nodes.get(i);
+            value[i] = node.prediction();
+            if (node instanceof InternalNode internal) {
+                Split split = internal.split();
+                feature[i] = split.featureIndex();
+                if (split instanceof ContinuousSplit continuous)
+                    threshold[i] = continuous.threshold();
+                else if (split instanceof CategoricalSplit categorical)
+                    leftCategories[i] = categorical.leftCategories();
+                else
+                    throw new AssertionError("Unknown split type " + split.getClass());
+                left[i] = children.get(i)[0];
+                right[i] = children.get(i)[1];
+            } else {
+                feature[i] = -1;
+            }
+        }
+        return new CompiledDecisionTree(feature, threshold, left, right, value, leftCategories);
+    }
+
+    private static int addNode(Node node, List<Node> nodes, List<int[]> children) {
+        int index = nodes.size();
+        nodes.add(node);
+        children.add(new int[2]);
+        if (node instanceof InternalNode internal) {
+            int leftIndex = addNode(internal.leftChild(), nodes, children);
+            int rightIndex = addNode(internal.rightChild(), nodes, children);
+            children.set(index, new int[]{leftIndex, rightIndex});
+        }
+        return index;
+    }
+}
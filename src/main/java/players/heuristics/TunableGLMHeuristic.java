@@ -29,7 +29,7 @@ public class TunableGLMHeuristic extends TunableParameters implements IActionHeu
     public void _reset() {
         String coefficientsFile = (String) this.getParameterValue("coefficients");
         if (!coefficientsFile.equals("None")) {
-            heuristic.loadModel(coefficientsFile);
+            heuristic.loadFromFile(coefficientsFile);
         }
         LinkFunction linkFunction = (LinkFunction) this.getParameterValue("linkFunction");
         switch (linkFunction) {
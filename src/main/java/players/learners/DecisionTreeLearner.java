@@ -5,7 +5,9 @@ import org.apache.spark.ml.regression.DecisionTreeRegressionModel;
 import org.apache.spark.ml.regression.DecisionTreeRegressor;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
+import players.heuristics.CompiledDecisionTree;
 import players.heuristics.DecisionTreeActionHeuristic;
+import players.heuristics.SparkDecisionTrees;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -67,6 +69,8 @@ public class DecisionTreeLearner extends ApacheLearner {
     public void writeToFile(String file) {
         try {
             drModel.write().overwrite().save(file);
+            // and the compiled version, which the heuristics can load without Spark
+            SparkDecisionTrees.compile(drModel).writeToFile(file + File.separator + CompiledDecisionTree.FILE_NAME);
             BufferedWriter writer = new BufferedWriter(new java.io.FileWriter(file + File.separator + "Description.txt"));
             writer.write(DecisionTreeActionHeuristic.prettifyDecisionTreeDescription(drModel, descriptions));
             writer.close();
@@ -4,6 +4,10 @@ import core.actions.AbstractAction;
 
 import java.util.*;
 
+/**
+ * The statistics for a single action at a node. Nodes hold these in an ActionStatsTable; instances of this class
+ * are snapshots taken from the table (for metrics, debugging and tests).
+ */
 public class ActionStats {
     // Total value of this node
     public double[] totValue;
@@ -0,0 +1,209 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.util.*;
+
+/**
+ * The per-action statistics of a single node.
+ * <p>
+ * Each action is interned once when first seen at the node, and given an ordinal (its index in the order in which
+ * actions were added). All statistics are then held in flat primitive arrays indexed by this ordinal, with the
+ * per-player values stored contiguously (ordinal * nPlayers + player). This avoids an ActionStats object (and its
+ * two arrays) per action, and means that once the ordinal is known, selection and back-propagation touch only
+ * primitive arrays.
+ * <p>
+ * The Map-style accessors (get, containsKey, keySet, values) are provided for convenience outside the main search
+ * loop (metrics, debugging, tests). get() and values() return ActionStats snapshots; changing these has no effect
+ * on the statistics held here.
+ */
+public class ActionStatsTable {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int nPlayers;
+    private final Map<AbstractAction, Integer> ordinals = new HashMap<>();
+    private AbstractAction[] actions = new AbstractAction[INITIAL_CAPACITY];
+    private int size;
+    private int[] visits = new int[INITIAL_CAPACITY];
+    private int[] validVisits = new int[INITIAL_CAPACITY];
+    private double[] totValue;
+    private double[] squaredTotValue;
+
+    public ActionStatsTable(int nPlayers) {
+        this.nPlayers = nPlayers;
+        totValue = new double[INITIAL_CAPACITY * nPlayers];
+        squaredTotValue = new double[INITIAL_CAPACITY * nPlayers];
+    }
+
+    /**
+     * @return the ordinal of the action, or -1 if it has not been added
+     */
+    public int indexOf(AbstractAction action) {
+        Integer ordinal = ordinals.get(action);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Adds a new action with zeroed statistics. The action is stored as provided, so this should be a copy
+     * if the original may later be modified.
+     *
+     * @return the ordinal of the new action
+     */
+    public int add(AbstractAction action) {
+        if (ordinals.containsKey(action))
+            throw new IllegalArgumentException("Action already present: " + action);
+        if (size == actions.length) {
+            int capacity = actions.length * 2;
+            actions = Arrays.copyOf(actions, capacity);
+            visits = Arrays.copyOf(visits, capacity);
+            validVisits = Arrays.copyOf(validVisits, capacity);
+            totValue = Arrays.copyOf(totValue, capacity * nPlayers);
+            squaredTotValue = Arrays.copyOf(squaredTotValue, capacity * nPlayers);
+        }
+        actions[size] = action;
+        ordinals.put(action, size);
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNPlayers() {
+        return nPlayers;
+    }
+
+    public AbstractAction action(int ordinal) {
+        return actions[ordinal];
+    }
+
+    public int visits(int ordinal) {
+        return visits[ordinal];
+    }
+
+    public int validVisits(int ordinal) {
+        return validVisits[ordinal];
+    }
+
+    public double totValue(int ordinal, int player) {
+        return totValue[ordinal * nPlayers + player];
+    }
+
+    public double squaredTotValue(int ordinal, int player) {
+        return squaredTotValue[ordinal * nPlayers + player];
+    }
+
+    /**
+     * @return the sum of totValue over all actions for the player
+     */
+    public double totValue(int player) {
+        double retValue = 0.0;
+        for (int i = 0; i < size; i++)
+            retValue += totValue[i * nPlayers + player];
+        return retValue;
+    }
+
+    /**
+     * @return a copy of the visit counts of all actions, in ordinal order
+     */
+    public int[] visits() {
+        return Arrays.copyOf(visits, size);
+    }
+
+    public void update(int ordinal, double[] results) {
+        int offset = ordinal * nPlayers;
+        for (int i = 0; i < results.length; i++) {
+            totValue[offset + i] += results[i];
+            squaredTotValue[offset + i] += results[i] * results[i];
+        }
+        visits[ordinal]++;
+    }
+
+    public void incrementValidVisits(int ordinal) {
+        validVisits[ordinal]++;
+    }
+
+    public void incrementAllValidVisits() {
+        for (int i = 0; i < size; i++)
+            validVisits[i]++;
+    }
+
+    /**
+     * Seeds the visit counts of an action, for example from a heuristic estimate (with setTotValue() and
+     * setSquaredTotValue() to seed the values)
+     */
+    public void initialise(int ordinal, int nVisits, int nValidVisits) {
+        visits[ordinal] = nVisits;
+        validVisits[ordinal] = nValidVisits;
+    }
+
+    public void setTotValue(int ordinal, int player, double value) {
+        totValue[ordinal * nPlayers + player] = value;
+    }
+
+    public void setSquaredTotValue(int ordinal, int player, double value) {
+        squaredTotValue[ordinal * nPlayers + player] = value;
+    }
+
+    /**
+     * Adds visits to an action that all have the same value for one player (and leave the values of the others
+     * unchanged). Negative nVisits removes these again. This is used for the virtual loss in tree parallelisation.
+     */
+    public void addVirtualVisits(int ordinal, int nVisits, int player, double value) {
+        visits[ordinal] += nVisits;
+        validVisits[ordinal] += nVisits;
+        totValue[ordinal * nPlayers + player] += nVisits * value;
+        squaredTotValue[ordinal * nPlayers + player] += nVisits * value * value;
+    }
+
+    /**
+     * Adds in the statistics of an action from another (independent) table, for example when combining the trees
+     * from root parallelisation.
+     */
+    public void add(int ordinal, ActionStatsTable other, int otherOrdinal) {
+        visits[ordinal] += other.visits[otherOrdinal];
+        validVisits[ordinal] += other.validVisits[otherOrdinal];
+        int offset = ordinal * nPlayers;
+        int otherOffset = otherOrdinal * other.nPlayers;
+        for (int i = 0; i < nPlayers; i++) {
+            totValue[offset + i] += other.totValue[otherOffset + i];
+            squaredTotValue[offset + i] += other.squaredTotValue[otherOffset + i];
+        }
+    }
+
+    public boolean containsKey(AbstractAction action) {
+        return ordinals.containsKey(action);
+    }
+
+    /**
+     * @return a snapshot of the statistics for the action, or null if it has not been added
+     */
+    public ActionStats get(AbstractAction action) {
+        int ordinal = indexOf(action);
+        return ordinal == -1 ? null : snapshot(ordinal);
+    }
+
+    public Set<AbstractAction> keySet() {
+        return Collections.unmodifiableSet(ordinals.keySet());
+    }
+
+    /**
+     * @return snapshots of the statistics for all actions, in ordinal order
+     */
+    public List<ActionStats> values() {
+        List<ActionStats> retValue = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            retValue.add(snapshot(i));
+        return retValue;
+    }
+
+    private ActionStats snapshot(int ordinal) {
+        ActionStats retValue = new ActionStats(nPlayers);
+        retValue.nVisits = visits[ordinal];
+        retValue.validVisits = validVisits[ordinal];
+        System.arraycopy(totValue, ordinal * nPlayers, retValue.totValue, 0, nPlayers);
+        System.arraycopy(squaredTotValue, ordinal * nPlayers, retValue.squaredTotValue, 0, nPlayers);
+        return retValue;
+    }
+}
@@ -0,0 +1,207 @@
+package players.mcts;
+
+import java.util.Arrays;
+
+/**
+ * MAST statistics (visits and total value for each action, separately for each player).
+ * <p>
+ * Actions are identified by the hashCode() of their key (the action itself, or the result of an IActionKey), which
+ * is held in an open-addressing table of primitives. This means that a backup neither boxes the statistics nor
+ * copies the action to use as a key, and that decay between moves is done in place. The cost is that two
+ * different keys with the same hashCode share their statistics.
+ */
+public class MASTStore {
+
+    private static final int INITIAL_CAPACITY = 64;  // must be a power of 2
+
+    private final Table[] tables;
+
+    public MASTStore(int nPlayers) {
+        tables = new Table[nPlayers];
+        for (int p = 0; p < nPlayers; p++)
+            tables[p] = new Table(INITIAL_CAPACITY);
+    }
+
+    private MASTStore(MASTStore other) {
+        tables = new Table[other.tables.length];
+        for (int p = 0; p < tables.length; p++)
+            tables[p] = other.tables[p].copy();
+    }
+
+    public MASTStore copy() {
+        return new MASTStore(this);
+    }
+
+    public int getNPlayers() {
+        return tables.length;
+    }
+
+    /**
+     * Adds one visit with the given value to the statistics of key for player
+     */
+    public void update(int player, Object key, double value) {
+        tables[player].add(key.hashCode(), 1, value);
+    }
+
+    public int getCount(int player, Object key) {
+        Table table = tables[player];
+        int slot = table.find(key.hashCode());
+        return slot < 0 ? 0 : table.counts[slot];
+    }
+
+    public double getSum(int player, Object key) {
+        Table table = tables[player];
+        int slot = table.find(key.hashCode());
+        return slot < 0 ? 0.0 : table.sums[slot];
+    }
+
+    /**
+     * @return the mean value of key for player, or defaultValue if it has not been visited
+     */
+    public double getMean(int player, Object key, double defaultValue) {
+        Table table = tables[player];
+        int slot = table.find(key.hashCode());
+        if (slot < 0 || table.counts[slot] == 0)
+            return defaultValue;
+        return table.sums[slot] / table.counts[slot];
+    }
+
+    /**
+     * @return the number of distinct keys held for player (including those whose count has decayed to zero)
+     */
+    public int size(int player) {
+        return tables[player].size;
+    }
+
+    /**
+     * Decays all the statistics by gamma, as Utils.decay(): the count is multiplied by gamma and rounded down, and
+     * the total value is scaled to keep the same mean. Nothing is changed unless 0 <= gamma < 1.
+     */
+    public void decay(double gamma) {
+        if (gamma < 0.0 || gamma >= 1.0)
+            return;
+        for (Table table : tables) {
+            for (int slot = 0; slot < table.used.length; slot++) {
+                if (!table.used[slot])
+                    continue;
+                int oldCount = table.counts[slot];
+                if (oldCount == 0) {
+                    table.sums[slot] = 0.0;
+                } else {
+                    int newCount = (int) (oldCount * gamma);
+                    table.sums[slot] = table.sums[slot] * newCount / oldCount;
+                    table.counts[slot] = newCount;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds all the statistics in other to this store (which must be for the same number of players)
+     */
+    public void merge(MASTStore other) {
+        if (other.tables.length != tables.length)
+            throw new IllegalArgumentException("Cannot merge MAST statistics for " + other.tables.length + " players into " + tables.length);
+        for (int p = 0; p < tables.length; p++) {
+            Table from = other.tables[p];
+            for (int slot = 0; slot < from.used.length; slot++) {
+                if (from.used[slot])
+                    tables[p].add(from.keys[slot], from.counts[slot], from.sums[slot]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("MASTStore[");
+        for (int p = 0; p < tables.length; p++)
+            sb.append(p == 0 ? "" : ", ").append(tables[p].size);
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Open-addressing (linear probing) table from key hash to (count, sum) for one player
+     */
+    private static final class Table {
+        int[] keys;
+        boolean[] used;
+        int[] counts;
+        double[] sums;
+        int size;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            used = new boolean[capacity];
+            counts = new int[capacity];
+            sums = new double[capacity];
+        }
+
+        Table copy() {
+            Table retValue = new Table(0);
+            retValue.keys = Arrays.copyOf(keys, keys.length);
+            retValue.used = Arrays.copyOf(used, used.length);
+            retValue.counts = Arrays.copyOf(counts, counts.length);
+            retValue.sums = Arrays.copyOf(sums, sums.length);
+            retValue.size = size;
+            return retValue;
+        }
+
+        // spreads the hash so that keys that differ only in their high bits do not all probe the same slots
+        private static int mix(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        int find(int hash) {
+            int mask = keys.length - 1;
+            for (int slot = mix(hash) & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == hash)
+                    return slot;
+            }
+            return -1;
+        }
+
+        void add(int hash, int count, double sum) {
+            int mask = keys.length - 1;
+            int slot = mix(hash) & mask;
+            while (used[slot]) {
+                if (keys[slot] == hash) {
+                    counts[slot] += count;
+                    sums[slot] += sum;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = hash;
+            counts[slot] = count;
+            sums[slot] = sum;
+            size++;
+            if (size * 2 > keys.length)
+                resize(keys.length * 2);
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            int[] oldCounts = counts;
+            double[] oldSums = sums;
+            keys = new int[capacity];
+            used = new boolean[capacity];
+            counts = new int[capacity];
+            sums = new double[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (!oldUsed[i])
+                    continue;
+                int slot = mix(oldKeys[i]) & mask;
+                while (used[slot])
+                    slot = (slot + 1) & mask;
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                sums[slot] = oldSums[i];
+            }
+        }
+    }
+}
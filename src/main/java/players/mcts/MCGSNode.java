@@ -7,8 +7,12 @@ import java.util.*;
 
 public class MCGSNode extends SingleTreeNode {
 
-    private Map<String, MCGSNode> transpositionMap = new HashMap<>();
-    public List<String> trajectory = new ArrayList<>();
+    private TranspositionTable transpositionTable;
+    // the nodes passed through in the tree on the current iteration
+    public List<MCGSNode> trajectory = new ArrayList<>();
+    // the last key calculated (held on the graph root), see keyOf()
+    private AbstractGameState lastKeyState;
+    private long lastKey;
 
     protected MCGSNode() {
     }
@@ -17,18 +21,31 @@ public class MCGSNode extends SingleTreeNode {
     @Override
     protected void instantiate(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state) {
         super.instantiate(parent, actionToReach, state);
+        if (root == this && transpositionTable == null)
+            transpositionTable = new TranspositionTable(params.MCGSTableSize);
         // the only additional instantiation we need to do is to add the state to the transposition table
-        addToTranspositionTable(this, state);
+        addToTranspositionTable(this, keyOf(state));
     }
 
-    private void addToTranspositionTable(MCGSNode node, AbstractGameState keyState) {
-        String key = params.MCGSStateKey.getKey(keyState);
+    /**
+     * The key of the state. This is cached until the next call with a different state, or until the state is
+     * advanced, so that the key is only calculated once when nextNodeInTree() is followed by expandNode().
+     */
+    private long keyOf(AbstractGameState state) {
+        MCGSNode graphRoot = (MCGSNode) root;
+        if (graphRoot.lastKeyState != state) {
+            graphRoot.lastKey = params.MCGSStateKey.getLongKey(state);
+            graphRoot.lastKeyState = state;
+        }
+        return graphRoot.lastKey;
+    }
+
+    private void addToTranspositionTable(MCGSNode node, long key) {
         MCGSNode graphRoot = (MCGSNode) root;
-        if (graphRoot.transpositionMap.containsKey(key)) {
+        if (graphRoot.transpositionTable.containsKey(key)) {
             throw new AssertionError("Unexpected?");
         }
-        graphRoot.transpositionMap.put(key, node);
-        //   System.out.println("Adding to transposition table: " + key);
+        graphRoot.transpositionTable.put(key, node);
     }
 
     /**
@@ -43,27 +60,34 @@ public class MCGSNode extends SingleTreeNode {
         // we create the new node here; so that the backup does not create new nodes (which is in line with the main MCTS algorithm).
         // this enforces (for the moment) the rule that each iteration adds one new node.
         MCGSNode graphRoot = (MCGSNode) root;
-        String key = params.MCGSStateKey.getKey(nextState);
-        if (graphRoot.transpositionMap.containsKey(key)) {
+        long key = keyOf(nextState);
+        MCGSNode existing = graphRoot.transpositionTable.get(key);
+        if (existing != null) {
             if (params.MCGSExpandAfterClash) {
                 throw new AssertionError("Unexpected?");
             } else {
-                MCGSNode retValue = graphRoot.transpositionMap.get(key);
-                retValue.setActionsFromOpenLoopState(openLoopState);
-                return retValue;
+                existing.setActionsFromOpenLoopState(openLoopState);
+                return existing;
             }
         }
         return createChildNode(actionCopy, nextState);
     }
 
+    @Override
+    protected void setActionsFromOpenLoopState(AbstractGameState actionState) {
+        // the root is given the same (recycled) state object at the start of each iteration, with new contents
+        if (this == root)
+            ((MCGSNode) root).lastKeyState = null;
+        super.setActionsFromOpenLoopState(actionState);
+    }
+
     @Override
     protected SingleTreeNode nextNodeInTree(AbstractAction actionChosen) {
         // we look up the node in the transposition table using the feature vector for the openLoopState
-        String key = params.MCGSStateKey.getKey(openLoopState);
-        MCGSNode nextNode = ((MCGSNode) root).transpositionMap.get(key);
+        MCGSNode nextNode = ((MCGSNode) root).transpositionTable.get(keyOf(openLoopState));
 
         if (nextNode != null) {
-            if (actionValues.get(actionChosen).nVisits == 0) {
+            if (actionVisits(actionChosen) == 0) {
                 root.nodeClash++;
                 if (!params.MCGSExpandAfterClash) {
                     // we then return null so we rollout from this point
@@ -80,13 +104,13 @@ public class MCGSNode extends SingleTreeNode {
     protected void advanceState(AbstractGameState gs, AbstractAction act, boolean inRollout) {
         // This is a convenient point to record the trajectory for use during the backup
         if (!inRollout) {
-            // We only track this while in the tree (we could do the rollout as well, but at the overhead
-            // of featureVector calculations
-            MCGSNode mcgsRoot = (MCGSNode) root;
-            String key = params.MCGSStateKey.getKey(gs);
-            mcgsRoot.trajectory.add(key);
-//            System.out.println("Adding to trajectory: " + key);
+            // We only track this while in the tree, when this is the node for the state gs.
+            // We record the node itself rather than its key, so that the backup does not need to look it up again
+            // (and still works if it has since been evicted from the transposition table)
+            ((MCGSNode) root).trajectory.add(this);
         }
+        // gs is about to change, so any cached key for it is invalid
+        ((MCGSNode) root).lastKeyState = null;
         super.advanceState(gs, act, inRollout);
     }
 
@@ -95,7 +119,7 @@ public class MCGSNode extends SingleTreeNode {
         int depthDelta = depth;
         root = this;
         depth = 0;
-        for (MCGSNode node : transpositionMap.values()) {
+        for (MCGSNode node : transpositionTable.values()) {
             node.depth -= depthDelta;
             node.root = this;
         }
@@ -117,23 +141,19 @@ public class MCGSNode extends SingleTreeNode {
         }
 
         for (int i = nRoot.trajectory.size() - 1; i >= 0; i--) {
-            String key = nRoot.trajectory.get(i);
-            MCGSNode node = nRoot.transpositionMap.get(key);
+            MCGSNode node = nRoot.trajectory.get(i);
             AbstractAction action = nRoot.actionsInTree.get(i).b;
-            if (node == null) {
-                throw new AssertionError("Node should not be null");
-            }
             result = node.backUpSingleNode(action, result);
         }
         nRoot.trajectory.clear();
     }
 
-    public Map<String, MCGSNode> getTranspositionMap() {
-        return transpositionMap;
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
     }
 
-    public void setTranspositionMap(Map<String, MCGSNode> transposition) {
-        transpositionMap = transposition;
+    public void setTranspositionTable(TranspositionTable transposition) {
+        transpositionTable = transposition;
     }
 
 }
@@ -6,6 +6,7 @@ import evaluation.listeners.MetricsGameListener;
 import evaluation.metrics.AbstractMetric;
 import evaluation.metrics.Event;
 import evaluation.metrics.IMetricsCollection;
+import players.SearchProfile;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -33,6 +34,10 @@ public class MCTSMetrics implements IMetricsCollection {
                 records.put("PlayerType", mctsPlayer.toString());
                 records.put("PlayerID", e.state.getCurrentPlayer());
                 records.put("Iterations", root.getVisits());
+                int[] iterationsPerTree = root.getIterationsPerTree();
+                records.put("Trees", iterationsPerTree.length);
+                records.put("TreeIterations", Arrays.stream(iterationsPerTree).mapToObj(String::valueOf).collect(Collectors.joining("|")));
+                records.put("ThreadIterations", Arrays.stream(root.getIterationsPerThread()).mapToObj(String::valueOf).collect(Collectors.joining("|")));
                 records.put("ReusedVisits", mctsPlayer.root.inheritedVisits);
                 records.put("MaxDepth", treeStats.depthReached);
                 records.put("MeanLeafDepth", treeStats.meanLeafDepth);
@@ -68,6 +73,9 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("PlayerType", String.class);
             cols.put("PlayerID", Integer.class);
             cols.put("Iterations", Integer.class);
+            cols.put("Trees", Integer.class); // more than one if using root parallelisation
+            cols.put("TreeIterations", String.class); // iterations on each tree, pipe-delimited
+            cols.put("ThreadIterations", String.class); // iterations by each thread (on one tree if using tree parallelisation), pipe-delimited
             cols.put("ReusedVisits", Integer.class); // visits from reused tree
             cols.put("MaxDepth", Integer.class);
             cols.put("MeanLeafDepth", Double.class);
@@ -90,6 +98,42 @@ public class MCTSMetrics implements IMetricsCollection {
         }
     }
 
+    /**
+     * The time spent in each phase of the search, recorded only for players with profileSearch set
+     */
+    public static class SearchProfileStats extends AbstractMetric {
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
+            if (player instanceof MCTSPlayer mctsPlayer && mctsPlayer.root != null && mctsPlayer.root.profile.enabled) {
+                records.put("PlayerType", mctsPlayer.toString());
+                records.put("PlayerID", e.state.getCurrentPlayer());
+                records.put("Iterations", mctsPlayer.root.getVisits());
+                records.put("time", mctsPlayer.root.timeTaken);
+                mctsPlayer.root.profile.addRecords(records);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> cols = new LinkedHashMap<>();
+            cols.put("PlayerType", String.class);
+            cols.put("PlayerID", Integer.class);
+            cols.put("Iterations", Integer.class);
+            cols.put("time", Double.class);
+            SearchProfile.addColumns(cols);
+            return cols;
+        }
+    }
+
 
     public static class MultiTreeStats extends AbstractMetric {
 
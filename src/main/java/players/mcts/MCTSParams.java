@@ -14,6 +14,9 @@ import java.util.Random;
 
 import static players.mcts.MCTSEnums.Information.*;
 import static players.mcts.MCTSEnums.MASTType.*;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.MCGS;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.MCGSSelfOnly;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.OneTree;
 import static players.mcts.MCTSEnums.RolloutTermination.DEFAULT;
 import static players.mcts.MCTSEnums.SelectionPolicy.SIMPLE;
@@ -57,6 +60,7 @@ public class MCTSParams extends PlayerParameters {
     public IActionKey MASTActionKey;
     public IStateKey MCGSStateKey;
     public boolean MCGSExpandAfterClash = true;
+    public int MCGSTableSize = 1 << 20;  // maximum number of nodes in the MCGS graph; beyond this the least-visited are evicted
     public double firstPlayUrgency = 1000000000.0;
     @NotNull public IActionHeuristic actionHeuristic = IActionHeuristic.nullReturn;
     public int actionHeuristicRecalculationThreshold = 20;
@@ -71,6 +75,9 @@ public class MCTSParams extends PlayerParameters {
     public MCTSEnums.BackupPolicy backupPolicy = MCTSEnums.BackupPolicy.MonteCarlo;
     public double backupLambda = 1.0;
     public int maxBackupThreshold = 1000000;
+    public int rootParallelism = 1;  // if greater than 1, then this many independent trees are searched in parallel (root parallelisation)
+    public int treeParallelism = 1;  // if greater than 1, then this many threads search a single shared tree (tree parallelisation)
+    public int virtualLoss = 1;  // with tree parallelisation, the losing visits added to each action on a trajectory until it is backed up
 
 
     public MCTSParams() {
@@ -109,6 +116,7 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("MASTDefaultValue", 0.0);
         addTunableParameter("MCGSStateKey", IStateKey.class);
         addTunableParameter("MCGSExpandAfterClash", true);
+        addTunableParameter("MCGSTableSize", 1 << 20);
         addTunableParameter("FPU", 1000000000.0);
         addTunableParameter("actionHeuristic",  IActionHeuristic.nullReturn);
         addTunableParameter("progressiveBias", 0.0);
@@ -120,6 +128,9 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("backupPolicy", MCTSEnums.BackupPolicy.MonteCarlo, Arrays.asList(MCTSEnums.BackupPolicy.values()));
         addTunableParameter("backupLambda", 1.0);
         addTunableParameter("maxBackupThreshold", 1000000);
+        addTunableParameter("rootParallelism", 1);
+        addTunableParameter("treeParallelism", 1);
+        addTunableParameter("virtualLoss", 1);
     }
 
     @Override
@@ -164,6 +175,7 @@ public class MCTSParams extends PlayerParameters {
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
         MCGSStateKey = (IStateKey) getParameterValue("MCGSStateKey");
         MCGSExpandAfterClash = (boolean) getParameterValue("MCGSExpandAfterClash");
+        MCGSTableSize = (int) getParameterValue("MCGSTableSize");
         rolloutPolicyParams = (TunableParameters) getParameterValue("rolloutPolicyParams");
         opponentModelParams = (TunableParameters) getParameterValue("opponentModelParams");
         // we then null those elements of params which are constructed (lazily) from the above
@@ -174,6 +186,9 @@ public class MCTSParams extends PlayerParameters {
         backupPolicy = (MCTSEnums.BackupPolicy) getParameterValue("backupPolicy");
         backupLambda = (double) getParameterValue("backupLambda");
         maxBackupThreshold = (int) getParameterValue("maxBackupThreshold");
+        rootParallelism = (int) getParameterValue("rootParallelism");
+        treeParallelism = (int) getParameterValue("treeParallelism");
+        virtualLoss = (int) getParameterValue("virtualLoss");
         opponentModel = null;
         rolloutPolicy = null;
         useMASTAsActionHeuristic = (boolean) getParameterValue("useMASTAsActionHeuristic");
@@ -237,6 +252,15 @@ public class MCTSParams extends PlayerParameters {
         if (!useMAST && (useMASTAsActionHeuristic || rolloutType == MCTSEnums.Strategies.MAST)) {
             throw new AssertionError("MAST data not being collected, but MAST is being used as the rollout policy or as the action heuristic. Set MAST parameter.");
         }
+        if (rootParallelism > 1 && opponentTreePolicy == MultiTree) {
+            throw new AssertionError("Root parallelisation is not supported with MultiTree search.");
+        }
+        if (treeParallelism > 1 && rootParallelism > 1) {
+            throw new AssertionError("Root and tree parallelisation cannot be used together.");
+        }
+        if (treeParallelism > 1 && (opponentTreePolicy == MultiTree || opponentTreePolicy == MCGS || opponentTreePolicy == MCGSSelfOnly)) {
+            throw new AssertionError("Tree parallelisation is not supported with MultiTree or MCGS search.");
+        }
         return new MCTSPlayer((MCTSParams) this.copy());
     }
 
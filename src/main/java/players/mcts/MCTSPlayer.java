@@ -9,14 +9,15 @@ import evaluation.listeners.IGameListener;
 import core.interfaces.IStateHeuristic;
 import evaluation.metrics.Event;
 import players.IAnyTimePlayer;
+import players.PlayerConstants;
 import utilities.Pair;
-import utilities.Utils;
+import utilities.WorkerThreads;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
@@ -27,8 +28,10 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     protected boolean debug = false;
     protected SingleTreeNode root;
     protected AbstractAction lastAction;
-    List<Map<Object, Pair<Integer, Double>>> MASTStats;
-    Map<String, Integer> oldGraphKeys = new HashMap<>();
+    MASTStore MASTStats;
+    Map<Long, Integer> oldGraphKeys = new HashMap<>();
+    // Thread pool for root or tree parallelisation; only created if rootParallelism or treeParallelism > 1
+    private final WorkerThreads searchThreads = new WorkerThreads("MCTS-search");
 
     public MCTSPlayer() {
         this(new MCTSParams());
@@ -120,12 +123,13 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         if (params.reuseTree && (params.opponentTreePolicy == MCGS || params.opponentTreePolicy == MCGSSelfOnly)) {
             // In this case we remove any nodes from the graph that were not present before the last action was taken
             MCGSNode mcgsRoot = (MCGSNode) root;
-            for (String key : oldGraphKeys.keySet()) {
+            for (long key : oldGraphKeys.keySet()) {
                 int oldVisits = oldGraphKeys.get(key);
-                int newVisits = mcgsRoot.getTranspositionMap().get(key) != null ? mcgsRoot.getTranspositionMap().get(key).nVisits : 0;
+                MCGSNode node = mcgsRoot.getTranspositionTable().get(key);
+                int newVisits = node != null ? node.nVisits : 0;
                 if (newVisits == oldVisits) {
                     // no change, so remove
-                    mcgsRoot.getTranspositionMap().remove(key);
+                    mcgsRoot.getTranspositionTable().remove(key);
                 } else if (newVisits < oldVisits) {
                     throw new AssertionError("Unexpectedly fewer visits to a state than before");
                 }
@@ -136,17 +140,17 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
                 return null;
             }
 
-            oldGraphKeys = mcgsRoot.getTranspositionMap().entrySet().stream()
-                    .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().nVisits));
-            // we create the root node as we would have done normally; and then override the transposition map
-            MCGSNode retValue = ((MCGSNode) root).getTranspositionMap().get(params.MCGSStateKey.getKey(gameState));
+            oldGraphKeys = new HashMap<>();
+            mcgsRoot.getTranspositionTable().forEach((node, key) -> oldGraphKeys.put(key, node.nVisits));
+            // we create the root node as we would have done normally; and then override the transposition table
+            MCGSNode retValue = mcgsRoot.getTranspositionTable().get(params.MCGSStateKey.getLongKey(gameState));
             if (retValue == null) {
                 // have left graph; start from scratch
                 oldGraphKeys = new HashMap<>();
                 return null;
             }
             retValue.instantiate(null, null, gameState);
-            retValue.setTranspositionMap(mcgsRoot.getTranspositionMap());
+            retValue.setTranspositionTable(mcgsRoot.getTranspositionTable());
             retValue.rootify(root);
             return retValue;
         }
@@ -235,27 +239,134 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         } else {
             root = newRoot;
         }
-        if (MASTStats != null && getParameters().MASTGamma > 0.0)
-            root.MASTStatistics = MASTStats.stream()
-                    .map(m -> Utils.decay(m, getParameters().MASTGamma))
-                    .collect(Collectors.toList());
+        initialiseMAST(root, getParameters());
+    }
+
+    private void initialiseMAST(SingleTreeNode node, MCTSParams params) {
+        if (MASTStats != null && params.MASTGamma > 0.0) {
+            // the statistics from the last search are no longer used by anything else, so can be decayed in place
+            MASTStats.decay(params.MASTGamma);
+            node.MASTStatistics = MASTStats;
+        }
+        setMASTUsers(node, params);
+    }
+
+    private void setMASTUsers(SingleTreeNode node, MCTSParams params) {
+        if (params.getRolloutStrategy() instanceof IMASTUser) {
+            ((IMASTUser) params.getRolloutStrategy()).setStats(node.MASTStatistics);
+        }
+        if (params.getOpponentModel() instanceof IMASTUser) {
+            ((IMASTUser) params.getOpponentModel()).setStats(node.MASTStatistics);
+        }
+    }
+
+    /**
+     * Root parallelisation. We search rootParallelism independent trees from the same root state, each on
+     * its own thread, and with its own copies of the parameters (and hence rollout policy and opponent model),
+     * forward model and Random. The root statistics of all trees are then merged into the first tree, which becomes
+     * the root used for bestAction() (and by any metrics).
+     * <p>
+     * With a time budget each tree searches for the full time available; with any other budget
+     * this is divided equally between the trees. Tree re-use is not supported.
+     * As each tree uses params.copy(), any local changes to the parameters must have been registered
+     * with setParameterValue() to take effect.
+     */
+    protected void rootParallelSearch(AbstractGameState gameState, long startTimeNano) {
+        MCTSParams params = getParameters();
+        int nTrees = params.rootParallelism;
+        SingleTreeNode[] roots = new SingleTreeNode[nTrees];
+        // the statistics from the last search are decayed once, and each tree then updates a copy of its own
+        boolean reuseMAST = MASTStats != null && params.MASTGamma > 0.0;
+        if (reuseMAST)
+            MASTStats.decay(params.MASTGamma);
+        for (int t = 0; t < nTrees; t++) {
+            MCTSParams treeParams = (MCTSParams) params.copy();
+            if (params.budgetType != PlayerConstants.BUDGET_TIME)
+                treeParams.budget = Math.max(1, params.budget / nTrees);
+            AbstractForwardModel treeModel = getForwardModel().copy();
+            treeParams.getRolloutStrategy().setForwardModel(treeModel);
+            treeParams.getOpponentModel().setForwardModel(treeModel);
+            treeParams.getRolloutStrategy().initializePlayer(gameState);
+            treeParams.getOpponentModel().initializePlayer(gameState);
+            roots[t] = SingleTreeNode.createRootNode(treeParams, treeModel, gameState.copy(), new Random(rnd.nextLong()), getFactory());
+            if (reuseMAST)
+                roots[t].MASTStatistics = MASTStats.copy();
+            setMASTUsers(roots[t], treeParams);
+        }
+        long initialisationTime = (System.nanoTime() - startTimeNano) / 1000000;
+
+        List<Callable<Object>> searches = new ArrayList<>();
+        for (SingleTreeNode treeRoot : roots)
+            searches.add(Executors.callable(() -> treeRoot.mctsSearch(initialisationTime)));
+        searchThreads.invokeAll(searches.size(), searches);
+
+        root = roots[0];
+        int[] iterationsPerTree = new int[nTrees];
+        iterationsPerTree[0] = roots[0].getVisits();
+        for (int t = 1; t < nTrees; t++) {
+            iterationsPerTree[t] = roots[t].getVisits();
+            root.mergeRootStatistics(roots[t]);
+        }
+        root.iterationsPerTree = iterationsPerTree;
+    }
 
-        if (getParameters().getRolloutStrategy() instanceof IMASTUser) {
-            ((IMASTUser) getParameters().getRolloutStrategy()).setStats(root.MASTStatistics);
+    /**
+     * Tree parallelisation. treeParallelism threads search the single tree under root. Selection, expansion and
+     * back-propagation change the shared tree, and so are done by one thread at a time; the rollouts (usually most of
+     * the work) run in parallel. Until its result is backed up, each iteration adds a virtual loss (params.virtualLoss)
+     * to the actions it selected, so that the other threads are steered elsewhere in the tree.
+     * <p>
+     * Each thread does its rollouts with its own copies of the parameters (and hence rollout policy and opponent model),
+     * forward model, Random and root state, and a MAST rollout policy uses statistics of its own (those from the last
+     * search, plus its own iterations). Budgets are split between the threads as for root parallelisation.
+     */
+    protected void treeParallelSearch(long initialisationTime) {
+        MCTSParams params = getParameters();
+        int nThreads = params.treeParallelism;
+        TreeParallelWorker[] workers = new TreeParallelWorker[nThreads];
+        for (int t = 0; t < nThreads; t++) {
+            MCTSParams workerParams = (MCTSParams) params.copy();
+            if (params.budgetType != PlayerConstants.BUDGET_TIME)
+                workerParams.budget = Math.max(1, params.budget / nThreads);
+            AbstractForwardModel workerModel = getForwardModel().copy();
+            workerParams.getRolloutStrategy().setForwardModel(workerModel);
+            workerParams.getOpponentModel().setForwardModel(workerModel);
+            workerParams.getRolloutStrategy().initializePlayer(root.state);
+            workerParams.getOpponentModel().initializePlayer(root.state);
+            workers[t] = new TreeParallelWorker(root, workerParams, workerModel, new Random(rnd.nextLong()));
+            setMASTUsers(workers[t].rolloutNode, workerParams);
         }
-        if (getParameters().getOpponentModel() instanceof IMASTUser) {
-            ((IMASTUser) getParameters().getOpponentModel()).setStats(root.MASTStatistics);
+
+        root.initialiseRootMetrics();
+        root.initialisationTimeTaken = initialisationTime;
+        List<Callable<Object>> searches = new ArrayList<>();
+        for (TreeParallelWorker worker : workers)
+            searches.add(Executors.callable(() -> worker.search(initialisationTime)));
+        searchThreads.invokeAll(searches.size(), searches);
+
+        int[] iterationsPerThread = new int[nThreads];
+        for (int t = 0; t < nThreads; t++) {
+            iterationsPerThread[t] = workers[t].getIterations();
+            workers[t].mergeInto(root);
         }
+        root.iterationsPerThread = iterationsPerThread;
     }
 
     @Override
     public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> actions) {
         // Search for best action from the root
         long currentTimeNano = System.nanoTime();
-        createRootNode(gameState);
-        long timeTaken = System.nanoTime() - currentTimeNano;
+        if (getParameters().rootParallelism > 1) {
+            rootParallelSearch(gameState, currentTimeNano);
+        } else {
+            createRootNode(gameState);
+            long timeTaken = System.nanoTime() - currentTimeNano;
 
-        root.mctsSearch(timeTaken / 1000000);
+            if (getParameters().treeParallelism > 1)
+                treeParallelSearch(timeTaken / 1000000);
+            else
+                root.mctsSearch(timeTaken / 1000000);
+        }
 
         if (getParameters().actionHeuristic instanceof ITreeProcessor)
             ((ITreeProcessor) getParameters().actionHeuristic).process(root);
@@ -273,6 +384,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
                 System.out.println(root);
         }
         MASTStats = root.MASTStatistics;
+        root.profile.commitEvents(toString(), getPlayerID(), root.getVisits());
 
         if (root.children.size() > 2 * actions.size() && !(root instanceof MCGSNode) && !getParameters().reuseTree && !getParameters().actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
             throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.children.size(), actions.size()));
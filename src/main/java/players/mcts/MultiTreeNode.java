@@ -3,6 +3,7 @@ package players.mcts;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
+import players.SearchProfile;
 import utilities.Pair;
 import utilities.Utils;
 
@@ -39,9 +40,7 @@ public class MultiTreeNode extends SingleTreeNode {
         this.rnd = rnd;
         mctsPlayer = player;
         // only root node maintains MAST statistics
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTStore(state.getNPlayers());
         if (params.useMASTAsActionHeuristic) {
             params.actionHeuristic = new MASTActionHeuristic(MASTStatistics, params.MASTActionKey, params.MASTDefaultValue);
         }
@@ -49,6 +48,7 @@ public class MultiTreeNode extends SingleTreeNode {
 
         roots = new SingleTreeNode[state.getNPlayers()];
         roots[this.decisionPlayer] = SingleTreeNode.createRootNode(player, state, rnd, player.getFactory());
+        roots[this.decisionPlayer].profile = profile;  // so that the search of all trees is profiled together
         if (params.paranoid)
             roots[this.decisionPlayer].paranoidPlayer = decisionPlayer;
         currentLocation = new SingleTreeNode[state.getNPlayers()];
@@ -87,6 +87,7 @@ public class MultiTreeNode extends SingleTreeNode {
                 // their first action in search; set a root for their tree
                 SingleTreeNode pseudoRoot = SingleTreeNode.createRootNode(mctsPlayer, currentState.copy(), rnd, mctsPlayer.getFactory());
                 pseudoRoot.decisionPlayer = currentActor;
+                pseudoRoot.profile = profile;
                 if (params.paranoid)
                     pseudoRoot.paranoidPlayer = decisionPlayer;
                 roots[currentActor] = pseudoRoot;
@@ -99,7 +100,9 @@ public class MultiTreeNode extends SingleTreeNode {
                 // note that different players will enter rollout at different times, which is why
                 // we cannot have a simple rollout() method as in SingleTree search
                 AbstractPlayer agent = currentActor == decisionPlayer ? params.getRolloutStrategy() : params.getOpponentModel();
+                long start = profile.start();
                 List<AbstractAction> availableActions = forwardModel.computeAvailableActions(currentState, mctsPlayer.getParameters().actionSpace);
+                profile.stop(SearchProfile.Phase.Actions, start);
                 if (availableActions.isEmpty())
                     throw new AssertionError("We should always have something to choose from");
 
@@ -130,9 +133,12 @@ public class MultiTreeNode extends SingleTreeNode {
         // Evaluate final state and return normalised score
         double[] finalValues = new double[state.getNPlayers()];
 
+        long start = profile.start();
         for (int i = 0; i < finalValues.length; i++) {
             finalValues[i] = params.heuristic.evaluateState(currentState, i);
         }
+        profile.stop(SearchProfile.Phase.Evaluation, start);
+        start = profile.start();
         for (int p = 0; p < roots.length; p++) {
             if (currentLocation[p] != null) { // the currentLocation will be null if the player has not acted at all (if, say they have been eliminated)
                 // the full actions in tree and rollout are stored on the overall root
@@ -154,6 +160,7 @@ public class MultiTreeNode extends SingleTreeNode {
         }
         rolloutActionsTaken += actionsInRollout.size();
         root.updateMASTStatistics(actionsInTree, actionsInRollout, finalValues);
+        profile.stop(SearchProfile.Phase.BackUp, start);
     }
 
 
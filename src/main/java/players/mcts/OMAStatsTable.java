@@ -0,0 +1,120 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.util.*;
+
+/**
+ * The OMA statistics held on an OMATreeNode.
+ * <p>
+ * These are a visit count and total value for each pair of (action taken from the node, next action taken by the
+ * same player). The first action is identified by its ordinal in the node's ActionStatsTable; the second is interned
+ * once in this table when first seen, and given its own ordinal. The statistics are then held in one row of primitive
+ * arrays per parent action (created on its first backup), indexed by the child ordinal, so that once the two ordinals
+ * are known a lookup is two array reads.
+ */
+public class OMAStatsTable {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final Map<AbstractAction, Integer> childOrdinals = new HashMap<>();
+    private AbstractAction[] childActions = new AbstractAction[INITIAL_CAPACITY];
+    private int nChildren;
+    // indexed by [parent ordinal][child ordinal]; a row is null until that parent action has been backed up
+    private int[][] visits = new int[INITIAL_CAPACITY][];
+    private double[][] totValue = new double[INITIAL_CAPACITY][];
+
+    /**
+     * @return the ordinal of the child action, or -1 if it has not been added
+     */
+    public int childIndexOf(AbstractAction action) {
+        Integer ordinal = childOrdinals.get(action);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @return the ordinal of the child action, adding it if it is not already present
+     */
+    public int addChild(AbstractAction action) {
+        Integer ordinal = childOrdinals.get(action);
+        if (ordinal != null)
+            return ordinal;
+        if (nChildren == childActions.length)
+            childActions = Arrays.copyOf(childActions, nChildren * 2);
+        childActions[nChildren] = action;
+        childOrdinals.put(action, nChildren);
+        return nChildren++;
+    }
+
+    public int childCount() {
+        return nChildren;
+    }
+
+    public AbstractAction childAction(int childOrdinal) {
+        return childActions[childOrdinal];
+    }
+
+    /**
+     * @return true if the parent action has been backed up at least once
+     */
+    public boolean hasRow(int parentOrdinal) {
+        return parentOrdinal >= 0 && parentOrdinal < visits.length && visits[parentOrdinal] != null;
+    }
+
+    public int visits(int parentOrdinal, int childOrdinal) {
+        if (!hasRow(parentOrdinal))
+            return 0;
+        int[] row = visits[parentOrdinal];
+        return childOrdinal < row.length ? row[childOrdinal] : 0;
+    }
+
+    public double totValue(int parentOrdinal, int childOrdinal) {
+        if (!hasRow(parentOrdinal))
+            return 0.0;
+        double[] row = totValue[parentOrdinal];
+        return childOrdinal < row.length ? row[childOrdinal] : 0.0;
+    }
+
+    public void update(int parentOrdinal, int childOrdinal, double value) {
+        if (parentOrdinal >= visits.length) {
+            int capacity = Math.max(parentOrdinal + 1, visits.length * 2);
+            visits = Arrays.copyOf(visits, capacity);
+            totValue = Arrays.copyOf(totValue, capacity);
+        }
+        int[] visitRow = visits[parentOrdinal];
+        if (visitRow == null || childOrdinal >= visitRow.length) {
+            int capacity = Math.max(childOrdinal + 1, Math.max(nChildren, visitRow == null ? INITIAL_CAPACITY : visitRow.length * 2));
+            visitRow = visitRow == null ? new int[capacity] : Arrays.copyOf(visitRow, capacity);
+            double[] valueRow = totValue[parentOrdinal];
+            totValue[parentOrdinal] = valueRow == null ? new double[capacity] : Arrays.copyOf(valueRow, capacity);
+            visits[parentOrdinal] = visitRow;
+        }
+        visitRow[childOrdinal]++;
+        totValue[parentOrdinal][childOrdinal] += value;
+    }
+
+    /**
+     * @return the ordinals of all parent actions that have been backed up
+     */
+    public List<Integer> parentOrdinals() {
+        List<Integer> retValue = new ArrayList<>();
+        for (int i = 0; i < visits.length; i++)
+            if (visits[i] != null)
+                retValue.add(i);
+        return retValue;
+    }
+
+    /**
+     * @return the child actions that have been backed up from the parent action
+     */
+    public Set<AbstractAction> childActions(int parentOrdinal) {
+        Set<AbstractAction> retValue = new HashSet<>();
+        if (hasRow(parentOrdinal)) {
+            int[] row = visits[parentOrdinal];
+            for (int i = 0; i < row.length; i++)
+                if (row[i] > 0)
+                    retValue.add(childActions[i]);
+        }
+        return retValue;
+    }
+}
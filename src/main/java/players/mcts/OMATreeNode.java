@@ -21,7 +21,10 @@ import static players.mcts.MCTSEnums.Information.Closed_Loop;
  */
 public class OMATreeNode extends SingleTreeNode {
 
-    public class OMAStats {
+    /**
+     * A snapshot of the OMA statistics for one pair of actions, as returned by getOMAStats()
+     */
+    public static class OMAStats {
         public double OMATotValue;
         public int OMAVisits;
     }
@@ -36,9 +39,15 @@ public class OMATreeNode extends SingleTreeNode {
     // consider OMA stats from the perspective of the acting player.
     // However, we need to store one set of stats for each action we take from the OMAParent node,
     // as it is the 'grandchildren' of this action that are amalgamated to give the OMA stats.
-    // The first Action key is the action from the OMAParent node. The second Action key is the action at the
-    // grandchildren.
-    final Map<AbstractAction, Map<AbstractAction, OMAStats>> OMAChildren = new HashMap<>();
+    // The rows of OMAChildren are the actions from this node (by their ordinal in actionValues). The columns are the
+    // actions at the grandchildren.
+    final OMAStatsTable OMAChildren = new OMAStatsTable();
+
+    // The action taken from the OMAParent on the path to this node, and its ordinal in OMAParent.actionValues (-1 until known)
+    protected AbstractAction OMAParentAction;
+    private int OMAParentOrdinal = -1;
+    // The ordinal in OMAParent.OMAChildren of each of our actions (indexed by their ordinal here), -1 if not yet known
+    private int[] OMAChildOrdinals = new int[0];
 
     /**
      * Back up the value of the child through all parents. Increase number of visits and total value.
@@ -89,46 +98,90 @@ public class OMATreeNode extends SingleTreeNode {
     }
 
     private void OMABackup(double[] result, AbstractAction actionTakenFromParent, AbstractAction actionTakenToReachChild) {
-        if (!OMAChildren.containsKey(actionTakenFromParent))
-            OMAChildren.put(actionTakenFromParent, new HashMap<>());
-        Map<AbstractAction, OMAStats> possibleActions = OMAChildren.get(actionTakenFromParent);
-        if (!possibleActions.containsKey(actionTakenToReachChild))
-            possibleActions.put(actionTakenToReachChild, new OMAStats());
-        OMAStats stats = possibleActions.get(actionTakenToReachChild);
-        stats.OMAVisits++;
-        stats.OMATotValue += result[decisionPlayer];
+        int parentOrdinal = actionValues.indexOf(actionTakenFromParent);
+        int childOrdinal = OMAChildren.addChild(actionTakenToReachChild);
+        OMAChildren.update(parentOrdinal, childOrdinal, result[decisionPlayer]);
     }
 
     @Override
     protected void instantiate(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state) {
         super.instantiate(parent, actionToReach, state);
+        OMAParentOrdinal = -1;
+        OMAChildOrdinals = new int[0];
         // We only track OMAParents for all players if using OMA_All; otherwise just for the root decision player
         if (params.opponentTreePolicy == MCTSEnums.OpponentTreePolicy.OMA_All || root.decisionPlayer == decisionPlayer) {
+            SingleTreeNode below = this;
             SingleTreeNode oneUp = this.parent;
             while (oneUp != null) {
                 if (oneUp.decisionPlayer == decisionPlayer) {
                     // found it..we're done
                     this.OMAParent = Optional.of((OMATreeNode) oneUp);
+                    this.OMAParentAction = below.actionToReach;
                     break;
                 }
+                below = oneUp;
                 oneUp = oneUp.parent;
             }
         }
     }
 
+    /**
+     * @return the ordinal in OMAParent.actionValues of the action taken from the OMAParent to reach this node,
+     * or -1 if there is no OMAParent
+     */
+    int getOMAParentOrdinal() {
+        if (OMAParentOrdinal == -1 && OMAParent.isPresent())
+            OMAParentOrdinal = OMAParent.get().actionValues.indexOf(OMAParentAction);
+        return OMAParentOrdinal;
+    }
+
+    /**
+     * @param action  - an action from this node
+     * @param ordinal - the ordinal of action in actionValues, or -1 if it has not been added
+     * @return the ordinal of action in OMAParent.OMAChildren, or -1 if it has no OMA statistics there yet
+     */
+    int getOMAChildOrdinal(AbstractAction action, int ordinal) {
+        OMAStatsTable table = OMAParent.orElseThrow().OMAChildren;
+        if (ordinal == -1)
+            return table.childIndexOf(action);
+        if (ordinal >= OMAChildOrdinals.length) {
+            int oldLength = OMAChildOrdinals.length;
+            OMAChildOrdinals = Arrays.copyOf(OMAChildOrdinals, Math.max(ordinal + 1, oldLength * 2));
+            Arrays.fill(OMAChildOrdinals, oldLength, OMAChildOrdinals.length, -1);
+        }
+        int retValue = OMAChildOrdinals[ordinal];
+        if (retValue == -1) {
+            retValue = table.childIndexOf(action);
+            OMAChildOrdinals[ordinal] = retValue;
+        }
+        return retValue;
+    }
+
     public Optional<OMATreeNode> getOMAParent() {
         return OMAParent;
     }
 
+    /**
+     * @return a snapshot of the OMA statistics for action2 taken after action1 from this node, or null if there are none
+     */
     public OMAStats getOMAStats(AbstractAction action1, AbstractAction action2) {
-        return OMAChildren.get(action1).get(action2);
+        int parentOrdinal = actionValues.indexOf(action1);
+        int childOrdinal = OMAChildren.childIndexOf(action2);
+        if (childOrdinal == -1 || OMAChildren.visits(parentOrdinal, childOrdinal) == 0)
+            return null;
+        OMAStats retValue = new OMAStats();
+        retValue.OMAVisits = OMAChildren.visits(parentOrdinal, childOrdinal);
+        retValue.OMATotValue = OMAChildren.totValue(parentOrdinal, childOrdinal);
+        return retValue;
     }
 
     public Set<AbstractAction> getOMAChildrenActions(AbstractAction action) {
-        return OMAChildren.getOrDefault(action, new HashMap<>()).keySet();
+        return OMAChildren.childActions(actionValues.indexOf(action));
     }
 
     public Set<AbstractAction> getOMAParentActions() {
-        return OMAChildren.keySet();
+        return OMAChildren.parentOrdinals().stream()
+                .map(actionValues::action)
+                .collect(Collectors.toSet());
     }
 }
@@ -5,6 +5,7 @@ import core.actions.AbstractAction;
 import core.actions.DoNothing;
 import core.interfaces.IActionHeuristic;
 import players.PlayerConstants;
+import players.SearchProfile;
 import utilities.*;
 
 import java.util.*;
@@ -13,7 +14,9 @@ import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.*;
 import static players.PlayerConstants.*;
+import static players.SearchProfile.Phase.*;
 import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.Information.Information_Set;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.RolloutTermination.DEFAULT;
 import static players.mcts.MCTSEnums.SelectionPolicy.*;
@@ -56,6 +59,7 @@ public class SingleTreeNode {
     boolean terminalNode;
     double timeTaken;
     double initialisationTimeTaken;
+    SearchProfile profile = SearchProfile.DISABLED;  // only used on the root
     protected double highReward = Double.NEGATIVE_INFINITY;
     protected double lowReward = Double.POSITIVE_INFINITY;
     protected Map<AbstractAction, Double> regretMatchingAverage = new HashMap<>();
@@ -68,8 +72,9 @@ public class SingleTreeNode {
     // could be by any player - each of which would transition to a different Node OpenLoop search. (Closed Loop will
     // only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
     Map<AbstractAction, SingleTreeNode[]> children = new LinkedHashMap<>();
-    Map<AbstractAction, ActionStats> actionValues = new HashMap<>();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    // Statistics for each action, indexed by the order in which actions were first seen at this node
+    ActionStatsTable actionValues;
+    MASTStore MASTStatistics; // Action -> (visits, totValue) for each player
     // ToDoubleBiFunction<AbstractAction, AbstractGameState> MASTFunction;
     // The total value of all trajectories through this node (one element per player)
     private Supplier<? extends SingleTreeNode> factory;
@@ -77,22 +82,34 @@ public class SingleTreeNode {
     protected List<SingleTreeNode> currentNodeTrajectory;
     protected List<Pair<Integer, AbstractAction>> actionsInTree;
     List<Pair<Integer, AbstractAction>> actionsInRollout;
+    // Only set on the root when using root parallelisation; the number of iterations run on each independent tree
+    protected int[] iterationsPerTree;
+    // Only set on the root when using tree parallelisation; the number of iterations run by each thread on this tree
+    protected int[] iterationsPerThread;
 
     protected SingleTreeNode() {
     }
 
     // Called in tree expansion
     public static SingleTreeNode createRootNode(MCTSPlayer player, AbstractGameState state, Random rnd, Supplier<? extends SingleTreeNode> factory) {
+        return createRootNode(player.getParameters(), player.getForwardModel(), state, rnd, factory);
+    }
+
+    /**
+     * Creates a root node that uses the specified parameters and forward model (instead of those of the player).
+     * This is used for root parallelisation, where each tree must have its own copies of anything that is
+     * modified during search.
+     */
+    public static SingleTreeNode createRootNode(MCTSParams params, AbstractForwardModel forwardModel, AbstractGameState state,
+                                                Random rnd, Supplier<? extends SingleTreeNode> factory) {
         SingleTreeNode retValue = factory.get();
         retValue.factory = factory;
         retValue.decisionPlayer = state.getCurrentPlayer();
-        retValue.params = player.getParameters();
-        retValue.forwardModel = player.getForwardModel();
+        retValue.params = params;
+        retValue.forwardModel = forwardModel;
         retValue.rnd = rnd;
         // only root node maintains MAST statistics
-        retValue.MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            retValue.MASTStatistics.add(new HashMap<>());
+        retValue.MASTStatistics = new MASTStore(state.getNPlayers());
         if (retValue.params.useMASTAsActionHeuristic)
             retValue.params.actionHeuristic = new MASTActionHeuristic(retValue.MASTStatistics, retValue.params.MASTActionKey, retValue.params.MASTDefaultValue);
         retValue.instantiate(null, null, state);
@@ -119,6 +136,8 @@ public class SingleTreeNode {
         this.terminalNode = !state.isNotTerminal();
 
         this.actionToReach = actionToReach;
+        if (parent == null)
+            profile = SearchProfile.create(params.profileSearch);
 
         if (parent != null) {
             depth = parent.depth + 1;
@@ -139,6 +158,9 @@ public class SingleTreeNode {
         } else {
             this.state = state;
         }
+        // (a re-used node keeps its statistics when it becomes the new root)
+        if (actionValues == null)
+            actionValues = new ActionStatsTable(state.getNPlayers());
         // then set up available actions, and set openLoopState = state
         setActionsFromOpenLoopState(state);
 
@@ -152,9 +174,8 @@ public class SingleTreeNode {
         highReward = template.highReward;
         lowReward = template.lowReward;
         inheritedVisits = nVisits;
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < template.state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTStore(template.state.getNPlayers());
+        profile = SearchProfile.create(params.profileSearch);
     }
 
     protected void resetDepth(SingleTreeNode newRoot) {
@@ -192,7 +213,9 @@ public class SingleTreeNode {
     protected void setActionsFromOpenLoopState(AbstractGameState actionState) {
         openLoopState = actionState;
         if (actionState.getCurrentPlayer() == this.decisionPlayer && actionState.isNotTerminalForPlayer(decisionPlayer)) {
+            long start = root.profile.start();
             actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState, params.actionSpace);
+            root.profile.stop(Actions, start);
             //      System.out.printf("Setting OLS actions for P%d (%d)%n%s%n", decisionPlayer, actionState.getCurrentPlayer(),
 //                actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
             if (actionsFromOpenLoopState.size() != actionsFromOpenLoopState.stream().distinct().count())
@@ -208,6 +231,7 @@ public class SingleTreeNode {
                 // change over the course of the search. Setting it to 1 will update it on every visit; but possibly
                 // at a high additional computational cost.
                 if (params.actionHeuristic != IActionHeuristic.nullReturn) {
+                    start = root.profile.start();
                     if (actionValueEstimates.isEmpty() || nVisits % params.actionHeuristicRecalculationThreshold == 0) {
                         // in this case we initialise all action values
                         double[] actionValues = params.actionHeuristic.evaluateAllActions(actionsFromOpenLoopState, actionState);
@@ -222,6 +246,7 @@ public class SingleTreeNode {
                             }
                         }
                     }
+                    root.profile.stop(Evaluation, start);
                 } else {
                     throw new AssertionError("We have no heuristic to evaluate actions, and have pUCT/PB/PW or visitInitialisation set");
                 }
@@ -252,8 +277,10 @@ public class SingleTreeNode {
             }
             for (AbstractAction action : actionsFromOpenLoopState) {
                 if (!actionValues.containsKey(action)) {
-                    actionValues.put(action, new ActionStats(actionState.getNPlayers()));
-                    children.put(action.copy(), null); // mark a new node to be expanded
+                    // the same copy of the action is used as the key for both the statistics and the children
+                    AbstractAction actionCopy = action.copy();
+                    int ordinal = actionValues.add(actionCopy);
+                    children.put(actionCopy, null); // mark a new node to be expanded
                     // This *does* rely on a good equals method being implemented for Actions
                     if (!children.containsKey(action))
                         throw new AssertionError("We have an action that does not obey the equals/hashcode contract" + action);
@@ -263,21 +290,19 @@ public class SingleTreeNode {
                         // This also ignores Progressive widening and initialises all possible actions
                         // As with pUCT, this won't cause any major issues, but will mean that the effective node visits
                         // will be higher than the visits of the considered actions.
-                        ActionStats stats = actionValues.get(action);
                         double actionEstimate = actionValueEstimates.getOrDefault(action, 0.0);
                         if (params.normaliseRewards) {
                             if (actionEstimate > root.highReward) root.highReward = actionEstimate;
                             if (actionEstimate < root.lowReward) root.lowReward = actionEstimate;
                         }
                         int nActions = Math.max(actionValues.size(), actionsFromOpenLoopState.size());
-                        stats.nVisits = params.initialiseVisits;
-                        stats.validVisits = params.initialiseVisits * nActions;
-                        stats.totValue[decisionPlayer] = actionEstimate * params.initialiseVisits;
-                        stats.squaredTotValue[decisionPlayer] = actionEstimate * actionEstimate * params.initialiseVisits;
+                        actionValues.initialise(ordinal, params.initialiseVisits, params.initialiseVisits * nActions);
+                        actionValues.setTotValue(ordinal, decisionPlayer, actionEstimate * params.initialiseVisits);
+                        actionValues.setSquaredTotValue(ordinal, decisionPlayer, actionEstimate * actionEstimate * params.initialiseVisits);
                         if (params.paranoid) // default to zero for other players, unless we're paranoid
                             for (int i = 0; i < actionState.getNPlayers(); i++)
                                 if (i != decisionPlayer)
-                                    stats.totValue[i] = -stats.totValue[decisionPlayer];
+                                    actionValues.setTotValue(ordinal, i, -actionEstimate * params.initialiseVisits);
                         if (nVisits < params.initialiseVisits * nActions) {
                             nVisits = params.initialiseVisits * nActions;
                         }
@@ -303,31 +328,41 @@ public class SingleTreeNode {
     public void mctsSearch(long initialisationTime) {
         initialiseRootMetrics();
         initialisationTimeTaken = initialisationTime;
-        // Variables for tracking time budget
-        double avgTimeTaken;
-        long remaining;
-        int remainingLimit = params.breakMS;
         ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
         if (params.budgetType == BUDGET_TIME) {
             elapsedTimer.setMaxTimeMillis(params.budget - initialisationTime);
         }
 
+        // In Closed_Loop, if the forward model can undo moves, then each iteration advances a single working copy
+        // of the state in place (through the tree and the rollout), and then winds it back at the end.
+        // Otherwise we need a fresh copy of the state for each iteration (as in Open_Loop).
+        AbstractGameState undoState = null;
+        if (params.information == Closed_Loop && forwardModel.supportsUndo()) {
+            undoState = state.copy();
+            copyCount++;
+            forwardModel.startUndoLog(undoState);
+        }
+
+        // Each iteration works on its own copy of the root state. Nothing refers to this copy once the iteration is
+        // over, so we recycle a single state object across iterations (copyInto() re-uses its components where the
+        // game supports this, and otherwise it is just copy()).
+        AbstractGameState iterationState = null;
+
         // Tracking number of iterations for iteration budget
         int numIters = 0;
         boolean stop = false;
         while (!stop) {
-            switch (params.information) {
-                case Closed_Loop:
-                    setActionsFromOpenLoopState(state);
-                    break;
-                case Open_Loop:
-                    setActionsFromOpenLoopState(state.copy());
-                    copyCount++;
-                    break;
-                case Information_Set:
-                    setActionsFromOpenLoopState(state.copy(decisionPlayer));
-                    copyCount++;
-                    break;
+            if (undoState != null) {
+                // only in Closed_Loop
+                setActionsFromOpenLoopState(undoState);
+            } else {
+                long start = profile.start();
+                iterationState = params.information == Information_Set ?
+                        state.copyInto(iterationState, decisionPlayer) :
+                        state.copyInto(iterationState);
+                profile.stop(Copy, start);
+                copyCount++;
+                setActionsFromOpenLoopState(iterationState);
             }
 
             // New timer for this iteration
@@ -337,32 +372,82 @@ public class SingleTreeNode {
 
             // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
             oneSearchIteration();
+            if (undoState != null) {
+                while (undoState.getUndoDepth() > 0)
+                    forwardModel.undo(undoState);
+            }
 
             // Finished iteration
             numIters++;
             //       System.out.printf("MCTS Iteration %d, timeLeft: %d\n", numIters, elapsedTimer.remainingTimeMillis());
             // Check stopping condition
-            PlayerConstants budgetType = params.budgetType;
-            if (budgetType == BUDGET_TIME) {
-                // Time budget
-                remaining = elapsedTimer.remainingTimeMillis();
-                avgTimeTaken = (double) elapsedTimer.elapsedMillis() / numIters;
-                stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
-            } else if (budgetType == BUDGET_ITERATIONS) {
-                // Iteration budget
-                stop = numIters >= params.budget;
-            } else if (budgetType == BUDGET_FM_CALLS) {
-                // FM calls budget
-                stop = fmCallsCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_COPY_CALLS) {
-                stop = copyCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_FMANDCOPY_CALLS) {
-                stop = (copyCount + fmCallsCount) > params.budget || numIters > params.budget;
-            }
+            stop = budgetExhausted(numIters, fmCallsCount, copyCount, elapsedTimer);
         }
         timeTaken = elapsedTimer.elapsedMillis();
     }
 
+    /**
+     * Checks the stopping condition of a search against params.budget
+     *
+     * @param numIters     - iterations run so far
+     * @param fmCalls      - forward model calls made so far
+     * @param copies       - state copies made so far
+     * @param elapsedTimer - started at the beginning of the search (with the time available if this is the budget)
+     * @return true if the search should stop
+     */
+    protected boolean budgetExhausted(int numIters, int fmCalls, int copies, ElapsedCpuTimer elapsedTimer) {
+        PlayerConstants budgetType = params.budgetType;
+        if (budgetType == BUDGET_TIME) {
+            // Time budget
+            long remaining = elapsedTimer.remainingTimeMillis();
+            double avgTimeTaken = (double) elapsedTimer.elapsedMillis() / numIters;
+            return remaining <= 2 * avgTimeTaken || remaining <= params.breakMS;
+        } else if (budgetType == BUDGET_ITERATIONS) {
+            // Iteration budget
+            return numIters >= params.budget;
+        } else if (budgetType == BUDGET_FM_CALLS) {
+            // FM calls budget
+            return fmCalls > params.budget || numIters > params.budget;
+        } else if (budgetType == BUDGET_COPY_CALLS) {
+            return copies > params.budget || numIters > params.budget;
+        } else if (budgetType == BUDGET_FMANDCOPY_CALLS) {
+            return (copies + fmCalls) > params.budget || numIters > params.budget;
+        }
+        return false;
+    }
+
+    /**
+     * Combines the root statistics from an independent tree (searched from the same state) into this one.
+     * This is used in root parallelisation, so that bestAction() uses the statistics from all trees.
+     * Only the root is merged; the sub-trees below the root of the other tree are discarded.
+     *
+     * @param other - the root of the other tree
+     */
+    protected void mergeRootStatistics(SingleTreeNode other) {
+        for (int otherOrdinal = 0; otherOrdinal < other.actionValues.size(); otherOrdinal++) {
+            AbstractAction action = other.actionValues.action(otherOrdinal);
+            int ordinal = actionValues.indexOf(action);
+            if (ordinal == -1) {
+                ordinal = actionValues.add(action);
+                children.putIfAbsent(action, null);
+            }
+            actionValues.add(ordinal, other.actionValues, otherOrdinal);
+        }
+        for (Map.Entry<AbstractAction, Double> entry : other.regretMatchingAverage.entrySet())
+            regretMatchingAverage.merge(entry.getKey(), entry.getValue(), Double::sum);
+        if (MASTStatistics != null && other.MASTStatistics != null)
+            MASTStatistics.merge(other.MASTStatistics);
+        nVisits += other.nVisits;
+        fmCallsCount += other.fmCallsCount;
+        copyCount += other.copyCount;
+        rolloutActionsTaken += other.rolloutActionsTaken;
+        nodeClash += other.nodeClash;
+        profile.merge(other.profile);
+        highReward = Math.max(highReward, other.highReward);
+        lowReward = Math.min(lowReward, other.lowReward);
+        timeTaken = Math.max(timeTaken, other.timeTaken);
+    }
+
     /**
      * oneSearchIteration() implements the strategy for tree search (plus expansion, rollouts, backup and so on)
      * Its result is purely stored in the tree generated from root
@@ -372,7 +457,9 @@ public class SingleTreeNode {
         currentNodeTrajectory = new ArrayList<>();
         actionsInRollout = new ArrayList<>();
 
+        long start = profile.start();
         SingleTreeNode selected = treePolicy();
+        profile.stop(Selection, start);
         if (selected == this && openLoopState.isNotTerminalForPlayer(decisionPlayer) && nVisits > 3 && !(this instanceof MCGSNode))
             throw new AssertionError("We have not expanded or selected a new node");
         // by this point (and really earlier) we should have expanded a new node.
@@ -381,12 +468,40 @@ public class SingleTreeNode {
 
         // Monte carlo rollout: return value of MC rollout from the newly added node
         int lastActorInTree = actionsInTree.isEmpty() ? decisionPlayer : actionsInTree.get(actionsInTree.size() - 1).a;
+        start = profile.start();
         double[] delta = selected.rollout(lastActorInTree);
+        profile.stop(Rollout, start);
         // Back up the value of the rollout through the tree
         rolloutActionsTaken += actionsInRollout.size();
 
+        start = profile.start();
         selected.backUp(delta);
         updateMASTStatistics(actionsInTree, actionsInRollout, delta);
+        profile.stop(BackUp, start);
+    }
+
+    /**
+     * Virtual loss, used in tree parallelisation. Until the iteration that took this action from here has been backed
+     * up, the action is treated as having been taken params.virtualLoss more times, each with a losing reward for
+     * the player who decides at this node. This steers other threads towards different parts of the tree.
+     *
+     * @param action    - the action taken from this node
+     * @param lossValue - the reward for each virtual visit; this must be the same in removeVirtualLoss()
+     */
+    protected void addVirtualLoss(AbstractAction action, double lossValue) {
+        applyVirtualLoss(action, params.virtualLoss, lossValue);
+    }
+
+    protected void removeVirtualLoss(AbstractAction action, double lossValue) {
+        applyVirtualLoss(action, -params.virtualLoss, lossValue);
+    }
+
+    private void applyVirtualLoss(AbstractAction action, int visits, double lossValue) {
+        int ordinal = actionValues.indexOf(action);
+        if (ordinal == -1)
+            throw new AssertionError("Virtual loss for an action that has not been seen at this node: " + action);
+        nVisits += visits;
+        actionValues.addVirtualVisits(ordinal, visits, decisionPlayer, lossValue);
     }
 
     protected void updateMASTStatistics
@@ -414,15 +529,19 @@ public class SingleTreeNode {
      * (this is called often enough it can make a measurable difference)
      */
     public int actionVisits(AbstractAction action) {
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 0 : stats.nVisits;
+        return visitsFor(actionValues.indexOf(action));
     }
 
-    private int validVisitsFor(AbstractAction action) {
+    // The methods below take the ordinal of the action in actionValues (-1 if the action has not been seen)
+    // so that the statistics for an action can be looked up just once in each selection step
+    private int visitsFor(int ordinal) {
+        return ordinal == -1 ? 0 : actionValues.visits(ordinal);
+    }
+
+    private int validVisitsFor(int ordinal) {
         if (params.information == Closed_Loop)
             return nVisits;
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 1 : stats.validVisits;
+        return ordinal == -1 ? 1 : actionValues.validVisits(ordinal);
     }
 
     /**
@@ -430,28 +549,27 @@ public class SingleTreeNode {
      * (this is called often enough it can make a measurable difference)
      */
     public double actionTotValue(AbstractAction action, int playerId) {
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 0.0 : stats.totValue[playerId];
+        return totValueFor(actionValues.indexOf(action), playerId);
+    }
+
+    private double totValueFor(int ordinal, int playerId) {
+        return ordinal == -1 ? 0.0 : actionValues.totValue(ordinal, playerId);
     }
 
     public double nodeValue(int playerId) {
         if (nVisits == 0) return 0.0;
-        return actionValues.values().stream().mapToDouble(s -> s.totValue[playerId]).sum() / nVisits;
+        return actionValues.totValue(playerId) / nVisits;
     }
 
-    private double actionSquaredValue(AbstractAction action, int playerId) {
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 0.0 : stats.squaredTotValue[playerId];
+    private double squaredValueFor(int ordinal, int playerId) {
+        return ordinal == -1 ? 0.0 : actionValues.squaredTotValue(ordinal, playerId);
     }
 
     /**
      * Uses only by TreeStatistics and bestAction() after mctsSearch()
-     * For this reason not converted to old-style java loop as there would be no performance gain
      */
     int[] actionVisits() {
-        return actionValues.values().stream()
-                .mapToInt(a -> a.nVisits)
-                .toArray();
+        return actionValues.visits();
     }
 
     /**
@@ -473,16 +591,9 @@ public class SingleTreeNode {
             // Move to next child given by relevant selection function
             AbstractAction chosen = cur.treePolicyAction(true);
 
-            // In Open_Loop (and all variants other than Closed_Loop), we make a single copy of the state at the start of each iteration
-            // this is then updated with all actions (and stored in openLoopState on each node it visits).
-            // In Closed_Loop we make a copy of a state only when we expand and add a new node to the tree.
-            if (params.information == Closed_Loop) {
-                // we do not advance
-                // but we do want to track the actions taken (otherwise done in advanceState)
-                actionsInTree.add(new Pair<>(cur.openLoopState.getCurrentPlayer(), chosen));
-            } else {
-                cur.advanceState(cur.openLoopState, chosen, false);
-            }
+            // We use a single state for each iteration (a copy, or in Closed_Loop a state that is then undone),
+            // this is updated with all actions (and stored in openLoopState on each node it visits).
+            cur.advanceState(cur.openLoopState, chosen, false);
             // add node to trajectory for later backprop
             currentNodeTrajectory.add(cur);
             // then find out where this has taken us
@@ -492,7 +603,10 @@ public class SingleTreeNode {
             SingleTreeNode nextNode = cur.nextNodeInTree(chosen);
             // if and only if we do not find a new node, then we need to expand and create a new node
             if (nextNode == null) {
-                return cur.expandNode(chosen, cur.openLoopState);
+                long start = profile.start();
+                SingleTreeNode expanded = cur.expandNode(chosen, cur.openLoopState);
+                profile.stop(Expansion, start);
+                return expanded;
             }
             cur = nextNode;
         }
@@ -511,7 +625,7 @@ public class SingleTreeNode {
             // However, we do break ties in favour of already expanded actions
             List<AbstractAction> sortedActions = new ArrayList<>(allAvailable);
             sortedActions.sort(Comparator.comparingDouble(a -> -actionValueEstimates.getOrDefault(a, 0.0) -
-                    actionValues.getOrDefault(a, new ActionStats(1)).nVisits * 1e-6));
+                    actionVisits(a) * 1e-6));
             return new ArrayList<>(sortedActions.subList(0, actionsToConsider));
         }
         return new ArrayList<>(allAvailable);
@@ -553,7 +667,9 @@ public class SingleTreeNode {
         } else {
             root.actionsInTree.add(new Pair<>(gs.getCurrentPlayer(), act));
         }
+        long start = root.profile.start();
         forwardModel.next(gs, act.copy());
+        root.profile.stop(ForwardModel, start);
         root.fmCallsCount++;
         if (params.opponentTreePolicy != MultiTree &&
                 params.opponentTreePolicy.selfOnlyTree &&
@@ -573,7 +689,9 @@ public class SingleTreeNode {
         while (gs.getCurrentPlayer() != id && gs.isNotTerminalForPlayer(id) && !(inRollout && finishRollout(gs))) {
             //       AbstractGameState preGS = gs.copy();
             AbstractPlayer oppModel = params.getOpponentModel();
+            long start = root.profile.start();
             List<AbstractAction> availableActions = forwardModel.computeAvailableActions(gs, params.actionSpace);
+            root.profile.stop(Actions, start);
             if (availableActions.isEmpty())
                 throw new AssertionError("Should always have at least one action possible..." + (action != null ? " Last action: " + action : ""));
             action = oppModel.getAction(gs, availableActions);
@@ -581,7 +699,9 @@ public class SingleTreeNode {
                 root.actionsInRollout.add(new Pair<>(gs.getCurrentPlayer(), action));
                 lastActorInRollout = gs.getCurrentPlayer();
             }
+            start = root.profile.start();
             forwardModel.next(gs, action);
+            root.profile.stop(ForwardModel, start);
             root.fmCallsCount++;
         }
     }
@@ -632,11 +752,11 @@ public class SingleTreeNode {
                     // Find child with highest UCB value
                     AbstractAction bestAction = null;
                     double bestValue = -Double.MAX_VALUE;
-                    for (AbstractAction availableAction : availableActions) {
-                        double uctValue = ucbValue(availableAction);
+                    for (int i = 0; i < availableActions.size(); i++) {
+                        double uctValue = actionValues[i];
                         if (uctValue > bestValue) {
                             bestValue = uctValue;
-                            bestAction = availableAction;
+                            bestAction = availableActions.get(i);
                         }
                     }
                     yield bestAction;
@@ -676,7 +796,11 @@ public class SingleTreeNode {
         if (nodeArray == null) return null;
         if (params.information == Closed_Loop) {
             // in this case we have determinism...there should just be a single child node in the array...so we get that
-            return Arrays.stream(nodeArray).filter(Objects::nonNull).findFirst().orElse(null);
+            // and as the actions available are always the same, we do not need to recompute them
+            SingleTreeNode nextNode = Arrays.stream(nodeArray).filter(Objects::nonNull).findFirst().orElse(null);
+            if (nextNode != null)
+                nextNode.openLoopState = openLoopState;
+            return nextNode;
         } else {
             //  int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : openLoopState.getCurrentPlayer();
             SingleTreeNode nextNode = nodeArray[openLoopState.getCurrentPlayer()];
@@ -698,59 +822,54 @@ public class SingleTreeNode {
         double[] retValue = new double[actionsToConsider.size()];
         for (int i = 0; i < actionsToConsider.size(); i++) {
             AbstractAction action = actionsToConsider.get(i);
+            int ordinal = actionValues.indexOf(action);
             retValue[i] = switch (params.treePolicy) {
                 case Uniform -> 1.0;
-                case Greedy -> getFullValue(action);
-                case UCB, AlphaGo, UCB_Tuned -> ucbValue(action);
-                case RegretMatching -> rmValue(action);
-                case EXP3 -> exp3Value(action);
+                case Greedy -> getFullValue(action, ordinal);
+                case UCB, AlphaGo, UCB_Tuned -> ucbValue(action, ordinal);
+                case RegretMatching -> rmValue(action, ordinal);
+                case EXP3 -> exp3Value(action, ordinal);
             };
         }
         return retValue;
     }
 
-    private double getFullValue(AbstractAction action) {
-        double value = getActionValue(action);
-        int actionVisits = actionVisits(action);
+    private double getFullValue(AbstractAction action, int ordinal) {
+        double value = getActionValue(ordinal);
+        int actionVisits = visitsFor(ordinal);
         if (params.normaliseRewards && actionVisits > 0) {
             value = normalise(value, root.lowReward, root.highReward);
         }
         if (params.progressiveBias > 0)
-            value += getBiasValue(action);
+            value += getBiasValue(action, ordinal);
         // apply OMA
-        value = getOMAValue(action, value);
+        value = getOMAValue(action, ordinal, value);
         return value;
     }
 
-    private double getOMAValue(AbstractAction action, double childValue) {
-        int actionVisits = actionVisits(action);
+    private double getOMAValue(AbstractAction action, int ordinal, double childValue) {
+        int actionVisits = visitsFor(ordinal);
         double retValue = childValue;
         // consider OMA term
         if (params.omaVisits > 0 && (params.opponentTreePolicy == OMA_All || params.opponentTreePolicy == OMA)) {
-            OMATreeNode oma = ((OMATreeNode) this).OMAParent.orElse(null);
+            OMATreeNode node = (OMATreeNode) this;
+            OMATreeNode oma = node.OMAParent.orElse(null);
             if (oma != null) {
                 double beta = Math.sqrt(params.omaVisits / (double) (params.omaVisits + 3 * actionVisits));
-                // we need to find the action taken from the OMAParent
-                SingleTreeNode iteratingNode = this;
-                List<AbstractAction> actionsTaken = new ArrayList<>();
-                do {
-                    actionsTaken.add(iteratingNode.actionToReach);
-                    iteratingNode = iteratingNode.parent;
-                    if (iteratingNode == null)
-                        throw new AssertionError("Should always find OMA node before root");
-                } while (iteratingNode != oma);
-                Map<AbstractAction, OMATreeNode.OMAStats> tmp = oma.OMAChildren.get(actionsTaken.get(actionsTaken.size() - 1));
-                if (tmp == null) {
+                // the statistics are on the OMAParent, in the row for the action taken from it to reach this node
+                int parentOrdinal = node.getOMAParentOrdinal();
+                if (!oma.OMAChildren.hasRow(parentOrdinal)) {
                     if (actionVisits == 0) {
-                        // do nothing - this is possible as we do not create OMA node until we back-propagate
-                        // so on the first visit there may not be one yet
+                        // do nothing - this is possible as we do not create OMA statistics until we back-propagate
+                        // so on the first visit there may not be any yet
                     } else {
                         throw new AssertionError("We have somehow failed to find the OMA node for this action");
                     }
                 } else {
-                    OMATreeNode.OMAStats stats = tmp.get(action);
-                    if (stats != null && stats.OMAVisits > 0) {
-                        double omaValue = stats.OMATotValue / stats.OMAVisits;
+                    int childOrdinal = node.getOMAChildOrdinal(action, ordinal);
+                    int omaVisits = childOrdinal == -1 ? 0 : oma.OMAChildren.visits(parentOrdinal, childOrdinal);
+                    if (omaVisits > 0) {
+                        double omaValue = oma.OMAChildren.totValue(parentOrdinal, childOrdinal) / omaVisits;
                         retValue = (1.0 - beta) * childValue + beta * omaValue;
                     }
                 }
@@ -759,15 +878,15 @@ public class SingleTreeNode {
         return retValue;
     }
 
-    private double ucbValue(AbstractAction action) {
+    private double ucbValue(AbstractAction action, int ordinal) {
 
         // Find 'UCB' value - this is the base to which we then add exploration
-        double childValue = getFullValue(action);
-        int actionVisits = actionVisits(action);
+        double childValue = getFullValue(action, ordinal);
+        int actionVisits = visitsFor(ordinal);
 
         // Now for the exploration term
         // default to standard UCB
-        int effectiveTotalVisits = validVisitsFor(action);
+        int effectiveTotalVisits = validVisitsFor(ordinal);
         // use first play urgency as replacement for exploration term if action not previously taken
         // we add in the second term based on the AlphaGo selection rule, so that the exploration term is monotonically increasing with N
         // this will come into play for small values of FPU and acts as soft-pruning rather than the harder form if FPU is a fixed constant
@@ -777,13 +896,13 @@ public class SingleTreeNode {
                 case UCB_Tuned -> {
                     double range = root.highReward - root.lowReward;
                     if (range < 1e-6) range = 1e-6;
-                    double meanSq = actionSquaredValue(action, decisionPlayer) / actionVisits;
+                    double meanSq = squaredValueFor(ordinal, decisionPlayer) / actionVisits;
                     double standardVar = 0.25;
                     if (params.normaliseRewards) {
                         // we also need to standardise the sum of squares to calculate the variance
                         meanSq = (meanSq
                                 + root.lowReward * root.lowReward
-                                - 2 * root.lowReward * actionTotValue(action, decisionPlayer) / actionVisits
+                                - 2 * root.lowReward * totValueFor(ordinal, decisionPlayer) / actionVisits
                         ) / (range * range);
                     } else {
                         // we need to modify the standard variance as it is not on a 0..1 basis (which is where 0.25 comes from)
@@ -815,9 +934,9 @@ public class SingleTreeNode {
         return uctValue;
     }
 
-    public double exp3Value(AbstractAction action) {
-        double actionValue = getActionValue(action);
-        int actionVisits = actionVisits(action);
+    public double exp3Value(AbstractAction action, int ordinal) {
+        double actionValue = getActionValue(ordinal);
+        int actionVisits = visitsFor(ordinal);
         // we then normalise to [0, 1], or we subtract the mean action value to get an advantage (and reduce risk of
         // NaN or Infinities when we exponentiate)
         if (actionVisits > 0) {
@@ -827,7 +946,7 @@ public class SingleTreeNode {
                 actionValue = actionValue - nodeValue(decisionPlayer);
         }
         if (params.progressiveBias > 0)
-            actionValue += getBiasValue(action);
+            actionValue += getBiasValue(action, ordinal);
         double retValue = Math.exp(actionValue / params.exp3Boltzmann);
 
         if (Double.isNaN(retValue) || Double.isInfinite(retValue)) {
@@ -841,16 +960,16 @@ public class SingleTreeNode {
         return retValue;
     }
 
-    public double rmValue(AbstractAction action) {
-        double actionValue = getActionValue(action);
+    public double rmValue(AbstractAction action, int ordinal) {
+        double actionValue = getActionValue(ordinal);
         if (params.progressiveBias > 0)
-            actionValue += getBiasValue(action);
+            actionValue += getBiasValue(action, ordinal);
         double nodeValue = nodeValue(decisionPlayer);
         // potential value is our estimate of our accumulated reward if we had always taken this action
         double potentialValue = actionValue * nVisits;
         double regret = potentialValue - nodeValue * nVisits;
         // We add FPU after all the exponentiation for safety
-        int actionVisits = actionVisits(action);
+        int actionVisits = visitsFor(ordinal);
         if (actionVisits == 0) {
             regret += params.firstPlayUrgency;
         }
@@ -858,14 +977,14 @@ public class SingleTreeNode {
     }
 
 
-    private double getActionValue(AbstractAction action) {
-        int actionVisits = actionVisits(action);
+    private double getActionValue(int ordinal) {
+        int actionVisits = visitsFor(ordinal);
         // if we are at 'expansion' phase, then we break ties by expansion policy (which is the same actionHeuristic as progressive bias)
-        return actionVisits > 0 ? actionTotValue(action, decisionPlayer) / actionVisits : 0.0;
+        return actionVisits > 0 ? totValueFor(ordinal, decisionPlayer) / actionVisits : 0.0;
     }
 
-    private double getBiasValue(AbstractAction action) {
-        int actionVisits = actionVisits(action);
+    private double getBiasValue(AbstractAction action, int ordinal) {
+        int actionVisits = visitsFor(ordinal);
         return params.progressiveBias * actionValueEstimates.getOrDefault(action, 0.0) / (actionVisits + 1);
     }
 
@@ -883,17 +1002,12 @@ public class SingleTreeNode {
         AbstractGameState rolloutState = openLoopState;
         if (params.rolloutLength > 0 || params.rolloutTermination != DEFAULT) {
             // even if rollout length is zero, we may rollout a few actions to reach the end of our turn, or the start of our next turn
-            if (params.information == Closed_Loop) {
-                // the thinking here is that in openLoop we copy the state right at the root, and then use the forward
-                // model at each action. Hence the current state on the node is the one we have been using up to now.
-                /// Hence we do not need to copy it.
-                rolloutState = state.copy();
-                root.copyCount++;
-            }
-
+            // openLoopState is the state for this iteration only, so we can advance it without copying
             AbstractAction next = null;
             while (!finishRollout(rolloutState)) {
+                long start = root.profile.start();
                 List<AbstractAction> availableActions = forwardModel.computeAvailableActions(rolloutState, params.actionSpace);
+                root.profile.stop(Actions, start);
                 if (availableActions.isEmpty()) {
                     throw new AssertionError("No actions available in rollout!" + (next != null ? " Last action: " + next : ""));
                 }
@@ -906,11 +1020,13 @@ public class SingleTreeNode {
         // Evaluate final state and return normalised score
         double[] retValue = new double[rolloutState.getNPlayers()];
 
+        long start = root.profile.start();
         for (int i = 0; i < retValue.length; i++) {
             retValue[i] = params.heuristic.evaluateState(rolloutState, i);
             if (Double.isNaN(retValue[i]))
                 throw new AssertionError("Illegal heuristic value - should be a number");
         }
+        root.profile.stop(Evaluation, start);
         return retValue;
     }
 
@@ -1023,23 +1139,24 @@ public class SingleTreeNode {
             // If MCGS, then this is possible if we have looped in the graph, so that OpenLoopState refers
             // to a different state than the one for which the action was taken. This is awkward.
             // In the absence of any good information, we just increment the valid visits of all actions
-            for (ActionStats stats : actionValues.values()) {
-                stats.validVisits++;
-            }
+            actionValues.incrementAllValidVisits();
         } else {
             for (AbstractAction action : actionsToConsider) {
-                if (!actionValues.containsKey(action))
-                    actionValues.put(action, new ActionStats(result.length));
-                actionValues.get(action).validVisits++;
+                int ordinal = actionValues.indexOf(action);
+                if (ordinal == -1) {
+                    AbstractAction actionCopy = action.copy();
+                    ordinal = actionValues.add(actionCopy);
+                }
+                actionValues.incrementValidVisits(ordinal);
             }
         }
-        ActionStats stats = actionValues.get(actionTaken);
-        if (stats == null)
+        int ordinalTaken = actionValues.indexOf(actionTaken);
+        if (ordinalTaken == -1)
             throw new AssertionError("We have somehow failed to find the action taken in the list of actions");
-        if (stats.validVisits == 0)
+        if (actionValues.validVisits(ordinalTaken) == 0)
             throw new AssertionError("We have somehow failed to find the action taken in the list of valid actions");
 
-        stats.update(result);
+        actionValues.update(ordinalTaken, result);
 
         if (params.treePolicy == RegretMatching && this == root && nVisits >= actionsToConsider.size() && nVisits % Math.max(actionsToConsider.size(), 10) == 0) {
             // we update the average policy each time we have had the opportunity to take each action once (or every 10 visits, if that is greater)
@@ -1056,9 +1173,12 @@ public class SingleTreeNode {
         // otherwise we do some more complex backup
         double resultToPropagateUpwards[] = result.clone();
         AbstractAction bestAction = bestAction(actionsToConsider);
-        double[] maxValue = actionValues.get(bestAction).totValue.clone();
-        for (int i = 0; i < maxValue.length; i++) {
-            maxValue[i] /= actionValues.get(bestAction).nVisits;
+        int bestOrdinal = actionValues.indexOf(bestAction);
+        double[] maxValue = new double[result.length];
+        if (bestOrdinal != -1) {
+            for (int i = 0; i < maxValue.length; i++) {
+                maxValue[i] = actionValues.totValue(bestOrdinal, i) / actionValues.visits(bestOrdinal);
+            }
         }
         return switch (params.backupPolicy) {
             case MonteCarlo:
@@ -1066,7 +1186,7 @@ public class SingleTreeNode {
             case Lambda:
                 // SARSA-style on-policy update. We weight the action average by 1 - lambda
                 for (int i = 0; i < result.length; i++) {
-                    resultToPropagateUpwards[i] = params.backupLambda * result[i] + (1.0 - params.backupLambda) * stats.totValue[i] / stats.nVisits;
+                    resultToPropagateUpwards[i] = params.backupLambda * result[i] + (1.0 - params.backupLambda) * actionValues.totValue(ordinalTaken, i) / actionValues.visits(ordinalTaken);
                 }
                 yield resultToPropagateUpwards;
             case MaxLambda:
@@ -1103,9 +1223,9 @@ public class SingleTreeNode {
         AbstractAction bestAction = null;
         double maxValue = -Double.MAX_VALUE;
         for (AbstractAction action : actionsToConsider) {
-            ActionStats temp = actionValues.get(action);
-            double value = temp.nVisits == 0 ? -Double.MAX_VALUE :
-                    temp.totValue[decisionPlayer] / temp.nVisits;
+            int ordinal = actionValues.indexOf(action);
+            double value = actionValues.visits(ordinal) == 0 ? -Double.MAX_VALUE :
+                    actionValues.totValue(ordinal, decisionPlayer) / actionValues.visits(ordinal);
             if (value > maxValue) {
                 maxValue = value;
                 bestAction = action;
@@ -1119,11 +1239,8 @@ public class SingleTreeNode {
         for (Pair<Integer, AbstractAction> pair : rolloutActions) {
             AbstractAction action = pair.b;
             int player = pair.a;
-            Object actionKey = params.MASTActionKey == null ? action.copy() : params.MASTActionKey.key(action);
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(actionKey, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta[player];   // value
-            MASTStatistics.get(player).put(actionKey, stats);
+            Object actionKey = params.MASTActionKey == null ? action : params.MASTActionKey.key(action);
+            MASTStatistics.update(player, actionKey, delta[player]);
         }
     }
 
@@ -1154,23 +1271,21 @@ public class SingleTreeNode {
             // We iterate through all actions valid in the original root state
             // as openLoopState may be different if using MCGS (not an issue with SingleTreeNode or MultiTreeNode)
             for (AbstractAction action : forwardModel.computeAvailableActions(state, params.actionSpace)) {
-                if (!actionValues.containsKey(action)) {
+                int ordinal = actionValues.indexOf(action);
+                if (ordinal == -1) {
                     throw new AssertionError("Hashcode / equals contract issue for " + action);
                 }
-                if (actionValues.get(action) != null) {
-                    ActionStats stats = actionValues.get(action);
-                    double childValue = stats.nVisits; // if ROBUST
-                    if (policy == SIMPLE)
-                        childValue = stats.totValue[decisionPlayer] / (stats.nVisits + params.noiseEpsilon);
-
-                    // Apply small noise to break ties randomly
-                    childValue = noise(childValue, params.noiseEpsilon, rnd.nextDouble());
-
-                    // Save best value
-                    if (childValue > bestValue) {
-                        bestValue = childValue;
-                        bestAction = action;
-                    }
+                double childValue = actionValues.visits(ordinal); // if ROBUST
+                if (policy == SIMPLE)
+                    childValue = actionValues.totValue(ordinal, decisionPlayer) / (actionValues.visits(ordinal) + params.noiseEpsilon);
+
+                // Apply small noise to break ties randomly
+                childValue = noise(childValue, params.noiseEpsilon, rnd.nextDouble());
+
+                // Save best value
+                if (childValue > bestValue) {
+                    bestValue = childValue;
+                    bestAction = action;
                 }
             }
         }
@@ -1202,6 +1317,22 @@ public class SingleTreeNode {
         return nVisits;
     }
 
+    /**
+     * @return the number of iterations run on each tree if root parallelisation was used, otherwise
+     * a single entry with the iterations run on this tree
+     */
+    public int[] getIterationsPerTree() {
+        return iterationsPerTree == null ? new int[]{nVisits - inheritedVisits} : iterationsPerTree;
+    }
+
+    /**
+     * @return the number of iterations run by each thread; with root parallelisation this is the same as
+     * getIterationsPerTree(), as each tree is searched by a single thread
+     */
+    public int[] getIterationsPerThread() {
+        return iterationsPerThread == null ? getIterationsPerTree() : iterationsPerThread;
+    }
+
     public int getDepth() {
         return depth;
     }
@@ -1300,7 +1431,7 @@ public class SingleTreeNode {
         for (AbstractAction action : sortedActions) {
             String actionName = action.toString();
             int actionVisits = actionVisits(action);
-            int effectiveVisits = validVisitsFor(action);
+            int effectiveVisits = validVisitsFor(actionValues.indexOf(action));
             if (actionName.length() > 50)
                 actionName = actionName.substring(0, 50);
             valueString = String.format("%.2f", actionTotValue(action, decisionPlayer) / actionVisits);
@@ -0,0 +1,159 @@
+package players.mcts;
+
+import utilities.Zobrist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * The transposition table for MCGS, mapping the long key of a state (IStateKey.getLongKey()) to its node.
+ * <p>
+ * This is an open-addressing table of primitive keys, with the slots grouped into buckets of BUCKET_SIZE.
+ * A key can only be stored in the bucket it hashes to. When that bucket is full the table doubles in size,
+ * up to maxCapacity slots. Once at maxCapacity, a new key instead replaces the least-visited node in its bucket,
+ * so memory use is bounded however long the search runs. The root of the graph is never evicted.
+ * <p>
+ * An evicted node is simply forgotten; if its state is reached again a new node will be created for it.
+ */
+public class TranspositionTable {
+
+    public static final int BUCKET_SIZE = 4;
+
+    private final int maxCapacity;
+    private long[] keys;
+    private MCGSNode[] nodes;
+    private int mask;  // nBuckets - 1
+    private int size;
+    private int evictions;
+
+    /**
+     * @param maxCapacity - the maximum number of nodes held (rounded up to a power of two)
+     */
+    public TranspositionTable(int maxCapacity) {
+        if (maxCapacity < BUCKET_SIZE)
+            throw new IllegalArgumentException("maxCapacity must be at least " + BUCKET_SIZE);
+        this.maxCapacity = Integer.highestOneBit(maxCapacity - 1) << 1;
+        allocate(Math.min(this.maxCapacity, 64));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        nodes = new MCGSNode[capacity];
+        mask = capacity / BUCKET_SIZE - 1;
+        size = 0;
+    }
+
+    private int bucket(long key) {
+        // keys may not be well mixed (e.g. from a simple ILongStateKey), so we mix before taking the low bits
+        return ((int) Zobrist.key(key) & mask) * BUCKET_SIZE;
+    }
+
+    public MCGSNode get(long key) {
+        int start = bucket(key);
+        for (int i = start; i < start + BUCKET_SIZE; i++) {
+            if (nodes[i] != null && keys[i] == key)
+                return nodes[i];
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Adds the node for the key (replacing any node already stored for it). This may evict another node if the
+     * table is at its maximum capacity.
+     */
+    public void put(long key, MCGSNode node) {
+        while (true) {
+            int start = bucket(key);
+            int empty = -1;
+            for (int i = start; i < start + BUCKET_SIZE; i++) {
+                if (nodes[i] == null) {
+                    if (empty == -1) empty = i;
+                } else if (keys[i] == key) {
+                    nodes[i] = node;
+                    return;
+                }
+            }
+            if (empty != -1) {
+                keys[empty] = key;
+                nodes[empty] = node;
+                size++;
+                return;
+            }
+            if (nodes.length < maxCapacity) {
+                grow();
+                continue;  // and try again in the new (larger) bucket
+            }
+            // Table is full, so we replace the least-visited node in the bucket
+            int victim = -1;
+            for (int i = start; i < start + BUCKET_SIZE; i++) {
+                if (nodes[i].root == nodes[i])
+                    continue;
+                if (victim == -1 || nodes[i].nVisits < nodes[victim].nVisits)
+                    victim = i;
+            }
+            keys[victim] = key;
+            nodes[victim] = node;
+            evictions++;
+            return;
+        }
+    }
+
+    public MCGSNode remove(long key) {
+        int start = bucket(key);
+        for (int i = start; i < start + BUCKET_SIZE; i++) {
+            if (nodes[i] != null && keys[i] == key) {
+                MCGSNode retValue = nodes[i];
+                nodes[i] = null;
+                size--;
+                return retValue;
+            }
+        }
+        return null;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        MCGSNode[] oldNodes = nodes;
+        allocate(oldNodes.length * 2);
+        for (int i = 0; i < oldNodes.length; i++) {
+            if (oldNodes[i] != null)
+                put(oldKeys[i], oldNodes[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of nodes that have been evicted to make room for new ones
+     */
+    public int getEvictions() {
+        return evictions;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public void forEach(ObjLongConsumer<MCGSNode> action) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] != null)
+                action.accept(nodes[i], keys[i]);
+        }
+    }
+
+    public List<MCGSNode> values() {
+        List<MCGSNode> retValue = new ArrayList<>(size);
+        for (MCGSNode node : nodes) {
+            if (node != null)
+                retValue.add(node);
+        }
+        return retValue;
+    }
+}
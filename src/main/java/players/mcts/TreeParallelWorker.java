@@ -0,0 +1,152 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import utilities.ElapsedCpuTimer;
+import utilities.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static players.PlayerConstants.BUDGET_TIME;
+import static players.SearchProfile.Phase.*;
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.Information.Information_Set;
+import static players.mcts.MCTSEnums.TreePolicy.UCB_Tuned;
+
+/**
+ * One of the threads searching a single shared tree in tree parallelisation (see MCTSPlayer.treeParallelSearch()).
+ * <p>
+ * Selection, expansion and back-propagation change the tree (and the per-iteration fields held on its nodes), so
+ * each of these is done while holding the lock on the root. The rollout between them is done without the lock, by
+ * a private root node of this worker, with its own parameters (and hence rollout policy, opponent model and
+ * heuristic), forward model, Random and copy of the root state. A virtual loss is added to each action selected
+ * until the result of the rollout is backed up.
+ */
+class TreeParallelWorker {
+
+    private final SingleTreeNode root;
+    // Never part of the tree; this holds the state, counters and profile for the rollouts of this worker
+    final SingleTreeNode rolloutNode;
+    private int iterations;
+    private double timeTaken;
+
+    /**
+     * @param root          - the root of the shared tree
+     * @param params        - a copy of the parameters, for the use of this worker only
+     * @param forwardModel  - a copy of the forward model, for the use of this worker only
+     * @param rnd           - for the use of this worker only
+     */
+    TreeParallelWorker(SingleTreeNode root, MCTSParams params, AbstractForwardModel forwardModel, Random rnd) {
+        this.root = root;
+        // a root node only copies its state when it is not Closed_Loop, so in that case we copy it here; the state
+        // is then this worker's own, and we can give it a Random that is not shared with the other workers
+        AbstractGameState state = params.information == Closed_Loop ? root.state.copy() : root.state;
+        rolloutNode = SingleTreeNode.createRootNode(params, forwardModel, state, rnd, SingleTreeNode::new);
+        rolloutNode.state.setRnd(new Random(rnd.nextLong()));
+        // the shared statistics may be changed by another thread at any time, so the MAST rollout policy of this
+        // worker uses its own copy (which it then updates with the results of its own iterations)
+        rolloutNode.MASTStatistics = root.MASTStatistics.copy();
+    }
+
+    void search(long initialisationTime) {
+        ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
+        if (rolloutNode.params.budgetType == BUDGET_TIME) {
+            elapsedTimer.setMaxTimeMillis(rolloutNode.params.budget - initialisationTime);
+        }
+        int treeFmCalls = 0, treeCopies = 0;
+        AbstractGameState iterationState = null;
+        boolean stop = false;
+        while (!stop) {
+            long start = rolloutNode.profile.start();
+            iterationState = rolloutNode.params.information == Information_Set ?
+                    rolloutNode.state.copyInto(iterationState, root.decisionPlayer) :
+                    rolloutNode.state.copyInto(iterationState);
+            rolloutNode.profile.stop(Copy, start);
+            rolloutNode.copyCount++;
+
+            List<SingleTreeNode> trajectory;
+            List<Pair<Integer, AbstractAction>> actionsInTree;
+            List<List<AbstractAction>> actionsAvailable = new ArrayList<>();
+            SingleTreeNode selected;
+            AbstractGameState leafState;
+            double lossValue;
+            boolean addLoss;
+            synchronized (root) {
+                int fmCallsBefore = root.fmCallsCount, copiesBefore = root.copyCount;
+                root.setActionsFromOpenLoopState(iterationState);
+                root.actionsInTree = new ArrayList<>();
+                root.currentNodeTrajectory = new ArrayList<>();
+                start = root.profile.start();
+                selected = root.treePolicy();
+                root.profile.stop(Selection, start);
+                trajectory = root.currentNodeTrajectory;
+                actionsInTree = root.actionsInTree;
+                leafState = selected.openLoopState;
+                // A loss is the lowest reward seen so far, if this is tracked (and otherwise zero). When it is tracked,
+                // no loss is added until there is a reward, as there is then no range to normalise the loss against.
+                boolean rewardsTracked = root.params.normaliseRewards || root.params.treePolicy == UCB_Tuned;
+                addLoss = !rewardsTracked || root.lowReward <= root.highReward;
+                lossValue = rewardsTracked ? root.lowReward : 0.0;
+                for (int i = 0; i < trajectory.size(); i++) {
+                    SingleTreeNode node = trajectory.get(i);
+                    // another thread may pass through the node (and change these) before we back up
+                    actionsAvailable.add(node.actionsFromOpenLoopState);
+                    if (addLoss)
+                        node.addVirtualLoss(actionsInTree.get(i).b, lossValue);
+                }
+                treeFmCalls += root.fmCallsCount - fmCallsBefore;
+                treeCopies += root.copyCount - copiesBefore;
+            }
+
+            int lastActorInTree = actionsInTree.isEmpty() ? root.decisionPlayer : actionsInTree.get(actionsInTree.size() - 1).a;
+            rolloutNode.openLoopState = leafState;
+            rolloutNode.actionsInRollout = new ArrayList<>();
+            start = rolloutNode.profile.start();
+            double[] delta = rolloutNode.rollout(lastActorInTree);
+            rolloutNode.profile.stop(Rollout, start);
+            List<Pair<Integer, AbstractAction>> actionsInRollout = rolloutNode.actionsInRollout;
+            rolloutNode.rolloutActionsTaken += actionsInRollout.size();
+            // (updateMASTStatistics() may add the tree actions to the rollout list, so each update is given copies)
+            rolloutNode.updateMASTStatistics(new ArrayList<>(actionsInTree), new ArrayList<>(actionsInRollout), delta);
+
+            synchronized (root) {
+                for (int i = 0; i < trajectory.size(); i++) {
+                    SingleTreeNode node = trajectory.get(i);
+                    if (addLoss)
+                        node.removeVirtualLoss(actionsInTree.get(i).b, lossValue);
+                    node.actionsFromOpenLoopState = actionsAvailable.get(i);
+                }
+                root.currentNodeTrajectory = trajectory;
+                root.actionsInTree = actionsInTree;
+                start = root.profile.start();
+                selected.backUp(delta);
+                root.updateMASTStatistics(new ArrayList<>(actionsInTree), new ArrayList<>(actionsInRollout), delta);
+                root.profile.stop(BackUp, start);
+            }
+
+            iterations++;
+            stop = rolloutNode.budgetExhausted(iterations, treeFmCalls + rolloutNode.fmCallsCount,
+                    treeCopies + rolloutNode.copyCount, elapsedTimer);
+        }
+        timeTaken = elapsedTimer.elapsedMillis();
+    }
+
+    int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Adds the counters and profile of this worker's rollouts to those of the root. This is only called once all
+     * workers have finished.
+     */
+    void mergeInto(SingleTreeNode root) {
+        root.fmCallsCount += rolloutNode.fmCallsCount;
+        root.copyCount += rolloutNode.copyCount;
+        root.rolloutActionsTaken += rolloutNode.rolloutActionsTaken;
+        root.profile.merge(rolloutNode.profile);
+        root.timeTaken = Math.max(root.timeTaken, timeTaken);
+    }
+}
@@ -5,11 +5,15 @@ import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import core.interfaces.IStateHeuristic;
+import players.SearchProfile;
+import utilities.GameStatePool;
 import utilities.Pair;
 
 import java.util.List;
 import java.util.Random;
 
+import static players.SearchProfile.Phase.*;
+
 public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
     protected int repairCount;
@@ -21,13 +25,18 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
     double discountFactor;            // Discount factor for calculating rewards
     IStateHeuristic heuristic;
     AbstractPlayer rolloutPolicy;
+    GameStatePool statePool;          // Source of the game state copies made in rollouts
+    SearchProfile profile;            // Records the time taken in each phase of the search
     private Random gen;               // Random generator
+    private Random stateRnd;          // If not null, the random generator for the states of rollouts (see isolate())
 
     RHEAIndividual(int L, double discountFactor, AbstractForwardModel fm, AbstractGameState gs,
                    int playerID, Random gen, IStateHeuristic heuristic,
-                   AbstractPlayer rolloutPolicy) {
+                   AbstractPlayer rolloutPolicy, GameStatePool statePool, SearchProfile profile) {
         // Initialize
         this.gen = gen;
+        this.statePool = statePool;
+        this.profile = profile;
         this.discountFactor = discountFactor;
         actions = new AbstractAction[L];
         gameStates = new AbstractGameState[L + 1];
@@ -35,7 +44,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         this.rolloutPolicy = rolloutPolicy;
 
         // Rollout with random actions and assign fitness value
-        gameStates[0] = gs.copy();
+        gameStates[0] = statePool.copyOf(gs);
         rollout(fm, 0, playerID, true);
     }
 
@@ -47,6 +56,8 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         discountFactor = I.discountFactor;
         heuristic = I.heuristic;
         rolloutPolicy = I.rolloutPolicy;
+        statePool = I.statePool;
+        profile = I.profile;
 
         for (int i = 0; i < length; i++) {
             actions[i] = I.actions[i]; //.copy();
@@ -55,6 +66,23 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
         value = I.value;
         gen = I.gen;
+        stateRnd = I.stateRnd;
+    }
+
+    /**
+     * Gives this individual everything it needs to be mutated or rolled out on a worker thread, without sharing
+     * anything that changes with the individuals evaluated on other threads. The random generator is used for
+     * mutation, opponent moves and the chance events of the states of the rollout, so that the result depends only on
+     * its seed and not on which thread the individual is evaluated on.
+     */
+    void isolate(Random gen, AbstractPlayer rolloutPolicy, IStateHeuristic heuristic, GameStatePool statePool,
+                 SearchProfile profile) {
+        this.gen = gen;
+        this.stateRnd = gen;
+        this.rolloutPolicy = rolloutPolicy;
+        this.heuristic = heuristic;
+        this.statePool = statePool;
+        this.profile = profile;
     }
 
     /**
@@ -73,7 +101,9 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         for (int mutation = 0; mutation < mutationCount; mutation++) {
             int position = gen.nextInt(length); // we only consider actions up to the end of the game (which will therefore increase mutation rate towards game end)
             if (gameStates[position] != null) {
+                long start = profile.start();
                 List<AbstractAction> available = fm.computeAvailableActions(gameStates[position]);
+                profile.stop(Actions, start);
                 actions[position] = available.get(gen.nextInt(available.size()));
                 if (position < startIndex)
                     startIndex = position;  // start the rollout from the first mutation
@@ -103,7 +133,8 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         double delta = 0;
         double previousScore = 0;
         int fmCalls = 0, copyCalls = 0;
-        AbstractGameState gs = gameStates[startIndex].copy();
+        // gs is only read (we copy it before each step), so we do not need a copy of the starting state
+        AbstractGameState gs = gameStates[startIndex];
 
         // This lot are a local record for use in debugging; Very useful, with no compute overhead for keeping a local copy
         AbstractGameState[] oldGameStates = new AbstractGameState[gameStates.length];
@@ -113,7 +144,9 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
         for (int i = 0; i < startIndex; i++) {
             double score;
+            long start = profile.start();
             score = heuristic.evaluateState(gameStates[i + 1], playerID);
+            profile.stop(Evaluation, start);
             if (Double.isNaN(score))
                 throw new AssertionError("Illegal heuristic value - should be a number");
             delta += Math.pow(discountFactor, i) * (score - previousScore);
@@ -126,9 +159,15 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
             if (gs.isNotTerminal()) {
                 // is the action valid
                 AbstractAction action;
-                AbstractGameState gsCopy = gs.copy();
+                long start = profile.start();
+                AbstractGameState gsCopy = statePool.copyOf(gs);
+                if (stateRnd != null)
+                    gsCopy.setRnd(stateRnd);
+                profile.stop(Copy, start);
                 copyCalls++;
+                start = profile.start();
                 List<AbstractAction> currentActions = fm.computeAvailableActions(gsCopy, rolloutPolicy.getParameters().actionSpace);
+                profile.stop(Actions, start);
                 availableActions[i] = currentActions;
                 boolean illegalAction = !currentActions.contains(actions[i]);
                 illegalActions[i] = illegalAction;
@@ -145,18 +184,24 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
                 }
                 // TODO: Add a closed loop option to not copy the state (expensively) if the action is valid, but jump to the next state stored
                 // TODO: When implemented, this will also need to take account of shiftLeft
+                start = profile.start();
                 fm.next(gsCopy, action.copy());
+                profile.stop(ForwardModel, start);
                 fmCalls++;
 
                 // If it's my turn, store this in the individual
                 while (gsCopy.isNotTerminal() && !(gsCopy.getCurrentPlayer() == playerID)) {
                     // now we fast forward through any opponent moves with a random OM
                     // TODO: Add in other opponent model options, and record other player moves for MAST
+                    start = profile.start();
                     List<AbstractAction> moves = fm.computeAvailableActions(gsCopy);
+                    profile.stop(Actions, start);
                     if (moves.isEmpty()) {
                         throw new AssertionError("No moves found in state " + gsCopy);
                     }
+                    start = profile.start();
                     fm.next(gsCopy, moves.get(gen.nextInt(moves.size())));
+                    profile.stop(ForwardModel, start);
                     fmCalls++;
                 }
                 oldGameStates[i+1] = gameStates[i+1];
@@ -166,7 +211,9 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
                 // Add value of state, discounted
                 double score;
+                start = profile.start();
                 score = heuristic.evaluateState(gameStates[i + 1], playerID);
+                profile.stop(Evaluation, start);
                 if (Double.isNaN(score))
                     throw new AssertionError("Illegal heuristic value - should be a number");
                 delta += Math.pow(discountFactor, i) * (score - previousScore);
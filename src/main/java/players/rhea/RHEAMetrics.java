@@ -6,6 +6,7 @@ import evaluation.listeners.MetricsGameListener;
 import evaluation.metrics.AbstractMetric;
 import evaluation.metrics.Event;
 import evaluation.metrics.IMetricsCollection;
+import players.SearchProfile;
 
 import java.util.*;
 
@@ -58,4 +59,36 @@ public class RHEAMetrics implements IMetricsCollection {
             return stats;
         }
     }
+
+    /**
+     * The time spent in each phase of the search, recorded only for players with profileSearch set
+     */
+    public static class SearchProfileStats extends AbstractMetric {
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> stats) {
+            AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
+            if (player instanceof RHEAPlayer rheaPlayer && rheaPlayer.profile.enabled) {
+                stats.put("iterations", rheaPlayer.numIters);
+                stats.put("time", rheaPlayer.timeTaken);
+                rheaPlayer.profile.addRecords(stats);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> stats = new LinkedHashMap<>();
+            stats.put("iterations", Integer.class);
+            stats.put("time", Double.class);
+            SearchProfile.addColumns(stats);
+            return stats;
+        }
+    }
 }
@@ -23,6 +23,7 @@ public class RHEAParams extends PlayerParameters
     public boolean shiftLeft;
     public IStateHeuristic heuristic = AbstractGameState::getGameScore;
     public boolean useMAST;
+    public int evaluationThreads = 1;  // if greater than 1, then the individuals of each generation are evaluated in parallel on this many threads
 
 
     public RHEAParams() {
@@ -38,6 +39,7 @@ public class RHEAParams extends PlayerParameters
         addTunableParameter("mutationCount", 1, Arrays.asList(1, 3, 10));
         addTunableParameter("heuristic", (IStateHeuristic) AbstractGameState::getGameScore);
         addTunableParameter("useMAST", false, Arrays.asList(false, true));
+        addTunableParameter("evaluationThreads", 1);
     }
 
     @Override
@@ -54,6 +56,7 @@ public class RHEAParams extends PlayerParameters
         shiftLeft = (boolean) getParameterValue("shiftLeft");
         mutationCount = (int) getParameterValue("mutationCount");
         useMAST = (boolean) getParameterValue("useMAST");
+        evaluationThreads = (int) getParameterValue("evaluationThreads");
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
         if (heuristic instanceof TunableParameters) {
             TunableParameters tunableHeuristic = (TunableParameters) heuristic;
@@ -71,7 +74,7 @@ public class RHEAParams extends PlayerParameters
 
     @Override
     public RHEAPlayer instantiate() {
-        return new RHEAPlayer(this);
+        return new RHEAPlayer((RHEAParams) this.copy());
     }
 
     public IStateHeuristic getHeuristic() {
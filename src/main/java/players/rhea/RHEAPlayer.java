@@ -1,22 +1,30 @@
 package players.rhea;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
+import core.interfaces.IStateHeuristic;
 import players.IAnyTimePlayer;
 import players.PlayerConstants;
+import players.SearchProfile;
 import players.mcts.MASTPlayer;
+import players.mcts.MASTStore;
 import players.simple.RandomPlayer;
 import utilities.ElapsedCpuTimer;
+import utilities.GameStatePool;
 import utilities.Pair;
-import utilities.Utils;
+import utilities.WorkerThreads;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static players.SearchProfile.Phase.*;
 
 public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     private static final AbstractPlayer randomPlayer = new RandomPlayer();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    MASTStore MASTStatistics; // Action -> (visits, totValue) for each player
     protected List<RHEAIndividual> population = new ArrayList<>();
     // Budgets
     protected double timePerIteration = 0, timeTaken = 0, initTime = 0;
@@ -24,7 +32,42 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     protected int fmCalls = 0;
     protected int copyCalls = 0;
     protected int repairCount, nonRepairCount;
+    protected SearchProfile profile = SearchProfile.DISABLED;
     private MASTPlayer mastPlayer;
+    // Game states that are no longer referenced by any individual are recycled for the copies made in rollouts
+    private GameStatePool statePool;
+    private final Set<AbstractGameState> candidateStates = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<AbstractGameState> liveStates = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Only used if params.evaluationThreads > 1
+    private final WorkerThreads evaluationThreads = new WorkerThreads("RHEA-evaluation");
+    private GameStatePool[] workerPools;
+    private Worker[] workers;
+
+    /**
+     * What one worker thread needs to evaluate individuals without sharing anything that changes with the others.
+     * Each batch of individuals is split between the workers in order, so that each worker (and its state pool and
+     * profile) is only used by one thread at a time.
+     */
+    private static class Worker {
+        final AbstractForwardModel forwardModel;
+        final IStateHeuristic heuristic;
+        final GameStatePool statePool;
+        final SearchProfile profile;
+        final AbstractGameState root;     // this worker's copy of the state we are searching from
+
+        Worker(AbstractForwardModel forwardModel, IStateHeuristic heuristic, GameStatePool statePool,
+               SearchProfile profile, AbstractGameState root) {
+            this.forwardModel = forwardModel;
+            this.heuristic = heuristic;
+            this.statePool = statePool;
+            this.profile = profile;
+            this.root = root;
+        }
+    }
+
+    private interface Evaluation<T> {
+        T evaluate(Worker worker, int index, Random rnd);
+    }
 
     public RHEAPlayer(RHEAParams params) {
         super(params, "RHEAPlayer");
@@ -36,10 +79,10 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     }
     @Override
     public void initializePlayer(AbstractGameState state) {
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTStore(state.getNPlayers());
         population = new ArrayList<>();
+        statePool = null;
+        workerPools = null;
     }
 
     @Override
@@ -52,29 +95,34 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         repairCount = 0;
         nonRepairCount = 0;
         RHEAParams params = getParameters();
+        profile = SearchProfile.create(params.profileSearch);
 
         if (params.useMAST) {
-            if (MASTStatistics == null) {
-                MASTStatistics = new ArrayList<>();
-                for (int i = 0; i < stateObs.getNPlayers(); i++)
-                    MASTStatistics.add(new HashMap<>());
-            } else {
-                MASTStatistics = MASTStatistics.stream()
-                        .map(m -> Utils.decay(m, params.discountFactor))
-                        .collect(Collectors.toList());
-            }
+            if (MASTStatistics == null)
+                MASTStatistics = new MASTStore(stateObs.getNPlayers());
+            else
+                MASTStatistics.decay(params.discountFactor);
             mastPlayer = new MASTPlayer(null, 1.0, 0.0, System.currentTimeMillis(), 0.0);
             mastPlayer.setStats(MASTStatistics);
         }
+        if (statePool == null)
+            statePool = new GameStatePool((params.populationSize + params.childCount) * (params.horizon + 1));
+        collectStates(population, candidateStates);
         // Initialise individuals
-        if (params.shiftLeft && !population.isEmpty()) {
+        if (params.evaluationThreads > 1) {
+            createWorkers(stateObs);
+            initialiseInParallel();
+        } else if (params.shiftLeft && !population.isEmpty()) {
             population.forEach(i -> i.value = Double.NEGATIVE_INFINITY);  // so that any we don't have time to shift are ignored when picking an action
             for (RHEAIndividual genome : population) {
                 if (!budgetLeft(timer)) break;
                 System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
                 // we shift all actions along, and then rollout with repair
-                genome.gameStates[0] = stateObs.copy();
+                genome.gameStates[0] = statePool.copyOf(stateObs);
+                genome.profile = profile;
+                long start = profile.start();
                 Pair<Integer, Integer> calls = genome.rollout(getForwardModel(), 0, getPlayerID(), true);
+                profile.stop(Rollout, start);
                 fmCalls += calls.a;
                 copyCalls += calls.b;
             }
@@ -82,13 +130,16 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
             population = new ArrayList<>();
             for (int i = 0; i < params.populationSize; ++i) {
                 if (!budgetLeft(timer)) break;
+                long start = profile.start();
                 population.add(new RHEAIndividual(params.horizon, params.discountFactor, getForwardModel(), stateObs,
-                        getPlayerID(), rnd, params.heuristic, params.useMAST ? mastPlayer : randomPlayer));
+                        getPlayerID(), rnd, params.heuristic, params.useMAST ? mastPlayer : randomPlayer, statePool, profile));
+                profile.stop(Rollout, start);
                 fmCalls += population.get(i).length;
                 copyCalls += population.get(i).length;
             }
         }
 
+        releaseUnusedStates();
         population.sort(Comparator.naturalOrder());
         initTime = timer.elapsedMillis();
         // Run evolution
@@ -98,6 +149,8 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
         timeTaken = timer.elapsedMillis();
         timePerIteration = numIters == 0 ? 0.0 : (timeTaken - initTime) / numIters;
+        workers = null;
+        profile.commitEvents(toString(), getPlayerID(), numIters);
         // Return first action of best individual
         AbstractAction retValue = population.get(0).actions[0];
         List<AbstractAction> actions = getForwardModel().computeAvailableActions(stateObs, params.actionSpace);
@@ -237,26 +290,24 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     private void runIteration() {
         //copy elites
         RHEAParams params = getParameters();
+        collectStates(population, candidateStates);
         List<RHEAIndividual> newPopulation = new ArrayList<>();
         for (int i = 0, max = Math.min(params.eliteCount, population.size()); i < max; ++i) {
             newPopulation.add(new RHEAIndividual(population.get(i)));
         }
         //crossover
+        long start = profile.start();
         for (int i = 0; i < params.childCount; ++i) {
             RHEAIndividual[] parents = selectParents();
             RHEAIndividual child = crossover(parents[0], parents[1]);
             population.add(child);
         }
+        profile.stop(Selection, start);
 
-        for (RHEAIndividual individual : population) {
-            Pair<Integer, Integer> calls = individual.mutate(getForwardModel(), getPlayerID(), params.mutationCount);
-            fmCalls += calls.a;
-            copyCalls += calls.b;
-            repairCount += individual.repairCount;
-            nonRepairCount += individual.nonRepairCount;
-            if (params.useMAST)
-                MASTBackup(individual.actions, individual.value, getPlayerID());
-        }
+        if (params.evaluationThreads > 1)
+            mutateInParallel();
+        else
+            mutateInSequence();
 
         //sort
         population.sort(Comparator.naturalOrder());
@@ -266,23 +317,220 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
             newPopulation.add(population.get(i));
         }
 
+        // the states of the individuals not selected (and those overwritten by mutation) can now be recycled
+        collectStates(population, candidateStates);
         population = newPopulation;
+        releaseUnusedStates();
 
         population.sort(Comparator.naturalOrder());
         // Update budgets
         numIters++;
     }
 
+    private void createWorkers(AbstractGameState stateObs) {
+        RHEAParams params = getParameters();
+        if (workerPools == null || workerPools.length != params.evaluationThreads) {
+            workerPools = new GameStatePool[params.evaluationThreads];
+            for (int w = 0; w < workerPools.length; w++)
+                workerPools[w] = new GameStatePool((params.populationSize + params.childCount) * (params.horizon + 1));
+        }
+        workers = new Worker[params.evaluationThreads];
+        for (int w = 0; w < workers.length; w++) {
+            RHEAParams workerParams = (RHEAParams) params.copy();
+            workers[w] = new Worker(getForwardModel().copy(), workerParams.heuristic, workerPools[w],
+                    SearchProfile.create(params.profileSearch), stateObs.copy());
+        }
+    }
+
+    /**
+     * Creates a new population on the worker threads; or (with shiftLeft) shifts the actions of the existing one
+     * along and rolls them out again from the current state
+     */
+    private void initialiseInParallel() {
+        RHEAParams params = getParameters();
+        int playerID = getPlayerID();
+        if (params.shiftLeft && !population.isEmpty()) {
+            List<Pair<Integer, Integer>> calls = runOnWorkers(population.size(), (worker, i, taskRnd) -> {
+                RHEAIndividual genome = population.get(i);
+                genome.isolate(taskRnd, rolloutPolicy(taskRnd), worker.heuristic, worker.statePool, worker.profile);
+                System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
+                genome.gameStates[0] = worker.statePool.copyOf(worker.root);
+                long start = worker.profile.start();
+                Pair<Integer, Integer> retValue = genome.rollout(worker.forwardModel, 0, playerID, true);
+                worker.profile.stop(Rollout, start);
+                return retValue;
+            });
+            for (Pair<Integer, Integer> c : calls) {
+                fmCalls += c.a;
+                copyCalls += c.b;
+            }
+        } else {
+            population = runOnWorkers(params.populationSize, (worker, i, taskRnd) -> {
+                // the copies made in the rollout inherit the random generator of the state they start from
+                worker.root.setRnd(taskRnd);
+                long start = worker.profile.start();
+                RHEAIndividual retValue = new RHEAIndividual(params.horizon, params.discountFactor, worker.forwardModel,
+                        worker.root, playerID, taskRnd, worker.heuristic, rolloutPolicy(taskRnd), worker.statePool,
+                        worker.profile);
+                worker.profile.stop(Rollout, start);
+                return retValue;
+            });
+            for (RHEAIndividual individual : population) {
+                fmCalls += individual.length;
+                copyCalls += individual.length;
+            }
+        }
+    }
+
+    private void mutateInSequence() {
+        RHEAParams params = getParameters();
+        for (RHEAIndividual individual : population) {
+            // a mutation overwrites states that may be the last reference to them, so we note them first
+            collectStates(individual, candidateStates);
+            long start = profile.start();
+            Pair<Integer, Integer> calls = individual.mutate(getForwardModel(), getPlayerID(), params.mutationCount);
+            profile.stop(Rollout, start);
+            fmCalls += calls.a;
+            copyCalls += calls.b;
+            repairCount += individual.repairCount;
+            nonRepairCount += individual.nonRepairCount;
+            if (params.useMAST) {
+                start = profile.start();
+                MASTBackup(individual.actions, individual.value, getPlayerID());
+                profile.stop(BackUp, start);
+            }
+        }
+    }
+
+    /**
+     * Mutates (and so evaluates) the whole population on the worker threads. The results are then merged in order
+     * on this thread, as they would have been had they been mutated one after the other, except that the MAST
+     * statistics used by the rollouts are those from before this generation.
+     */
+    private void mutateInParallel() {
+        RHEAParams params = getParameters();
+        int playerID = getPlayerID();
+        unshareStates(population);
+        // a mutation overwrites states that may be the last reference to them, so we note them first
+        collectStates(population, candidateStates);
+        List<Pair<Integer, Integer>> calls = runOnWorkers(population.size(), (worker, i, taskRnd) -> {
+            RHEAIndividual individual = population.get(i);
+            individual.isolate(taskRnd, rolloutPolicy(taskRnd), worker.heuristic, worker.statePool, worker.profile);
+            long start = worker.profile.start();
+            Pair<Integer, Integer> retValue = individual.mutate(worker.forwardModel, playerID, params.mutationCount);
+            worker.profile.stop(Rollout, start);
+            return retValue;
+        });
+        for (int i = 0; i < population.size(); i++) {
+            RHEAIndividual individual = population.get(i);
+            fmCalls += calls.get(i).a;
+            copyCalls += calls.get(i).b;
+            repairCount += individual.repairCount;
+            nonRepairCount += individual.nonRepairCount;
+            if (params.useMAST) {
+                long start = profile.start();
+                MASTBackup(individual.actions, individual.value, playerID);
+                profile.stop(BackUp, start);
+            }
+        }
+    }
+
+    /**
+     * Crossover and elitism share states between individuals. A mutation reads the states of its individual, and
+     * copies one of them to roll out from, which is not read-only (a copy-on-write component notes that it is now
+     * shared). So before the individuals are split between the worker threads, each state that an individual shares
+     * with an earlier one is replaced here by a copy of its own.
+     */
+    private void unshareStates(List<RHEAIndividual> individuals) {
+        Set<AbstractGameState> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (RHEAIndividual individual : individuals) {
+            AbstractGameState[] states = individual.gameStates;
+            for (int i = 0; i < states.length; i++) {
+                if (states[i] != null && !seen.add(states[i])) {
+                    states[i] = statePool.copyOf(states[i]);
+                    seen.add(states[i]);
+                    copyCalls++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a rollout policy for one individual on a worker thread. The MAST statistics are shared, as they are only
+     * read until all the workers have finished.
+     */
+    private AbstractPlayer rolloutPolicy(Random taskRnd) {
+        if (!getParameters().useMAST)
+            return new RandomPlayer(taskRnd);
+        MASTPlayer retValue = new MASTPlayer(null, 1.0, 0.0, taskRnd.nextLong(), 0.0);
+        retValue.setStats(MASTStatistics);
+        return retValue;
+    }
+
+    /**
+     * Runs the evaluation for indices 0 to n-1, split in order between the workers. Each index is given its own
+     * random generator, seeded from rnd in order, so that the results are the same whatever the number of threads.
+     *
+     * @return the results, in order of index
+     */
+    private <T> List<T> runOnWorkers(int n, Evaluation<T> evaluation) {
+        long[] seeds = new long[n];
+        for (int i = 0; i < n; i++)
+            seeds[i] = rnd.nextLong();
+        statePool.shareWith(workerPools);
+        List<T> results = new ArrayList<>(Collections.nCopies(n, null));
+        List<Callable<Object>> tasks = new ArrayList<>();
+        int nWorkers = Math.min(workers.length, n);
+        for (int w = 0; w < nWorkers; w++) {
+            Worker worker = workers[w];
+            int from = n * w / nWorkers, to = n * (w + 1) / nWorkers;
+            tasks.add(Executors.callable(() -> {
+                for (int i = from; i < to; i++)
+                    results.set(i, evaluation.evaluate(worker, i, new Random(seeds[i])));
+            }));
+        }
+        evaluationThreads.invokeAll(workers.length, tasks);
+        for (Worker worker : workers) {
+            profile.merge(worker.profile);
+            worker.profile.reset();
+        }
+        return results;
+    }
+
+    private void collectStates(List<RHEAIndividual> individuals, Set<AbstractGameState> states) {
+        if (statePool.isReusable())
+            for (RHEAIndividual individual : individuals)
+                collectStates(individual, states);
+    }
+
+    private void collectStates(RHEAIndividual individual, Set<AbstractGameState> states) {
+        if (statePool.isReusable())
+            for (AbstractGameState state : individual.gameStates)
+                if (state != null)
+                    states.add(state);
+    }
+
+    /**
+     * Returns to the pool all the candidate states that are not used by the current population.
+     * States are shared between individuals (by crossover and elitism), so we can only release a state once no
+     * individual refers to it.
+     */
+    private void releaseUnusedStates() {
+        collectStates(population, liveStates);
+        for (AbstractGameState state : candidateStates)
+            if (!liveStates.contains(state))
+                statePool.release(state);
+        candidateStates.clear();
+        liveStates.clear();
+    }
+
 
     protected void MASTBackup(AbstractAction[] rolloutActions, double delta, int player) {
         for (int i = 0; i < rolloutActions.length; i++) {
             AbstractAction action = rolloutActions[i];
             if (action == null)
                 break;
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(action, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta;   // value
-            MASTStatistics.get(player).put(action.copy(), stats);
+            MASTStatistics.update(player, action, delta);
         }
     }
 
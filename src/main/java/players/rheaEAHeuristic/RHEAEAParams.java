@@ -82,7 +82,7 @@ public class RHEAEAParams extends PlayerParameters
 
     @Override
     public RHEAEAPlayer instantiate() {
-        return new RHEAEAPlayer(this);
+        return new RHEAEAPlayer((RHEAEAParams) this.copy());
     }
 
     public IStateHeuristic getHeuristic() {
@@ -10,17 +10,16 @@ import games.root_final.RootHeuristic;
 import games.root_final.RootParameters;
 import players.PlayerConstants;
 import players.mcts.MASTPlayer;
+import players.mcts.MASTStore;
 import players.simple.RandomPlayer;
 import utilities.ElapsedCpuTimer;
 import utilities.Pair;
-import utilities.Utils;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class RHEAEAPlayer extends AbstractPlayer {
     private static final AbstractPlayer randomPlayer = new RandomPlayer();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    MASTStore MASTStatistics; // Action -> (visits, totValue) for each player
     protected List<RHEAEAIndividual> population = new ArrayList<>();
     // Budgets
     protected double timePerIteration = 0, timeTaken = 0, initTime = 0;
@@ -41,9 +40,7 @@ public class RHEAEAPlayer extends AbstractPlayer {
     }
     @Override
     public void initializePlayer(AbstractGameState state) {
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTStore(state.getNPlayers());
         evo = new EvolutionaryHeuristicGenerator(getParameters().heuristicPopulationSize, getParameters().heuristicCrossover, getParameters().heuristicPath);
         RootHeuristic rh = getParameters().train ? (RootHeuristic) evo.getNextHeuristic() : (RootHeuristic) evo.getBestHeuristic();
         getParameters().setParameterValue("heuristic", rh);
@@ -62,15 +59,10 @@ public class RHEAEAPlayer extends AbstractPlayer {
         RHEAEAParams params = getParameters();
 
         if (params.useMAST) {
-            if (MASTStatistics == null) {
-                MASTStatistics = new ArrayList<>();
-                for (int i = 0; i < stateObs.getNPlayers(); i++)
-                    MASTStatistics.add(new HashMap<>());
-            } else {
-                MASTStatistics = MASTStatistics.stream()
-                        .map(m -> Utils.decay(m, params.discountFactor))
-                        .collect(Collectors.toList());
-            }
+            if (MASTStatistics == null)
+                MASTStatistics = new MASTStore(stateObs.getNPlayers());
+            else
+                MASTStatistics.decay(params.discountFactor);
             mastPlayer = new MASTPlayer(null, 1.0, 0.0, System.currentTimeMillis(), 0.0);
             mastPlayer.setStats(MASTStatistics);
         }
@@ -289,10 +281,7 @@ public class RHEAEAPlayer extends AbstractPlayer {
             AbstractAction action = rolloutActions[i];
             if (action == null)
                 break;
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(action, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta;   // value
-            MASTStatistics.get(player).put(action.copy(), stats);
+            MASTStatistics.update(player, action, delta);
         }
     }
 
@@ -16,6 +16,7 @@ public class Individual implements Comparable {
     double discountFactor;            // Discount factor for calculating rewards
 
     private Random gen;               // Random generator
+    private Random stateRnd;          // If not null, the random generator for the states of rollouts
     IStateHeuristic heuristic;
 
     Individual(int L, double discountFactor, AbstractForwardModel fm, AbstractGameState gs, int playerID, Random gen, IStateHeuristic heuristic) {
@@ -48,6 +49,16 @@ public class Individual implements Comparable {
         heuristic = I.heuristic;
     }
 
+    // Copy constructor for a mutation on another thread. This has its own random generator (which is also used for the
+    // chance events of the states of its rollouts) and heuristic, so that the result does not depend on which thread
+    // it is evaluated on
+    Individual(Individual I, Random gen, IStateHeuristic heuristic) {
+        this(I);
+        this.gen = gen;
+        this.stateRnd = gen;
+        this.heuristic = heuristic;
+    }
+
     /**
      * Mutates this individual, by picking an index and changing all genes from that point on.
      * Updates the length of the individual in case the rollout hits game end.
@@ -106,6 +117,8 @@ public class Individual implements Comparable {
             if (gs.isNotTerminal()) {
                 // Copy the game state
                 AbstractGameState gsCopy = gs.copy();
+                if (stateRnd != null)
+                    gsCopy.setRnd(stateRnd);
                 List<AbstractAction> currentActions = fm.computeAvailableActions(gsCopy);
                 AbstractAction action = null;
                 if (currentActions.size() > 0) {
@@ -10,11 +10,13 @@ public class RMHCParams extends PlayerParameters {
     public int horizon = 10;
     public double discountFactor = 0.9;
     public IStateHeuristic heuristic = AbstractGameState::getHeuristicScore;
+    public int evaluationThreads = 1;  // if greater than 1, then this many mutations of the best individual are evaluated in parallel in each iteration
 
     public RMHCParams() {
         addTunableParameter("horizon", 10, Arrays.asList(1, 3, 5, 10, 20, 30));
         addTunableParameter("discountFactor", 0.9, Arrays.asList(0.5, 0.8, 0.9, 0.95, 0.99, 0.999, 1.0));
         addTunableParameter("heuristic", (IStateHeuristic) AbstractGameState::getHeuristicScore);
+        addTunableParameter("evaluationThreads", 1);
     }
 
     @Override
@@ -23,6 +25,7 @@ public class RMHCParams extends PlayerParameters {
         horizon = (int) getParameterValue("horizon");
         discountFactor = (double) getParameterValue("discountFactor");
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
+        evaluationThreads = (int) getParameterValue("evaluationThreads");
     }
 
     @Override
@@ -30,6 +33,7 @@ public class RMHCParams extends PlayerParameters {
         RMHCParams copy = new RMHCParams();
         copy.horizon = horizon;
         copy.discountFactor = discountFactor;
+        copy.evaluationThreads = evaluationThreads;
         return copy;
     }
 
@@ -39,6 +43,6 @@ public class RMHCParams extends PlayerParameters {
 
     @Override
     public RMHCPlayer instantiate() {
-        return new RMHCPlayer(this);
+        return new RMHCPlayer((RMHCParams) this.copy());
     }
 }
@@ -1,12 +1,16 @@
 package players.rmhc;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
+import core.interfaces.IStateHeuristic;
 import players.PlayerConstants;
 import utilities.ElapsedCpuTimer;
+import utilities.WorkerThreads;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 
 
 public class RMHCPlayer extends AbstractPlayer {
@@ -16,6 +20,10 @@ public class RMHCPlayer extends AbstractPlayer {
     private int numIters = 0;
     private int fmCalls = 0;
     private int copyCalls = 0;
+    // Only used if params.evaluationThreads > 1, with one forward model and heuristic for each thread
+    private final WorkerThreads evaluationThreads = new WorkerThreads("RMHC-evaluation");
+    private AbstractForwardModel[] workerModels;
+    private IStateHeuristic[] workerHeuristics;
 
     public RMHCPlayer() {
         this(new RMHCParams());
@@ -43,11 +51,22 @@ public class RMHCPlayer extends AbstractPlayer {
         // Initialise individual
         bestIndividual = new Individual(params.horizon, params.discountFactor, getForwardModel(), stateObs, getPlayerID(), rnd, params.getHeuristic());
         fmCalls += bestIndividual.length;
+        if (params.evaluationThreads > 1) {
+            workerModels = new AbstractForwardModel[params.evaluationThreads];
+            workerHeuristics = new IStateHeuristic[params.evaluationThreads];
+            for (int w = 0; w < params.evaluationThreads; w++) {
+                workerModels[w] = getForwardModel().copy();
+                workerHeuristics[w] = ((RMHCParams) params.copy()).getHeuristic();
+            }
+        }
 
         // Run evolution
         boolean keepIterating = true;
         while (keepIterating) {
-            runIteration(stateObs);
+            if (params.evaluationThreads > 1)
+                runParallelIteration();
+            else
+                runIteration(stateObs);
 
             // Check budget depending on budget type
             if (params.budgetType == PlayerConstants.BUDGET_TIME) {
@@ -102,6 +121,42 @@ public class RMHCPlayer extends AbstractPlayer {
         avgTimeTaken = acumTimeTaken / numIters;
     }
 
+    /**
+     * Run one iteration with a mutation of the best individual on each thread, keeping the best of them if it is
+     * better than the current one. Each mutation has its own random generator, seeded from rnd in order, so the result
+     * does not depend on the order in which the threads run.
+     * <p>
+     * The mutants are copied from the best individual here, before any thread starts, as copying a state can change
+     * it (for example a copy-on-write Deck marks itself as shared). Each thread then only uses the states of its own
+     * mutant.
+     */
+    private void runParallelIteration() {
+        ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
+        int nThreads = workerModels.length;
+        int playerID = getPlayerID();
+        Individual[] mutants = new Individual[nThreads];
+        List<Callable<Integer>> mutations = new ArrayList<>();
+        for (int w = 0; w < nThreads; w++) {
+            int worker = w;
+            mutants[worker] = new Individual(bestIndividual, new Random(rnd.nextLong()), workerHeuristics[worker]);
+            mutations.add(() -> mutants[worker].mutate(workerModels[worker], playerID));
+        }
+        List<Integer> results = evaluationThreads.invokeAll(nThreads, mutations);
+        for (int w = 0; w < nThreads; w++) {
+            int statesUpdated = results.get(w);
+            copyCalls += mutants[w].length;
+            fmCalls += statesUpdated;
+            copyCalls += statesUpdated;
+            if (mutants[w].value > bestIndividual.value)
+                bestIndividual = mutants[w];
+        }
+
+        // Update budgets
+        numIters++;
+        acumTimeTaken += (elapsedTimerIteration.elapsedMillis());
+        avgTimeTaken = acumTimeTaken / numIters;
+    }
+
 //    public static void main(String[] args){
 //        /* 1. Action controller for GUI interactions. If set to null, running without visuals. */
 //        ActionController ac = new ActionController(); //null;
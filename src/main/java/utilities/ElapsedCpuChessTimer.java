@@ -62,15 +62,41 @@ public class ElapsedCpuChessTimer extends ElapsedCpuTimer {
         return (timeRemaining - incrementAction) <= 0;
     }
 
+    private ElapsedCpuChessTimer(ElapsedCpuChessTimer orig) {
+        super(orig);
+        // the increments are already in nanoseconds, so we copy them rather than going through the public constructor
+        this.incrementAction = orig.incrementAction;
+        this.incrementTurn = orig.incrementTurn;
+        this.incrementRound = orig.incrementRound;
+        this.incrementMilestone = orig.incrementMilestone;
+        this.timeRemaining = orig.timeRemaining;
+    }
+
     public ElapsedCpuChessTimer copy()
     {
-        ElapsedCpuChessTimer newCpuTimer = new ElapsedCpuChessTimer(this.maxTime, this.incrementAction,
-                this.incrementTurn, this.incrementRound, this.incrementMilestone);
-        newCpuTimer.oldTime = this.oldTime;
-        newCpuTimer.bean = this.bean;
-        newCpuTimer.nIters = this.nIters;
-        newCpuTimer.timeRemaining = this.timeRemaining;
-        return newCpuTimer;
+        return new ElapsedCpuChessTimer(this);
+    }
+
+    /**
+     * Copies this timer into target, an existing timer with the same increments, without allocating.
+     * If the increments differ this falls back to copy().
+     *
+     * @return the target, or a new copy if it could not be reused
+     */
+    public ElapsedCpuChessTimer copyInto(ElapsedCpuChessTimer target) {
+        if (target == null || target.incrementAction != incrementAction || target.incrementTurn != incrementTurn
+                || target.incrementRound != incrementRound || target.incrementMilestone != incrementMilestone)
+            return copy();
+        copyStateTo(target);
+        return target;
+    }
+
+    private void copyStateTo(ElapsedCpuChessTimer target) {
+        target.maxTime = this.maxTime;
+        target.oldTime = this.oldTime;
+        target.bean = this.bean;
+        target.nIters = this.nIters;
+        target.timeRemaining = this.timeRemaining;
     }
 
     @Override
@@ -12,8 +12,11 @@ public class ElapsedCpuTimer {
 
     protected static final boolean OS_WIN = System.getProperty("os.name").contains("Windows");
 
+    // looked up once, as this is surprisingly slow and timers are created every time a game state is copied
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
     // allows for easy reporting of elapsed time
-    protected ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    protected ThreadMXBean bean = THREAD_BEAN;
     protected long oldTime;
     protected long maxTime;
     protected int nIters;
@@ -22,6 +25,17 @@ public class ElapsedCpuTimer {
         reset();
     }
 
+    /**
+     * Copy constructor for subclasses. This does not reset the timer (which needs a call to get the CPU time), as all
+     * the state will be copied from the original.
+     */
+    protected ElapsedCpuTimer(ElapsedCpuTimer orig) {
+        this.bean = orig.bean;
+        this.maxTime = orig.maxTime;
+        this.oldTime = orig.oldTime;
+        this.nIters = orig.nIters;
+    }
+
     public void reset() {
         oldTime = getTime();
         nIters = 0;
@@ -85,12 +99,7 @@ public class ElapsedCpuTimer {
 
     public ElapsedCpuTimer copy()
     {
-        ElapsedCpuTimer newCpuTimer = new ElapsedCpuTimer();
-        newCpuTimer.maxTime = this.maxTime;
-        newCpuTimer.oldTime = this.oldTime;
-        newCpuTimer.bean = this.bean;
-        newCpuTimer.nIters = this.nIters;
-        return newCpuTimer;
+        return new ElapsedCpuTimer(this);
     }
 
     @Override
@@ -0,0 +1,88 @@
+package utilities;
+
+import core.AbstractGameState;
+
+import java.util.ArrayDeque;
+
+/**
+ * A small pool of game states that are no longer needed, so that they can be recycled by
+ * AbstractGameState.copyInto() instead of allocating a new copy each time.
+ * <p>
+ * This is intended to be owned by a single agent (and thread). States must only be released once nothing refers to
+ * them any more, as they will be overwritten when next handed out.
+ * If the game does not support copying in place (see AbstractGameState._copyInto()) then the pool stops keeping
+ * released states, and copyOf() is just copy().
+ */
+public class GameStatePool {
+
+    private final ArrayDeque<AbstractGameState> free = new ArrayDeque<>();
+    private final int maxSize;
+    private boolean reusable = true;
+
+    /**
+     * @param maxSize - the maximum number of released states to keep
+     */
+    public GameStatePool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return a copy of state, re-using a released state if one is available
+     */
+    public AbstractGameState copyOf(AbstractGameState state) {
+        AbstractGameState target = free.pollLast();
+        AbstractGameState retValue = state.copyInto(target);
+        if (target != null && retValue != target) {
+            // the game does not support copying in place, so there is no point in keeping states
+            reusable = false;
+            free.clear();
+        }
+        return retValue;
+    }
+
+    /**
+     * Returns a state to the pool. The caller must not use it afterwards.
+     */
+    public void release(AbstractGameState state) {
+        if (reusable && state != null && free.size() < maxSize)
+            free.addLast(state);
+    }
+
+    /**
+     * @return false if the game does not support copying in place, so that there is no point in releasing states
+     */
+    public boolean isReusable() {
+        return reusable;
+    }
+
+    /**
+     * Hands the released states over to the other pools in turn, for example to those of worker threads before they
+     * start on a batch of copies (each of which is then owned by a single thread again). If any of the others has
+     * found that the game does not support copying in place then this pool stops keeping states too.
+     */
+    public void shareWith(GameStatePool[] others) {
+        for (GameStatePool other : others) {
+            if (!other.reusable) {
+                reusable = false;
+                free.clear();
+                return;
+            }
+        }
+        for (int i = 0; !free.isEmpty(); i = (i + 1) % others.length) {
+            AbstractGameState state = free.pollLast();
+            if (others[i].free.size() < others[i].maxSize)
+                others[i].free.addLast(state);
+        }
+    }
+
+    /**
+     * @return the number of released states available
+     */
+    public int size() {
+        return free.size();
+    }
+
+    public void clear() {
+        free.clear();
+    }
+}
@@ -0,0 +1,87 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A fixed-size pool of worker threads, which is only created when it is first used (and is created again if a
+ * different number of threads is asked for). The threads are daemon threads, so that an idle pool does not keep the
+ * JVM alive once everything else has finished.
+ * <p>
+ * The results of the tasks run on the threads are collected with invokeAll() or getAll(). An Error thrown by a task
+ * is re-thrown as it is; any other exception is wrapped in a RuntimeException.
+ */
+public class WorkerThreads {
+
+    private final String name;
+    private ExecutorService executor;
+    private int size;
+
+    /**
+     * @param name - the name of each thread, which is also used in the messages of any exceptions
+     */
+    public WorkerThreads(String name) {
+        this.name = name;
+    }
+
+    public synchronized ExecutorService get(int nThreads) {
+        if (executor == null || size != nThreads) {
+            if (executor != null)
+                executor.shutdown();
+            executor = Executors.newFixedThreadPool(nThreads, r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            size = nThreads;
+        }
+        return executor;
+    }
+
+    /**
+     * Runs all the tasks on nThreads threads, and waits for them to finish.
+     *
+     * @return the results, in the order of the tasks
+     */
+    public <T> List<T> invokeAll(int nThreads, List<? extends Callable<T>> tasks) {
+        try {
+            return getAll(get(nThreads).invokeAll(tasks));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + name + " threads", e);
+        }
+    }
+
+    /**
+     * Waits for each of the futures in turn.
+     *
+     * @return the results, in the order of the futures
+     */
+    public <T> List<T> getAll(List<Future<T>> futures) {
+        List<T> retValue = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures)
+                retValue.add(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + name + " threads", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error)
+                throw error;
+            throw new RuntimeException("Error in " + name + " thread", e.getCause());
+        }
+        return retValue;
+    }
+
+    /**
+     * Stops the threads once they have finished any tasks already submitted. The pool is created again if it is
+     * used after this.
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package utilities;
+
+/**
+ * Keys for incremental (Zobrist-style) 64-bit hashing of game states.
+ * <p>
+ * Classic Zobrist hashing uses a table of random numbers, one per (feature, value) pair, and XORs in the entries
+ * for the current state. As the features and values of a game state (component IDs, board positions, token types...)
+ * are not known in advance, we instead derive each key by mixing the (feature, value) pair with the SplitMix64
+ * finaliser. This gives keys with the same statistical properties as a random table (and the same keys in every
+ * run) while needing no table.
+ * <p>
+ * A hash can then be updated in O(1) as the state changes: XOR out the key of the old value, and XOR in the key
+ * of the new one. Where position does not matter (e.g. the contents of a Deck) keys can be added and subtracted
+ * instead, giving a hash of the multiset.
+ */
+public final class Zobrist {
+
+    private Zobrist() {
+    }
+
+    /**
+     * SplitMix64 finaliser; a bijection on longs with good avalanche properties.
+     */
+    public static long key(long a) {
+        long z = a + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static long key(long a, long b) {
+        return key(key(a) ^ b);
+    }
+
+    public static long key(long a, long b, long c) {
+        return key(key(key(a) ^ b) ^ c);
+    }
+
+    /**
+     * A 64-bit hash of a String, for use where a key is only available as a String (String.hashCode() is only 32 bits,
+     * which gives too many collisions for a transposition table).
+     */
+    public static long hash(String s) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < s.length(); i++)
+            h = 31 * h + s.charAt(i);
+        return key(h);
+    }
+
+    /**
+     * A 64-bit hash of a feature vector. Two vectors have the same hash if they are equal element by element
+     * (as in Arrays.equals(double[], double[])).
+     */
+    public static long hash(long seed, double[] values) {
+        long h = key(seed);
+        for (double v : values)
+            h = key(h ^ Double.doubleToLongBits(v));
+        return h;
+    }
+}
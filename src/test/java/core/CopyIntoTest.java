@@ -0,0 +1,140 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.rhea.RHEAParams;
+import players.rhea.RHEAPlayer;
+import utilities.GameStatePool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CopyIntoTest {
+
+    Random rnd = new Random(1093);
+
+    @Test
+    public void copyIntoTicTacToe() {
+        checkCopyInto(GameType.TicTacToe);
+    }
+
+    @Test
+    public void copyIntoConnect4() {
+        checkCopyInto(GameType.Connect4);
+    }
+
+    @Test
+    public void copyIntoDotsAndBoxes() {
+        checkCopyInto(GameType.DotsAndBoxes);
+    }
+
+    @Test
+    public void copyIntoFallsBackToCopy() {
+        AbstractGameState ttt = GameType.TicTacToe.createGameInstance(2, 42).getGameState();
+        AbstractGameState loveLetter = GameType.LoveLetter.createGameInstance(2, 42).getGameState();
+
+        AbstractGameState copy = ttt.copyInto(null);
+        assertNotSame(ttt, copy);
+        assertEquals(ttt, copy);
+
+        copy = ttt.copyInto(ttt);
+        assertNotSame(ttt, copy);
+        assertEquals(ttt, copy);
+
+        copy = ttt.copyInto(loveLetter);
+        assertNotSame(loveLetter, copy);
+        assertEquals(ttt, copy);
+
+        // LoveLetter does not support copying in place
+        AbstractGameState target = loveLetter.copy();
+        assertNotSame(target, loveLetter.copyInto(target));
+    }
+
+    @Test
+    public void gameStatePoolRecyclesStates() {
+        AbstractGameState state = GameType.Connect4.createGameInstance(2, 42).getGameState();
+        GameStatePool pool = new GameStatePool(2);
+        AbstractGameState first = pool.copyOf(state);
+        pool.release(first);
+        assertEquals(1, pool.size());
+        assertSame(first, pool.copyOf(state));
+        assertEquals(0, pool.size());
+
+        AbstractGameState loveLetter = GameType.LoveLetter.createGameInstance(2, 42).getGameState();
+        pool = new GameStatePool(2);
+        pool.release(pool.copyOf(loveLetter));
+        pool.copyOf(loveLetter);
+        assertFalse(pool.isReusable());
+        pool.release(loveLetter.copy());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void rheaWithRecycledStatesPlaysLegalMoves() {
+        RHEAParams params = new RHEAParams();
+        params.setRandomSeed(803);
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 50);
+        for (boolean shiftLeft : new boolean[]{false, true}) {
+            params.setParameterValue("shiftLeft", shiftLeft);
+            RHEAPlayer player = new RHEAPlayer((RHEAParams) params.copy());
+            Game game = GameType.Connect4.createGameInstance(2, rnd.nextLong());
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            player.setForwardModel(fm);
+            player.initializePlayer(state);
+            while (state.isNotTerminal()) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                AbstractAction action = state.getCurrentPlayer() == 0
+                        ? player._getAction(state.copy(0), actions)
+                        : actions.get(rnd.nextInt(actions.size()));
+                assertTrue(actions.contains(action));
+                fm.next(state, action);
+            }
+        }
+    }
+
+    /**
+     * Plays random games, and at each step copies the state into a recycled target (a copy of a previous state),
+     * checking that the result is the same as copy(), and that it is then independent of the original.
+     */
+    private void checkCopyInto(GameType gameType) {
+        for (int g = 0; g < 5; g++) {
+            Game game = gameType.createGameInstance(2, rnd.nextLong());
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            List<AbstractGameState> previousStates = new ArrayList<>();
+            while (state.isNotTerminal()) {
+                previousStates.add(state.copy());
+                AbstractGameState target = previousStates.get(rnd.nextInt(previousStates.size()));
+                AbstractGameState expected = state.copy();
+
+                AbstractGameState copy = state.copyInto(target);
+                assertSame(target, copy);
+                checkEqual(fm, expected, copy);
+
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+                fm.next(copy, action.copy());
+                checkEqual(fm, expected, state);
+                fm.next(state, action);
+                checkEqual(fm, copy, state);
+            }
+        }
+    }
+
+    private void checkEqual(AbstractForwardModel fm, AbstractGameState expected, AbstractGameState actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected.getZobristHash(), actual.getZobristHash());
+        assertEquals(expected.getHistory(), actual.getHistory());
+        assertEquals(expected.getHistoryAsText(), actual.getHistoryAsText());
+        if (expected.isNotTerminal())
+            assertEquals(fm.computeAvailableActions(expected), fm.computeAvailableActions(actual));
+    }
+}
@@ -0,0 +1,102 @@
+package core;
+
+import core.components.Deck;
+import core.components.PartialObservableDeck;
+import games.dominion.cards.CardType;
+import games.dominion.cards.DominionCard;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static core.CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
+import static org.junit.Assert.*;
+
+public class CopyOnWriteDecks {
+
+    Random rnd = new Random(393);
+    Deck<DominionCard> deck;
+    PartialObservableDeck<DominionCard> hand;
+
+    @Before
+    public void setup() {
+        deck = new Deck<>("Test", VISIBLE_TO_ALL);
+        hand = new PartialObservableDeck<>("Hand", 0, new boolean[]{true, false});
+        for (CardType ct : List.of(CardType.COPPER, CardType.SILVER, CardType.GOLD, CardType.ESTATE, CardType.MILITIA)) {
+            deck.add(DominionCard.create(ct));
+            hand.add(DominionCard.create(ct));
+        }
+        deck.setCopyOnWrite(true);
+        hand.setCopyOnWrite(true);
+    }
+
+    @Test
+    public void copyIsEqualAndInheritsMode() {
+        Deck<DominionCard> copy = deck.copy();
+        assertEquals(deck, copy);
+        assertEquals(deck.hashCode(), copy.hashCode());
+        assertEquals(deck.getZobristHash(), copy.getZobristHash());
+        assertTrue(copy.isCopyOnWrite());
+        assertFalse(new Deck<DominionCard>("Other", VISIBLE_TO_ALL).isCopyOnWrite());
+    }
+
+    @Test
+    public void changesToCopyDoNotAffectOriginal() {
+        List<DominionCard> before = new ArrayList<>(deck.getComponents());
+        int hash = deck.hashCode();
+
+        Deck<DominionCard> copy = deck.copy();
+        copy.draw();
+        copy.add(DominionCard.create(CardType.PROVINCE));
+        copy.shuffle(rnd);
+        assertEquals(before, deck.getComponents());
+        assertEquals(hash, deck.hashCode());
+
+        // and vice versa
+        Deck<DominionCard> secondCopy = deck.copy();
+        List<DominionCard> copyBefore = new ArrayList<>(secondCopy.getComponents());
+        deck.remove(0);
+        deck.getComponents().add(DominionCard.create(CardType.DUCHY));
+        assertEquals(copyBefore, secondCopy.getComponents());
+    }
+
+    @Test
+    public void chainedCopiesAreIndependent() {
+        Deck<DominionCard> copy = deck.copy();
+        Deck<DominionCard> copyOfCopy = copy.copy();
+        copy.clear();
+        assertEquals(5, deck.getSize());
+        assertEquals(5, copyOfCopy.getSize());
+        copyOfCopy.pickLast();
+        assertEquals(5, deck.getSize());
+        assertEquals(0, copy.getSize());
+        assertEquals(4, copyOfCopy.getSize());
+    }
+
+    @Test
+    public void visibilityIsCopiedOnWrite() {
+        PartialObservableDeck<DominionCard> copy = hand.copy(1);
+        assertEquals(hand, copy);
+        for (int i = 0; i < hand.getSize(); i++) {
+            assertTrue(copy.isComponentVisible(i, 0));
+            assertFalse(copy.isComponentVisible(i, 1));
+        }
+
+        copy.setVisibilityOfComponent(2, 1, true);
+        assertTrue(copy.isComponentVisible(2, 1));
+        assertFalse(hand.isComponentVisible(2, 1));
+
+        PartialObservableDeck<DominionCard> secondCopy = hand.copy();
+        hand.add(DominionCard.create(CardType.CELLAR), new boolean[]{true, true});
+        assertEquals(6, hand.getSize());
+        assertEquals(5, secondCopy.getSize());
+        assertTrue(hand.isComponentVisible(0, 1));
+        assertFalse(secondCopy.isComponentVisible(0, 1));
+
+        DominionCard picked = secondCopy.pick(0);
+        assertEquals(hand.get(1), picked);
+        assertEquals(6, hand.getSize());
+    }
+}
@@ -0,0 +1,70 @@
+package core;
+
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HeadlessGameTest {
+
+    private List<AbstractPlayer> players(int n, int seed) {
+        List<AbstractPlayer> players = new ArrayList<>();
+        for (int p = 0; p < n; p++)
+            players.add(new RandomPlayer(new Random(seed + p)));
+        return players;
+    }
+
+    @Test
+    public void headlessGamesMatchNormalGames() {
+        for (GameType gameType : new GameType[]{GameType.TicTacToe, GameType.Connect4, GameType.LoveLetter, GameType.Dominion}) {
+            Game normal = gameType.createGameInstance(2, 1);
+            Game headless = gameType.createGameInstance(2, 1);
+            for (int seed = 0; seed < 5; seed++) {
+                normal.reset(players(2, seed), seed);
+                normal.run();
+                headless.reset(players(2, seed), seed);
+                headless.runHeadless();
+
+                AbstractGameState expected = normal.getGameState();
+                AbstractGameState actual = headless.getGameState();
+                assertEquals(gameType + " seed " + seed, expected.getGameTick(), actual.getGameTick());
+                assertArrayEquals(expected.getPlayerResults(), actual.getPlayerResults());
+                for (int p = 0; p < 2; p++)
+                    assertEquals(expected.getGameScore(p), actual.getGameScore(p), 1e-9);
+                assertEquals(normal.getNDecisions(), headless.getNDecisions());
+                assertEquals(normal.getNActionsPerTurn(), headless.getNActionsPerTurn());
+                assertEquals(normal.getActionSpaceSize(), headless.getActionSpaceSize());
+            }
+        }
+    }
+
+    @Test
+    public void statisticsAreOptional() {
+        Game game = GameType.Connect4.createGameInstance(2, 1);
+        assertTrue(game.isCollectingStatistics());
+        game.setCollectStatistics(false);
+        game.reset(players(2, 3), 3);
+        game.runHeadless();
+
+        assertFalse(game.getGameState().isNotTerminal());
+        assertTrue(game.getActionSpaceSize().isEmpty());
+        assertEquals(0, game.getNActionsPerTurn());
+        assertEquals(0.0, game.getNextTime(), 0.0);
+        assertEquals(0.0, game.getCopyTime(), 0.0);
+        assertEquals(0.0, game.getAgentTime(), 0.0);
+        assertTrue(game.getNDecisions() > 0);
+
+        // and the same for run()
+        game.reset(players(2, 3), 3);
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+        assertTrue(game.getActionSpaceSize().isEmpty());
+        assertEquals(0, game.getNActionsPerTurn());
+        assertTrue(game.getNDecisions() > 0);
+    }
+}
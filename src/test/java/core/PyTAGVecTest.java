@@ -0,0 +1,79 @@
+package core;
+
+import games.GameType;
+import org.junit.Test;
+import players.python.PythonAgent;
+import players.simple.RandomPlayer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PyTAGVecTest {
+
+    private PyTAGVec create(int nThreads) throws Exception {
+        List<AbstractPlayer> players = List.of(new PythonAgent(), new RandomPlayer(new Random(3)));
+        return new PyTAGVec(GameType.TicTacToe, null, players, 77, 6, nThreads, true);
+    }
+
+    // picks a valid action from the mask for each environment
+    private int[] chooseActions(PyTAGVec vec, Random rnd) {
+        int[] actions = new int[vec.getNumEnvs()];
+        ByteBuffer masks = vec.getActionMasks();
+        for (int env = 0; env < actions.length; env++) {
+            do {
+                actions[env] = rnd.nextInt(vec.getActionSpace());
+            } while (masks.get(env * vec.getActionSpace() + actions[env]) != 1);
+        }
+        return actions;
+    }
+
+    @Test
+    public void buffersAreUpdatedAndEpisodesRestart() throws Exception {
+        try (PyTAGVec vec = create(3)) {
+            assertEquals(9, vec.getActionSpace());
+            assertEquals(vec.getNumEnvs() * vec.getObservationSpace() * Double.BYTES, vec.getObservations().capacity());
+            Random rnd = new Random(11);
+            int episodes = 0;
+            for (int step = 0; step < 40; step++) {
+                vec.step(chooseActions(vec, rnd));
+                for (int env = 0; env < vec.getNumEnvs(); env++) {
+                    PyTAG single = vec.getEnv(env);
+                    // the environment is always ready for the Python agent
+                    assertFalse(single.isDone());
+                    assertEquals(0, vec.getPlayerIDs().getInt(env * Integer.BYTES));
+                    double[] obs = single.getObservationVector();
+                    for (int i = 0; i < obs.length; i++)
+                        assertEquals(obs[i], vec.getObservations().getDouble((env * vec.getObservationSpace() + i) * Double.BYTES), 0.0);
+                    int[] mask = single.getActionMask();
+                    for (int i = 0; i < mask.length; i++)
+                        assertEquals(mask[i], vec.getActionMasks().get(env * vec.getActionSpace() + i));
+                    if (vec.getDones().get(env) == 1) {
+                        episodes++;
+                        // a new game has one or zero moves made
+                        assertTrue(single.getTick() <= 1);
+                    }
+                }
+            }
+            assertTrue(episodes > 10);
+        }
+    }
+
+    @Test
+    public void resultsDoNotDependOnThreads() throws Exception {
+        try (PyTAGVec sequential = create(1); PyTAGVec parallel = create(4)) {
+            Random rnd = new Random(5);
+            for (int step = 0; step < 30; step++) {
+                int[] actions = chooseActions(sequential, rnd);
+                sequential.step(actions);
+                parallel.step(actions);
+                assertEquals(sequential.getObservations(), parallel.getObservations());
+                assertEquals(sequential.getActionMasks(), parallel.getActionMasks());
+                assertEquals(sequential.getRewards(), parallel.getRewards());
+                assertEquals(sequential.getDones(), parallel.getDones());
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package core;
+
+import core.components.*;
+import core.properties.PropertyInt;
+import org.junit.Before;
+import org.junit.Test;
+import utilities.Hash;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SharedGraphTopology {
+
+    static final int cubes = Hash.GetInstance().hash("cubes");
+
+    GraphBoard board;
+    BoardNode[] nodes = new BoardNode[4];
+    GraphBoardWithEdges edgeBoard;
+    BoardNodeWithEdges[] edgeNodes = new BoardNodeWithEdges[4];
+    Edge[] edges = new Edge[4];
+
+    @Before
+    public void setup() {
+        // a square: 0-1-2-3-0
+        board = new GraphBoard("Square");
+        for (int i = 0; i < 4; i++) {
+            nodes[i] = new BoardNode(4, "Node " + i);
+            nodes[i].setProperty(new PropertyInt("cubes", i));
+            board.addBoardNode(nodes[i]);
+        }
+        for (int i = 0; i < 4; i++) {
+            nodes[i].addNeighbour(nodes[(i + 1) % 4], 1);
+            nodes[(i + 1) % 4].addNeighbour(nodes[i], 3);
+        }
+
+        edgeBoard = new GraphBoardWithEdges("Square");
+        for (int i = 0; i < 4; i++) {
+            edgeNodes[i] = new BoardNodeWithEdges();
+            edgeBoard.addBoardNode(edgeNodes[i]);
+        }
+        for (int i = 0; i < 4; i++)
+            edges[i] = edgeBoard.addConnection(edgeNodes[i], edgeNodes[(i + 1) % 4]);
+    }
+
+    private Set<Integer> ids(Collection<? extends Component> components) {
+        Set<Integer> retValue = new HashSet<>();
+        for (Component c : components)
+            retValue.add(c.getComponentID());
+        return retValue;
+    }
+
+    @Test
+    public void copyHasSameConnectionsBetweenItsOwnNodes() {
+        GraphBoard copy = board.copy().copy();
+        assertEquals(board, copy);
+        assertEquals(board.getZobristHash(), copy.getZobristHash());
+        for (BoardNode node : nodes) {
+            BoardNode nodeCopy = copy.getNodeByID(node.getComponentID());
+            assertNotSame(node, nodeCopy);
+            assertEquals(ids(node.getNeighbours()), ids(nodeCopy.getNeighbours()));
+            for (BoardNode neighbour : nodeCopy.getNeighbours())
+                assertSame(neighbour, copy.getNodeByID(neighbour.getComponentID()));
+            for (Map.Entry<BoardNode, Integer> e : node.getNeighbourSideMapping().entrySet())
+                assertEquals(e.getValue(), nodeCopy.getNeighbourSideMapping().get(copy.getNodeByID(e.getKey().getComponentID())));
+            assertEquals(node.getProperty(cubes), nodeCopy.getProperty(cubes));
+            assertNotSame(node.getProperty(cubes), nodeCopy.getProperty(cubes));
+        }
+    }
+
+    @Test
+    public void changesToConnectionsOfCopyDoNotAffectOriginal() {
+        GraphBoard copy = board.copy();
+        GraphBoard secondCopy = board.copy();
+        copy.breakConnection(copy.getNodeByID(nodes[0].getComponentID()), copy.getNodeByID(nodes[1].getComponentID()));
+        assertEquals(1, copy.getNodeByID(nodes[0].getComponentID()).getNeighbours().size());
+        assertEquals(2, nodes[0].getNeighbours().size());
+        assertEquals(2, secondCopy.getNodeByID(nodes[0].getComponentID()).getNeighbours().size());
+        // and the copy (now with its own connections) is copied correctly
+        assertEquals(ids(copy.getNodeByID(nodes[1].getComponentID()).getNeighbours()),
+                ids(copy.copy().getNodeByID(nodes[1].getComponentID()).getNeighbours()));
+
+        // and vice versa
+        board.addConnection(nodes[0], nodes[2]);
+        assertEquals(3, nodes[0].getNeighbours().size());
+        assertEquals(2, secondCopy.getNodeByID(nodes[0].getComponentID()).getNeighbours().size());
+        assertEquals(3, board.copy().getNodeByID(nodes[0].getComponentID()).getNeighbours().size());
+    }
+
+    @Test
+    public void edgesAreCopiedAndSharedBetweenNeighbours() {
+        GraphBoardWithEdges copy = edgeBoard.copy();
+        BoardNodeWithEdges first = copy.getNodeByID(edgeNodes[0].getComponentID());
+        BoardNodeWithEdges second = copy.getNodeByID(edgeNodes[1].getComponentID());
+        Edge edge = first.getEdgeByID(edges[0].getComponentID());
+        assertNotNull(edge);
+        assertNotSame(edges[0], edge);
+        assertSame(edge, first.getEdge(second));
+        assertSame(second, first.getNeighbour(edge));
+        assertSame(edge, second.getEdgeByID(edges[0].getComponentID()));
+        assertEquals(ids(edgeNodes[0].getNeighbours()), ids(first.getNeighbours()));
+        assertEquals(ids(edgeNodes[0].getEdges()), ids(first.getEdges()));
+        assertEquals(ids(edgeNodes[0].getNeighbourEdgeMapping().keySet()), ids(first.getNeighbourEdgeMapping().keySet()));
+        assertSame(second, first.getNeighbourEdgeMapping().get(edge));
+
+        edge.setOwnerId(1);
+        assertEquals(-1, edges[0].getOwnerId());
+        assertEquals(1, copy.copy().getNodeByID(edgeNodes[1].getComponentID()).getEdgeByID(edges[0].getComponentID()).getOwnerId());
+    }
+
+    @Test
+    public void comparingNodesOfCopiesDoesNotCreateTheirEdgeMappings() throws Exception {
+        GraphBoardWithEdges copy = edgeBoard.copy();
+        GraphBoardWithEdges secondCopy = edgeBoard.copy();
+        BoardNodeWithEdges first = copy.getNodeByID(edgeNodes[0].getComponentID());
+        BoardNodeWithEdges other = secondCopy.getNodeByID(edgeNodes[0].getComponentID());
+        Field mapping = BoardNodeWithEdges.class.getDeclaredField("neighbourEdgeMapping");
+        mapping.setAccessible(true);
+        assertNull(mapping.get(first));
+
+        assertEquals(first, other);
+        assertNull(mapping.get(first));
+        assertNull(mapping.get(other));
+
+        copy.addConnection(first, copy.getNodeByID(edgeNodes[2].getComponentID()));
+        assertNotEquals(first, other);
+        assertNotEquals(other, first);
+        assertNull(mapping.get(other));
+    }
+
+    @Test
+    public void changesToEdgesOfCopyDoNotAffectOriginal() {
+        GraphBoardWithEdges copy = edgeBoard.copy();
+        BoardNodeWithEdges first = copy.getNodeByID(edgeNodes[0].getComponentID());
+        BoardNodeWithEdges third = copy.getNodeByID(edgeNodes[2].getComponentID());
+        Edge diagonal = copy.addConnection(first, third);
+        assertSame(third, first.getNeighbour(diagonal));
+        assertEquals(3, first.getNeighbours().size());
+        assertEquals(2, edgeNodes[0].getNeighbours().size());
+        assertEquals(2, edgeBoard.copy().getNodeByID(edgeNodes[0].getComponentID()).getNeighbours().size());
+        assertEquals(3, copy.copy().getNodeByID(edgeNodes[2].getComponentID()).getNeighbours().size());
+    }
+}
@@ -0,0 +1,112 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import games.chinesecheckers.CCGameState;
+import games.chinesecheckers.components.CCNode;
+import games.chinesecheckers.components.Peg;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class UndoForwardModelTest {
+
+    Random rnd = new Random(3901);
+
+    @Test
+    public void undoTicTacToe() {
+        checkUndo(GameType.TicTacToe);
+    }
+
+    @Test
+    public void undoConnect4() {
+        checkUndo(GameType.Connect4);
+    }
+
+    @Test
+    public void undoDotsAndBoxes() {
+        checkUndo(GameType.DotsAndBoxes);
+    }
+
+    @Test
+    public void undoChineseCheckers() {
+        checkUndo(GameType.ChineseCheckers);
+    }
+
+    @Test
+    public void undoStratego() {
+        checkUndo(GameType.Stratego);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void undoLogNeedsUndoableForwardModel() {
+        Game game = GameType.LoveLetter.createGameInstance(2, 42);
+        game.getForwardModel().startUndoLog(game.getGameState());
+    }
+
+    /**
+     * Plays random games to the end (or for 200 moves) with an undo log, checking that undoing each move restores
+     * the state before it. We then undo all the moves, checking the state at every step on the way back.
+     */
+    private void checkUndo(GameType gameType) {
+        for (int g = 0; g < 5; g++) {
+            Game game = gameType.createGameInstance(2, rnd.nextLong());
+            AbstractForwardModel fm = game.getForwardModel();
+            assertTrue(fm.supportsUndo());
+            AbstractGameState state = game.getGameState().copy();
+            fm.startUndoLog(state);
+
+            List<AbstractGameState> previousStates = new ArrayList<>();
+            while (state.isNotTerminal() && previousStates.size() < 200) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+                AbstractGameState before = state.copy();
+
+                // make, unmake, and make again
+                fm.next(state, action.copy());
+                fm.undo(state);
+                checkEqual(fm, before, state);
+                fm.next(state, action.copy());
+
+                previousStates.add(before);
+                assertEquals(previousStates.size(), state.getUndoDepth());
+            }
+            for (int i = previousStates.size() - 1; i >= 0; i--) {
+                fm.undo(state);
+                checkEqual(fm, previousStates.get(i), state);
+            }
+            assertEquals(0, state.getUndoDepth());
+            // and we can then play on as normal
+            fm.next(state, fm.computeAvailableActions(state).get(0));
+        }
+    }
+
+    private void checkEqual(AbstractForwardModel fm, AbstractGameState expected, AbstractGameState actual) {
+        if (expected instanceof CCGameState ccExpected) {
+            // copies of ChineseCheckers states are never equal (Peg.copy() creates a new component), so we compare the pegs
+            List<CCNode> expectedNodes = ccExpected.getStarBoard().getBoardNodes();
+            List<CCNode> actualNodes = ((CCGameState) actual).getStarBoard().getBoardNodes();
+            for (int i = 0; i < expectedNodes.size(); i++) {
+                Peg expectedPeg = expectedNodes.get(i).getOccupiedPeg();
+                Peg actualPeg = actualNodes.get(i).getOccupiedPeg();
+                assertEquals(expectedPeg == null, actualPeg == null);
+                if (expectedPeg != null) {
+                    assertEquals(expectedPeg.getColour(), actualPeg.getColour());
+                    assertEquals(expectedPeg.getInDestination(), actualPeg.getInDestination());
+                }
+            }
+        } else {
+            assertEquals(expected, actual);
+        }
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected.getZobristHash(), actual.getZobristHash());
+        assertEquals(expected.getHistory(), actual.getHistory());
+        assertEquals(expected.getHistoryAsText(), actual.getHistoryAsText());
+        if (expected.isNotTerminal())
+            assertEquals(fm.computeAvailableActions(expected), fm.computeAvailableActions(actual));
+    }
+}
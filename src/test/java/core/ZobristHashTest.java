@@ -0,0 +1,130 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.Card;
+import core.components.Deck;
+import core.components.GridBoard;
+import core.components.Token;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ZobristHashTest {
+
+    Random rnd = new Random(4021);
+
+    @Test
+    public void gridBoardHashDependsOnlyOnContents() {
+        GridBoard<Token> board = new GridBoard<>(3, 3);
+        Token x = new Token("x");
+        Token o = new Token("o");
+        assertEquals(0L, board.getZobristHash());
+
+        GridBoard<Token> other = board.copy();
+        board.setElement(0, 0, x);
+        board.setElement(1, 2, o);
+        board.setElement(2, 1, x);
+        assertEquals(board.getZobristHash(), board.copy().getZobristHash());
+
+        // same contents in a different order, with an intermediate value that is then overwritten
+        other.setElement(2, 1, o);
+        other.setElement(1, 2, o);
+        other.setElement(0, 0, x);
+        assertNotEquals(board.getZobristHash(), other.getZobristHash());
+        other.setElement(2, 1, x);
+        assertEquals(board.getZobristHash(), other.getZobristHash());
+
+        other.setElement(0, 0, null);
+        other.setElement(1, 2, null);
+        other.setElement(2, 1, null);
+        assertEquals(0L, other.getZobristHash());
+    }
+
+    @Test
+    public void deckHashIsIndependentOfOrder() {
+        Deck<Card> deck = new Deck<>("Test", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        for (int i = 0; i < 10; i++)
+            deck.add(new Card("Card" + i));
+        long hash = deck.getZobristHash();
+        assertNotEquals(0L, hash);
+
+        deck.shuffle(rnd);
+        assertEquals(hash, deck.getZobristHash());
+        assertEquals(hash, deck.copy().getZobristHash());
+
+        Card top = deck.draw();
+        assertNotEquals(hash, deck.getZobristHash());
+        deck.add(top, 5);
+        assertEquals(hash, deck.getZobristHash());
+
+        deck.clear();
+        assertEquals(0L, deck.getZobristHash());
+    }
+
+    @Test
+    public void transpositionsHaveEqualHashesTicTacToe() {
+        checkTranspositions(GameType.TicTacToe);
+    }
+
+    @Test
+    public void transpositionsHaveEqualHashesConnect4() {
+        checkTranspositions(GameType.Connect4);
+    }
+
+    @Test
+    public void transpositionsHaveEqualHashesDotsAndBoxes() {
+        checkTranspositions(GameType.DotsAndBoxes);
+    }
+
+    @Test
+    public void transpositionsHaveEqualHashesChineseCheckers() {
+        checkTranspositions(GameType.ChineseCheckers);
+    }
+
+    /**
+     * Plays the first four moves of a game at random, and then the same moves with the first and third swapped
+     * (both by the first player). Where this is legal, the same position is reached by a different route and so
+     * must have the same hash. The hash must also change with every move, and be preserved by copy().
+     */
+    private void checkTranspositions(GameType gameType) {
+        int transpositions = 0;
+        for (int game = 0; game < 20; game++) {
+            Game g = gameType.createGameInstance(2, rnd.nextLong());
+            AbstractForwardModel fm = g.getForwardModel();
+            AbstractGameState start = g.getGameState();
+
+            AbstractGameState state = start.copy();
+            List<AbstractAction> moves = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+            seen.add(state.getZobristHash());
+            for (int i = 0; i < 4; i++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+                moves.add(action.copy());
+                fm.next(state, action);
+                assertTrue(seen.add(state.getZobristHash()));
+                assertEquals(state.getZobristHash(), state.copy().getZobristHash());
+            }
+
+            AbstractGameState other = start.copy();
+            Collections.swap(moves, 0, 2);
+            boolean legal = true;
+            for (AbstractAction move : moves) {
+                if (!fm.computeAvailableActions(other).contains(move)) {
+                    legal = false;
+                    break;
+                }
+                fm.next(other, move.copy());
+            }
+            if (legal) {
+                transpositions++;
+                assertEquals(state.getCurrentPlayer(), other.getCurrentPlayer());
+                assertEquals(state.getZobristHash(), other.getZobristHash());
+            }
+        }
+        assertTrue(transpositions > 0);
+    }
+}
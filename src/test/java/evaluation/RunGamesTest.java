@@ -1,10 +1,15 @@
 package evaluation;
 
+import core.AbstractGameState;
 import core.AbstractPlayer;
+import core.actions.AbstractAction;
+import evaluation.listeners.TournamentMetricsGameListener;
+import evaluation.metrics.AbstractMetric;
 import evaluation.tournaments.AbstractTournament;
 import evaluation.tournaments.RoundRobinTournament;
 import games.GameType;
 import org.junit.*;
+import players.simple.FirstActionPlayer;
 import players.simple.RandomPlayer;
 
 import java.io.File;
@@ -132,4 +137,106 @@ public class RunGamesTest {
         assertEquals(66, tournament.getNGamesPlayed()[3], 15);
     }
 
+    @Test
+    public void parallelMatchesSequential() {
+        // FirstAction agents are deterministic, so for a fixed seed the results must not depend on the number of threads
+        agents = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            agents.add(new FirstActionPlayer());
+        assertParallelMatchesSequential(GameType.Poker, 3);
+    }
+
+    @Test
+    public void parallelResultsDoNotDependOnNumberOfThreads() {
+        // each game has copies of the agents, seeded in turn from the agents themselves, so stochastic agents give
+        // the same results whatever the number of threads (in a game of perfect information, as the hidden
+        // information of a player's observation is shuffled with a generator that is not seeded)
+        config.put(RunArg.matchups, 40);
+        config.put(RunArg.mode, "random");
+        config.put(RunArg.seed, 42L);
+        config.put(RunArg.nThreads, 2);
+        tournament = new RoundRobinTournament(stochasticAgents(), GameType.TicTacToe, 2, null, config);
+        tournament.run();
+        int[] twoThreadGames = tournament.getNGamesPlayed().clone();
+        double[] twoThreadWins = new double[4];
+        for (int i = 0; i < 4; i++)
+            twoThreadWins[i] = tournament.getWinRate(i);
+
+        config.put(RunArg.nThreads, 4);
+        tournament = new RoundRobinTournament(stochasticAgents(), GameType.TicTacToe, 2, null, config);
+        tournament.run();
+        assertArrayEquals(twoThreadGames, tournament.getNGamesPlayed());
+        for (int i = 0; i < 4; i++)
+            assertEquals(twoThreadWins[i], tournament.getWinRate(i), 1e-9);
+    }
+
+    private List<AbstractPlayer> stochasticAgents() {
+        // (not MCTS, as its default opponent model has a random generator that is not seeded)
+        List<AbstractPlayer> retValue = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            retValue.add(new RandomPlayer(new Random(i + 1)));
+        return retValue;
+    }
+
+    @Test
+    public void sequentialModePlaysTheAgentsThemselves() {
+        // so an agent keeps its own random seed, and anything else it carries from one game to the next
+        int[] decisions = new int[1];
+        agents = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            agents.add(new RandomPlayer(new Random(i)) {
+                @Override
+                public AbstractAction _getAction(AbstractGameState observation, List<AbstractAction> actions) {
+                    decisions[0]++;
+                    return super._getAction(observation, actions);
+                }
+            });
+        }
+        config.put(RunArg.matchups, 10);
+        config.put(RunArg.mode, "random");
+        tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        tournament.run();
+        assertTrue(decisions[0] > 0);
+
+        // whereas parallel games play copies
+        decisions[0] = 0;
+        config.put(RunArg.nThreads, 2);
+        tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        tournament.run();
+        assertEquals(0, decisions[0]);
+        assertEquals(20, tournament.getNGamesPlayed()[0] + tournament.getNGamesPlayed()[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelGamesRejectTournamentMetrics() {
+        config.put(RunArg.mode, "random");
+        config.put(RunArg.nThreads, 2);
+        tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+        tournament.addListener(new TournamentMetricsGameListener(new AbstractMetric[0]));
+        tournament.run();
+    }
+
+    private void assertParallelMatchesSequential(GameType gameType, int nPlayers) {
+        config.put(RunArg.mode, "random");
+        config.put(RunArg.seed, 42L);
+        tournament = new RoundRobinTournament(agents, gameType, nPlayers, null, config);
+        tournament.run();
+        int[] sequentialGames = tournament.getNGamesPlayed().clone();
+        double[] sequentialWins = new double[agents.size()];
+        double[] sequentialOrdinals = new double[agents.size()];
+        for (int i = 0; i < agents.size(); i++) {
+            sequentialWins[i] = tournament.getWinRate(i);
+            sequentialOrdinals[i] = tournament.getOrdinalRank(i);
+        }
+
+        config.put(RunArg.nThreads, 4);
+        tournament = new RoundRobinTournament(agents, gameType, nPlayers, null, config);
+        tournament.run();
+        assertArrayEquals(sequentialGames, tournament.getNGamesPlayed());
+        for (int i = 0; i < agents.size(); i++) {
+            assertEquals(sequentialWins[i], tournament.getWinRate(i), 1e-9);
+            assertEquals(sequentialOrdinals[i], tournament.getOrdinalRank(i), 1e-9);
+        }
+    }
+
 }
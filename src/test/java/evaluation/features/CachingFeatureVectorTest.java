@@ -0,0 +1,127 @@
+package evaluation.features;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IActionFeatureVector;
+import core.interfaces.IStateFeatureVector;
+import games.GameType;
+import games.tictactoe.TicTacToeStateVector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CachingFeatureVectorTest {
+
+    int stateCalls, actionCalls;
+    IStateFeatureVector counting = new IStateFeatureVector() {
+        final TicTacToeStateVector features = new TicTacToeStateVector();
+
+        @Override
+        public double[] featureVector(AbstractGameState state, int playerID) {
+            stateCalls++;
+            return features.featureVector(state, playerID);
+        }
+
+        @Override
+        public String[] names() {
+            return features.names();
+        }
+    };
+    IActionFeatureVector countingActions = new IActionFeatureVector() {
+        @Override
+        public double[] featureVector(AbstractAction action, AbstractGameState state, int playerID) {
+            actionCalls++;
+            return new double[]{action.hashCode(), state.getGameTick()};
+        }
+
+        @Override
+        public String[] names() {
+            return new String[]{"hash", "tick"};
+        }
+    };
+
+    AbstractGameState state;
+    AbstractForwardModel fm;
+
+    @Before
+    public void setup() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 42);
+        state = game.getGameState();
+        fm = game.getForwardModel();
+    }
+
+    @Test
+    public void featuresAreCalculatedOncePerVersion() {
+        CachingStateFeatureVector cached = new CachingStateFeatureVector(counting);
+        double[] first = cached.featureVector(state, 0);
+        assertSame(first, cached.featureVector(state, 0));
+        assertEquals(1, stateCalls);
+        cached.featureVector(state, 1);
+        assertEquals(2, stateCalls);
+
+        // a full copy has the same contents...
+        AbstractGameState copy = state.copy();
+        assertSame(first, cached.featureVector(copy, 0));
+        assertEquals(2, stateCalls);
+        assertEquals(2, cached.getHits());
+
+        // ...until an action is applied
+        List<AbstractAction> actions = fm.computeAvailableActions(copy);
+        fm.next(copy, actions.get(0));
+        double[] afterMove = cached.featureVector(copy, 0);
+        assertEquals(3, stateCalls);
+        assertArrayEquals(counting.featureVector(copy, 0), afterMove, 0.0);
+        assertArrayEquals(first, cached.featureVector(state, 0), 0.0);
+        assertEquals(4, stateCalls);  // including the direct call above
+
+        // a re-used state takes the version of the state copied into it
+        AbstractGameState recycled = state.copyInto(copy);
+        assertSame(copy, recycled);
+        assertEquals(state.getVersion(), copy.getVersion());
+        assertSame(first, cached.featureVector(copy, 0));
+        assertEquals(4, stateCalls);
+
+        // but a copy for one player has a new version, as hidden information may have been shuffled
+        state.copyInto(copy, 0);
+        assertNotEquals(state.getVersion(), copy.getVersion());
+        assertNotEquals(state.getVersion(), state.copy(0).getVersion());
+        cached.featureVector(copy, 0);
+        assertEquals(5, stateCalls);
+    }
+
+    @Test
+    public void leastRecentlyUsedIsDiscarded() {
+        CachingStateFeatureVector cached = new CachingStateFeatureVector(counting, 2);
+        AbstractGameState[] states = {state.copy(0), state.copy(0), state.copy(0)};
+        cached.featureVector(states[0], 0);
+        cached.featureVector(states[1], 0);
+        cached.featureVector(states[0], 0);
+        cached.featureVector(states[2], 0);  // discards states[1]
+        assertEquals(3, stateCalls);
+        cached.featureVector(states[0], 0);
+        assertEquals(3, stateCalls);
+        cached.featureVector(states[1], 0);
+        assertEquals(4, stateCalls);
+    }
+
+    @Test
+    public void actionFeaturesAreCached() {
+        CachingActionFeatureVector cached = new CachingActionFeatureVector(countingActions);
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        for (AbstractAction action : actions)
+            cached.featureVector(action, state, 0);
+        for (AbstractAction action : fm.computeAvailableActions(state))
+            cached.featureVector(action, state, 0);
+        assertEquals(actions.size(), actionCalls);
+        assertEquals(actions.size(), cached.getHits());
+
+        fm.next(state, actions.get(0));
+        cached.featureVector(actions.get(1), state, 1);
+        assertEquals(actions.size() + 1, actionCalls);
+    }
+}
@@ -0,0 +1,118 @@
+package evaluation.listeners;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.metrics.Event;
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AsyncListenerTest {
+
+    /**
+     * Records a summary of each event, optionally taking some time over each one
+     */
+    static class RecordingListener implements IGameListener {
+        final List<String> events = new ArrayList<>();
+        final long delay;
+        Game game;
+        boolean reported;
+
+        RecordingListener(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            events.add(event.type + " game " + event.state.getGameID() + " tick " + event.state.getGameTick() +
+                    " player " + event.playerID + " " + event.action + " over " + event.state.isNotTerminal());
+        }
+
+        @Override
+        public void report() {
+            reported = true;
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    private void runGames(int nGames, IGameListener... listeners) {
+        for (int i = 0; i < nGames; i++) {
+            List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(i)), new RandomPlayer(new Random(i + 50)));
+            Game.runOne(GameType.LoveLetter, null, players, 93 + i, false, List.of(listeners), null, 0);
+        }
+    }
+
+    @Test
+    public void asyncListenerSeesTheSameEvents() {
+        RecordingListener direct = new RecordingListener(0);
+        RecordingListener slow = new RecordingListener(1);
+        AsyncListener async = new AsyncListener(slow, 8, AsyncListener.Backpressure.Block);
+        runGames(3, direct, async);
+        async.report();
+
+        assertTrue(slow.reported);
+        assertEquals(direct.events, slow.events);
+        assertEquals(direct.events.size(), async.getEventsProcessed());
+        assertEquals(0, async.getEventsDropped());
+        assertTrue(async.getMeanProcessingTime() >= 1e6);
+        assertTrue(async.getMaxQueueTime() > 0);
+        assertNotNull(slow.getGame());
+    }
+
+    @Test
+    public void dropDiscardsEventsButNotStartAndEnd() {
+        RecordingListener direct = new RecordingListener(0);
+        RecordingListener slow = new RecordingListener(5);
+        AsyncListener async = new AsyncListener(slow, 1, AsyncListener.Backpressure.Drop);
+        runGames(2, direct, async);
+        async.report();
+
+        assertTrue(async.getEventsDropped() > 0);
+        assertEquals(direct.events.size(), async.getEventsProcessed() + async.getEventsDropped());
+        assertTrue(direct.events.containsAll(slow.events));
+        for (String event : direct.events) {
+            if (event.startsWith("ABOUT_TO_START") || event.startsWith("GAME_OVER"))
+                assertTrue(slow.events.contains(event));
+        }
+    }
+
+    @Test
+    public void listenerErrorsArePassedBack() {
+        IGameListener failing = new RecordingListener(0) {
+            @Override
+            public void onEvent(Event event) {
+                throw new IllegalStateException("broken listener");
+            }
+        };
+        AsyncListener async = new AsyncListener(failing, 4, AsyncListener.Backpressure.Block);
+        try {
+            runGames(1, async);
+            async.report();
+            fail("Expected an exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package evaluation.metrics;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsGameListener;
+import evaluation.metrics.streaming.StreamingDataLogger;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static evaluation.metrics.IDataLogger.ReportDestination.ToFile;
+import static evaluation.metrics.IDataLogger.ReportType.RawData;
+import static evaluation.metrics.IDataLogger.ReportType.Summary;
+import static org.junit.Assert.*;
+
+public class StreamingDataLoggerTest {
+
+    File inMemoryDir, streamingDir;
+    MetricsGameListener inMemory, streaming;
+    GameMetrics.GameScore streamedScore;
+
+    @Before
+    public void setup() throws IOException {
+        inMemoryDir = Files.createTempDirectory("inMemory").toFile();
+        streamingDir = Files.createTempDirectory("streaming").toFile();
+        inMemory = new MetricsGameListener(ToFile, new IDataLogger.ReportType[]{RawData, Summary},
+                new AbstractMetric[]{new GameMetrics.GameScore(), new GameMetrics.FinalScore()});
+        streamedScore = new GameMetrics.GameScore();
+        streaming = new MetricsGameListener(ToFile, new IDataLogger.ReportType[]{RawData, Summary},
+                new AbstractMetric[]{streamedScore, new GameMetrics.FinalScore()}, IDataLogger.Storage.Streaming);
+        inMemory.setOutputDirectory(inMemoryDir.getPath());
+        streaming.setOutputDirectory(streamingDir.getPath());
+    }
+
+    private void runGames(GameType gameType, int nGames) {
+        for (int i = 0; i < nGames; i++) {
+            List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(i)), new RandomPlayer(new Random(i + 100)));
+            List<IGameListener> listeners = List.of(inMemory, streaming);
+            Game.runOne(gameType, null, players, 42 + i, false, listeners, null, 0);
+        }
+    }
+
+    @Test
+    public void rawDataMatchesInMemoryTable() {
+        runGames(GameType.TicTacToe, 10);
+        assertTrue(((StreamingDataLogger) streamedScore.getDataLogger()).getRowCount() > 50);
+        inMemory.report();
+        streaming.report();
+
+        for (String name : new String[]{"GameScore", "FinalScore"}) {
+            Table expected = Table.read().csv(new File(inMemoryDir, name + ".csv"));
+            Table actual = Table.read().csv(new File(streamingDir, name + ".csv"));
+            assertEquals(expected.rowCount(), actual.rowCount());
+            assertEquals(new HashSet<>(expected.columnNames()), new HashSet<>(actual.columnNames()));
+            for (String column : expected.columnNames()) {
+                for (int row = 0; row < expected.rowCount(); row++)
+                    assertSameValue(expected.getString(row, column), actual.getString(row, column));
+            }
+        }
+    }
+
+    @Test
+    public void summariesAreWritten() throws IOException {
+        runGames(GameType.TicTacToe, 10);
+        streaming.report();
+        int rows = ((StreamingDataLogger) streamedScore.getDataLogger()).getRowCount();
+        List<String> average = Files.readAllLines(new File(streamingDir, "summaries/GameScore/GameScore_Average.csv").toPath());
+        assertEquals("Measure,Value", average.get(0));
+        assertEquals("Count," + rows, average.get(1));
+        List<String> names = Files.readAllLines(new File(streamingDir, "summaries/GameScore/GameScore_PlayerName-0.csv").toPath());
+        assertEquals("Category,Count", names.get(0));
+        assertEquals(2, names.size());
+        assertTrue(names.get(1).endsWith("," + rows));
+    }
+
+    @Test
+    public void rowsFromGamesWithFewerColumnsArePadded() throws IOException {
+        // the second game has more players, so GameScore has more columns
+        for (int nPlayers : new int[]{2, 3}) {
+            List<AbstractPlayer> players = new ArrayList<>();
+            for (int p = 0; p < nPlayers; p++)
+                players.add(new RandomPlayer(new Random(p)));
+            Game.runOne(GameType.LoveLetter, null, players, 42, false, List.of(streaming), null, 0);
+        }
+        streaming.report();
+        Table table = Table.read().csv(new File(streamingDir, "GameScore.csv"));
+        assertEquals(((StreamingDataLogger) streamedScore.getDataLogger()).getRowCount(), table.rowCount());
+        assertTrue(table.columnNames().contains("Player-2"));
+        assertTrue(table.column("Player-2").countMissing() > 0);
+        assertEquals(0, table.column("Player-1").countMissing());
+    }
+
+    private void assertSameValue(String expected, String actual) {
+        if (expected.equals(actual))
+            return;
+        try {
+            assertEquals(Double.parseDouble(expected), Double.parseDouble(actual), 1e-9);
+        } catch (NumberFormatException e) {
+            fail("Expected " + expected + " but was " + actual);
+        }
+    }
+}
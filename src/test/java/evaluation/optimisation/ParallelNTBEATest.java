@@ -0,0 +1,71 @@
+package evaluation.optimisation;
+
+import evaluation.RunArg;
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+import utilities.Pair;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelNTBEATest {
+
+    private NTBEAParameters parameters(int nThreads, boolean tuneGame) {
+        Map<RunArg, Object> config = RunArg.parseConfig(new String[]{}, Collections.singletonList(RunArg.Usage.ParameterSearch));
+        config.put(RunArg.game, "TicTacToe");
+        config.put(RunArg.tuneGame, tuneGame);
+        config.put(RunArg.searchSpace, tuneGame ? "games.tictactoe.TicTacToeGameParameters" : "src/test/java/evaluation/NTBEATest_BasicMCTS.json");
+        config.put(RunArg.iterations, 30);
+        config.put(RunArg.evalGames, 6);
+        config.put(RunArg.verbose, false);
+        config.put(RunArg.destDir, "src/test/java/evaluation/output");
+        config.put(RunArg.listener, new ArrayList<String>());
+        config.put(RunArg.seed, 4091);
+        config.put(RunArg.nThreads, nThreads);
+        return new NTBEAParameters(config);
+    }
+
+    private GameEvaluator gameLengthEvaluator(NTBEAParameters params) {
+        // we tune the game (the grid size) with seeded random players, so that two evaluators play the same games
+        return new GameEvaluator(GameType.TicTacToe, params, 2,
+                Collections.singletonList(new RandomPlayer(new Random(7))),
+                null, game -> game.getGameState().getTurnCounter(), true);
+    }
+
+    @Test
+    public void batchEvaluationMatchesSequential() {
+        NTBEAParameters params = parameters(1, true);
+        Random rnd = new Random(93);
+        List<int[]> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int[] settings = new int[params.searchSpace.nDims()];
+            for (int d = 0; d < settings.length; d++)
+                settings[d] = rnd.nextInt(params.searchSpace.nValues(d));
+            batch.add(settings);
+        }
+        GameEvaluator sequential = gameLengthEvaluator(params);
+        double[] expected = batch.stream().mapToDouble(sequential::evaluate).toArray();
+
+        GameEvaluator parallel = gameLengthEvaluator(parameters(4, true));
+        double[] actual = parallel.evaluate(batch);
+        assertArrayEquals(expected, actual, 0.0);
+        assertEquals(batch.size(), parallel.nEvals());
+    }
+
+    @Test
+    public void batchedTrialsAddEveryEvaluationToTheModel() {
+        NTBEA ntbea = new NTBEA(parameters(4, false), GameType.TicTacToe, 2);
+        ntbea.landscapeModel.reset();
+        ntbea.runTrials();
+        assertEquals(30, ntbea.landscapeModel.numberOfSamples());
+        assertEquals(30, ntbea.evaluator.nEvals());
+
+        // and the evaluation games for the winner are also run in parallel
+        int[] best = Arrays.stream(ntbea.landscapeModel.getBestOfSampled()).mapToInt(d -> (int) d).toArray();
+        Pair<Double, Double> score = ntbea.evaluateWinner(best);
+        assertEquals(36, ntbea.evaluator.nEvals());
+        assertTrue(score.a >= -1.0);
+    }
+}
@@ -0,0 +1,395 @@
+package games.catan;
+
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.components.BoardNodeWithEdges;
+import core.components.Edge;
+import games.GameType;
+import games.catan.actions.build.BuildRoad;
+import games.catan.actions.build.BuildSettlement;
+import games.catan.actions.build.BuyAction;
+import games.catan.components.Building;
+import games.catan.components.CatanTile;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestLongestRoad {
+
+    private CatanGameState newGame(int nPlayers, long seed) {
+        Game game = GameType.Catan.createGameInstance(nPlayers, seed);
+        List<AbstractPlayer> players = new ArrayList<>();
+        for (int i = 0; i < nPlayers; i++)
+            players.add(new RandomPlayer(new Random(seed + i)));
+        game.reset(players);
+        return (CatanGameState) game.getGameState();
+    }
+
+    /**
+     * The longest road of the player, found by trying every road from every building
+     */
+    private int fullSearch(CatanGameState state, int player) {
+        int retValue = 0;
+        for (BoardNodeWithEdges node : state.getGraph().getBoardNodes())
+            retValue = Math.max(retValue, fullSearch(node, player, new HashSet<>()));
+        return retValue;
+    }
+
+    private int fullSearch(BoardNodeWithEdges node, int player, Set<Edge> used) {
+        int retValue = 0;
+        for (Map.Entry<Edge, BoardNodeWithEdges> e : node.getNeighbourEdgeMapping().entrySet()) {
+            if (e.getKey().getOwnerId() == player && used.add(e.getKey())) {
+                BoardNodeWithEdges next = e.getValue();
+                boolean blocked = next.getOwnerId() != -1 && next.getOwnerId() != player;
+                retValue = Math.max(retValue, 1 + (blocked ? 0 : fullSearch(next, player, used)));
+                used.remove(e.getKey());
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * The length of the road through a new edge, as it was found before CatanRoadNetwork: expanding the road from
+     * both ends of the edge, taking the longer branch at each fork
+     */
+    private int expandedSearch(CatanGameState state, Edge edge, int player) {
+        List<BoardNodeWithEdges> ends = new ArrayList<>();
+        for (BoardNodeWithEdges node : state.getGraph().getBoardNodes())
+            if (node.getEdgeByID(edge.getComponentID()) != null)
+                ends.add(node);
+        Set<Edge> roadSet = expand(new LinkedHashSet<>(), new ArrayList<>(List.of(ends.get(0))), new ArrayList<>(List.of(ends.get(1))), player);
+        roadSet.addAll(expand(new LinkedHashSet<>(), new ArrayList<>(List.of(ends.get(1))), new ArrayList<>(List.of(ends.get(0))), player));
+        return roadSet.size();
+    }
+
+    private Set<Edge> expand(Set<Edge> roadSet, List<BoardNodeWithEdges> unexpanded, List<BoardNodeWithEdges> expanded, int player) {
+        if (unexpanded.isEmpty())
+            return roadSet;
+        if (unexpanded.size() == 2) {
+            int length = 0;
+            Set<Edge> longestSegment = new LinkedHashSet<>(roadSet);
+            for (BoardNodeWithEdges node : unexpanded) {
+                Set<Edge> roadSetCopy = expand(new LinkedHashSet<>(roadSet), new ArrayList<>(List.of(node)), expanded, player);
+                if (roadSetCopy.size() >= length) {
+                    length = roadSetCopy.size();
+                    longestSegment = roadSetCopy;
+                }
+            }
+            roadSet.addAll(longestSegment);
+            return roadSet;
+        }
+        BoardNodeWithEdges node = unexpanded.remove(0);
+        expanded.add(node);
+        for (Map.Entry<Edge, BoardNodeWithEdges> e : node.getNeighbourEdgeMapping().entrySet()) {
+            if (e.getKey().getOwnerId() == player) {
+                if (expanded.contains(e.getValue()))
+                    roadSet.add(e.getKey());
+                else if (e.getValue().getOwnerId() == -1 || e.getValue().getOwnerId() == player)
+                    unexpanded.add(e.getValue());
+            }
+        }
+        return expand(roadSet, unexpanded, expanded, player);
+    }
+
+    private boolean isSimplePath(CatanGameState state, int player) {
+        for (BoardNodeWithEdges node : state.getGraph().getBoardNodes()) {
+            long roads = node.getEdges().stream().filter(e -> e.getOwnerId() == player).count();
+            if (roads > 2 || roads > 0 && node.getOwnerId() != -1 && node.getOwnerId() != player)
+                return false;
+        }
+        return true;
+    }
+
+    @Test
+    public void longestRoadsMatchFullSearchInRandomGames() {
+        int roadsChecked = 0;
+        for (long seed = 0; seed < 30; seed++) {
+            int nPlayers = 3 + (int) (seed % 2);
+            CatanGameState state = newGame(nPlayers, seed);
+            CatanForwardModel fm = new CatanForwardModel();
+            Random rnd = new Random(seed);
+            Map<Integer, Integer> roadOwners = new HashMap<>();
+            for (int step = 0; step < 3000 && state.isNotTerminal(); step++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+
+                for (int p = 0; p < nPlayers; p++)
+                    assertEquals("Player " + p + " with seed " + seed + " at step " + step, fullSearch(state, p), state.getRoadLengths()[p]);
+
+                for (BoardNodeWithEdges node : state.getGraph().getBoardNodes()) {
+                    for (Edge edge : node.getEdges()) {
+                        int owner = edge.getOwnerId();
+                        if (owner != -1 && roadOwners.put(edge.getComponentID(), owner) == null) {
+                            // a new road; if the player's roads are a single line without forks or breaks then
+                            // the road through it found as before is their whole network (with forks it could
+                            // count roads from more than one branch)
+                            int before = expandedSearch(state, edge, owner);
+                            int nRoads = state.getPlayerTokens().get(owner).get(BuyAction.BuyType.Road).getValue();
+                            if (isSimplePath(state, owner) && nRoads == state.getRoadLengths()[owner]) {
+                                assertEquals(nRoads, before);
+                                roadsChecked++;
+                            }
+                        }
+                    }
+                }
+            }
+            // and the network can be found again from scratch, and copied
+            CatanRoadNetwork fromScratch = new CatanRoadNetwork(state.getGraph());
+            CatanRoadNetwork copy = ((CatanGameState) state.copy()).getRoadNetwork();
+            for (int p = 0; p < nPlayers; p++) {
+                assertEquals(state.getRoadLengths()[p], fromScratch.longest(p));
+                assertEquals(state.getRoadLengths()[p], copy.longest(p));
+            }
+        }
+        assertTrue(roadsChecked > 0);
+    }
+
+    private int[] findEdge(CatanGameState state, Edge edge) {
+        CatanTile[][] board = state.getBoard();
+        for (int x = 0; x < board.length; x++)
+            for (int y = 0; y < board[x].length; y++)
+                for (int i = 0; i < CatanConstants.HEX_SIDES; i++)
+                    if (board[x][y].getEdgeIDs()[i] == edge.getComponentID() && state.getRoad(board[x][y], i, i) == edge)
+                        return new int[]{x, y, i};
+        throw new AssertionError("Edge not on board " + edge);
+    }
+
+    private int[] findVertex(CatanGameState state, BoardNodeWithEdges node) {
+        CatanTile[][] board = state.getBoard();
+        for (int x = 0; x < board.length; x++)
+            for (int y = 0; y < board[x].length; y++)
+                for (int i = 0; i < CatanConstants.HEX_SIDES; i++)
+                    if (board[x][y].getVerticesBoardNodeIDs()[i] == node.getComponentID())
+                        return new int[]{x, y, i};
+        throw new AssertionError("Building not on board " + node);
+    }
+
+    /**
+     * @return the roads at the building that are on the board (the graph also has copies of the edges between two
+     * land tiles that no tile refers to), in order of component ID so that the lines built do not depend on the order
+     * of a hash set (and hence on which games were created before this one)
+     */
+    private List<Edge> boardRoads(CatanGameState state, BoardNodeWithEdges node) {
+        Set<Integer> edgeIDs = new HashSet<>();
+        for (CatanTile[] tiles : state.getBoard())
+            for (CatanTile tile : tiles)
+                for (int id : tile.getEdgeIDs())
+                    edgeIDs.add(id);
+        List<Edge> retValue = new ArrayList<>();
+        for (Edge edge : node.getEdges())
+            if (edgeIDs.contains(edge.getComponentID()))
+                retValue.add(edge);
+        retValue.sort(Comparator.comparingInt(Edge::getComponentID));
+        return retValue;
+    }
+
+    /**
+     * Finds a line of roads that are not yet built from the end of the line of buildings, which does not go through
+     * any building already on it or in avoid
+     *
+     * @return the roads, or null if there is no such line
+     */
+    private List<Edge> findLine(CatanGameState state, List<BoardNodeWithEdges> line, int nRoads, Collection<BoardNodeWithEdges> avoid) {
+        if (nRoads == 0)
+            return new ArrayList<>();
+        BoardNodeWithEdges node = line.get(line.size() - 1);
+        for (Edge edge : boardRoads(state, node)) {
+            if (edge.getOwnerId() != -1)
+                continue;
+            BoardNodeWithEdges neighbour = node.getNeighbour(edge);
+            if (line.contains(neighbour) || avoid.contains(neighbour))
+                continue;
+            line.add(neighbour);
+            List<Edge> rest = findLine(state, line, nRoads - 1, avoid);
+            if (rest != null) {
+                rest.add(0, edge);
+                return rest;
+            }
+            line.remove(line.size() - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Builds a line of roads for the player starting from one of the buildings, which does not go through any building
+     * in avoid. The line is one that could be one road longer, so its last building has a free road that leads away
+     * from it (and any later line that avoids the neighbours of this one leaves that road free).
+     *
+     * @return the buildings along the line
+     */
+    private List<BoardNodeWithEdges> buildLine(CatanGameState state, List<BoardNodeWithEdges> starts, int nRoads, int player, Collection<BoardNodeWithEdges> avoid) {
+        for (BoardNodeWithEdges start : starts) {
+            if (avoid.contains(start))
+                continue;
+            List<BoardNodeWithEdges> line = new ArrayList<>(List.of(start));
+            List<Edge> roads = findLine(state, line, nRoads + 1, avoid);
+            if (roads != null) {
+                for (Edge road : roads.subList(0, nRoads)) {
+                    int[] xye = findEdge(state, road);
+                    new BuildRoad(xye[0], xye[1], xye[2], player, true).execute(state);
+                }
+                return line.subList(0, nRoads + 1);
+            }
+        }
+        throw new AssertionError("No line of " + nRoads + " roads on board");
+    }
+
+    /**
+     * Builds one more road for the player from the last building of the line, not going through any building in avoid
+     */
+    private void extendLine(CatanGameState state, List<BoardNodeWithEdges> line, int player, Collection<BoardNodeWithEdges> avoid) {
+        List<BoardNodeWithEdges> from = new ArrayList<>(List.of(line.get(line.size() - 1)));
+        List<Edge> roads = findLine(state, from, 1, avoid);
+        if (roads == null)
+            throw new AssertionError("Line cannot be extended");
+        int[] xye = findEdge(state, roads.get(0));
+        new BuildRoad(xye[0], xye[1], xye[2], player, true).execute(state);
+    }
+
+    private List<BoardNodeWithEdges> inlandBuildings(CatanGameState state) {
+        List<BoardNodeWithEdges> retValue = new ArrayList<>();
+        for (BoardNodeWithEdges node : state.getGraph().getBoardNodes())
+            if (boardRoads(state, node).size() == 3)
+                retValue.add(node);
+        retValue.sort(Comparator.comparingInt(BoardNodeWithEdges::getComponentID));
+        return retValue;
+    }
+
+    private Set<BoardNodeWithEdges> withNeighbours(Collection<BoardNodeWithEdges> nodes) {
+        Set<BoardNodeWithEdges> retValue = new HashSet<>(nodes);
+        for (BoardNodeWithEdges node : nodes)
+            retValue.addAll(node.getNeighbourEdgeMapping().values());
+        return retValue;
+    }
+
+    @Test
+    public void tiedRoadsLeaveLongestRoadUnclaimedUntilOneIsLonger() {
+        CatanGameState state = newGame(3, 42);
+        CatanParameters cp = (CatanParameters) state.getGameParameters();
+        List<BoardNodeWithEdges> inland = inlandBuildings(state);
+
+        List<BoardNodeWithEdges> line0 = buildLine(state, inland, 7, 0, List.of());
+        Set<BoardNodeWithEdges> avoid = withNeighbours(line0);
+        List<BoardNodeWithEdges> line1 = buildLine(state, inland, 5, 1, avoid);
+        avoid.addAll(withNeighbours(line1));
+        buildLine(state, inland, 5, 2, avoid);
+        assertEquals(0, state.getLongestRoadOwner());
+
+        // player 2 splits the road of player 0 into 3 and 4, so players 1 and 2 tie with 5: nobody has the longest road
+        int[] xyv = findVertex(state, line0.get(3));
+        new BuildSettlement(xyv[0], xyv[1], xyv[2], 2, true).execute(state);
+        assertEquals(4, state.getRoadLengths()[0]);
+        assertEquals(-1, state.getLongestRoadOwner());
+        assertEquals(5, state.getLongestRoadLength());
+        for (int p = 0; p < 3; p++)
+            assertEquals(cp.buildingValue.get(Building.Type.Settlement) * (p == 2 ? 1 : 0), state.getGameScore(p), 0.0);
+
+        // the tied length has to be beaten, so player 0 extending their 4 to 5 does not take it
+        extendLine(state, line0, 0, line0);
+        assertEquals(5, state.getRoadLengths()[0]);
+        assertEquals(-1, state.getLongestRoadOwner());
+
+        // but player 1 extending to 6 does
+        extendLine(state, line1, 1, line1);
+        assertEquals(6, state.getRoadLengths()[1]);
+        assertEquals(1, state.getLongestRoadOwner());
+        assertEquals(6, state.getLongestRoadLength());
+        assertEquals(cp.longest_road_value, state.getGameScore(1), 0.0);
+        assertEquals(0.0, state.getGameScore(0), 0.0);
+    }
+
+    @Test
+    public void brokenRoadNotLongerThanMinimumLeavesLongestRoadUnclaimed() {
+        CatanGameState state = newGame(3, 42);
+        CatanParameters cp = (CatanParameters) state.getGameParameters();
+        List<BoardNodeWithEdges> inland = inlandBuildings(state);
+        List<BoardNodeWithEdges> line0 = buildLine(state, inland, 6, 0, List.of());
+        List<BoardNodeWithEdges> line1 = buildLine(state, inland, cp.min_longest_road, 1, withNeighbours(line0));
+        assertEquals(0, state.getLongestRoadOwner());
+        assertEquals(cp.longest_road_value, state.getGameScore(0), 0.0);
+
+        // player 0 is split into 3 and 3, so player 1 has the longest road, but it is not long enough to claim
+        int[] xyv = findVertex(state, line0.get(3));
+        new BuildSettlement(xyv[0], xyv[1], xyv[2], 2, true).execute(state);
+        assertEquals(3, state.getRoadLengths()[0]);
+        assertEquals(-1, state.getLongestRoadOwner());
+        assertEquals(cp.min_longest_road, state.getLongestRoadLength());
+        assertEquals(0.0, state.getGameScore(0), 0.0);
+        assertEquals(0.0, state.getGameScore(1), 0.0);
+
+        // one more road takes it
+        extendLine(state, line1, 1, line1);
+        assertEquals(cp.min_longest_road + 1, state.getRoadLengths()[1]);
+        assertEquals(1, state.getLongestRoadOwner());
+        assertEquals(cp.min_longest_road + 1, state.getLongestRoadLength());
+        assertEquals(cp.longest_road_value, state.getGameScore(1), 0.0);
+    }
+
+    @Test
+    public void ownerCutToMinimumLosesLongestRoad() {
+        CatanGameState state = newGame(3, 42);
+        CatanParameters cp = (CatanParameters) state.getGameParameters();
+        List<BoardNodeWithEdges> inland = inlandBuildings(state);
+        int nRoads = 2 * cp.min_longest_road - 1;
+        List<BoardNodeWithEdges> line0 = buildLine(state, inland, nRoads, 0, List.of());
+        buildLine(state, inland, 2, 1, withNeighbours(line0));
+        assertEquals(0, state.getLongestRoadOwner());
+        assertEquals(cp.longest_road_value, state.getGameScore(0), 0.0);
+
+        // player 0 is split so that their longest part is min_longest_road: still the longest, but too short to keep
+        int[] xyv = findVertex(state, line0.get(cp.min_longest_road - 1));
+        new BuildSettlement(xyv[0], xyv[1], xyv[2], 2, true).execute(state);
+        assertEquals(cp.min_longest_road, state.getRoadLengths()[0]);
+        assertEquals(-1, state.getLongestRoadOwner());
+        assertEquals(cp.min_longest_road, state.getLongestRoadLength());
+        assertEquals(0.0, state.getGameScore(0), 0.0);
+        assertEquals(0.0, state.getGameScore(1), 0.0);
+        assertEquals(cp.buildingValue.get(Building.Type.Settlement), state.getGameScore(2), 0.0);
+
+        // and player 0 takes it back with one more road
+        extendLine(state, line0, 0, line0);
+        assertEquals(cp.min_longest_road + 1, state.getRoadLengths()[0]);
+        assertEquals(0, state.getLongestRoadOwner());
+        assertEquals(cp.longest_road_value, state.getGameScore(0), 0.0);
+    }
+
+    @Test
+    public void settlementBreaksLongestRoad() {
+        CatanGameState state = newGame(3, 42);
+        CatanParameters cp = (CatanParameters) state.getGameParameters();
+        List<BoardNodeWithEdges> inland = inlandBuildings(state);
+
+        List<BoardNodeWithEdges> line = buildLine(state, inland, 7, 0, List.of());
+        assertEquals(7, state.getRoadLengths()[0]);
+        assertEquals(0, state.getLongestRoadOwner());
+        assertEquals(7, state.getLongestRoadLength());
+        assertEquals(cp.longest_road_value, state.getGameScore(0), 0.0);
+
+        // player 1 has 5 roads elsewhere
+        Set<BoardNodeWithEdges> avoid = new HashSet<>(line);
+        for (BoardNodeWithEdges node : line)
+            avoid.addAll(node.getNeighbourEdgeMapping().values());
+        buildLine(state, inland, 5, 1, avoid);
+        assertEquals(5, state.getRoadLengths()[1]);
+        assertEquals(0, state.getLongestRoadOwner());
+
+        // a settlement of player 0's own does not break the road
+        int[] xyv = findVertex(state, line.get(2));
+        new BuildSettlement(xyv[0], xyv[1], xyv[2], 0, true).execute(state);
+        assertEquals(7, state.getRoadLengths()[0]);
+
+        // one of player 2 splits it into 3 and 4, so player 1 now has the longest road
+        xyv = findVertex(state, line.get(3));
+        new BuildSettlement(xyv[0], xyv[1], xyv[2], 2, true).execute(state);
+        assertEquals(4, state.getRoadLengths()[0]);
+        assertEquals(5, state.getRoadLengths()[1]);
+        assertEquals(1, state.getLongestRoadOwner());
+        assertEquals(5, state.getLongestRoadLength());
+        assertEquals(cp.buildingValue.get(Building.Type.Settlement), state.getGameScore(0), 0.0);
+        assertEquals(cp.longest_road_value, state.getGameScore(1), 0.0);
+    }
+}
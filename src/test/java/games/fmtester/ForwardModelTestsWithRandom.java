@@ -65,6 +65,12 @@ public class ForwardModelTestsWithRandom {
     public void testSushiGo() {
         ForwardModelTester fmt = new ForwardModelTester("game=SushiGo", "nGames=2", "nPlayers=3");
     }
+    // Known failure: random play reaches rule assertions in TMAction.execute() (and states with no actions),
+    // without any copies being made, so this fails in the game rather than in the copy checks
+//    @Test
+//    public void testTerraformingMars() {
+//        ForwardModelTester fmt = new ForwardModelTester("game=TerraformingMars", "nGames=2", "nPlayers=2");
+//    }
 
     @Test
     public void testTicTacToe() {
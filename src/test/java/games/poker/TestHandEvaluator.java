@@ -0,0 +1,163 @@
+package games.poker;
+
+import core.components.FrenchCard;
+import org.junit.Test;
+
+import java.util.*;
+
+import static core.components.FrenchCard.FrenchCardType.*;
+import static core.components.FrenchCard.Suite.*;
+import static games.poker.PokerGameState.PokerHand.*;
+import static org.junit.Assert.*;
+
+public class TestHandEvaluator {
+
+    private static FrenchCard number(int number, FrenchCard.Suite suite) {
+        return new FrenchCard(Number, suite, number);
+    }
+
+    private static FrenchCard face(FrenchCard.FrenchCardType type, FrenchCard.Suite suite) {
+        return new FrenchCard(type, suite);
+    }
+
+    private static int evaluate(FrenchCard... cards) {
+        return PokerHandEvaluator.evaluate(PokerHandEvaluator.cards(Arrays.asList(cards)));
+    }
+
+    /**
+     * The category of the 5 cards, followed by the ranks (0 for a Two, to 12 for an Ace) that break ties, most
+     * important first
+     */
+    private static List<Integer> referenceKey(int[] ranks, int[] suits) {
+        int[] counts = new int[13];
+        for (int r : ranks) counts[r]++;
+        List<Integer> byCount = new ArrayList<>();
+        for (int r = 12; r >= 0; r--)
+            if (counts[r] > 0) byCount.add(r);
+        byCount.sort((a, b) -> counts[b] != counts[a] ? counts[b] - counts[a] : b - a);
+
+        boolean flush = Arrays.stream(suits).distinct().count() == 1;
+        int straightHigh = -1;
+        if (byCount.size() == 5) {
+            if (byCount.get(0) - byCount.get(4) == 4) straightHigh = byCount.get(0);
+            else if (byCount.equals(List.of(12, 3, 2, 1, 0))) straightHigh = 3;
+        }
+        int category;
+        if (flush && straightHigh == 12) category = 9;
+        else if (flush && straightHigh >= 0) category = 8;
+        else if (counts[byCount.get(0)] == 4) category = 7;
+        else if (counts[byCount.get(0)] == 3 && counts[byCount.get(1)] == 2) category = 6;
+        else if (flush) category = 5;
+        else if (straightHigh >= 0) category = 4;
+        else if (counts[byCount.get(0)] == 3) category = 3;
+        else if (counts[byCount.get(0)] == 2 && counts[byCount.get(1)] == 2) category = 2;
+        else if (counts[byCount.get(0)] == 2) category = 1;
+        else category = 0;
+
+        List<Integer> key = new ArrayList<>();
+        key.add(category);
+        if (straightHigh >= 0) key.add(straightHigh);
+        else key.addAll(byCount);
+        return key;
+    }
+
+    private static int compare(List<Integer> a, List<Integer> b) {
+        for (int i = 0; i < Math.min(a.size(), b.size()); i++)
+            if (!a.get(i).equals(b.get(i))) return Integer.compare(a.get(i), b.get(i));
+        return Integer.compare(a.size(), b.size());
+    }
+
+    /**
+     * The best key of any 5 of the 7 cards (each card is 4 * rank + suit)
+     */
+    private static List<Integer> referenceBest(int[] cards) {
+        List<Integer> best = null;
+        for (int skip1 = 0; skip1 < 7; skip1++) {
+            for (int skip2 = skip1 + 1; skip2 < 7; skip2++) {
+                int[] ranks = new int[5], suits = new int[5];
+                int n = 0;
+                for (int i = 0; i < 7; i++) {
+                    if (i == skip1 || i == skip2) continue;
+                    ranks[n] = cards[i] / 4;
+                    suits[n++] = cards[i] % 4;
+                }
+                List<Integer> key = referenceKey(ranks, suits);
+                if (best == null || compare(key, best) > 0) best = key;
+            }
+        }
+        return best;
+    }
+
+    private static long packed(int[] cards) {
+        long retValue = 0;
+        for (int c : cards)
+            retValue |= 1L << (16 * (c % 4) + c / 4);
+        return retValue;
+    }
+
+    @Test
+    public void matchesBestOfAllFiveCardHands() {
+        Random rnd = new Random(1234);
+        List<Integer> deck = new ArrayList<>();
+        for (int i = 0; i < 52; i++) deck.add(i);
+        int[] categories = new int[10];
+        for (int deal = 0; deal < 20000; deal++) {
+            Collections.shuffle(deck, rnd);
+            // two hands sharing 5 community cards
+            int[] a = new int[7], b = new int[7];
+            for (int i = 0; i < 5; i++)
+                a[i] = b[i] = deck.get(i);
+            a[5] = deck.get(5);
+            a[6] = deck.get(6);
+            b[5] = deck.get(7);
+            b[6] = deck.get(8);
+
+            List<Integer> keyA = referenceBest(a), keyB = referenceBest(b);
+            int strengthA = PokerHandEvaluator.evaluate(packed(a)), strengthB = PokerHandEvaluator.evaluate(packed(b));
+            assertEquals(Integer.signum(compare(keyA, keyB)), Integer.signum(Integer.compare(strengthA, strengthB)));
+            assertEquals(PokerGameState.PokerHand.values()[9 - keyA.get(0)], PokerHandEvaluator.handType(strengthA));
+            categories[keyA.get(0)]++;
+        }
+        // all but the rarest categories came up
+        for (int c = 0; c <= 7; c++)
+            assertTrue("Category " + c, categories[c] > 0);
+    }
+
+    @Test
+    public void orderOfSpecialCases() {
+        int wheel = evaluate(face(Ace, Hearts), number(2, Clubs), number(3, Spades), number(4, Hearts), number(5, Diamonds), face(King, Clubs), number(9, Clubs));
+        int sixHigh = evaluate(number(6, Hearts), number(2, Clubs), number(3, Spades), number(4, Hearts), number(5, Diamonds), face(King, Clubs), number(9, Clubs));
+        int aces = evaluate(face(Ace, Hearts), face(Ace, Clubs), face(Ace, Spades), number(4, Hearts), number(5, Diamonds), face(King, Clubs), number(9, Clubs));
+        assertEquals(Straight, PokerHandEvaluator.handType(wheel));
+        assertTrue(wheel < sixHigh);
+        assertTrue(aces < wheel);
+
+        // a pair of Kings with an Ace beats one with a Queen, but the sixth and seventh cards do not count
+        int kingsAce = evaluate(face(King, Hearts), face(King, Clubs), face(Ace, Spades), number(7, Hearts), number(5, Diamonds), number(3, Clubs), number(2, Clubs));
+        int kingsQueen = evaluate(face(King, Spades), face(King, Diamonds), face(Queen, Spades), number(10, Hearts), number(9, Diamonds), number(8, Clubs), number(6, Clubs));
+        int kingsAceSplit = evaluate(face(King, Hearts), face(King, Clubs), face(Ace, Spades), number(7, Hearts), number(5, Diamonds), number(4, Clubs), number(2, Clubs));
+        assertTrue(kingsAce > kingsQueen);
+        assertEquals(kingsAce, kingsAceSplit);
+
+        int royal = evaluate(face(Ace, Spades), face(King, Spades), face(Queen, Spades), face(Jack, Spades), number(10, Spades), number(9, Spades), number(2, Clubs));
+        assertEquals(RoyalFlush, PokerHandEvaluator.handType(royal));
+        int steelWheel = evaluate(face(Ace, Spades), number(2, Spades), number(3, Spades), number(4, Spades), number(5, Spades), face(Ace, Clubs), face(Ace, Hearts));
+        assertEquals(StraightFlush, PokerHandEvaluator.handType(steelWheel));
+        assertTrue(steelWheel < royal);
+    }
+
+    @Test
+    public void equityOfStartingHands() {
+        long aces = PokerHandEvaluator.cards(List.of(face(Ace, Spades), face(Ace, Hearts)));
+        long sevenTwo = PokerHandEvaluator.cards(List.of(number(7, Spades), number(2, Hearts)));
+        double acesEquity = PokerHandEvaluator.equity(aces, 0L, 5, 1, 5000, new Random(1));
+        double sevenTwoEquity = PokerHandEvaluator.equity(sevenTwo, 0L, 5, 1, 5000, new Random(1));
+        assertEquals(0.85, acesEquity, 0.03);
+        assertEquals(0.35, sevenTwoEquity, 0.03);
+        assertTrue(PokerHandEvaluator.equity(aces, 0L, 5, 4, 2000, new Random(1)) < acesEquity);
+
+        // with no cards left to come and no opponents the hand wins outright
+        long board = PokerHandEvaluator.cards(List.of(number(3, Clubs), number(4, Clubs), number(9, Diamonds), face(Jack, Hearts), face(Queen, Spades)));
+        assertEquals(1.0, PokerHandEvaluator.equity(sevenTwo, board, 5, 0, 10, new Random(1)), 0.0);
+    }
+}
@@ -0,0 +1,81 @@
+package players.heuristics;
+
+import org.apache.spark.ml.linalg.Vectors;
+import org.apache.spark.ml.regression.DecisionTreeRegressionModel;
+import org.apache.spark.ml.tree.*;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompiledDecisionTreeTest {
+
+    static final int N_FEATURES = 5;
+    Random rnd = new Random(37);
+
+    // feature 4 is categorical, with values 0, 1, 2 or 3
+    private Node randomTree(int depth) {
+        if (depth == 0 || rnd.nextDouble() < 0.1)
+            return new LeafNode(rnd.nextGaussian(), 0.0, null);
+        Split split;
+        int feature = rnd.nextInt(N_FEATURES);
+        if (feature == 4)
+            split = new CategoricalSplit(4, rnd.nextBoolean() ? new double[]{0.0, 2.0} : new double[]{3.0}, 4);
+        else
+            split = new ContinuousSplit(feature, rnd.nextGaussian());
+        return new InternalNode(rnd.nextGaussian(), 0.0, 0.0, randomTree(depth - 1), randomTree(depth - 1), split, null);
+    }
+
+    private double[] randomFeatures() {
+        double[] features = new double[N_FEATURES];
+        for (int i = 0; i < 4; i++)
+            features[i] = rnd.nextGaussian();
+        features[4] = rnd.nextInt(4);
+        return features;
+    }
+
+    @Test
+    public void compiledTreeMatchesSparkModel() {
+        DecisionTreeRegressionModel model = new DecisionTreeRegressionModel(randomTree(8), N_FEATURES);
+        CompiledDecisionTree tree = SparkDecisionTrees.compile(model);
+        assertEquals(model.numNodes(), tree.numNodes());
+        assertEquals(model.depth(), tree.depth());
+        for (int i = 0; i < 1000; i++) {
+            double[] features = randomFeatures();
+            assertEquals(model.predict(Vectors.dense(features)), tree.evaluate(features), 0.0);
+        }
+    }
+
+    @Test
+    public void singleLeafTree() {
+        DecisionTreeRegressionModel model = new DecisionTreeRegressionModel(new LeafNode(2.5, 0.0, null), N_FEATURES);
+        CompiledDecisionTree tree = SparkDecisionTrees.compile(model);
+        assertEquals(1, tree.numNodes());
+        assertEquals(2.5, tree.evaluate(randomFeatures()), 0.0);
+    }
+
+    @Test
+    public void savedTreeIsLoadedByHeuristic() throws IOException {
+        CompiledDecisionTree tree = SparkDecisionTrees.compile(new DecisionTreeRegressionModel(randomTree(6), N_FEATURES));
+        File directory = Files.createTempDirectory("DecisionTree").toFile();
+        tree.writeToFile(new File(directory, CompiledDecisionTree.FILE_NAME).getPath());
+
+        DecisionTreeStateHeuristic heuristic = new DecisionTreeStateHeuristic(null, directory.getPath(), null);
+        CompiledDecisionTree loaded = heuristic.getTree();
+        assertEquals(tree.numNodes(), loaded.numNodes());
+        for (int i = 0; i < 1000; i++) {
+            double[] features = randomFeatures();
+            assertEquals(tree.evaluate(features), loaded.evaluate(features), 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void childrenMustComeAfterTheirParent() {
+        new CompiledDecisionTree(new int[]{0, -1}, new double[2], new int[]{1, 0}, new int[]{0, 0},
+                new double[2], new double[2][]);
+    }
+}
@@ -0,0 +1,35 @@
+package players.heuristics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class GLMHeuristicTest {
+
+    static class TestGLM extends GLMHeuristic {
+        @Override
+        public String[] names() {
+            return new String[]{"a", "b", "c", "d", "e"};
+        }
+    }
+
+    @Test
+    public void splitFeaturesGiveTheSameValueAsCombined() {
+        Random rnd = new Random(5);
+        TestGLM glm = new TestGLM();
+        glm.coefficients = new double[]{0.5, 1.0, -2.0, 0.25, 3.0, -1.5};
+        glm.interactions = new int[][]{{0, 3}, {1, 2, 4}, {3, 4}};
+        glm.interactionCoefficients = new double[]{0.7, -0.2, 1.1};
+        for (int i = 0; i < 100; i++) {
+            double[] phi = {rnd.nextGaussian(), rnd.nextGaussian(), rnd.nextGaussian()};
+            double[] psi = {rnd.nextGaussian(), rnd.nextGaussian()};
+            double[] combined = {phi[0], phi[1], phi[2], psi[0], psi[1]};
+            double expected = 0.5 + combined[0] - 2.0 * combined[1] + 0.25 * combined[2] + 3.0 * combined[3] - 1.5 * combined[4]
+                    + 0.7 * combined[0] * combined[3] - 0.2 * combined[1] * combined[2] * combined[4] + 1.1 * combined[3] * combined[4];
+            assertEquals(expected, glm.applyCoefficients(combined), 1e-12);
+            assertEquals(expected, glm.applyCoefficients(phi, psi), 1e-12);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package players.heuristics;
+
+import libsvm.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SVRPredictorTest {
+
+    static final int N_FEATURES = 4;
+    Random rnd = new Random(23);
+
+    private svm_node[] nodes(double[] phi) {
+        svm_node[] data = new svm_node[phi.length + 1];
+        for (int i = 0; i <= phi.length; i++) {
+            data[i] = new svm_node();
+            data[i].index = i;
+            data[i].value = i == 0 ? 1.0 : phi[i - 1];
+        }
+        return data;
+    }
+
+    private double[] randomFeatures(int length) {
+        double[] phi = new double[length];
+        for (int i = 0; i < length; i++)
+            phi[i] = rnd.nextGaussian();
+        return phi;
+    }
+
+    private svm_model train(int svmType, int kernelType) {
+        svm_problem problem = new svm_problem();
+        problem.l = 100;
+        problem.y = new double[problem.l];
+        problem.x = new svm_node[problem.l][];
+        for (int i = 0; i < problem.l; i++) {
+            double[] phi = randomFeatures(N_FEATURES);
+            problem.x[i] = nodes(phi);
+            problem.y[i] = phi[0] - 2 * phi[1] * phi[2] + 0.1 * rnd.nextGaussian();
+        }
+        svm_parameter params = new svm_parameter();
+        params.svm_type = svmType;
+        params.kernel_type = kernelType;
+        params.gamma = 0.5;
+        params.coef0 = 0.3;
+        params.degree = 3;
+        params.C = 1.0;
+        params.nu = 0.5;
+        params.p = 0.1;
+        params.eps = 0.01;
+        params.cache_size = 10;
+        svm.svm_set_print_string_function(s -> {
+        });
+        return svm.svm_train(problem, params);
+    }
+
+    @Test
+    public void predictionsMatchLibsvm() {
+        for (int svmType : new int[]{svm_parameter.EPSILON_SVR, svm_parameter.NU_SVR}) {
+            for (int kernel : new int[]{svm_parameter.LINEAR, svm_parameter.POLY, svm_parameter.RBF, svm_parameter.SIGMOID}) {
+                svm_model model = train(svmType, kernel);
+                assertTrue(SVRPredictor.isSupported(model));
+                SVRPredictor predictor = new SVRPredictor(model);
+                // including feature vectors that are shorter or longer than those the model was trained on
+                for (int length = N_FEATURES - 1; length <= N_FEATURES + 1; length++) {
+                    for (int i = 0; i < 50; i++) {
+                        double[] phi = randomFeatures(length);
+                        double expected = svm.svm_predict(model, nodes(phi));
+                        assertEquals("type " + svmType + " kernel " + kernel, expected, predictor.predict(phi), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void heuristicUsesLibsvmForOtherModels() {
+        svm_model model = train(svm_parameter.C_SVC, svm_parameter.RBF);
+        assertFalse(SVRPredictor.isSupported(model));
+        SVMStateHeuristic heuristic = new SVMStateHeuristic(null, model, null);
+        assertNull(heuristic.predictor);
+
+        model = train(svm_parameter.EPSILON_SVR, svm_parameter.RBF);
+        model.SV[0][1].index = 0;  // out of order
+        assertFalse(SVRPredictor.isSupported(model));
+    }
+}
@@ -0,0 +1,64 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ClosedLoopTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(4902);
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.maxTreeDepth = 10;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 500;
+        params.K = 1.0;
+    }
+
+    @Test
+    public void searchUsesUndoAndFindsWinningMove() {
+        Game game = GameType.Connect4.createGameInstance(2, 339);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        // player 0 has three in a row along the bottom, with player 1 stacked in the last column
+        for (int column : new int[]{0, 7, 1, 7, 2, 6})
+            fm.next(state, columnAction(fm, state, column));
+        assertEquals(0, state.getCurrentPlayer());
+
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        player.setForwardModel(fm);
+        AbstractGameState before = state.copy();
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        AbstractAction chosen = player._getAction(state, actions);
+
+        assertEquals(columnAction(fm, state, 3), chosen);
+        // the state we searched from is unchanged, and we have only copied it once
+        assertEquals(before, state);
+        assertEquals(0, state.getUndoDepth());
+        SingleTreeNode root = player.getRoot(0);
+        assertEquals(1, root.copyCount);
+        assertEquals(params.budget, root.getVisits());
+        assertTrue(root.fmCallsCount > params.budget);
+    }
+
+    private AbstractAction columnAction(AbstractForwardModel fm, AbstractGameState state, int column) {
+        return fm.computeAvailableActions(state).stream()
+                .filter(a -> ((SetGridValueAction<?>) a).getX() == column)
+                .findFirst().orElseThrow();
+    }
+}
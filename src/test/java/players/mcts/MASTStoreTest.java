@@ -0,0 +1,65 @@
+package players.mcts;
+
+import org.junit.Test;
+import utilities.Pair;
+import utilities.Utils;
+
+import static org.junit.Assert.*;
+
+public class MASTStoreTest {
+
+    @Test
+    public void updatesAreKeptSeparatelyForEachPlayer() {
+        MASTStore store = new MASTStore(2);
+        store.update(0, new LMRAction("Left"), 1.0);
+        store.update(0, new LMRAction("Left"), 2.0);
+        store.update(1, new LMRAction("Left"), -1.0);
+
+        assertEquals(2, store.getCount(0, new LMRAction("Left")));
+        assertEquals(3.0, store.getSum(0, new LMRAction("Left")), 0.0);
+        assertEquals(1.5, store.getMean(0, new LMRAction("Left"), 0.0), 0.0);
+        assertEquals(-1.0, store.getMean(1, new LMRAction("Left"), 0.0), 0.0);
+        assertEquals(0, store.getCount(0, new LMRAction("Right")));
+        assertEquals(7.0, store.getMean(0, new LMRAction("Right"), 7.0), 0.0);
+        assertEquals(1, store.size(0));
+    }
+
+    @Test
+    public void decayMatchesUtils() {
+        MASTStore store = new MASTStore(1);
+        for (int i = 0; i < 7; i++)
+            store.update(0, "A", i);
+        store.update(0, "B", 4.0);
+        store.decay(0.5);
+
+        Pair<Integer, Double> expectedA = Utils.decay(new Pair<>(7, 21.0), 0.5);
+        assertEquals((int) expectedA.a, store.getCount(0, "A"));
+        assertEquals(expectedA.b, store.getSum(0, "A"), 1e-9);
+        // a count that decays to zero leaves the default value
+        assertEquals(0, store.getCount(0, "B"));
+        assertEquals(0.0, store.getSum(0, "B"), 0.0);
+        assertEquals(-1.0, store.getMean(0, "B", -1.0), 0.0);
+
+        store.decay(1.0);  // no change
+        assertEquals((int) expectedA.a, store.getCount(0, "A"));
+    }
+
+    @Test
+    public void growsAndMerges() {
+        MASTStore store = new MASTStore(1);
+        for (int i = 0; i < 1000; i++)
+            store.update(0, i, i);
+        assertEquals(1000, store.size(0));
+
+        MASTStore copy = store.copy();
+        copy.update(0, 5, 1.0);
+        assertEquals(1, store.getCount(0, 5));
+
+        store.merge(copy);
+        assertEquals(1000, store.size(0));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i == 5 ? 3 : 2, store.getCount(0, i));
+            assertEquals(i == 5 ? 11.0 : 2.0 * i, store.getSum(0, i), 0.0);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package players.mcts;
 import core.AbstractPlayer;
 import core.Game;
 import evaluation.features.StateKeyFromFeatureVector;
+import evaluation.features.StateKeyFromZobristHash;
 import evaluation.features.TurnAndPlayerOnly;
 import games.GameType;
 import games.dotsboxes.*;
@@ -90,7 +91,7 @@ public class MCGSTests {
         // and not the 4 we get if we just expand one untried action per iteration
         MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
         assertEquals(200, root.getVisits());
-        assertEquals(60, root.getTranspositionMap().size(), 10);
+        assertEquals(60, root.getTranspositionTable().size(), 10);
 
         for (int i = 0; i < 51; i++) {
             game.oneAction();
@@ -98,7 +99,7 @@ public class MCGSTests {
         // We should now have 31 actions at the root
         root = (MCGSNode) mctsPlayer.getRoot(0);
         // We now have fewer nodes, because the game is closer to the end
-        assertEquals(20, root.getTranspositionMap().size(), 10);
+        assertEquals(20, root.getTranspositionTable().size(), 10);
     }
 
     @Test
@@ -166,8 +167,8 @@ public class MCGSTests {
                 MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
                 if (root == null) continue;
                 if (game.getTick() < 30) // at this point we are at no risk of the game ending during search
-                    assertEquals(root.getVisits(), root.getTranspositionMap().size(), 1);
-                assertTrue(params.budget + 1 >= root.getTranspositionMap().size());
+                    assertEquals(root.getVisits(), root.getTranspositionTable().size(), 1);
+                assertTrue(params.budget + 1 >= root.getTranspositionTable().size());
                 List<SingleTreeNode> problemNodes = root.nonMatchingNodes(actionVisitsAddUp);
                 assertEquals(0, problemNodes.size());
                 assertEquals(0, problemNodes.size());
@@ -189,9 +190,9 @@ public class MCGSTests {
                 MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
                 if (root == null) continue;
                 if (game.getTick() < 10) // at this point we are at no risk of the game ending during search
-                    assertEquals(root.getVisits(), root.getTranspositionMap().size(), 1);
-                assertTrue(params.budget + 1 >= root.getTranspositionMap().size());
-                assertEquals(0, root.getTranspositionMap().keySet().stream().filter(s -> !s.startsWith("0-")).count());
+                    assertEquals(root.getVisits(), root.getTranspositionTable().size(), 1);
+                assertTrue(params.budget + 1 >= root.getTranspositionTable().size());
+                assertEquals(0, root.getTranspositionTable().values().stream().filter(n -> n.turnOwner != 0).count());
                 List<SingleTreeNode> problemNodes = root.nonMatchingNodes(actionVisitsAddUp);
                 assertEquals(0, problemNodes.size());
                 problemNodes = root.nonMatchingNodes(allNodesForPlayerZero);
@@ -213,9 +214,8 @@ public class MCGSTests {
             if (p == 0) {
                 MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
                 if (root == null) continue;
-                assertTrue(params.budget + 1 >= root.getTranspositionMap().size());
-                assertEquals(0, root.getTranspositionMap().keySet().stream().filter(s -> !s.startsWith("0-")).count());
-                //                        root.getTranspositionMap().get(s).openLoopState.isNotTerminalForPlayer(0)).count());
+                assertTrue(params.budget + 1 >= root.getTranspositionTable().size());
+                assertEquals(0, root.getTranspositionTable().values().stream().filter(n -> n.turnOwner != 0).count());
                 List<SingleTreeNode> problemNodes = root.nonMatchingNodes(actionVisitsAddUp);
                 assertEquals(0, problemNodes.size());
                 problemNodes = root.nonMatchingNodes(allNodesForPlayerZero);
@@ -238,8 +238,8 @@ public class MCGSTests {
                 MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
                 if (root == null) continue;
                 if (game.getTick() < 10) // at this point we are at no risk of the game ending during search
-                    assertEquals(params.budget + 1, root.getTranspositionMap().size(), 1);
-                assertTrue(params.budget + 1 >= root.getTranspositionMap().size());
+                    assertEquals(params.budget + 1, root.getTranspositionTable().size(), 1);
+                assertTrue(params.budget + 1 >= root.getTranspositionTable().size());
                 List<SingleTreeNode> problemNodes = root.nonMatchingNodes(actionVisitsAddUp);
                 assertEquals(0, problemNodes.size());
             }
@@ -256,7 +256,41 @@ public class MCGSTests {
         // We now have a total space of 7 + 6 + 5 + 5 + 4 + 3 + 2 + 1 = 33 states
         game.oneAction();
         MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
-        assertEquals(0, root.getTranspositionMap().keySet().stream().filter(s -> !s.startsWith("0-")).count());
-        assertEquals(33, root.getTranspositionMap().size());
+        assertEquals(0, root.getTranspositionTable().values().stream().filter(n -> n.turnOwner != 0).count());
+        assertEquals(33, root.getTranspositionTable().size());
+    }
+
+    @Test
+    public void BoundedTableEvictsLeastVisited() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MCGS;
+        params.MCGSStateKey = new StateKeyFromFeatureVector(new DBStateFeaturesReduced());
+        params.MCGSTableSize = 64;
+        params.budget = 1000;
+        Game game = createDotsAndBoxes(params);
+        game.oneAction();
+        MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
+        assertEquals(1000, root.getVisits());
+        assertTrue(root.getTranspositionTable().size() <= 64);
+        assertTrue(root.getTranspositionTable().getEvictions() > 0);
+        // the root is never evicted
+        assertTrue(root.getTranspositionTable().values().contains(root));
+        assertTrue(actionVisitsAddUp.test(root));
+    }
+
+    @Test
+    public void ZobristHashKey() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MCGS;
+        params.MCGSStateKey = new StateKeyFromZobristHash();
+        params.budget = 500;
+        Game game = createDotsAndBoxes(params);
+        for (int i = 0; i < 20; i++) {
+            int p = game.getGameState().getCurrentPlayer();
+            game.oneAction();
+            if (p == 0) {
+                MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
+                assertTrue(params.budget + 1 >= root.getTranspositionTable().size());
+                assertEquals(0, root.nonMatchingNodes(actionVisitsAddUp).size());
+            }
+        }
     }
 }
@@ -0,0 +1,130 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.tictactoe.TicTacToeForwardModel;
+import games.tictactoe.TicTacToeGameParameters;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RootParallelisationTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        // each tree searches with a copy of params, so any changes must be registered with setParameterValue()
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 400);
+        params.setParameterValue("rootParallelism", 4);
+    }
+
+    private Game createGame(MCTSPlayer mctsPlayer) {
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        TicTacToeGameParameters gameParams = new TicTacToeGameParameters();
+        gameParams.setRandomSeed(330245);
+        return new Game(GameType.TicTacToe, players, new TicTacToeForwardModel(), new TicTacToeGameState(gameParams, players.size()));
+    }
+
+    @Test
+    public void budgetIsSplitBetweenTreesAndStatisticsMerged() {
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        Game game = createGame(mctsPlayer);
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = game.getForwardModel().computeAvailableActions(state);
+
+        AbstractAction action = mctsPlayer.getAction(state, actions);
+        assertTrue(actions.contains(action));
+
+        SingleTreeNode root = mctsPlayer.root;
+        int[] iterations = root.getIterationsPerTree();
+        assertEquals(4, iterations.length);
+        for (int i : iterations)
+            assertEquals(100, i);
+        assertEquals(400, root.getVisits());
+        // every visit to the merged root must be accounted for by one of its actions
+        int actionVisits = root.actionValues.values().stream().mapToInt(s -> s.nVisits).sum();
+        assertEquals(400, actionVisits);
+    }
+
+    @Test
+    public void singleTreeByDefault() {
+        params.setParameterValue("rootParallelism", 1);
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        Game game = createGame(mctsPlayer);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+
+        SingleTreeNode root = mctsPlayer.root;
+        assertEquals(1, root.getIterationsPerTree().length);
+        assertEquals(root.getVisits(), root.getIterationsPerTree()[0]);
+    }
+
+    @Test
+    public void fullGameRuns() {
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        Game game = createGame(mctsPlayer);
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+        assertTrue(Arrays.stream(mctsPlayer.root.getIterationsPerTree()).allMatch(i -> i > 0));
+    }
+
+    @Test
+    public void MASTStatisticsAreDecayedOnceAndNotShared() {
+        params.setParameterValue("rolloutType", MCTSEnums.Strategies.MAST);
+        params.setParameterValue("MAST", MCTSEnums.MASTType.Both);
+        params.setParameterValue("MASTGamma", 0.5);
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        Game game = createGame(mctsPlayer);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        List<AbstractAction> firstActions = fm.computeAvailableActions(state);
+
+        fm.next(state, mctsPlayer.getAction(state, firstActions));
+        MASTStore first = mctsPlayer.MASTStats;
+        assertTrue(first.size(0) > 0);
+        MASTStore expected = first.copy();
+        expected.decay(0.5);
+
+        fm.next(state, game.getPlayers().get(1).getAction(state, fm.computeAvailableActions(state)));
+        mctsPlayer.getAction(state, fm.computeAvailableActions(state));
+        // the statistics from the first decision were decayed once, and each tree then updated its own copy
+        assertNotSame(first, mctsPlayer.MASTStats);
+        for (int p = 0; p < 2; p++) {
+            assertEquals(expected.size(p), first.size(p));
+            for (AbstractAction action : firstActions) {
+                assertEquals(expected.getCount(p, action), first.getCount(p, action));
+                assertEquals(expected.getSum(p, action), first.getSum(p, action), 0.0);
+            }
+        }
+        // and the merged statistics include those of every tree
+        int maxCount = 0;
+        for (AbstractAction action : firstActions)
+            maxCount = Math.max(maxCount, mctsPlayer.MASTStats.getCount(0, action));
+        assertTrue(maxCount > 0);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void multiTreeIsRejected() {
+        params.setParameterValue("opponentTreePolicy", MCTSEnums.OpponentTreePolicy.MultiTree);
+        params.instantiate();
+    }
+}
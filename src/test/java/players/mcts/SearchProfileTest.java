@@ -0,0 +1,82 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.Game;
+import games.GameType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.SearchProfile;
+import players.simple.RandomPlayer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static players.SearchProfile.Phase.*;
+
+public class SearchProfileTest {
+
+    private MCTSPlayer search(boolean profile) {
+        MCTSParams params = new MCTSParams();
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 200);
+        params.setParameterValue("profileSearch", profile);
+        MCTSPlayer player = new MCTSPlayer(params);
+        Game game = GameType.TicTacToe.createGameInstance(2, 42);
+        game.reset(List.of(player, new RandomPlayer()));
+        AbstractGameState state = game.getGameState();
+        player.getAction(state, game.getForwardModel().computeAvailableActions(state));
+        return player;
+    }
+
+    @Test
+    public void phasesAreRecordedForEachIteration() {
+        SingleTreeNode root = search(true).root;
+        SearchProfile profile = root.profile;
+        assertTrue(profile.enabled);
+        assertEquals(200, profile.getCalls(Selection));
+        assertEquals(200, profile.getCalls(Rollout));
+        assertEquals(200, profile.getCalls(BackUp));
+        assertEquals(200, profile.getCalls(Copy));
+        assertEquals(root.fmCallsCount, profile.getCalls(ForwardModel));
+        assertTrue(profile.getCalls(Actions) > 200);
+        assertTrue(profile.getCalls(Evaluation) >= 200);
+        assertTrue(profile.getNanos(Selection) >= profile.getNanos(Expansion));
+        assertTrue(profile.getNanos(Rollout) > 0);
+    }
+
+    @Test
+    public void nothingIsRecordedByDefault() {
+        SearchProfile profile = search(false).root.profile;
+        assertSame(SearchProfile.DISABLED, profile);
+        for (SearchProfile.Phase phase : SearchProfile.Phase.values())
+            assertEquals(0, profile.getCalls(phase));
+    }
+
+    @Test
+    public void eventsAreCommittedToJFR() throws Exception {
+        Path file = Files.createTempFile("search", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tag.SearchPhase");
+            recording.start();
+            search(true);
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("tag.SearchPhase"))
+                    .toList();
+            RecordedEvent selection = events.stream()
+                    .filter(e -> e.getString("phase").equals("Selection"))
+                    .findFirst().orElseThrow();
+            assertEquals(200, selection.getLong("calls"));
+            assertEquals(200, selection.getInt("iterations"));
+            assertTrue(selection.getDuration("time").toNanos() > 0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package players.mcts;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTests {
+
+    private MCGSNode node(int visits) {
+        MCGSNode retValue = new MCGSNode();
+        retValue.nVisits = visits;
+        return retValue;
+    }
+
+    @Test
+    public void putGetAndRemove() {
+        TranspositionTable table = new TranspositionTable(1 << 16);
+        MCGSNode[] nodes = new MCGSNode[5000];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = node(i);
+            table.put(i * 7919L, nodes[i]);
+        }
+        assertEquals(5000, table.size());
+        assertEquals(0, table.getEvictions());
+        for (int i = 0; i < nodes.length; i++)
+            assertSame(nodes[i], table.get(i * 7919L));
+        assertNull(table.get(-1L));
+
+        assertSame(nodes[10], table.remove(10 * 7919L));
+        assertFalse(table.containsKey(10 * 7919L));
+        assertEquals(4999, table.size());
+
+        Set<Long> keys = new HashSet<>();
+        table.forEach((n, key) -> keys.add(key));
+        assertEquals(4999, keys.size());
+        assertEquals(4999, table.values().size());
+    }
+
+    @Test
+    public void sizeIsBounded() {
+        TranspositionTable table = new TranspositionTable(100);
+        assertEquals(128, table.getMaxCapacity());
+        MCGSNode root = node(0);
+        root.root = root;
+        table.put(-1L, root);
+        for (int i = 0; i < 10000; i++)
+            table.put(i, node(i % 50));
+        assertTrue(table.size() <= 128);
+        assertTrue(table.getEvictions() >= 10000 - 128);
+        // root has the fewest visits, but is never evicted
+        assertSame(root, table.get(-1L));
+        // and we keep the more visited nodes
+        double meanVisits = table.values().stream().mapToInt(n -> n.nVisits).average().orElse(0.0);
+        assertTrue(meanVisits > 30);
+    }
+}
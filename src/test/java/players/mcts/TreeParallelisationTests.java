@@ -0,0 +1,160 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.tictactoe.TicTacToeForwardModel;
+import games.tictactoe.TicTacToeGameParameters;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TreeParallelisationTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        // each thread rolls out with a copy of params, so any changes must be registered with setParameterValue()
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 400);
+        params.setParameterValue("treeParallelism", 4);
+    }
+
+    private Game createGame(MCTSPlayer mctsPlayer) {
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        TicTacToeGameParameters gameParams = new TicTacToeGameParameters();
+        gameParams.setRandomSeed(330245);
+        return new Game(GameType.TicTacToe, players, new TicTacToeForwardModel(), new TicTacToeGameState(gameParams, players.size()));
+    }
+
+    @Test
+    public void budgetIsSplitBetweenThreadsOnOneTree() {
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        Game game = createGame(mctsPlayer);
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = game.getForwardModel().computeAvailableActions(state);
+
+        AbstractAction action = mctsPlayer.getAction(state, actions);
+        assertTrue(actions.contains(action));
+
+        SingleTreeNode root = mctsPlayer.root;
+        assertEquals(1, root.getIterationsPerTree().length);
+        int[] iterations = root.getIterationsPerThread();
+        assertEquals(4, iterations.length);
+        for (int i : iterations)
+            assertEquals(100, i);
+        // once every iteration is backed up, no virtual loss remains
+        assertEquals(400, root.getVisits());
+        int actionVisits = root.actionValues.values().stream().mapToInt(s -> s.nVisits).sum();
+        assertEquals(400, actionVisits);
+        assertTrue(root.fmCallsCount >= 400);
+    }
+
+    @Test
+    public void virtualLossIsRemovedExactly() {
+        params.setParameterValue("virtualLoss", 3);
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        Game game = createGame(mctsPlayer);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+
+        SingleTreeNode root = mctsPlayer.root;
+        AbstractAction action = root.actionValues.action(0);
+        ActionStats before = root.actionValues.get(action);
+        int visitsBefore = root.getVisits();
+
+        root.addVirtualLoss(action, -1.0);
+        ActionStats withLoss = root.actionValues.get(action);
+        assertEquals(visitsBefore + 3, root.getVisits());
+        assertEquals(before.nVisits + 3, withLoss.nVisits);
+        assertEquals(before.validVisits + 3, withLoss.validVisits);
+        assertEquals(before.totValue[0] - 3.0, withLoss.totValue[0], 1e-9);
+        assertEquals(before.totValue[1], withLoss.totValue[1], 0.0);
+
+        root.removeVirtualLoss(action, -1.0);
+        ActionStats after = root.actionValues.get(action);
+        assertEquals(visitsBefore, root.getVisits());
+        assertEquals(before.nVisits, after.nVisits);
+        assertEquals(before.validVisits, after.validVisits);
+        assertArrayEquals(before.totValue, after.totValue, 1e-9);
+        assertArrayEquals(before.squaredTotValue, after.squaredTotValue, 1e-9);
+    }
+
+    @Test
+    public void closedLoopWorkersDoNotShareTheRootState() {
+        params.setParameterValue("information", MCTSEnums.Information.Closed_Loop);
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        Game game = createGame(mctsPlayer);
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = game.getForwardModel().computeAvailableActions(state);
+
+        AbstractAction action = mctsPlayer.getAction(state, actions);
+        assertTrue(actions.contains(action));
+
+        // in Closed_Loop the root holds the game state itself (which getAction() gives the Random of the player),
+        // and the workers must not reseed it
+        SingleTreeNode root = mctsPlayer.root;
+        assertSame(state, root.state);
+        assertSame(mctsPlayer.getRnd(), state.getRnd());
+        assertEquals(400, root.getVisits());
+        for (int i : root.getIterationsPerThread())
+            assertEquals(100, i);
+    }
+
+    @Test
+    public void fullGameRunsWithTreeReuse() {
+        params.setParameterValue("reuseTree", true);
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        Game game = createGame(mctsPlayer);
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+        assertTrue(Arrays.stream(mctsPlayer.root.getIterationsPerThread()).allMatch(i -> i > 0));
+    }
+
+    @Test
+    public void fullGameRunsWithHiddenInformationAndMAST() {
+        params.setParameterValue("budget", 200);
+        params.setParameterValue("information", MCTSEnums.Information.Information_Set);
+        params.setParameterValue("rolloutType", MCTSEnums.Strategies.MAST);
+        params.setParameterValue("MAST", MCTSEnums.MASTType.Both);
+        params.setParameterValue("rolloutLength", 10);
+        List<AbstractPlayer> players = new ArrayList<>();
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(3024)));
+        Game game = GameType.LoveLetter.createGameInstance(3, 330245);
+        game.reset(players);
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+        assertTrue(mctsPlayer.MASTStats.size(0) > 0);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void rootAndTreeParallelisationAreRejectedTogether() {
+        params.setParameterValue("rootParallelism", 2);
+        params.instantiate();
+    }
+
+    @Test(expected = AssertionError.class)
+    public void MCGSIsRejected() {
+        params.setParameterValue("opponentTreePolicy", MCTSEnums.OpponentTreePolicy.MCGS);
+        params.instantiate();
+    }
+}
@@ -109,13 +109,13 @@ public class TreeReuseMCGSTests {
         // [as we don't prune this until the *next* decision is taken]
         // After the action is taken we confirm that the old root node no longer exists in the tree (i.e. that we do prune states)
         MCGSNode[] oldRoots = new MCGSNode[2];
-        String[] oldKeys = new String[]{"", ""};
-        String[] oldOldKeys = new String[]{"", ""};
-        String[] oldOldOldKeys = new String[]{"", ""};
-        List<Map<String, Integer>> oldVisitsMap = new ArrayList<>(2);
+        Long[] oldKeys = new Long[2];
+        Long[] oldOldKeys = new Long[2];
+        Long[] oldOldOldKeys = new Long[2];
+        List<Map<Long, Integer>> oldVisitsMap = new ArrayList<>(2);
         oldVisitsMap.add(new HashMap<>());
         oldVisitsMap.add(new HashMap<>());
-        List<Map<String, Integer>> visitsMap = new ArrayList<>(2);
+        List<Map<Long, Integer>> visitsMap = new ArrayList<>(2);
         visitsMap.add(new HashMap<>());
         visitsMap.add(new HashMap<>());
         int[] oldVisits = new int[2];
@@ -125,16 +125,19 @@ public class TreeReuseMCGSTests {
             // we need to know how many visits there were to the old state before the next decision is taken
             oldOldOldKeys[currentPlayer] = oldOldKeys[currentPlayer];
             oldOldKeys[currentPlayer] = oldKeys[currentPlayer];
-            oldKeys[currentPlayer] = paramsOne.MCGSStateKey.getKey(state);
+            oldKeys[currentPlayer] = paramsOne.MCGSStateKey.getLongKey(state);
             TestMCTSPlayer player = currentPlayer == 0 ? playerOne : playerTwo;
             oldRoots[currentPlayer] = (MCGSNode) player.root; // root from last action taken
             oldVisitsMap.remove(currentPlayer);
             oldVisitsMap.add(currentPlayer, new HashMap<>(visitsMap.get(currentPlayer)));
             if (player.root != null) {
-                oldVisits[currentPlayer] = ((MCGSNode) playerOne.getRoot(0)).getTranspositionMap().getOrDefault(oldKeys[currentPlayer], new MCGSNode()).nVisits;
+                TranspositionTable table = ((MCGSNode) playerOne.getRoot(0)).getTranspositionTable();
+                MCGSNode oldNode = table.get(oldKeys[currentPlayer]);
+                oldVisits[currentPlayer] = oldNode == null ? 0 : oldNode.nVisits;
                 visitsMap.remove(currentPlayer);
-                visitsMap.add(currentPlayer, ((MCGSNode) playerOne.getRoot(0)).getTranspositionMap().entrySet().stream()
-                        .collect(HashMap::new, (m, e) -> m.put(e.getKey(), e.getValue().nVisits), HashMap::putAll));
+                Map<Long, Integer> visits = new HashMap<>();
+                table.forEach((node, key) -> visits.put(key, node.nVisits));
+                visitsMap.add(currentPlayer, visits);
             }
             // when we take the next action we should first prune any states that were not updated last time
             // so we check that states in both trees have monotonic increasing visits
@@ -149,21 +152,21 @@ public class TreeReuseMCGSTests {
                     assertNotEquals(oldRoots[currentPlayer], newRoot);
                     if (currentPlayer == 0) {
                         // old root still contains the starting state key
-                        assertTrue(oldRoots[currentPlayer].getTranspositionMap().containsKey(oldOldKeys[currentPlayer]));
-                        boolean searchExitedGraph = !oldRoots[currentPlayer].getTranspositionMap().containsKey(oldKeys[currentPlayer]);
+                        assertTrue(oldRoots[currentPlayer].getTranspositionTable().containsKey(oldOldKeys[currentPlayer]));
+                        boolean searchExitedGraph = !oldRoots[currentPlayer].getTranspositionTable().containsKey(oldKeys[currentPlayer]);
                         if (!searchExitedGraph) {
-                            assertSame(newRoot, oldRoots[currentPlayer].getTranspositionMap().get(oldKeys[currentPlayer]));
+                            assertSame(newRoot, oldRoots[currentPlayer].getTranspositionTable().get(oldKeys[currentPlayer]));
                         }
                         System.out.println("Visits: " + newRoot.getVisits());
                         assertEquals(oldVisits[0] + paramsOne.budget, newRoot.getVisits());
                         // and check older root is no longer in the tree
-                        if (!oldOldOldKeys[currentPlayer].isEmpty()) {
-                            assertFalse(newRoot.getTranspositionMap().containsKey(oldOldOldKeys[currentPlayer]));
+                        if (oldOldOldKeys[currentPlayer] != null) {
+                            assertFalse(newRoot.getTranspositionTable().containsKey(oldOldOldKeys[currentPlayer]));
                         }
                         // then for each node that was
-                        Map<String, Integer> newVisitsMap = newRoot.getTranspositionMap().entrySet().stream()
-                                .collect(HashMap::new, (m, e) -> m.put(e.getKey(), e.getValue().nVisits), HashMap::putAll);
-                        for (String key : oldVisitsMap.get(currentPlayer).keySet()) {
+                        Map<Long, Integer> newVisitsMap = new HashMap<>();
+                        newRoot.getTranspositionTable().forEach((node, key) -> newVisitsMap.put(key, node.nVisits));
+                        for (Long key : oldVisitsMap.get(currentPlayer).keySet()) {
                             if (newVisitsMap.containsKey(key)) {
                                 assertTrue(newVisitsMap.get(key) > oldVisitsMap.get(currentPlayer).get(key));
                             }
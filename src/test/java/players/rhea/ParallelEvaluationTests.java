@@ -0,0 +1,106 @@
+package players.rhea;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.SearchProfile;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelEvaluationTests {
+
+    RHEAParams params;
+
+    @Before
+    public void setup() {
+        params = new RHEAParams();
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 20);
+        params.setParameterValue("useMAST", true);
+        params.setParameterValue("shiftLeft", true);
+    }
+
+    /**
+     * Plays the first few decisions of a game against a random player
+     *
+     * @return for each decision, the action taken followed by the values of the population
+     */
+    private List<List<Object>> play(GameType gameType, RHEAPlayer player, int decisions) {
+        player.getRnd().setSeed(9332);  // the random generator of a player is seeded from the time
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(player);
+        players.add(new RandomPlayer(new Random(3023)));
+        Game game = gameType.createGameInstance(2, 330245);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        List<List<Object>> retValue = new ArrayList<>();
+        while (state.isNotTerminal() && retValue.size() < decisions) {
+            int current = state.getCurrentPlayer();
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractAction action = players.get(current).getAction(state, actions);
+            assertTrue(actions.contains(action));
+            if (current == 0 && actions.size() > 1) {
+                List<Object> decision = new ArrayList<>();
+                decision.add(action);
+                for (RHEAIndividual individual : player.population)
+                    decision.add(individual.value);
+                retValue.add(decision);
+            }
+            fm.next(state, action);
+        }
+        return retValue;
+    }
+
+    @Test
+    public void resultsDoNotDependOnNumberOfThreads() {
+        // Can't Stop rolls dice in the forward model
+        params.setParameterValue("evaluationThreads", 2);
+        RHEAPlayer twoThreads = new RHEAPlayer((RHEAParams) params.copy());
+        List<List<Object>> expected = play(GameType.CantStop, twoThreads, 5);
+        assertEquals(5, expected.size());
+
+        params.setParameterValue("evaluationThreads", 3);
+        RHEAPlayer threeThreads = new RHEAPlayer((RHEAParams) params.copy());
+        assertEquals(expected, play(GameType.CantStop, threeThreads, 5));
+        assertEquals(20, threeThreads.numIters);
+        assertEquals(params.populationSize, threeThreads.population.size());
+    }
+
+    @Test
+    public void resultsWithCopyOnWriteDecksAreRepeatable() {
+        // Dominion shuffles its copy-on-write decks in the forward model, and crossover shares states between
+        // individuals that may be mutated on different threads
+        params.setParameterValue("evaluationThreads", 3);
+        List<List<Object>> expected = play(GameType.Dominion, new RHEAPlayer((RHEAParams) params.copy()), 4);
+        assertEquals(4, expected.size());
+        for (int run = 0; run < 3; run++)
+            assertEquals(expected, play(GameType.Dominion, new RHEAPlayer((RHEAParams) params.copy()), 4));
+    }
+
+    @Test
+    public void profilesOfWorkersAreMerged() {
+        params.setParameterValue("evaluationThreads", 4);
+        params.setParameterValue("budget", 1);
+        params.setParameterValue("shiftLeft", false);
+        params.setParameterValue("profileSearch", true);
+        RHEAPlayer player = new RHEAPlayer((RHEAParams) params.copy());
+        play(GameType.CantStop, player, 1);
+        // the initial population, then one generation of it and its children, each backed up to MAST on this thread
+        int generation = params.populationSize + params.childCount;
+        assertEquals(params.populationSize + generation, player.profile.getCalls(SearchProfile.Phase.Rollout));
+        assertEquals(generation, player.profile.getCalls(SearchProfile.Phase.BackUp));
+        assertTrue(player.profile.getCalls(SearchProfile.Phase.ForwardModel) >= generation);
+    }
+}
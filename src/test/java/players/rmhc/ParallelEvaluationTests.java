@@ -0,0 +1,74 @@
+package players.rmhc;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelEvaluationTests {
+
+    private RMHCPlayer createPlayer(int evaluationThreads) {
+        RMHCParams params = new RMHCParams();
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 10);
+        params.setParameterValue("evaluationThreads", evaluationThreads);
+        RMHCPlayer retValue = new RMHCPlayer(params);
+        retValue.getRnd().setSeed(9332);  // the random generator of a player is seeded from the time
+        return retValue;
+    }
+
+    /**
+     * Plays a game against a random player
+     *
+     * @return the actions taken by the RMHC player
+     */
+    private List<AbstractAction> play(GameType gameType, RMHCPlayer player, int decisions) {
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(player);
+        players.add(new RandomPlayer(new Random(3023)));
+        Game game = gameType.createGameInstance(2, 330245);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        List<AbstractAction> retValue = new ArrayList<>();
+        while (state.isNotTerminal() && retValue.size() < decisions) {
+            int current = state.getCurrentPlayer();
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractAction action = players.get(current).getAction(state, actions);
+            assertTrue(actions.contains(action));
+            if (current == 0 && actions.size() > 1)
+                retValue.add(action);
+            fm.next(state, action);
+        }
+        return retValue;
+    }
+
+    @Test
+    public void parallelMutationsAreRepeatable() {
+        // Can't Stop rolls dice in the forward model
+        List<AbstractAction> expected = play(GameType.CantStop, createPlayer(3), 8);
+        assertEquals(8, expected.size());
+        for (int run = 0; run < 3; run++)
+            assertEquals(expected, play(GameType.CantStop, createPlayer(3), 8));
+    }
+
+    @Test
+    public void parallelMutationsOfCopyOnWriteDecksAreRepeatable() {
+        // Dominion shuffles its copy-on-write decks in the forward model
+        List<AbstractAction> expected = play(GameType.Dominion, createPlayer(3), 6);
+        assertEquals(6, expected.size());
+        for (int run = 0; run < 3; run++)
+            assertEquals(expected, play(GameType.Dominion, createPlayer(3), 6));
+    }
+}